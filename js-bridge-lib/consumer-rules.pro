@@ -0,0 +1,9 @@
+# Generated method dispatchers and indexes are looked up by name from the module class
+-keep class * implements com.sanyinchen.jsbridge.module.impl.java.NativeMethodDispatcher { <init>(); }
+-keep class * implements com.sanyinchen.jsbridge.module.impl.java.NativeMethodIndex { <init>(); }
+# Modules with a generated dispatcher keep their name and package for that lookup
+-if class **$$MethodDispatcher
+-keepnames class <1>
+# Generated JS module implementations are looked up by the name of their interface
+-keepnames interface * extends com.sanyinchen.jsbridge.module.js.JavaScriptModule
+-keep class * implements com.sanyinchen.jsbridge.module.js.JavaScriptModule { <init>(com.sanyinchen.jsbridge.base.JsBridgeInstance); }
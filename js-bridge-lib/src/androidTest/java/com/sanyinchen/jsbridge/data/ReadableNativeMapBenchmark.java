@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.data;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.facebook.soloader.SoLoader;
+import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the three ways a {@link ReadableNativeMap} can be read: the HashMap mode (the
+ * default), the native accessor ({@link ReadableNativeMap#setUseNativeAccessor}) and the snapshot
+ * ({@link ReadableNativeMap#setUseSnapshotAccessor}). Needs the native library, so it runs on a
+ * device:
+ *
+ * <pre>
+ *   ./gradlew :js-bridge-lib:connectedAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.sanyinchen.jsbridge.data.ReadableNativeMapBenchmark
+ * </pre>
+ *
+ * Like a JMH benchmark, each case is warmed up before it's measured and reports the median of its
+ * measured runs, in ns per map, to logcat under {@link #TAG}. Every run reads maps it hasn't read
+ * before, so the import each mode does on the first read is part of the time.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReadableNativeMapBenchmark {
+
+    private static final String TAG = "ReadableNativeMapBenchmark";
+    private static final int KEY_COUNT = 24;
+    private static final int MAPS_PER_RUN = 500;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 15;
+    private static final String[] KEYS = new String[KEY_COUNT];
+
+    static {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            KEYS[i] = "key" + i;
+        }
+    }
+
+    private enum Mode {
+        HASH_MAP,
+        NATIVE_ACCESSOR,
+        SNAPSHOT,
+    }
+
+    private boolean mUseMapNativeAccessor;
+    private boolean mUseMapSnapshotAccessor;
+
+    @Before
+    public void setUp() {
+        SoLoader.init(InstrumentationRegistry.getInstrumentation().getTargetContext(), false);
+        SoLoader.loadLibrary("js-bridge");
+        mUseMapNativeAccessor = ReactFeatureFlags.useMapNativeAccessor;
+        mUseMapSnapshotAccessor = ReactFeatureFlags.useMapSnapshotAccessor;
+    }
+
+    @After
+    public void tearDown() {
+        ReactFeatureFlags.useMapNativeAccessor = mUseMapNativeAccessor;
+        ReactFeatureFlags.useMapSnapshotAccessor = mUseMapSnapshotAccessor;
+    }
+
+    /**
+     * Reads a single key of each map, like a module picking one option out of its arguments.
+     */
+    @Test
+    public void readOneKey() {
+        for (Mode mode : Mode.values()) {
+            report("readOneKey", mode, measure(mode, 1, 1));
+        }
+    }
+
+    /**
+     * Reads every key of each map once, like a module converting its arguments.
+     */
+    @Test
+    public void readEveryKey() {
+        for (Mode mode : Mode.values()) {
+            report("readEveryKey", mode, measure(mode, KEY_COUNT, 1));
+        }
+    }
+
+    /**
+     * Reads every key of each map ten times, where the modes that import the map once pay off.
+     */
+    @Test
+    public void readEveryKeyTenTimes() {
+        for (Mode mode : Mode.values()) {
+            report("readEveryKeyTenTimes", mode, measure(mode, KEY_COUNT, 10));
+        }
+    }
+
+    /**
+     * @return the median time to read {@code keyCount} keys {@code passes} times, per map
+     */
+    private static double measure(Mode mode, int keyCount, int passes) {
+        ReadableNativeMap.setUseNativeAccessor(mode == Mode.NATIVE_ACCESSOR);
+        ReadableNativeMap.setUseSnapshotAccessor(mode == Mode.SNAPSHOT);
+        double[] nanosPerMap = new double[MEASURED_RUNS];
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            ReadableNativeMap[] maps = new ReadableNativeMap[MAPS_PER_RUN];
+            for (int i = 0; i < MAPS_PER_RUN; i++) {
+                maps[i] = createMap();
+            }
+            long checksum = 0;
+            long startNanos = System.nanoTime();
+            for (ReadableNativeMap map : maps) {
+                for (int pass = 0; pass < passes; pass++) {
+                    checksum += read(map, keyCount);
+                }
+            }
+            long nanos = System.nanoTime() - startNanos;
+            // Keeps the reads from being optimized away, and checks every mode reads the same
+            assertEquals(expectedChecksum(keyCount) * passes * MAPS_PER_RUN, checksum);
+            if (run >= WARMUP_RUNS) {
+                nanosPerMap[run - WARMUP_RUNS] = (double) nanos / MAPS_PER_RUN;
+            }
+        }
+        Arrays.sort(nanosPerMap);
+        return nanosPerMap[MEASURED_RUNS / 2];
+    }
+
+    /**
+     * A map like the options of a module call: numbers, booleans, strings and a child map.
+     */
+    private static ReadableNativeMap createMap() {
+        WritableNativeMap map = new WritableNativeMap();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = KEYS[i];
+            switch (i % 4) {
+                case 0:
+                    map.putInt(key, i);
+                    break;
+                case 1:
+                    map.putBoolean(key, true);
+                    break;
+                case 2:
+                    map.putString(key, "value" + i);
+                    break;
+                default:
+                    WritableNativeMap child = new WritableNativeMap();
+                    child.putInt("value", i);
+                    map.putMap(key, child);
+                    break;
+            }
+        }
+        return map;
+    }
+
+    private static long read(ReadableNativeMap map, int keyCount) {
+        long checksum = 0;
+        for (int i = 0; i < keyCount; i++) {
+            String key = KEYS[i];
+            switch (i % 4) {
+                case 0:
+                    checksum += map.getInt(key);
+                    break;
+                case 1:
+                    checksum += map.getBoolean(key) ? 1 : 0;
+                    break;
+                case 2:
+                    checksum += map.getString(key).length();
+                    break;
+                default:
+                    checksum += map.hasKey(key) ? 1 : 0;
+                    break;
+            }
+        }
+        return checksum;
+    }
+
+    private static long expectedChecksum(int keyCount) {
+        long checksum = 0;
+        for (int i = 0; i < keyCount; i++) {
+            switch (i % 4) {
+                case 0:
+                    checksum += i;
+                    break;
+                case 2:
+                    checksum += ("value" + i).length();
+                    break;
+                default:
+                    checksum += 1;
+                    break;
+            }
+        }
+        return checksum;
+    }
+
+    private static void report(String benchmark, Mode mode, double nanosPerMap) {
+        Log.i(TAG, String.format("%s %s: %.0f ns/map", benchmark, mode, nanosPerMap));
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.js;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.facebook.soloader.SoLoader;
+import com.sanyinchen.jsbridge.base.JsBridgeInstance;
+import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
+import com.sanyinchen.jsbridge.data.NativeArray;
+import com.sanyinchen.jsbridge.data.NativeContainerPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares calling a {@link JavaScriptModule} through its implementation generated by
+ * JavaScriptModuleProcessor with calling it through the {@link Proxy} fallback, in calls per
+ * second. Needs the native library to build the proxy's arguments, so it runs on a device:
+ *
+ * <pre>
+ *   ./gradlew :js-bridge-lib:connectedAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.sanyinchen.jsbridge.module.js.JavaScriptModuleBenchmark
+ * </pre>
+ *
+ * The instance the modules call into only counts the calls, so this measures what happens
+ * between the module method and the bridge: reflection and one JNI push per argument into a
+ * {@link com.sanyinchen.jsbridge.data.WritableNativeArray} for the proxy, unboxed arguments in
+ * {@link JavaScriptModuleArguments} for the generated implementation. The single JNI call that
+ * hands the encoded arguments to JsBridgeInstanceImpl::jniCallJSFunctionEncoded, and the call
+ * into JS that both paths end with, aren't part of it. Results go to logcat under {@link #TAG}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class JavaScriptModuleBenchmark {
+
+    private static final String TAG = "JavaScriptModuleBenchmark";
+    private static final int CALLS_PER_RUN = 20000;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 15;
+
+    /**
+     * A module like the event emitters apps call the most.
+     */
+    public interface BenchmarkModule extends JavaScriptModule {
+        void update(int id, double value, String tag, boolean isFinal);
+    }
+
+    private boolean mUseGeneratedJSModules;
+    private int mEncodedCalls;
+    private int mProxyCalls;
+
+    @Before
+    public void setUp() {
+        SoLoader.init(InstrumentationRegistry.getInstrumentation().getTargetContext(), false);
+        SoLoader.loadLibrary("js-bridge");
+        mUseGeneratedJSModules = ReactFeatureFlags.useGeneratedJSModules;
+    }
+
+    @After
+    public void tearDown() {
+        ReactFeatureFlags.useGeneratedJSModules = mUseGeneratedJSModules;
+    }
+
+    @Test
+    public void callsPerSecond() {
+        ReactFeatureFlags.useGeneratedJSModules = false;
+        BenchmarkModule proxy = createModule();
+        assertTrue(Proxy.isProxyClass(proxy.getClass()));
+        ReactFeatureFlags.useGeneratedJSModules = true;
+        BenchmarkModule generated = createModule();
+        assertFalse(
+                "The annotation processor didn't run over the instrumented tests",
+                Proxy.isProxyClass(generated.getClass()));
+
+        double proxyCallsPerSecond = measure(proxy);
+        double generatedCallsPerSecond = measure(generated);
+        int calls = (WARMUP_RUNS + MEASURED_RUNS) * CALLS_PER_RUN;
+        assertEquals(calls, mProxyCalls);
+        assertEquals(calls, mEncodedCalls);
+        Log.i(TAG, String.format("proxy: %.0f calls/s", proxyCallsPerSecond));
+        Log.i(TAG, String.format("generated: %.0f calls/s", generatedCallsPerSecond));
+    }
+
+    private BenchmarkModule createModule() {
+        return new JavaScriptModuleRegistry().getJavaScriptModule(
+                createInstance(), BenchmarkModule.class);
+    }
+
+    /**
+     * @return the median calls per second of the runs
+     */
+    private static double measure(BenchmarkModule module) {
+        double[] callsPerSecond = new double[MEASURED_RUNS];
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < CALLS_PER_RUN; i++) {
+                module.update(i, i * 0.5, "tag", (i & 1) == 0);
+            }
+            long nanos = System.nanoTime() - startNanos;
+            if (run >= WARMUP_RUNS) {
+                callsPerSecond[run - WARMUP_RUNS] = CALLS_PER_RUN * 1e9 / nanos;
+            }
+        }
+        Arrays.sort(callsPerSecond);
+        return callsPerSecond[MEASURED_RUNS / 2];
+    }
+
+    /**
+     * @return an instance that counts the calls of the modules and drops them, recycling the
+     * arrays the proxy builds the way the bridge does once it sent them
+     */
+    private JsBridgeInstance createInstance() {
+        return (JsBridgeInstance) Proxy.newProxyInstance(
+                JsBridgeInstance.class.getClassLoader(),
+                new Class[]{JsBridgeInstance.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("internJSName")) {
+                            return 0;
+                        }
+                        if (method.getName().equals("callFunction")) {
+                            if (args[2] instanceof JavaScriptModuleArguments) {
+                                mEncodedCalls++;
+                            } else {
+                                mProxyCalls++;
+                                NativeContainerPool.recycle((NativeArray) args[2]);
+                            }
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
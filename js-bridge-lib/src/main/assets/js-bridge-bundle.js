@@ -106,7 +106,7 @@ eval("/* WEBPACK VAR INJECTION */(function(global) {/**\n * Copyright (c) Facebo
 /***/ (function(module, exports, __webpack_require__) {
 
 "use strict";
-eval("/* WEBPACK VAR INJECTION */(function(global) {/**\n * Copyright (c) Facebook, Inc. and its affiliates.\n *\n * This source code is licensed under the MIT license found in the\n * LICENSE file in the root directory of this source tree.\n *\n * \n * @format\n */\n\n\n\nfunction _toConsumableArray(r) { return _arrayWithoutHoles(r) || _iterableToArray(r) || _unsupportedIterableToArray(r) || _nonIterableSpread(); }\nfunction _nonIterableSpread() { throw new TypeError(\"Invalid attempt to spread non-iterable instance.\\nIn order to be iterable, non-array objects must have a [Symbol.iterator]() method.\"); }\nfunction _unsupportedIterableToArray(r, a) { if (r) { if (\"string\" == typeof r) return _arrayLikeToArray(r, a); var t = {}.toString.call(r).slice(8, -1); return \"Object\" === t && r.constructor && (t = r.constructor.name), \"Map\" === t || \"Set\" === t ? Array.from(r) : \"Arguments\" === t || /^(?:Ui|I)nt(?:8|16|32)(?:Clamped)?Array$/.test(t) ? _arrayLikeToArray(r, a) : void 0; } }\nfunction _iterableToArray(r) { if (\"undefined\" != typeof Symbol && null != r[Symbol.iterator] || null != r[\"@@iterator\"]) return Array.from(r); }\nfunction _arrayWithoutHoles(r) { if (Array.isArray(r)) return _arrayLikeToArray(r); }\nfunction _arrayLikeToArray(r, a) { (null == a || a > r.length) && (a = r.length); for (var e = 0, n = Array(a); e < a; e++) n[e] = r[e]; return n; }\nfunction _typeof(o) { \"@babel/helpers - typeof\"; return _typeof = \"function\" == typeof Symbol && \"symbol\" == typeof Symbol.iterator ? function (o) { return typeof o; } : function (o) { return o && \"function\" == typeof Symbol && o.constructor === Symbol && o !== Symbol.prototype ? \"symbol\" : typeof o; }, _typeof(o); }\nfunction _classCallCheck(a, n) { if (!(a instanceof n)) throw new TypeError(\"Cannot call a class as a function\"); }\nfunction _defineProperties(e, r) { for (var t = 0; t < r.length; t++) { var o = r[t]; o.enumerable = o.enumerable || !1, o.configurable = !0, \"value\" in o && (o.writable = !0), Object.defineProperty(e, _toPropertyKey(o.key), o); } }\nfunction _createClass(e, r, t) { return r && _defineProperties(e.prototype, r), t && _defineProperties(e, t), Object.defineProperty(e, \"prototype\", { writable: !1 }), e; }\nfunction _toPropertyKey(t) { var i = _toPrimitive(t, \"string\"); return \"symbol\" == _typeof(i) ? i : i + \"\"; }\nfunction _toPrimitive(t, r) { if (\"object\" != _typeof(t) || !t) return t; var e = t[Symbol.toPrimitive]; if (void 0 !== e) { var i = e.call(t, r || \"default\"); if (\"object\" != _typeof(i)) return i; throw new TypeError(\"@@toPrimitive must return a primitive value.\"); } return (\"string\" === r ? String : Number)(t); }\nvar ErrorUtils = __webpack_require__(/*! ../polyfills/error-guard */ \"./polyfills/error-guard.js\");\nvar Systrace = __webpack_require__(/*! ../performance/Systrace */ \"./performance/Systrace.js\");\nvar invariant = __webpack_require__(/*! invariant */ \"./node_modules/invariant/browser.js\");\nvar stringifySafe = __webpack_require__(/*! ../polyfills/stringifySafe */ \"./polyfills/stringifySafe.js\");\nvar TO_JS = 0;\nvar TO_NATIVE = 1;\nvar MODULE_IDS = 0;\nvar METHOD_IDS = 1;\nvar PARAMS = 2;\nvar MIN_TIME_BETWEEN_FLUSHES_MS = 5;\n\n// eslint-disable-next-line no-bitwise\nvar TRACE_TAG_REACT_APPS = 1 << 17;\nvar DEBUG_INFO_LIMIT = 32;\nvar MessageQueue = /*#__PURE__*/function () {\n  function MessageQueue() {\n    _classCallCheck(this, MessageQueue);\n    this._lazyCallableModules = {};\n    this._queue = [[], [], [], 0];\n    this._successCallbacks = {};\n    this._failureCallbacks = {};\n    this._callID = 0;\n    this._lastFlush = 0;\n    this._eventLoopStartTime = Date.now();\n    this._immediatesCallback = null;\n    if (__DEV__) {\n      this._debugInfo = {};\n      this._remoteModuleTable = {};\n      this._remoteMethodTable = {};\n    }\n    this.callFunctionReturnFlushedQueue = this.callFunctionReturnFlushedQueue.bind(this);\n    this.callFunctionReturnResultAndFlushedQueue = this.callFunctionReturnResultAndFlushedQueue.bind(this);\n    this.flushedQueue = this.flushedQueue.bind(this);\n    this.invokeCallbackAndReturnFlushedQueue = this.invokeCallbackAndReturnFlushedQueue.bind(this);\n  }\n\n  /**\n   * Public APIs\n   */\n  return _createClass(MessageQueue, [{\n    key: \"callFunctionReturnFlushedQueue\",\n    value: function callFunctionReturnFlushedQueue(module, method, args) {\n      var _this = this;\n      this.__guard(function () {\n        _this.__callFunction(module, method, args);\n      });\n      return this.flushedQueue();\n    }\n  }, {\n    key: \"callFunctionReturnResultAndFlushedQueue\",\n    value: function callFunctionReturnResultAndFlushedQueue(module, method, args) {\n      var _this2 = this;\n      var result;\n      this.__guard(function () {\n        result = _this2.__callFunction(module, method, args);\n      });\n      return [result, this.flushedQueue()];\n    }\n  }, {\n    key: \"invokeCallbackAndReturnFlushedQueue\",\n    value: function invokeCallbackAndReturnFlushedQueue(cbID, args) {\n      var _this3 = this;\n      this.__guard(function () {\n        _this3.__invokeCallback(cbID, args);\n      });\n      return this.flushedQueue();\n    }\n  }, {\n    key: \"flushedQueue\",\n    value: function flushedQueue() {\n      var _this4 = this;\n      this.__guard(function () {\n        _this4.__callImmediates();\n      });\n      var queue = this._queue;\n      this._queue = [[], [], [], this._callID];\n      return queue[0].length ? queue : null;\n    }\n  }, {\n    key: \"getEventLoopRunningTime\",\n    value: function getEventLoopRunningTime() {\n      return Date.now() - this._eventLoopStartTime;\n    }\n  }, {\n    key: \"registerCallableModule\",\n    value: function registerCallableModule(name, module) {\n      this._lazyCallableModules[name] = function () {\n        return module;\n      };\n    }\n  }, {\n    key: \"registerLazyCallableModule\",\n    value: function registerLazyCallableModule(name, factory) {\n      var module;\n      var getValue = factory;\n      this._lazyCallableModules[name] = function () {\n        if (getValue) {\n          module = getValue();\n          getValue = null;\n        }\n        return module;\n      };\n    }\n  }, {\n    key: \"getCallableModule\",\n    value: function getCallableModule(name) {\n      var getValue = this._lazyCallableModules[name];\n      return getValue ? getValue() : null;\n    }\n  }, {\n    key: \"enqueueNativeCall\",\n    value: function enqueueNativeCall(moduleID, methodID, params, onFail, onSucc) {\n      if (onFail || onSucc) {\n        if (__DEV__) {\n          this._debugInfo[this._callID] = [moduleID, methodID];\n          if (this._callID > DEBUG_INFO_LIMIT) {\n            delete this._debugInfo[this._callID - DEBUG_INFO_LIMIT];\n          }\n        }\n        // Encode callIDs into pairs of callback identifiers by shifting left and using the rightmost bit\n        // to indicate fail (0) or success (1)\n        // eslint-disable-next-line no-bitwise\n        onFail && params.push(this._callID << 1);\n        // eslint-disable-next-line no-bitwise\n        onSucc && params.push(this._callID << 1 | 1);\n        this._successCallbacks[this._callID] = onSucc;\n        this._failureCallbacks[this._callID] = onFail;\n      }\n      if (__DEV__) {\n        global.nativeTraceBeginAsyncFlow && global.nativeTraceBeginAsyncFlow(TRACE_TAG_REACT_APPS, 'native', this._callID);\n      }\n      this._callID++;\n      this._queue[MODULE_IDS].push(moduleID);\n      this._queue[METHOD_IDS].push(methodID);\n      if (__DEV__) {\n        // Validate that parameters passed over the bridge are\n        // folly-convertible.  As a special case, if a prop value is a\n        // function it is permitted here, and special-cased in the\n        // conversion.\n        var _isValidArgument = function isValidArgument(val) {\n          var t = _typeof(val);\n          if (t === 'undefined' || t === 'null' || t === 'boolean' || t === 'string') {\n            return true;\n          }\n          if (t === 'number') {\n            return isFinite(val);\n          }\n          if (t === 'function' || t !== 'object') {\n            return false;\n          }\n          if (Array.isArray(val)) {\n            return val.every(_isValidArgument);\n          }\n          for (var k in val) {\n            if (typeof val[k] !== 'function' && !_isValidArgument(val[k])) {\n              return false;\n            }\n          }\n          return true;\n        };\n\n        // Replacement allows normally non-JSON-convertible values to be\n        // seen.  There is ambiguity with string values, but in context,\n        // it should at least be a strong hint.\n        var replacer = function replacer(key, val) {\n          var t = _typeof(val);\n          if (t === 'function') {\n            return '<<Function ' + val.name + '>>';\n          } else if (t === 'number' && !isFinite(val)) {\n            return '<<' + val.toString() + '>>';\n          } else {\n            return val;\n          }\n        };\n\n        // Note that JSON.stringify\n        invariant(_isValidArgument(params), '%s is not usable as a native method argument', JSON.stringify(params, replacer));\n\n        // The params object should not be mutated after being queued\n        // deepFreezeAndThrowOnMutationInDev((params: any));\n      }\n      this._queue[PARAMS].push(params);\n      var now = Date.now();\n      if (global.nativeFlushQueueImmediate && now - this._lastFlush >= MIN_TIME_BETWEEN_FLUSHES_MS) {\n        var queue = this._queue;\n        this._queue = [[], [], [], this._callID];\n        this._lastFlush = now;\n        global.nativeFlushQueueImmediate(queue);\n      }\n      Systrace.counterEvent('pending_js_to_native_queue', this._queue[0].length);\n      if (__DEV__ && this.__spy && isFinite(moduleID)) {\n        this.__spy({\n          type: TO_NATIVE,\n          module: this._remoteModuleTable[moduleID],\n          method: this._remoteMethodTable[moduleID][methodID],\n          args: params\n        });\n      } else if (this.__spy) {\n        this.__spy({\n          type: TO_NATIVE,\n          module: moduleID + '',\n          method: methodID,\n          args: params\n        });\n      }\n    }\n  }, {\n    key: \"createDebugLookup\",\n    value: function createDebugLookup(moduleID, name, methods) {\n      if (__DEV__) {\n        this._remoteModuleTable[moduleID] = name;\n        this._remoteMethodTable[moduleID] = methods;\n      }\n    }\n\n    // For JSTimers to register its callback. Otherwise a circular dependency\n    // between modules is introduced. Note that only one callback may be\n    // registered at a time.\n  }, {\n    key: \"setImmediatesCallback\",\n    value: function setImmediatesCallback(fn) {\n      this._immediatesCallback = fn;\n    }\n\n    /**\n     * Private methods\n     */\n  }, {\n    key: \"__guard\",\n    value: function __guard(fn) {\n      if (this.__shouldPauseOnThrow()) {\n        fn();\n      } else {\n        try {\n          fn();\n        } catch (error) {\n          ErrorUtils.reportFatalError(error);\n        }\n      }\n    }\n\n    // MessageQueue installs a global handler to catch all exceptions where JS users can register their own behavior\n    // This handler makes all exceptions to be propagated from inside MessageQueue rather than by the VM at their origin\n    // This makes stacktraces to be placed at MessageQueue rather than at where they were launched\n    // The parameter DebuggerInternal.shouldPauseOnThrow is used to check before catching all exceptions and\n    // can be configured by the VM or any Inspector\n  }, {\n    key: \"__shouldPauseOnThrow\",\n    value: function __shouldPauseOnThrow() {\n      return (\n        // $FlowFixMe\n        typeof DebuggerInternal !== 'undefined' && DebuggerInternal.shouldPauseOnThrow === true // eslint-disable-line no-undef\n      );\n    }\n  }, {\n    key: \"__callImmediates\",\n    value: function __callImmediates() {\n      Systrace.beginEvent('JSTimers.callImmediates()');\n      if (this._immediatesCallback != null) {\n        this._immediatesCallback();\n      }\n      Systrace.endEvent();\n    }\n  }, {\n    key: \"__callFunction\",\n    value: function __callFunction(module, method, args) {\n      this._lastFlush = Date.now();\n      this._eventLoopStartTime = this._lastFlush;\n      if (__DEV__ || this.__spy) {\n        Systrace.beginEvent(\"\".concat(module, \".\").concat(method, \"(\").concat(stringifySafe(args), \")\"));\n      } else {\n        Systrace.beginEvent(\"\".concat(module, \".\").concat(method, \"(...)\"));\n      }\n      if (this.__spy) {\n        this.__spy({\n          type: TO_JS,\n          module: module,\n          method: method,\n          args: args\n        });\n      }\n      var moduleMethods = this.getCallableModule(module);\n      invariant(!!moduleMethods, 'Module %s is not a registered callable module (calling %s)', module, method);\n      invariant(!!moduleMethods[method], 'Method %s does not exist on module %s', method, module);\n      var result = moduleMethods[method].apply(moduleMethods, args);\n      Systrace.endEvent();\n      return result;\n    }\n  }, {\n    key: \"__invokeCallback\",\n    value: function __invokeCallback(cbID, args) {\n      this._lastFlush = Date.now();\n      this._eventLoopStartTime = this._lastFlush;\n\n      // The rightmost bit of cbID indicates fail (0) or success (1), the other bits are the callID shifted left.\n      // eslint-disable-next-line no-bitwise\n      var callID = cbID >>> 1;\n      // eslint-disable-next-line no-bitwise\n      var isSuccess = cbID & 1;\n      var callback = isSuccess ? this._successCallbacks[callID] : this._failureCallbacks[callID];\n      if (__DEV__) {\n        var debug = this._debugInfo[callID];\n        var _module = debug && this._remoteModuleTable[debug[0]];\n        var method = debug && this._remoteMethodTable[debug[0]][debug[1]];\n        if (!callback) {\n          var errorMessage = \"Callback with id \".concat(cbID, \": \").concat(_module, \".\").concat(method, \"() not found\");\n          if (method) {\n            errorMessage = \"The callback \".concat(method, \"() exists in module \").concat(_module, \", \") + 'but only one callback may be registered to a function in a native module.';\n          }\n          invariant(callback, errorMessage);\n        }\n        var profileName = debug ? '<callback for ' + _module + '.' + method + '>' : cbID;\n        if (callback && this.__spy) {\n          this.__spy({\n            type: TO_JS,\n            module: null,\n            method: profileName,\n            args: args\n          });\n        }\n        Systrace.beginEvent(\"MessageQueue.invokeCallback(\".concat(profileName, \", \").concat(stringifySafe(args), \")\"));\n      }\n      if (!callback) {\n        return;\n      }\n      delete this._successCallbacks[callID];\n      delete this._failureCallbacks[callID];\n      callback.apply(void 0, _toConsumableArray(args));\n      if (__DEV__) {\n        Systrace.endEvent();\n      }\n    }\n  }], [{\n    key: \"spy\",\n    value: function spy(spyOrToggle) {\n      if (spyOrToggle === true) {\n        MessageQueue.prototype.__spy = function (info) {\n          console.log(\"\".concat(info.type === TO_JS ? 'N->JS' : 'JS->N', \" : \") + \"\".concat(info.module ? info.module + '.' : '').concat(info.method) + \"(\".concat(JSON.stringify(info.args), \")\"));\n        };\n      } else if (spyOrToggle === false) {\n        MessageQueue.prototype.__spy = null;\n      } else {\n        MessageQueue.prototype.__spy = spyOrToggle;\n      }\n    }\n  }]);\n}();\nmodule.exports = MessageQueue;\n/* WEBPACK VAR INJECTION */}.call(this, __webpack_require__(/*! ./../node_modules/webpack/buildin/global.js */ \"./node_modules/webpack/buildin/global.js\")))\n\n//# sourceURL=webpack:///./bridge/MessageQueue.js?");
+eval("/* WEBPACK VAR INJECTION */(function(global) {/**\n * Copyright (c) Facebook, Inc. and its affiliates.\n *\n * This source code is licensed under the MIT license found in the\n * LICENSE file in the root directory of this source tree.\n *\n * \n * @format\n */\n\n\n\nfunction _toConsumableArray(r) { return _arrayWithoutHoles(r) || _iterableToArray(r) || _unsupportedIterableToArray(r) || _nonIterableSpread(); }\nfunction _nonIterableSpread() { throw new TypeError(\"Invalid attempt to spread non-iterable instance.\\nIn order to be iterable, non-array objects must have a [Symbol.iterator]() method.\"); }\nfunction _unsupportedIterableToArray(r, a) { if (r) { if (\"string\" == typeof r) return _arrayLikeToArray(r, a); var t = {}.toString.call(r).slice(8, -1); return \"Object\" === t && r.constructor && (t = r.constructor.name), \"Map\" === t || \"Set\" === t ? Array.from(r) : \"Arguments\" === t || /^(?:Ui|I)nt(?:8|16|32)(?:Clamped)?Array$/.test(t) ? _arrayLikeToArray(r, a) : void 0; } }\nfunction _iterableToArray(r) { if (\"undefined\" != typeof Symbol && null != r[Symbol.iterator] || null != r[\"@@iterator\"]) return Array.from(r); }\nfunction _arrayWithoutHoles(r) { if (Array.isArray(r)) return _arrayLikeToArray(r); }\nfunction _arrayLikeToArray(r, a) { (null == a || a > r.length) && (a = r.length); for (var e = 0, n = Array(a); e < a; e++) n[e] = r[e]; return n; }\nfunction _typeof(o) { \"@babel/helpers - typeof\"; return _typeof = \"function\" == typeof Symbol && \"symbol\" == typeof Symbol.iterator ? function (o) { return typeof o; } : function (o) { return o && \"function\" == typeof Symbol && o.constructor === Symbol && o !== Symbol.prototype ? \"symbol\" : typeof o; }, _typeof(o); }\nfunction _classCallCheck(a, n) { if (!(a instanceof n)) throw new TypeError(\"Cannot call a class as a function\"); }\nfunction _defineProperties(e, r) { for (var t = 0; t < r.length; t++) { var o = r[t]; o.enumerable = o.enumerable || !1, o.configurable = !0, \"value\" in o && (o.writable = !0), Object.defineProperty(e, _toPropertyKey(o.key), o); } }\nfunction _createClass(e, r, t) { return r && _defineProperties(e.prototype, r), t && _defineProperties(e, t), Object.defineProperty(e, \"prototype\", { writable: !1 }), e; }\nfunction _toPropertyKey(t) { var i = _toPrimitive(t, \"string\"); return \"symbol\" == _typeof(i) ? i : i + \"\"; }\nfunction _toPrimitive(t, r) { if (\"object\" != _typeof(t) || !t) return t; var e = t[Symbol.toPrimitive]; if (void 0 !== e) { var i = e.call(t, r || \"default\"); if (\"object\" != _typeof(i)) return i; throw new TypeError(\"@@toPrimitive must return a primitive value.\"); } return (\"string\" === r ? String : Number)(t); }\nvar ErrorUtils = __webpack_require__(/*! ../polyfills/error-guard */ \"./polyfills/error-guard.js\");\nvar Systrace = __webpack_require__(/*! ../performance/Systrace */ \"./performance/Systrace.js\");\nvar invariant = __webpack_require__(/*! invariant */ \"./node_modules/invariant/browser.js\");\nvar stringifySafe = __webpack_require__(/*! ../polyfills/stringifySafe */ \"./polyfills/stringifySafe.js\");\nvar TO_JS = 0;\nvar TO_NATIVE = 1;\nvar MODULE_IDS = 0;\nvar METHOD_IDS = 1;\nvar PARAMS = 2;\nvar MIN_TIME_BETWEEN_FLUSHES_MS = 5;\n\n// eslint-disable-next-line no-bitwise\nvar TRACE_TAG_REACT_APPS = 1 << 17;\nvar DEBUG_INFO_LIMIT = 32;\nvar MessageQueue = /*#__PURE__*/function () {\n  function MessageQueue() {\n    _classCallCheck(this, MessageQueue);\n    this._lazyCallableModules = {};\n    this._queue = [[], [], [], 0];\n    this._successCallbacks = {};\n    this._failureCallbacks = {};\n    this._callID = 0;\n    this._lastFlush = 0;\n    this._eventLoopStartTime = Date.now();\n    this._immediatesCallback = null;\n    if (__DEV__) {\n      this._debugInfo = {};\n      this._remoteModuleTable = {};\n      this._remoteMethodTable = {};\n    }\n    this.callFunctionReturnFlushedQueue = this.callFunctionReturnFlushedQueue.bind(this);\n    this.callFunctionReturnResultAndFlushedQueue = this.callFunctionReturnResultAndFlushedQueue.bind(this);\n    this.callFunctionsReturnFlushedQueue = this.callFunctionsReturnFlushedQueue.bind(this);\n    this.flushedQueue = this.flushedQueue.bind(this);\n    this.invokeCallbackAndReturnFlushedQueue = this.invokeCallbackAndReturnFlushedQueue.bind(this);\n  }\n\n  /**\n   * Public APIs\n   */\n  return _createClass(MessageQueue, [{\n    key: \"callFunctionReturnFlushedQueue\",\n    value: function callFunctionReturnFlushedQueue(module, method, args) {\n      var _this = this;\n      this.__guard(function () {\n        _this.__callFunction(module, method, args);\n      });\n      return this.flushedQueue();\n    }\n  }, {\n    key: \"callFunctionsReturnFlushedQueue\",\n    value: function callFunctionsReturnFlushedQueue(calls) {\n      var _this5 = this;\n      var _loop = function _loop(i) {\n        var call = calls[i];\n        _this5.__guard(function () {\n          _this5.__callFunction(call[0], call[1], call[2]);\n        });\n      };\n      for (var i = 0; i < calls.length; i++) {\n        _loop(i);\n      }\n      return this.flushedQueue();\n    }\n  }, {\n    key: \"callFunctionReturnResultAndFlushedQueue\",\n    value: function callFunctionReturnResultAndFlushedQueue(module, method, args) {\n      var _this2 = this;\n      var result;\n      this.__guard(function () {\n        result = _this2.__callFunction(module, method, args);\n      });\n      return [result, this.flushedQueue()];\n    }\n  }, {\n    key: \"invokeCallbackAndReturnFlushedQueue\",\n    value: function invokeCallbackAndReturnFlushedQueue(cbID, args) {\n      var _this3 = this;\n      this.__guard(function () {\n        _this3.__invokeCallback(cbID, args);\n      });\n      return this.flushedQueue();\n    }\n  }, {\n    key: \"flushedQueue\",\n    value: function flushedQueue() {\n      var _this4 = this;\n      this.__guard(function () {\n        _this4.__callImmediates();\n      });\n      var queue = this._queue;\n      this._queue = [[], [], [], this._callID];\n      return queue[0].length ? queue : null;\n    }\n  }, {\n    key: \"getEventLoopRunningTime\",\n    value: function getEventLoopRunningTime() {\n      return Date.now() - this._eventLoopStartTime;\n    }\n  }, {\n    key: \"registerCallableModule\",\n    value: function registerCallableModule(name, module) {\n      this._lazyCallableModules[name] = function () {\n        return module;\n      };\n    }\n  }, {\n    key: \"registerLazyCallableModule\",\n    value: function registerLazyCallableModule(name, factory) {\n      var module;\n      var getValue = factory;\n      this._lazyCallableModules[name] = function () {\n        if (getValue) {\n          module = getValue();\n          getValue = null;\n        }\n        return module;\n      };\n    }\n  }, {\n    key: \"getCallableModule\",\n    value: function getCallableModule(name) {\n      var getValue = this._lazyCallableModules[name];\n      return getValue ? getValue() : null;\n    }\n  }, {\n    key: \"enqueueNativeCall\",\n    value: function enqueueNativeCall(moduleID, methodID, params, onFail, onSucc) {\n      if (onFail || onSucc) {\n        if (__DEV__) {\n          this._debugInfo[this._callID] = [moduleID, methodID];\n          if (this._callID > DEBUG_INFO_LIMIT) {\n            delete this._debugInfo[this._callID - DEBUG_INFO_LIMIT];\n          }\n        }\n        // Encode callIDs into pairs of callback identifiers by shifting left and using the rightmost bit\n        // to indicate fail (0) or success (1)\n        // eslint-disable-next-line no-bitwise\n        onFail && params.push(this._callID << 1);\n        // eslint-disable-next-line no-bitwise\n        onSucc && params.push(this._callID << 1 | 1);\n        this._successCallbacks[this._callID] = onSucc;\n        this._failureCallbacks[this._callID] = onFail;\n      }\n      if (__DEV__) {\n        global.nativeTraceBeginAsyncFlow && global.nativeTraceBeginAsyncFlow(TRACE_TAG_REACT_APPS, 'native', this._callID);\n      }\n      this._callID++;\n      this._queue[MODULE_IDS].push(moduleID);\n      this._queue[METHOD_IDS].push(methodID);\n      if (__DEV__) {\n        // Validate that parameters passed over the bridge are\n        // folly-convertible.  As a special case, if a prop value is a\n        // function it is permitted here, and special-cased in the\n        // conversion.\n        var _isValidArgument = function isValidArgument(val) {\n          var t = _typeof(val);\n          if (t === 'undefined' || t === 'null' || t === 'boolean' || t === 'string') {\n            return true;\n          }\n          if (t === 'number') {\n            return isFinite(val);\n          }\n          if (t === 'function' || t !== 'object') {\n            return false;\n          }\n          if (Array.isArray(val)) {\n            return val.every(_isValidArgument);\n          }\n          for (var k in val) {\n            if (typeof val[k] !== 'function' && !_isValidArgument(val[k])) {\n              return false;\n            }\n          }\n          return true;\n        };\n\n        // Replacement allows normally non-JSON-convertible values to be\n        // seen.  There is ambiguity with string values, but in context,\n        // it should at least be a strong hint.\n        var replacer = function replacer(key, val) {\n          var t = _typeof(val);\n          if (t === 'function') {\n            return '<<Function ' + val.name + '>>';\n          } else if (t === 'number' && !isFinite(val)) {\n            return '<<' + val.toString() + '>>';\n          } else {\n            return val;\n          }\n        };\n\n        // Note that JSON.stringify\n        invariant(_isValidArgument(params), '%s is not usable as a native method argument', JSON.stringify(params, replacer));\n\n        // The params object should not be mutated after being queued\n        // deepFreezeAndThrowOnMutationInDev((params: any));\n      }\n      this._queue[PARAMS].push(params);\n      var now = Date.now();\n      if (global.nativeFlushQueueImmediate && now - this._lastFlush >= MIN_TIME_BETWEEN_FLUSHES_MS) {\n        var queue = this._queue;\n        this._queue = [[], [], [], this._callID];\n        this._lastFlush = now;\n        global.nativeFlushQueueImmediate(queue);\n      }\n      Systrace.counterEvent('pending_js_to_native_queue', this._queue[0].length);\n      if (__DEV__ && this.__spy && isFinite(moduleID)) {\n        this.__spy({\n          type: TO_NATIVE,\n          module: this._remoteModuleTable[moduleID],\n          method: this._remoteMethodTable[moduleID][methodID],\n          args: params\n        });\n      } else if (this.__spy) {\n        this.__spy({\n          type: TO_NATIVE,\n          module: moduleID + '',\n          method: methodID,\n          args: params\n        });\n      }\n    }\n  }, {\n    key: \"createDebugLookup\",\n    value: function createDebugLookup(moduleID, name, methods) {\n      if (__DEV__) {\n        this._remoteModuleTable[moduleID] = name;\n        this._remoteMethodTable[moduleID] = methods;\n      }\n    }\n\n    // For JSTimers to register its callback. Otherwise a circular dependency\n    // between modules is introduced. Note that only one callback may be\n    // registered at a time.\n  }, {\n    key: \"setImmediatesCallback\",\n    value: function setImmediatesCallback(fn) {\n      this._immediatesCallback = fn;\n    }\n\n    /**\n     * Private methods\n     */\n  }, {\n    key: \"__guard\",\n    value: function __guard(fn) {\n      if (this.__shouldPauseOnThrow()) {\n        fn();\n      } else {\n        try {\n          fn();\n        } catch (error) {\n          ErrorUtils.reportFatalError(error);\n        }\n      }\n    }\n\n    // MessageQueue installs a global handler to catch all exceptions where JS users can register their own behavior\n    // This handler makes all exceptions to be propagated from inside MessageQueue rather than by the VM at their origin\n    // This makes stacktraces to be placed at MessageQueue rather than at where they were launched\n    // The parameter DebuggerInternal.shouldPauseOnThrow is used to check before catching all exceptions and\n    // can be configured by the VM or any Inspector\n  }, {\n    key: \"__shouldPauseOnThrow\",\n    value: function __shouldPauseOnThrow() {\n      return (\n        // $FlowFixMe\n        typeof DebuggerInternal !== 'undefined' && DebuggerInternal.shouldPauseOnThrow === true // eslint-disable-line no-undef\n      );\n    }\n  }, {\n    key: \"__callImmediates\",\n    value: function __callImmediates() {\n      Systrace.beginEvent('JSTimers.callImmediates()');\n      if (this._immediatesCallback != null) {\n        this._immediatesCallback();\n      }\n      Systrace.endEvent();\n    }\n  }, {\n    key: \"__callFunction\",\n    value: function __callFunction(module, method, args) {\n      this._lastFlush = Date.now();\n      this._eventLoopStartTime = this._lastFlush;\n      if (__DEV__ || this.__spy) {\n        Systrace.beginEvent(\"\".concat(module, \".\").concat(method, \"(\").concat(stringifySafe(args), \")\"));\n      } else {\n        Systrace.beginEvent(\"\".concat(module, \".\").concat(method, \"(...)\"));\n      }\n      if (this.__spy) {\n        this.__spy({\n          type: TO_JS,\n          module: module,\n          method: method,\n          args: args\n        });\n      }\n      var moduleMethods = this.getCallableModule(module);\n      invariant(!!moduleMethods, 'Module %s is not a registered callable module (calling %s)', module, method);\n      invariant(!!moduleMethods[method], 'Method %s does not exist on module %s', method, module);\n      var result = moduleMethods[method].apply(moduleMethods, args);\n      Systrace.endEvent();\n      return result;\n    }\n  }, {\n    key: \"__invokeCallback\",\n    value: function __invokeCallback(cbID, args) {\n      this._lastFlush = Date.now();\n      this._eventLoopStartTime = this._lastFlush;\n\n      // The rightmost bit of cbID indicates fail (0) or success (1), the other bits are the callID shifted left.\n      // eslint-disable-next-line no-bitwise\n      var callID = cbID >>> 1;\n      // eslint-disable-next-line no-bitwise\n      var isSuccess = cbID & 1;\n      var callback = isSuccess ? this._successCallbacks[callID] : this._failureCallbacks[callID];\n      if (__DEV__) {\n        var debug = this._debugInfo[callID];\n        var _module = debug && this._remoteModuleTable[debug[0]];\n        var method = debug && this._remoteMethodTable[debug[0]][debug[1]];\n        if (!callback) {\n          var errorMessage = \"Callback with id \".concat(cbID, \": \").concat(_module, \".\").concat(method, \"() not found\");\n          if (method) {\n            errorMessage = \"The callback \".concat(method, \"() exists in module \").concat(_module, \", \") + 'but only one callback may be registered to a function in a native module.';\n          }\n          invariant(callback, errorMessage);\n        }\n        var profileName = debug ? '<callback for ' + _module + '.' + method + '>' : cbID;\n        if (callback && this.__spy) {\n          this.__spy({\n            type: TO_JS,\n            module: null,\n            method: profileName,\n            args: args\n          });\n        }\n        Systrace.beginEvent(\"MessageQueue.invokeCallback(\".concat(profileName, \", \").concat(stringifySafe(args), \")\"));\n      }\n      if (!callback) {\n        return;\n      }\n      delete this._successCallbacks[callID];\n      delete this._failureCallbacks[callID];\n      callback.apply(void 0, _toConsumableArray(args));\n      if (__DEV__) {\n        Systrace.endEvent();\n      }\n    }\n  }], [{\n    key: \"spy\",\n    value: function spy(spyOrToggle) {\n      if (spyOrToggle === true) {\n        MessageQueue.prototype.__spy = function (info) {\n          console.log(\"\".concat(info.type === TO_JS ? 'N->JS' : 'JS->N', \" : \") + \"\".concat(info.module ? info.module + '.' : '').concat(info.method) + \"(\".concat(JSON.stringify(info.args), \")\"));\n        };\n      } else if (spyOrToggle === false) {\n        MessageQueue.prototype.__spy = null;\n      } else {\n        MessageQueue.prototype.__spy = spyOrToggle;\n      }\n    }\n  }]);\n}();\nmodule.exports = MessageQueue;\n/* WEBPACK VAR INJECTION */}.call(this, __webpack_require__(/*! ./../node_modules/webpack/buildin/global.js */ \"./node_modules/webpack/buildin/global.js\")))\n\n//# sourceURL=webpack:///./bridge/MessageQueue.js?");
 
 /***/ }),
 
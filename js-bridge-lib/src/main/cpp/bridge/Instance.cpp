@@ -145,10 +145,18 @@ namespace facebook {
         }
 
         void Instance::callJSFunction(std::string &&module, std::string &&method,
-                                      folly::dynamic &&params) {
+                                      folly::dynamic &&params, QueuePriority priority) {
             callback_->incrementPendingJSCalls();
             nativeToJsBridge_->callFunction(std::move(module), std::move(method),
-                                            std::move(params));
+                                            std::move(params), priority);
+        }
+
+        void Instance::callJSFunctions(std::vector<JSFunctionCall> &&calls) {
+            if (calls.empty()) {
+                return;
+            }
+            callback_->incrementPendingJSCalls();
+            nativeToJsBridge_->callFunctions(std::move(calls));
         }
 
         void Instance::callJSCallback(uint64_t callbackId, folly::dynamic &&params) {
@@ -7,6 +7,7 @@
 
 #include <condition_variable>
 #include <mutex>
+#include <vector>
 
 #include <fbjni/fbjni.h>
 #include <fbjni/detail/Log.h>
@@ -20,6 +21,22 @@ namespace react {
 
 namespace {
 
+struct JQueuePriority : jni::JavaClass<JQueuePriority> {
+  static constexpr auto kJavaDescriptor = "Lcom/sanyinchen/jsbridge/queue/MessageQueueThread$Priority;";
+
+  static alias_ref<javaobject> fromQueuePriority(QueuePriority priority) {
+    static auto values = []() {
+      auto cls = javaClassStatic();
+      std::vector<global_ref<javaobject>> ret;
+      for (const char* name : {"IMMEDIATE", "NORMAL", "IDLE"}) {
+        ret.push_back(make_global(cls->getStaticFieldValue(cls->getStaticField<javaobject>(name))));
+      }
+      return ret;
+    }();
+    return values[static_cast<int>(priority)];
+  }
+};
+
 struct JavaJSException : jni::JavaClass<JavaJSException, JThrowable> {
   static constexpr auto kJavaDescriptor = "Lcom/sanyinchen/jsbridge/exception/JSException;";
 
@@ -45,17 +62,63 @@ std::function<void()> wrapRunnable(std::function<void()>&& runnable) {
 }
 
 JMessageQueueThread::JMessageQueueThread(alias_ref<JavaMessageQueueThread::javaobject> jobj) :
-    m_jobj(make_global(jobj)) {
+    m_jobj(make_global(jobj)),
+    m_pending(std::make_shared<PendingCounts>()) {
+  for (auto& count : *m_pending) {
+    count = 0;
+  }
 }
 
 void JMessageQueueThread::runOnQueue(std::function<void()>&& runnable) {
+  runOnQueueWithPriority(std::move(runnable), QueuePriority::Normal);
+}
+
+void JMessageQueueThread::runOnQueueWithPriority(std::function<void()>&& runnable, QueuePriority priority) {
+  auto pending = m_pending;
+  int lane = static_cast<int>(priority);
+  (*pending)[lane]++;
+  post([pending, lane, runnable=std::move(runnable)] {
+    (*pending)[lane]--;
+    runnable();
+  }, priority);
+}
+
+void JMessageQueueThread::runAfterPending(std::function<void()>&& runnable) {
+  std::vector<QueuePriority> lanes;
+  for (auto priority : {QueuePriority::Immediate, QueuePriority::Normal, QueuePriority::Idle}) {
+    // Always behind the NORMAL lane, so that there is at least one barrier
+    if (priority == QueuePriority::Normal || (*m_pending)[static_cast<int>(priority)] > 0) {
+      lanes.push_back(priority);
+    }
+  }
+  auto remaining = std::make_shared<std::atomic<size_t>>(lanes.size());
+  auto shared = std::make_shared<std::function<void()>>(std::move(runnable));
+  for (auto priority : lanes) {
+    post([remaining, shared] {
+      if (--*remaining == 0) {
+        (*shared)();
+      }
+    }, priority);
+  }
+}
+
+void JMessageQueueThread::post(std::function<void()>&& runnable, QueuePriority priority) {
   // For C++ modules, this can be called from an arbitrary thread
   // managed by the module, via callJSCallback or callJSFunction.  So,
   // we ensure that it is registered with the JVM.
   jni::ThreadScope guard;
+  if (priority == QueuePriority::Normal) {
+    static auto method = JavaMessageQueueThread::javaClassStatic()->
+      getMethod<void(Runnable::javaobject)>("runOnQueue");
+    method(m_jobj, JNativeRunnable::newObjectCxxArgs(wrapRunnable(std::move(runnable))).get());
+    return;
+  }
   static auto method = JavaMessageQueueThread::javaClassStatic()->
-    getMethod<void(Runnable::javaobject)>("runOnQueue");
-  method(m_jobj, JNativeRunnable::newObjectCxxArgs(wrapRunnable(std::move(runnable))).get());
+    getMethod<void(Runnable::javaobject, JQueuePriority::javaobject)>("runOnQueue");
+  method(
+      m_jobj,
+      JNativeRunnable::newObjectCxxArgs(wrapRunnable(std::move(runnable))).get(),
+      JQueuePriority::fromQueuePriority(priority).get());
 }
 
 void JMessageQueueThread::runOnQueueSync(std::function<void()>&& runnable) {
@@ -29,7 +29,7 @@ JSBigFileString::JSBigFileString(int fd, size_t size, off_t offset /*= 0*/)
     const static auto ps = getpagesize();
     auto d = lldiv(offset, ps);
 
-    m_mapOff = d.quot;
+    m_mapOff = d.quot * ps;
     m_pageOff = d.rem;
     m_size = size + m_pageOff;
   } else {
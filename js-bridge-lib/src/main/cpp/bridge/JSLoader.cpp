@@ -11,10 +11,13 @@
 #include <fbjni/detail/Log.h>
 #include <folly/Conv.h>
 #include <folly/Memory.h>
+#include <glog/logging.h>
+#include <chrono>
 #include <fstream>
 #include <sstream>
 #include <streambuf>
 #include <string>
+#include <unistd.h>
 
 #ifdef WITH_FBSYSTRACE
 #include <fbsystrace.h>
@@ -32,6 +35,47 @@ AAssetManager *extractAssetManager(alias_ref<JAssetManager::javaobject> assetMan
   return AAssetManager_fromJava(env, assetManager.get());
 }
 
+// Resident memory of the process from /proc/self/statm, -1 if it can't be read. The file backed
+// part holds the pages of a mapped bundle, which the kernel can drop under memory pressure.
+struct ResidentMemory {
+  int64_t bytes = -1;
+  int64_t fileBackedBytes = -1;
+};
+
+static ResidentMemory readResidentMemory() {
+  ResidentMemory memory;
+  std::ifstream statm("/proc/self/statm");
+  int64_t sizePages, residentPages, sharedPages;
+  if (statm >> sizePages >> residentPages >> sharedPages) {
+    int64_t pageSize = sysconf(_SC_PAGESIZE);
+    memory.bytes = residentPages * pageSize;
+    memory.fileBackedBytes = sharedPages * pageSize;
+  }
+  return memory;
+}
+
+static void logScriptLoad(
+    const std::string& assetName,
+    const char *how,
+    size_t size,
+    size_t heapBytes,
+    std::chrono::steady_clock::time_point start,
+    const ResidentMemory& residentBefore) {
+  auto micros = std::chrono::duration_cast<std::chrono::microseconds>(
+    std::chrono::steady_clock::now() - start).count();
+  std::ostringstream resident;
+  ResidentMemory residentAfter = readResidentMemory();
+  if (residentBefore.bytes >= 0 && residentAfter.bytes >= 0) {
+    // A mapped bundle barely counts yet, its pages become resident as JSC reads them
+    resident << ", resident " << residentAfter.bytes << " bytes ("
+      << std::showpos << residentAfter.bytes - residentBefore.bytes << std::noshowpos
+      << "), " << residentAfter.fileBackedBytes << " file backed ("
+      << std::showpos << residentAfter.fileBackedBytes - residentBefore.fileBackedBytes << ")";
+  }
+  LOG(INFO) << "Bundle '" << assetName << "' " << how << ": " << size << " bytes in "
+    << micros << "us, " << heapBytes << " bytes copied to the heap by the loader" << resident.str();
+}
+
 __attribute__((visibility("default")))
 std::unique_ptr<const JSBigString> loadScriptFromAssets(
     AAssetManager *manager,
@@ -41,11 +85,29 @@ std::unique_ptr<const JSBigString> loadScriptFromAssets(
     "assetName", assetName);
   #endif
   if (manager) {
+    auto start = std::chrono::steady_clock::now();
+    auto residentBefore = readResidentMemory();
     auto asset = AAssetManager_open(
       manager,
       assetName.c_str(),
       AASSET_MODE_STREAMING); // Optimized for sequential read: see AssetManager.java for docs
     if (asset) {
+      // An asset stored uncompressed is a region of the APK file: map it instead of copying it
+      // to the heap. Its pages are only read when JSC gets to them, and they are clean file
+      // pages the kernel can drop, not dirty heap. JSCRuntime references an ASCII bundle where
+      // it is, and only copies one that isn't.
+      off64_t assetOffset;
+      off64_t assetLength;
+      int fd = AAsset_openFileDescriptor64(asset, &assetOffset, &assetLength);
+      if (fd >= 0) {
+        AAsset_close(asset);
+        auto mapped = folly::make_unique<const JSBigFileString>(fd, assetLength, assetOffset);
+        close(fd);
+        logScriptLoad(assetName, "mapped", mapped->size(), 0, start, residentBefore);
+        return std::move(mapped);
+      }
+
+      // Compressed assets have to be inflated
       auto buf = folly::make_unique<JSBigBufferString>(AAsset_getLength(asset));
       size_t offset = 0;
       int readbytes;
@@ -54,6 +116,7 @@ std::unique_ptr<const JSBigString> loadScriptFromAssets(
       }
       AAsset_close(asset);
       if (offset == buf->size()) {
+        logScriptLoad(assetName, "copied", buf->size(), buf->size(), start, residentBefore);
         return std::move(buf);
       }
     }
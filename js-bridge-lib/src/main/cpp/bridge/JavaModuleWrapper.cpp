@@ -40,6 +40,51 @@ namespace facebook {
             return getFieldValue(type)->toStdString();
         }
 
+        QueuePriority JMethodDescriptor::getPriority() const {
+            static auto priority = javaClassStatic()->getField<jint>("priority");
+            return static_cast<QueuePriority>(getFieldValue(priority));
+        }
+
+        OrderedModuleCalls::~OrderedModuleCalls() {
+            std::deque<std::pair<uint64_t, std::function<void()>>> dropped;
+            {
+                std::lock_guard<std::mutex> lock(calls_->mutex);
+                // The functions still posted find nothing to run instead of calling into the
+                // module being destroyed
+                dropped.swap(calls_->pending);
+            }
+        }
+
+        void OrderedModuleCalls::post(
+                MessageQueueThread &queue, QueuePriority priority, std::function<void()> &&call) {
+            uint64_t sequence;
+            {
+                std::lock_guard<std::mutex> lock(calls_->mutex);
+                sequence = calls_->nextSequence++;
+                calls_->pending.emplace_back(sequence, std::move(call));
+            }
+            std::shared_ptr<Calls> calls = calls_;
+            queue.runOnQueueWithPriority([calls, sequence] {
+                runUpTo(*calls, sequence);
+            }, priority);
+        }
+
+        void OrderedModuleCalls::runUpTo(Calls &calls, uint64_t sequence) {
+            while (true) {
+                std::function<void()> next;
+                {
+                    std::lock_guard<std::mutex> lock(calls.mutex);
+                    // Empty, or only later calls left, once a higher lane ran this one
+                    if (calls.pending.empty() || calls.pending.front().first > sequence) {
+                        return;
+                    }
+                    next = std::move(calls.pending.front().second);
+                    calls.pending.pop_front();
+                }
+                next();
+            }
+        }
+
         std::string JavaNativeModule::getName() {
             static auto getNameMethod = wrapper_->getClass()->getMethod<jstring()>("getName");
             return getNameMethod(wrapper_)->toStdString();
@@ -48,10 +93,12 @@ namespace facebook {
         std::vector<MethodDescriptor> JavaNativeModule::getMethods() {
             std::vector<MethodDescriptor> ret;
             syncMethods_.clear();
+            methodPriorities_.clear();
             auto descs = wrapper_->getMethodDescriptors();
             for (const auto &desc: *descs) {
                 auto methodName = desc->getName();
                 auto methodType = desc->getType();
+                methodPriorities_.push_back(desc->getPriority());
 
                 if (methodType == "sync") {
                     // allow for the sync methods vector to have empty values, resize on demand
@@ -72,9 +119,22 @@ namespace facebook {
                         std::move(methodType)
                 );
             }
+            hasMixedPriorities_ = false;
+            for (auto priority : methodPriorities_) {
+                hasMixedPriorities_ = hasMixedPriorities_ || priority != methodPriorities_.front();
+            }
+            syncMethodCacheRef_ = make_global(wrapper_->getSyncMethodCache());
+            syncMethodCache_ = syncMethodCacheRef_ ? syncMethodCacheRef_->cthis() : nullptr;
+            methodsLoaded_ = true;
             return ret;
         }
 
+        void JavaNativeModule::ensureMethodsLoaded() {
+            if (!methodsLoaded_) {
+                getMethods();
+            }
+        }
+
         folly::dynamic JavaNativeModule::getConstants() {
             static auto constantsMethod =
                     wrapper_->getClass()->getMethod<NativeMap::javaobject()>("getConstants");
@@ -87,7 +147,10 @@ namespace facebook {
         }
 
         void JavaNativeModule::invoke(unsigned int reactMethodId, folly::dynamic &&params, int callId) {
-            messageQueueThread_->runOnQueue([this, reactMethodId, params = std::move(params), callId] {
+            ensureMethodsLoaded();
+            QueuePriority priority = reactMethodId < methodPriorities_.size()
+                                     ? methodPriorities_[reactMethodId] : QueuePriority::Normal;
+            auto call = [this, reactMethodId, params = std::move(params), callId] {
                 static auto invokeMethod = wrapper_->getClass()->getMethod<void(jint, ReadableNativeArray::javaobject)>(
                         "invoke");
 #ifdef WITH_FBSYSTRACE
@@ -99,12 +162,18 @@ namespace facebook {
                         wrapper_,
                         static_cast<jint>(reactMethodId),
                         ReadableNativeArray::newObjectCxxArgs(std::move(params)).get());
-            });
+            };
+            if (hasMixedPriorities_) {
+                orderedCalls_.post(*messageQueueThread_, priority, std::move(call));
+            } else {
+                messageQueueThread_->runOnQueueWithPriority(std::move(call), priority);
+            }
         }
 
         MethodCallResult
         JavaNativeModule::callSerializableNativeHook(unsigned int reactMethodId, folly::dynamic &&params) {
             // TODO: evaluate whether calling through invoke is potentially faster
+            ensureMethodsLoaded();
             if (reactMethodId >= syncMethods_.size()) {
                 throw std::invalid_argument(
                         folly::to<std::string>("methodId ", reactMethodId, " out of range [0..", syncMethods_.size(),
@@ -114,6 +183,16 @@ namespace facebook {
             auto &method = syncMethods_[reactMethodId];
             CHECK(method.hasValue() && method->isSyncHook())
             << "Trying to invoke a asynchronous method as synchronous hook";
+            if (syncMethodCache_ && syncMethodCache_->isMemoized(reactMethodId)) {
+                uint64_t generation;
+                auto memoized = syncMethodCache_->get(reactMethodId, params, generation);
+                if (memoized) {
+                    return std::move(*memoized);
+                }
+                auto result = method->invoke(instance_, wrapper_->getModule(), params);
+                syncMethodCache_->put(reactMethodId, params, result, generation);
+                return result;
+            }
             return method->invoke(instance_, wrapper_->getModule(), params);
         }
 
@@ -137,6 +216,9 @@ namespace facebook {
                         type == "syncHook");
 
                 methodDescriptors_.emplace_back(name, type);
+                methodPriorities_.push_back(desc->getPriority());
+                hasMixedPriorities_ =
+                        hasMixedPriorities_ || methodPriorities_.back() != methodPriorities_.front();
             }
         }
 
@@ -166,14 +248,20 @@ namespace facebook {
                         folly::to<std::string>("methodId ", reactMethodId, " out of range [0..", methods_.size(), "]"));
             }
             CHECK(!methods_[reactMethodId].isSyncHook()) << "Trying to invoke a synchronous hook asynchronously";
-            messageQueueThread_->runOnQueue([this, reactMethodId, params = std::move(params), callId]() mutable {
+            auto call = [this, reactMethodId, params = std::move(params), callId]() mutable {
 #ifdef WITH_FBSYSTRACE
                 if (callId != -1) {
                   fbsystrace_end_async_flow(TRACE_TAG_REACT_APPS, "native", callId);
                 }
 #endif
                 invokeInner(reactMethodId, std::move(params));
-            });
+            };
+            QueuePriority priority = methodPriorities_[reactMethodId];
+            if (hasMixedPriorities_) {
+                orderedCalls_.post(*messageQueueThread_, priority, std::move(call));
+            } else {
+                messageQueueThread_->runOnQueueWithPriority(std::move(call), priority);
+            }
         }
 
         MethodCallResult
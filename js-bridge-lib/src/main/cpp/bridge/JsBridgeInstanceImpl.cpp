@@ -19,15 +19,20 @@
 #include <ModuleRegistry.h>
 #include <RecoverableError.h>
 #include <RAMBundleRegistry.h>
+#include <fbjni/ByteBuffer.h>
 #include <fbjni/fbjni.h>
 #include <folly/dynamic.h>
+#include <folly/json.h>
 #include <folly/Memory.h>
+#include <glog/logging.h>
 
 #include "CxxModuleWrapper.h"
+#include "bridge/include/DynamicBuffer.h"
 #include "bridge/include/JavaScriptExecutorHolder.h"
 #include "JNativeRunnable.h"
 #include "JniJSModulesUnbundle.h"
 #include "NativeArray.h"
+#include "NativeMap.h"
 
 using namespace facebook::jni;
 
@@ -49,7 +54,9 @@ namespace facebook {
                           messageQueueThread_(std::move(messageQueueThread)) {}
 
                 void onBatchComplete() override {
-                    messageQueueThread_->runOnQueue([this] {
+                    // The calls of the batch may be in any lane, the batch completes once they
+                    // have all run
+                    messageQueueThread_->runAfterPending([this] {
                         static auto method =
                                 ReactCallback::javaClassStatic()->getMethod<void()>(
                                         "onBatchComplete");
@@ -104,12 +111,22 @@ namespace facebook {
                                                     JsBridgeInstanceImpl::initializeBridge),
                                    makeNativeMethod("jniExtendNativeModules",
                                                     JsBridgeInstanceImpl::extendNativeModules),
+                                   makeNativeMethod("jniSetModuleConfigCache",
+                                                    JsBridgeInstanceImpl::jniSetModuleConfigCache),
+                                   makeNativeMethod("jniGetModuleConfigCache",
+                                                    JsBridgeInstanceImpl::jniGetModuleConfigCache),
                                    makeNativeMethod("jniLoadScriptFromAssets",
                                                     JsBridgeInstanceImpl::jniLoadScriptFromAssets),
                                    makeNativeMethod("jniCallJSFunction",
                                                     JsBridgeInstanceImpl::jniCallJSFunction),
+                                   makeNativeMethod("jniCallJSFunctions",
+                                                    JsBridgeInstanceImpl::jniCallJSFunctions),
                                    makeNativeMethod("jniCallJSCallback",
                                                     JsBridgeInstanceImpl::jniCallJSCallback),
+                                   makeNativeMethod("jniRegisterJSName",
+                                                    JsBridgeInstanceImpl::jniRegisterJSName),
+                                   makeNativeMethod("jniCallJSFunctionEncoded",
+                                                    JsBridgeInstanceImpl::jniCallJSFunctionEncoded),
                                    makeNativeMethod("setGlobalVariable",
                                                     JsBridgeInstanceImpl::setGlobalVariable),
                                    makeNativeMethod("getJavaScriptContext",
@@ -175,6 +192,43 @@ namespace facebook {
                     moduleMessageQueue_));
         }
 
+        void JsBridgeInstanceImpl::jniSetModuleConfigCache(
+                const std::string &configs,
+                alias_ref <JArrayClass<jstring>> cacheableModuleNames) {
+            std::unordered_set<std::string> cacheableModules;
+            size_t count = cacheableModuleNames->size();
+            for (size_t i = 0; i < count; i++) {
+                cacheableModules.insert(cacheableModuleNames->getElement(i)->toStdString());
+            }
+            folly::dynamic cachedConfigs = folly::dynamic::object;
+            if (!configs.empty()) {
+                try {
+                    cachedConfigs = folly::parseJson(configs);
+                } catch (const std::exception &e) {
+                    // Built again and saved over
+                    LOG(WARNING) << "Ignoring the cached module configs: " << e.what();
+                }
+                if (!cachedConfigs.isObject()) {
+                    cachedConfigs = folly::dynamic::object;
+                }
+            }
+            moduleRegistry_->setConfigCache(std::move(cachedConfigs), std::move(cacheableModules));
+        }
+
+        std::string JsBridgeInstanceImpl::jniGetModuleConfigCache() {
+            folly::dynamic configs = moduleRegistry_->getConfigCacheUpdate();
+            if (configs.isNull()) {
+                return "";
+            }
+            try {
+                return folly::toJson(configs);
+            } catch (const std::exception &e) {
+                // e.g. constants that aren't valid JSON like NaN
+                LOG(WARNING) << "Failed to serialize the module configs: " << e.what();
+                return "";
+            }
+        }
+
 
         void JsBridgeInstanceImpl::jniLoadScriptFromAssets(
                 jni::alias_ref <JAssetManager::javaobject> assetManager,
@@ -200,7 +254,7 @@ namespace facebook {
 
 
         void JsBridgeInstanceImpl::jniCallJSFunction(std::string module, std::string method,
-                                                     NativeArray *arguments) {
+                                                     NativeArray *arguments, jint priority) {
             // We want to share the C++ code, and on iOS, modules pass module/method
             // names as strings all the way through to JS, and there's no way to do
             // string -> id mapping on the objc side.  So on Android, we convert the
@@ -210,13 +264,105 @@ namespace facebook {
             // from the JS proxy through here to use strings, too.
             instance_->callJSFunction(std::move(module),
                                       std::move(method),
-                                      arguments->consume());
+                                      arguments->consume(),
+                                      static_cast<QueuePriority>(priority));
+        }
+
+        void JsBridgeInstanceImpl::jniCallJSFunctions(
+                alias_ref<JArrayClass<jstring>> modules,
+                alias_ref<JArrayClass<jstring>> methods,
+                alias_ref<JArrayClass<NativeArray::javaobject>> arguments) {
+            size_t count = modules->size();
+            std::vector<JSFunctionCall> calls;
+            calls.reserve(count);
+            for (size_t i = 0; i < count; i++) {
+                calls.push_back(JSFunctionCall{
+                        modules->getElement(i)->toStdString(),
+                        methods->getElement(i)->toStdString(),
+                        arguments->getElement(i)->cthis()->consume()});
+            }
+            instance_->callJSFunctions(std::move(calls));
         }
 
         void JsBridgeInstanceImpl::jniCallJSCallback(jint callbackId, NativeArray *arguments) {
             instance_->callJSCallback(callbackId, arguments->consume());
         }
 
+        void JsBridgeInstanceImpl::jniRegisterJSName(jint id, std::string name) {
+            std::lock_guard<std::mutex> lock(jsNamesMutex_);
+            if (static_cast<size_t>(id) >= jsNames_.size()) {
+                jsNames_.resize(id + 1);
+            }
+            jsNames_[id] = std::move(name);
+        }
+
+        void JsBridgeInstanceImpl::jniCallJSFunctionEncoded(
+                jint moduleId,
+                jint methodId,
+                jint argumentCount,
+                alias_ref<JArrayByte> argumentTypes,
+                alias_ref<JArrayDouble> argumentNumbers,
+                alias_ref<JArrayClass<jobject>> argumentObjects) {
+            std::string module;
+            std::string method;
+            {
+                std::lock_guard<std::mutex> lock(jsNamesMutex_);
+                module = jsNames_.at(moduleId);
+                method = jsNames_.at(methodId);
+            }
+
+            // Type bytes are ReadableType ordinals, see JavaScriptModuleArguments
+            enum : jbyte {
+                kNull = 0,
+                kBoolean = 1,
+                kNumber = 2,
+                kString = 3,
+                kMap = 4,
+                kArray = 5,
+                kBuffer = 6,
+            };
+            folly::dynamic arguments = folly::dynamic::array;
+            if (argumentCount > 0) {
+                auto types = argumentTypes->getRegion(0, argumentCount);
+                auto numbers = argumentNumbers->getRegion(0, argumentCount);
+                for (jint i = 0; i < argumentCount; i++) {
+                    switch (types[i]) {
+                        case kBoolean:
+                            arguments.push_back(numbers[i] != 0);
+                            break;
+                        case kNumber:
+                            arguments.push_back(numbers[i]);
+                            break;
+                        case kString:
+                            arguments.push_back(static_ref_cast<JString>(
+                                    argumentObjects->getElement(i))->toStdString());
+                            break;
+                        case kMap:
+                            arguments.push_back(static_ref_cast<NativeMap::javaobject>(
+                                    argumentObjects->getElement(i))->cthis()->consume());
+                            break;
+                        case kArray:
+                            arguments.push_back(static_ref_cast<NativeArray::javaobject>(
+                                    argumentObjects->getElement(i))->cthis()->consume());
+                            break;
+                        case kBuffer: {
+                            auto buffer = static_ref_cast<JByteBuffer>(argumentObjects->getElement(i));
+                            size_t size = buffer->getDirectSize();
+                            arguments.push_back(makeDynamicBuffer(
+                                    size > 0 ? buffer->getDirectBytes() : nullptr, size));
+                            break;
+                        }
+                        default:
+                            arguments.push_back(nullptr);
+                            break;
+                    }
+                }
+            }
+            instance_->callJSFunction(std::move(module),
+                                      std::move(method),
+                                      std::move(arguments));
+        }
+
         void JsBridgeInstanceImpl::setGlobalVariable(std::string propName,
                                                      std::string &&jsonValue) {
             // This is only ever called from Java with short strings, and only
@@ -89,6 +89,7 @@ bool isNullable(char type) {
     case 'A':
     case 'M':
     case 'X':
+    case 'B':
       return true;
     default:
       return false;;
@@ -146,6 +147,9 @@ jvalue extract(std::weak_ptr<Instance>& instance, char type, dynamic_iterator& i
     case 'X':
       value.l = extractCallback(instance, arg).release();
       break;
+    case 'B':
+      value.l = makeJByteBufferOrThrow(arg).release();
+      break;
     default:
       LOG(FATAL) << "Unknown param type: " << type;
   }
@@ -99,6 +99,22 @@ namespace facebook {
             size_t index = it->second;
 
             CHECK(index < modules_.size());
+
+            bool isCacheable;
+            {
+                std::lock_guard<std::mutex> lock(configCacheMutex_);
+                isCacheable = cacheableModules_.find(name) != cacheableModules_.end();
+                if (isCacheable) {
+                    auto cached = configCache_.find(name);
+                    if (cached != configCache_.items().end()) {
+                        if (cached->second.isNull()) {
+                            return folly::none;
+                        }
+                        return ModuleConfig{index, cached->second};
+                    }
+                }
+            }
+
             NativeModule *module = modules_[index].get();
 
             // string name, object constants, array methodNames (methodId is index), [array promiseMethodIds], [array syncMethodIds]
@@ -136,7 +152,14 @@ namespace facebook {
                 }
             }
 
-            if (config.size() == 2 && config[1].empty()) {
+            bool hasConfig = !(config.size() == 2 && config[1].empty());
+            if (isCacheable) {
+                std::lock_guard<std::mutex> lock(configCacheMutex_);
+                configCache_[name] = hasConfig ? config : nullptr;
+                configCacheChanged_ = true;
+            }
+
+            if (!hasConfig) {
                 // no constants or methods
                 return folly::none;
             } else {
@@ -144,6 +167,33 @@ namespace facebook {
             }
         }
 
+        void ModuleRegistry::setConfigCache(folly::dynamic cachedConfigs,
+                                            std::unordered_set<std::string> cacheableModules) {
+            std::lock_guard<std::mutex> lock(configCacheMutex_);
+            configCache_ = folly::dynamic::object;
+            for (auto &name: cacheableModules) {
+                // getConfig is called with the names JS knows the modules by
+                cacheableModules_.insert(normalizeName(name));
+            }
+            for (auto &item: cachedConfigs.items()) {
+                // Only keep the modules that are still cacheable
+                if (item.first.isString() &&
+                    cacheableModules_.find(item.first.getString()) != cacheableModules_.end()) {
+                    configCache_[item.first] = item.second;
+                }
+            }
+            configCacheChanged_ = false;
+        }
+
+        folly::dynamic ModuleRegistry::getConfigCacheUpdate() {
+            std::lock_guard<std::mutex> lock(configCacheMutex_);
+            if (!configCacheChanged_) {
+                return nullptr;
+            }
+            configCacheChanged_ = false;
+            return configCache_;
+        }
+
         void ModuleRegistry::callNativeMethod(unsigned int moduleId, unsigned int methodId, folly::dynamic &&params,
                                               int callId) {
             if (moduleId >= modules_.size()) {
@@ -5,6 +5,8 @@
 
 #include "include/NativeCommon.h"
 
+#include "include/DynamicBuffer.h"
+
 using namespace facebook::jni;
 
 namespace facebook {
@@ -58,5 +60,13 @@ local_ref<ReadableType> ReadableType::getType(folly::dynamic::Type type) {
   }
 }
 
+local_ref<ReadableType> ReadableType::getType(const folly::dynamic& value) {
+  if (isDynamicBuffer(value)) {
+    static alias_ref<ReadableType> val = getTypeField("Buffer");
+    return make_local(val);
+  }
+  return getType(value.type());
+}
+
 } // namespace react
 } // namespace facebook
@@ -142,7 +142,8 @@ void NativeToJsBridge::loadApplicationSync(
 void NativeToJsBridge::callFunction(
     std::string&& module,
     std::string&& method,
-    folly::dynamic&& arguments) {
+    folly::dynamic&& arguments,
+    QueuePriority priority) {
   int systraceCookie = -1;
   #ifdef WITH_FBSYSTRACE
   systraceCookie = m_systraceCookie++;
@@ -172,6 +173,36 @@ void NativeToJsBridge::callFunction(
       // destruct until after it's been unregistered (which we check above) and
       // that will happen on this thread
       executor->callFunction(module, method, arguments);
+    }, priority);
+}
+
+void NativeToJsBridge::callFunctions(std::vector<JSFunctionCall>&& calls) {
+  int systraceCookie = -1;
+  #ifdef WITH_FBSYSTRACE
+  systraceCookie = m_systraceCookie++;
+  FbSystraceAsyncFlow::begin(
+      TRACE_TAG_REACT_CXX_BRIDGE,
+      "JSCalls",
+      systraceCookie);
+  #endif
+
+  runOnExecutorQueue([this, calls = std::move(calls), systraceCookie]
+    (JSExecutor* executor) {
+      if (m_applicationScriptHasFailure) {
+        LOG(ERROR) << "Attempting to call " << calls.size() << " JS functions on a bad application bundle";
+        throw std::runtime_error("Attempting to call JS functions on a bad application bundle");
+      }
+
+      #ifdef WITH_FBSYSTRACE
+      FbSystraceAsyncFlow::end(
+          TRACE_TAG_REACT_CXX_BRIDGE,
+          "JSCalls",
+          systraceCookie);
+      SystraceSection s("NativeToJsBridge::callFunctions", "count", calls.size());
+      #else
+      (void)(systraceCookie);
+      #endif
+      executor->callFunctions(calls);
     });
 }
 
@@ -249,13 +280,15 @@ void NativeToJsBridge::destroy() {
   });
 }
 
-void NativeToJsBridge::runOnExecutorQueue(std::function<void(JSExecutor*)> task) {
+void NativeToJsBridge::runOnExecutorQueue(
+    std::function<void(JSExecutor*)> task,
+    QueuePriority priority) {
   if (*m_destroyed) {
     return;
   }
 
   std::shared_ptr<bool> isDestroyed = m_destroyed;
-  m_executorMessageQueueThread->runOnQueue([this, isDestroyed, task=std::move(task)] {
+  m_executorMessageQueueThread->runOnQueueWithPriority([this, isDestroyed, task=std::move(task)] {
     if (*isDestroyed) {
       return;
     }
@@ -265,7 +298,7 @@ void NativeToJsBridge::runOnExecutorQueue(std::function<void(JSExecutor*)> task)
     // 2. the executor is unregistered on this queue
     // 3. we just confirmed that the executor hasn't been unregistered above
     task(m_executor.get());
-  });
+  }, priority);
 }
 
 } }
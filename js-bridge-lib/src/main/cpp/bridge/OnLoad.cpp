@@ -14,6 +14,7 @@
 #include <fbjni/NativeRunnable.h>
 #include "JCallback.h"
 #include "ProxyJavaScriptExecutorHolder.h"
+#include "SyncMethodCache.h"
 
 namespace facebook {
     namespace react {
@@ -41,6 +42,7 @@ namespace facebook {
                 JCxxCallbackImpl::registerNatives();
 
                 JsBridgeInstanceImpl::registerNatives();
+                SyncMethodCache::registerNatives();
             });
         }
 
@@ -100,6 +100,15 @@ void ProxyExecutor::callFunction(const std::string& moduleId, const std::string&
   m_delegate->callNativeModules(*this, folly::parseJson(result), true);
 }
 
+void ProxyExecutor::callFunctions(const std::vector<JSFunctionCall>& calls) {
+  // The proxy only knows callFunctionReturnFlushedQueue, end the batch after the last call
+  for (size_t i = 0; i < calls.size(); i++) {
+    auto call = folly::dynamic::array(calls[i].moduleId, calls[i].methodId, calls[i].arguments);
+    std::string result = executeJSCallWithProxy(m_executor.get(), "callFunctionReturnFlushedQueue", std::move(call));
+    m_delegate->callNativeModules(*this, folly::parseJson(result), i == calls.size() - 1);
+  }
+}
+
 void ProxyExecutor::invokeCallback(const double callbackId, const folly::dynamic& arguments) {
   auto call = folly::dynamic::array(callbackId, std::move(arguments));
   std::string result = executeJSCallWithProxy(m_executor.get(), "invokeCallbackAndReturnFlushedQueue", std::move(call));
@@ -5,6 +5,9 @@
 
 #include "include/ReadableNativeArray.h"
 
+#include <vector>
+
+#include "include/DynamicBuffer.h"
 #include "include/ReadableNativeMap.h"
 
 using namespace facebook::jni;
@@ -83,7 +86,11 @@ local_ref<JArrayClass<jobject>> ReadableNativeArray::importArray() {
         break;
       }
       case folly::dynamic::Type::OBJECT: {
-        (*jarray)[i] = ReadableNativeArray::getMap(i);
+        if (isDynamicBuffer(array_.at(i))) {
+          jarray->setElement(i, ReadableNativeArray::getByteBuffer(i).get());
+        } else {
+          (*jarray)[i] = ReadableNativeArray::getMap(i);
+        }
         break;
       }
       case folly::dynamic::Type::ARRAY: {
@@ -107,7 +114,7 @@ local_ref<ReadableNativeArray::jhybridobject> ReadableNativeArray::getArray(jint
 }
 
 local_ref<ReadableType> ReadableNativeArray::getType(jint index) {
-  return ReadableType::getType(array_.at(index).type());
+  return ReadableType::getType(array_.at(index));
 }
 
 local_ref<JArrayClass<jobject>> ReadableNativeArray::importTypeArray() {
@@ -124,6 +131,67 @@ local_ref<NativeMap::jhybridobject> ReadableNativeArray::getMap(jint index) {
   return ReadableNativeMap::createWithContents(folly::dynamic(elem));
 }
 
+local_ref<JByteBuffer> ReadableNativeArray::getByteBuffer(jint index) {
+  return makeJByteBufferOrThrow(array_.at(index));
+}
+
+namespace {
+
+void checkBulkDestination(jint size, size_t dstSize) {
+  if (dstSize < static_cast<size_t>(size)) {
+    throwNewJavaException(
+      "java/lang/ArrayIndexOutOfBoundsException",
+      "Destination holds %zu elements, the array has %d", dstSize, size);
+  }
+}
+
+const folly::dynamic& getNumberAt(const folly::dynamic& array, jint index) {
+  const folly::dynamic& val = array.at(index);
+  if (!val.isNumber()) {
+    throwNewJavaException(exceptions::gUnexpectedNativeTypeExceptionClass,
+                          "expected Number at index %d, got a %s", index, val.typeName());
+  }
+  return val;
+}
+
+std::vector<jdouble> getDoubles(const folly::dynamic& array) {
+  std::vector<jdouble> values(array.size());
+  for (size_t i = 0; i < values.size(); i++) {
+    const folly::dynamic& val = getNumberAt(array, i);
+    values[i] = val.isInt() ? val.getInt() : val.getDouble();
+  }
+  return values;
+}
+
+} // namespace
+
+jint ReadableNativeArray::getDoubleArray(alias_ref<JArrayDouble> dst) {
+  jint size = array_.size();
+  checkBulkDestination(size, dst->size());
+  std::vector<jdouble> values = getDoubles(array_);
+  dst->setRegion(0, size, values.data());
+  return size;
+}
+
+jint ReadableNativeArray::getIntArray(alias_ref<JArrayInt> dst) {
+  jint size = array_.size();
+  checkBulkDestination(size, dst->size());
+  std::vector<jint> values(size);
+  for (jint i = 0; i < size; i++) {
+    values[i] = makeJIntOrThrow(convertDynamicIfIntegral(getNumberAt(array_, i)));
+  }
+  dst->setRegion(0, size, values.data());
+  return size;
+}
+
+local_ref<jdoubleArray> ReadableNativeArray::toDoubleArray() {
+  jint size = array_.size();
+  std::vector<jdouble> values = getDoubles(array_);
+  auto result = JArrayDouble::newArray(size);
+  result->setRegion(0, size, values.data());
+  return result;
+}
+
 namespace {
 // This is just to allow signature deduction below.
 local_ref<ReadableNativeMap::jhybridobject> getMapFixed(alias_ref<ReadableNativeArray::jhybridobject> array, jint index) {
@@ -143,6 +211,10 @@ void ReadableNativeArray::registerNatives() {
     makeNativeMethod("getStringNative", ReadableNativeArray::getString),
     makeNativeMethod("getArrayNative", ReadableNativeArray::getArray),
     makeNativeMethod("getMapNative", getMapFixed),
+    makeNativeMethod("getByteBufferNative", ReadableNativeArray::getByteBuffer),
+    makeNativeMethod("getDoubleArrayNative", ReadableNativeArray::getDoubleArray),
+    makeNativeMethod("getIntArrayNative", ReadableNativeArray::getIntArray),
+    makeNativeMethod("toDoubleArrayNative", ReadableNativeArray::toDoubleArray),
     makeNativeMethod("getTypeNative", ReadableNativeArray::getType),
   });
 }
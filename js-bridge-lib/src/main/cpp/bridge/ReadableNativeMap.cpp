@@ -5,6 +5,12 @@
 
 #include "include/ReadableNativeMap.h"
 
+#include <algorithm>
+#include <cstring>
+#include <vector>
+
+#include "include/DynamicBuffer.h"
+
 using namespace facebook::jni;
 
 namespace facebook {
@@ -12,6 +18,17 @@ namespace react {
 
 namespace {
 const char *gNoSuchKeyExceptionClass = "com/sanyinchen/jsbridge/exception/NoSuchKeyException";
+
+// ReadableType ordinals, used as the type bytes of a ReadableMapSnapshot
+enum SnapshotType : jbyte {
+  kSnapshotNull = 0,
+  kSnapshotBoolean = 1,
+  kSnapshotNumber = 2,
+  kSnapshotString = 3,
+  kSnapshotMap = 4,
+  kSnapshotArray = 5,
+  kSnapshotBuffer = 6,
+};
 } // namespace
 
 void ReadableNativeMap::mapException(const std::exception& ex) {
@@ -61,7 +78,11 @@ local_ref<JArrayClass<jobject>> ReadableNativeMap::importValues() {
         break;
       }
       case folly::dynamic::Type::OBJECT: {
-        (*jarray)[i] = ReadableNativeMap::getMapKey(key);
+        if (isDynamicBuffer(element)) {
+          jarray->setElement(i, ReadableNativeMap::getByteBufferKey(key).get());
+        } else {
+          (*jarray)[i] = ReadableNativeMap::getMapKey(key);
+        }
         break;
       }
       case folly::dynamic::Type::ARRAY: {
@@ -87,6 +108,68 @@ local_ref<JArrayClass<jobject>> ReadableNativeMap::importTypes() {
   return jarray;
 }
 
+local_ref<ReadableMapSnapshot::javaobject> ReadableNativeMap::importSnapshot() {
+  std::vector<std::pair<std::string, const folly::dynamic*>> entries;
+  entries.reserve(map_.size());
+  for (auto& pair : map_.items()) {
+    entries.emplace_back(pair.first.asString(), &pair.second);
+  }
+  std::sort(entries.begin(), entries.end(), [](const auto& a, const auto& b) {
+    return a.first < b.first;
+  });
+
+  jint size = entries.size();
+  auto keys = JArrayClass<jstring>::newArray(size);
+  auto objects = JArrayClass<jobject>::newArray(size);
+  std::vector<jbyte> types(size, kSnapshotNull);
+  std::vector<jdouble> numbers(size, 0);
+  for (jint i = 0; i < size; i++) {
+    (*keys)[i] = make_jstring(entries[i].first);
+    const folly::dynamic& value = *entries[i].second;
+    switch (value.type()) {
+      case folly::dynamic::Type::NULLT:
+        break;
+      case folly::dynamic::Type::BOOL:
+        types[i] = kSnapshotBoolean;
+        numbers[i] = value.getBool() ? 1 : 0;
+        break;
+      case folly::dynamic::Type::INT64:
+        types[i] = kSnapshotNumber;
+        numbers[i] = value.getInt();
+        break;
+      case folly::dynamic::Type::DOUBLE:
+        types[i] = kSnapshotNumber;
+        numbers[i] = value.getDouble();
+        break;
+      case folly::dynamic::Type::STRING:
+        types[i] = kSnapshotString;
+        (*objects)[i] = make_jstring(value.getString());
+        break;
+      case folly::dynamic::Type::OBJECT:
+        if (isDynamicBuffer(value)) {
+          types[i] = kSnapshotBuffer;
+          objects->setElement(i, makeJByteBufferOrThrow(value).get());
+        } else {
+          types[i] = kSnapshotMap;
+          (*objects)[i] = ReadableNativeMap::newObjectCxxArgs(value);
+        }
+        break;
+      case folly::dynamic::Type::ARRAY:
+        types[i] = kSnapshotArray;
+        (*objects)[i] = ReadableNativeArray::newObjectCxxArgs(value);
+        break;
+      default:
+        throwNewJavaException(exceptions::gUnexpectedNativeTypeExceptionClass, "Unknown type");
+    }
+  }
+
+  auto jtypes = JArrayByte::newArray(size);
+  jtypes->setRegion(0, size, types.data());
+  auto jnumbers = JArrayDouble::newArray(size);
+  jnumbers->setRegion(0, size, numbers.data());
+  return ReadableMapSnapshot::create(keys, jtypes, jnumbers, objects);
+}
+
 bool ReadableNativeMap::hasKey(const std::string& key) {
   return map_.find(key) != map_.items().end();
 }
@@ -150,8 +233,12 @@ local_ref<ReadableNativeMap::jhybridobject> ReadableNativeMap::getMapKey(const s
   }
 }
 
+local_ref<JByteBuffer> ReadableNativeMap::getByteBufferKey(const std::string& key) {
+  return makeJByteBufferOrThrow(getMapValue(key));
+}
+
 local_ref<ReadableType> ReadableNativeMap::getValueType(const std::string& key) {
-  return ReadableType::getType(getMapValue(key).type());
+  return ReadableType::getType(getMapValue(key));
 }
 
 local_ref<ReadableNativeMap::jhybridobject> ReadableNativeMap::createWithContents(folly::dynamic&& map) {
@@ -172,6 +259,7 @@ void ReadableNativeMap::registerNatives() {
       makeNativeMethod("importKeys", ReadableNativeMap::importKeys),
       makeNativeMethod("importValues", ReadableNativeMap::importValues),
       makeNativeMethod("importTypes", ReadableNativeMap::importTypes),
+      makeNativeMethod("importSnapshot", ReadableNativeMap::importSnapshot),
       makeNativeMethod("hasKeyNative", ReadableNativeMap::hasKey),
       makeNativeMethod("isNullNative", ReadableNativeMap::isNull),
       makeNativeMethod("getBooleanNative", ReadableNativeMap::getBooleanKey),
@@ -180,6 +268,7 @@ void ReadableNativeMap::registerNatives() {
       makeNativeMethod("getStringNative", ReadableNativeMap::getStringKey),
       makeNativeMethod("getArrayNative", ReadableNativeMap::getArrayKey),
       makeNativeMethod("getMapNative", ReadableNativeMap::getMapKey),
+      makeNativeMethod("getByteBufferNative", ReadableNativeMap::getByteBufferKey),
       makeNativeMethod("getTypeNative", ReadableNativeMap::getValueType),
   });
 }
@@ -238,5 +327,21 @@ int64_t convertDynamicIfIntegral(const folly::dynamic& val) {
   return result;
 }
 
+local_ref<JByteBuffer> makeJByteBufferOrThrow(const folly::dynamic& val) {
+  if (val.isNull()) {
+    return local_ref<JByteBuffer>(nullptr);
+  }
+  if (!isDynamicBuffer(val)) {
+    throwNewJavaException(exceptions::gUnexpectedNativeTypeExceptionClass,
+                          "expected Buffer, got a %s", val.typeName());
+  }
+  const std::string& bytes = getDynamicBufferBytes(val);
+  auto buffer = JByteBuffer::allocateDirect(static_cast<jint>(bytes.size()));
+  if (!bytes.empty()) {
+    std::memcpy(buffer->getDirectBytes(), bytes.data(), bytes.size());
+  }
+  return buffer;
+}
+
 }  // namespace react
 }  // namespace facebook
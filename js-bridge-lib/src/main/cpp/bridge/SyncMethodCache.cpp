@@ -0,0 +1,106 @@
+// Copyright (c) Facebook, Inc. and its affiliates.
+
+// This source code is licensed under the MIT license found in the
+// LICENSE file in the root directory of this source tree.
+
+#include "SyncMethodCache.h"
+
+#include <folly/Conv.h>
+
+namespace facebook {
+    namespace react {
+
+        constexpr int64_t SyncMethodCache::kNotMemoized;
+        constexpr size_t SyncMethodCache::kMaxResultsPerMethod;
+
+        SyncMethodCache::SyncMethodCache(const std::vector<int64_t> &ttlMs) {
+            methods_.resize(ttlMs.size());
+            for (size_t i = 0; i < ttlMs.size(); i++) {
+                methods_[i].ttlMs = ttlMs[i];
+            }
+        }
+
+        jni::local_ref<SyncMethodCache::jhybriddata> SyncMethodCache::initHybrid(
+                jni::alias_ref<jclass>,
+                jni::alias_ref<jni::JArrayLong> ttlMs) {
+            size_t size = ttlMs->size();
+            auto region = ttlMs->getRegion(0, size);
+            return makeCxxInstance(std::vector<int64_t>(region.get(), region.get() + size));
+        }
+
+        void SyncMethodCache::registerNatives() {
+            registerHybrid({
+                                   makeNativeMethod("initHybrid", SyncMethodCache::initHybrid),
+                                   makeNativeMethod("nativeInvalidate", SyncMethodCache::invalidate),
+                                   makeNativeMethod("nativeGetHitCount", SyncMethodCache::getHitCount),
+                                   makeNativeMethod("nativeGetMissCount", SyncMethodCache::getMissCount),
+                           });
+        }
+
+        bool SyncMethodCache::isMemoized(unsigned int methodId) const {
+            return methodId < methods_.size() && methods_[methodId].ttlMs != kNotMemoized;
+        }
+
+        folly::Optional<MethodCallResult> SyncMethodCache::get(
+                unsigned int methodId, const folly::dynamic &args, uint64_t &generation) {
+            std::lock_guard<std::mutex> lock(mutex_);
+            Method &method = methods_[methodId];
+            generation = method.generation;
+            auto it = method.results.find(args);
+            if (it != method.results.end()) {
+                if (method.ttlMs == 0 || Clock::now() < it->second.expiry) {
+                    method.hits++;
+                    return it->second.result;
+                }
+                method.results.erase(it);
+            }
+            method.misses++;
+            return folly::none;
+        }
+
+        void SyncMethodCache::put(
+                unsigned int methodId, const folly::dynamic &args, const MethodCallResult &result,
+                uint64_t generation) {
+            std::lock_guard<std::mutex> lock(mutex_);
+            Method &method = methods_[methodId];
+            if (method.generation != generation) {
+                // Invalidated while the method ran, the result may already be stale
+                return;
+            }
+            if (method.results.size() >= kMaxResultsPerMethod) {
+                // Called with ever new arguments, start over rather than track the oldest calls
+                method.results.clear();
+            }
+            method.results[args] = Entry{
+                    result,
+                    Clock::now() + std::chrono::milliseconds(method.ttlMs)};
+        }
+
+        void SyncMethodCache::invalidate(jint methodId) {
+            std::lock_guard<std::mutex> lock(mutex_);
+            for (size_t i = 0; i < methods_.size(); i++) {
+                if (methodId == -1 || static_cast<size_t>(methodId) == i) {
+                    methods_[i].results.clear();
+                    methods_[i].generation++;
+                }
+            }
+        }
+
+        jlong SyncMethodCache::getHitCount(jint methodId) {
+            std::lock_guard<std::mutex> lock(mutex_);
+            if (methodId < 0 || static_cast<size_t>(methodId) >= methods_.size()) {
+                throw std::invalid_argument(folly::to<std::string>("methodId ", methodId, " out of range"));
+            }
+            return methods_[methodId].hits;
+        }
+
+        jlong SyncMethodCache::getMissCount(jint methodId) {
+            std::lock_guard<std::mutex> lock(mutex_);
+            if (methodId < 0 || static_cast<size_t>(methodId) >= methods_.size()) {
+                throw std::invalid_argument(folly::to<std::string>("methodId ", methodId, " out of range"));
+            }
+            return methods_[methodId].misses;
+        }
+
+    }
+}
@@ -5,6 +5,7 @@
 
 #include "include/WritableNativeArray.h"
 
+#include "include/DynamicBuffer.h"
 #include "include/WritableNativeMap.h"
 
 using namespace facebook::jni;
@@ -19,6 +20,11 @@ local_ref<WritableNativeArray::jhybriddata> WritableNativeArray::initHybrid(alia
   return makeCxxInstance();
 }
 
+void WritableNativeArray::clear() {
+  array_ = folly::dynamic::array();
+  isConsumed = false;
+}
+
 void WritableNativeArray::pushNull() {
   throwIfConsumed();
   array_.push_back(nullptr);
@@ -66,9 +72,38 @@ void WritableNativeArray::pushNativeMap(WritableNativeMap* map) {
   array_.push_back(map->consume());
 }
 
+void WritableNativeArray::pushDoubleArray(alias_ref<JArrayDouble> values) {
+  throwIfConsumed();
+  jint size = values->size();
+  auto region = values->getRegion(0, size);
+  for (jint i = 0; i < size; i++) {
+    array_.push_back(region[i]);
+  }
+}
+
+void WritableNativeArray::pushIntArray(alias_ref<JArrayInt> values) {
+  throwIfConsumed();
+  jint size = values->size();
+  auto region = values->getRegion(0, size);
+  for (jint i = 0; i < size; i++) {
+    array_.push_back(region[i]);
+  }
+}
+
+void WritableNativeArray::pushNativeByteBuffer(alias_ref<JByteBuffer> buffer, jint offset, jint length) {
+  if (!buffer) {
+    pushNull();
+    return;
+  }
+  throwIfConsumed();
+  const uint8_t* bytes = length > 0 ? buffer->getDirectBytes() + offset : nullptr;
+  array_.push_back(makeDynamicBuffer(bytes, length));
+}
+
 void WritableNativeArray::registerNatives() {
   registerHybrid({
       makeNativeMethod("initHybrid", WritableNativeArray::initHybrid),
+      makeNativeMethod("clearNative", WritableNativeArray::clear),
       makeNativeMethod("pushNull", WritableNativeArray::pushNull),
       makeNativeMethod("pushBoolean", WritableNativeArray::pushBoolean),
       makeNativeMethod("pushDouble", WritableNativeArray::pushDouble),
@@ -76,6 +111,9 @@ void WritableNativeArray::registerNatives() {
       makeNativeMethod("pushString", WritableNativeArray::pushString),
       makeNativeMethod("pushNativeArray", WritableNativeArray::pushNativeArray),
       makeNativeMethod("pushNativeMap", WritableNativeArray::pushNativeMap),
+      makeNativeMethod("pushNativeByteBuffer", WritableNativeArray::pushNativeByteBuffer),
+      makeNativeMethod("pushDoubleArrayNative", WritableNativeArray::pushDoubleArray),
+      makeNativeMethod("pushIntArrayNative", WritableNativeArray::pushIntArray),
   });
 }
 
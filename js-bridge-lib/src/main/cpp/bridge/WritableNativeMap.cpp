@@ -5,6 +5,8 @@
 
 #include "include/WritableNativeMap.h"
 
+#include "include/DynamicBuffer.h"
+
 using namespace facebook::jni;
 
 namespace facebook {
@@ -24,6 +26,12 @@ local_ref<WritableNativeMap::jhybriddata> WritableNativeMap::initHybrid(alias_re
   return makeCxxInstance();
 }
 
+void WritableNativeMap::clear() {
+  map_ = folly::dynamic::object();
+  keys_ = folly::none;
+  isConsumed = false;
+}
+
 void WritableNativeMap::putNull(std::string key) {
   throwIfConsumed();
   map_.insert(std::move(key), nullptr);
@@ -71,6 +79,16 @@ void WritableNativeMap::putNativeMap(std::string key, WritableNativeMap *otherMa
   map_.insert(std::move(key), otherMap->consume());
 }
 
+void WritableNativeMap::putNativeByteBuffer(std::string key, alias_ref<JByteBuffer> val, jint offset, jint length) {
+  if (!val) {
+    putNull(std::move(key));
+    return;
+  }
+  throwIfConsumed();
+  const uint8_t* bytes = length > 0 ? val->getDirectBytes() + offset : nullptr;
+  map_.insert(std::move(key), makeDynamicBuffer(bytes, length));
+}
+
 void WritableNativeMap::mergeNativeMap(ReadableNativeMap* other) {
   throwIfConsumed();
   other->throwIfConsumed();
@@ -82,6 +100,7 @@ void WritableNativeMap::mergeNativeMap(ReadableNativeMap* other) {
 
 void WritableNativeMap::registerNatives() {
   registerHybrid({
+      makeNativeMethod("clearNative", WritableNativeMap::clear),
       makeNativeMethod("putNull", WritableNativeMap::putNull),
       makeNativeMethod("putBoolean", WritableNativeMap::putBoolean),
       makeNativeMethod("putDouble", WritableNativeMap::putDouble),
@@ -89,6 +108,7 @@ void WritableNativeMap::registerNatives() {
       makeNativeMethod("putString", WritableNativeMap::putString),
       makeNativeMethod("putNativeArray", WritableNativeMap::putNativeArray),
       makeNativeMethod("putNativeMap", WritableNativeMap::putNativeMap),
+      makeNativeMethod("putNativeByteBuffer", WritableNativeMap::putNativeByteBuffer),
       makeNativeMethod("mergeNativeMap", WritableNativeMap::mergeNativeMap),
       makeNativeMethod("initHybrid", WritableNativeMap::initHybrid),
     });
@@ -0,0 +1,50 @@
+// Copyright (c) Facebook, Inc. and its affiliates.
+
+// This source code is licensed under the MIT license found in the
+// LICENSE file in the root directory of this source tree.
+
+#pragma once
+
+#include <string>
+
+#include <folly/dynamic.h>
+
+namespace facebook {
+namespace react {
+
+/**
+ * folly::dynamic has no binary type, so binary values (ByteBuffers on the
+ * Java side, ArrayBuffers on the JS side) travel through the bridge as an
+ * object with a single tagged key holding the raw bytes in a std::string.
+ * The bytes are never base64 encoded; converting to and from JS and Java
+ * copies them exactly once at each boundary.
+ */
+constexpr const char* kDynamicBufferKey = "$$jsBridgeBuffer";
+
+inline bool isDynamicBuffer(const folly::dynamic& dyn) {
+  if (!dyn.isObject() || dyn.size() != 1) {
+    return false;
+  }
+  auto it = dyn.find(kDynamicBufferKey);
+  return it != dyn.items().end() && it->second.isString();
+}
+
+inline folly::dynamic makeDynamicBuffer(std::string bytes) {
+  return folly::dynamic::object(kDynamicBufferKey, std::move(bytes));
+}
+
+inline folly::dynamic makeDynamicBuffer(const void* data, size_t size) {
+  if (size == 0) {
+    return makeDynamicBuffer(std::string());
+  }
+  return makeDynamicBuffer(
+      std::string(static_cast<const char*>(data), size));
+}
+
+// The caller must have checked isDynamicBuffer(dyn).
+inline const std::string& getDynamicBufferBytes(const folly::dynamic& dyn) {
+  return dyn.find(kDynamicBufferKey)->second.getString();
+}
+
+} // namespace react
+} // namespace facebook
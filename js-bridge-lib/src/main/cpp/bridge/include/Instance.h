@@ -23,7 +23,6 @@ namespace react {
 
 class JSBigString;
 class JSExecutorFactory;
-class MessageQueueThread;
 class ModuleRegistry;
 class RAMBundleRegistry;
 
@@ -60,7 +59,10 @@ public:
   bool isInspectable();
   bool isBatchActive();
   void callJSFunction(std::string &&module, std::string &&method,
-                      folly::dynamic &&params);
+                      folly::dynamic &&params,
+                      QueuePriority priority = QueuePriority::Normal);
+  // Delivered to JS as one batch, so pending JS calls only go up by one
+  void callJSFunctions(std::vector<JSFunctionCall> &&calls);
   void callJSCallback(uint64_t callbackId, folly::dynamic &&params);
 
   // This method is experimental, and may be modified or removed.
@@ -5,7 +5,10 @@
 
 #pragma once
 
+#include <array>
+#include <atomic>
 #include <functional>
+#include <memory>
 
 #include <MessageQueueThread.h>
 #include <fbjni/fbjni.h>
@@ -29,6 +32,20 @@ public:
    */
   void runOnQueue(std::function<void()>&& runnable) override;
 
+  /**
+   * Enqueues the given function to run on the lane of this MessageQueueThread
+   * matching priority.
+   */
+  void runOnQueueWithPriority(std::function<void()>&& runnable, QueuePriority priority) override;
+
+  /**
+   * Enqueues the given function to run once every function enqueued so far
+   * through this object has run, whatever their lane. Lanes run out of order,
+   * so it is posted behind each lane holding functions that haven't run yet,
+   * and runs with the last of them.
+   */
+  void runAfterPending(std::function<void()>&& runnable);
+
   /**
    * Synchronously executes the given function to run on this
    * MessageQueueThread, waiting until it completes.  Can be called from any
@@ -47,7 +64,13 @@ public:
   }
 
 private:
+  // Functions enqueued per lane that haven't started yet, shared with them
+  using PendingCounts = std::array<std::atomic<int>, 3>;
+
+  void post(std::function<void()>&& runnable, QueuePriority priority);
+
   global_ref<JavaMessageQueueThread::javaobject> m_jobj;
+  std::shared_ptr<PendingCounts> m_pending;
 };
 
 } }
@@ -7,6 +7,7 @@
 
 #include <memory>
 #include <string>
+#include <vector>
 
 #include "NativeModule.h"
 #include "folly/folly/dynamic.h"
@@ -25,6 +26,13 @@ class MessageQueueThread;
 class ModuleRegistry;
 class RAMBundleRegistry;
 
+// A JS function call, as delivered in a batch by JSExecutor::callFunctions.
+struct JSFunctionCall {
+  std::string moduleId;
+  std::string methodId;
+  folly::dynamic arguments;
+};
+
 // This interface describes the delegate interface required by
 // Executor implementations to call from JS into native code.
 class ExecutorDelegate {
@@ -74,6 +82,14 @@ public:
    */
   virtual void callFunction(const std::string& moduleId, const std::string& methodId, const folly::dynamic& arguments) = 0;
 
+  /**
+   * Executes the calls in order, as a single batch: the executor calls
+   * Bridge->callNativeModules with isEndOfBatch only once, after the last
+   * call. Uses BatchedBridge.callFunctionsReturnFlushedQueue when the bundle
+   * has it.
+   */
+  virtual void callFunctions(const std::vector<JSFunctionCall>& calls) = 0;
+
   /**
    * Executes BatchedBridge.invokeCallbackAndReturnFlushedQueue with the cbID,
    * and optional additional arguments in JS and returns the next queue. The executor
@@ -5,17 +5,25 @@
 
 #pragma once
 
+#include <cstdint>
+#include <deque>
+#include <functional>
+#include <memory>
+#include <mutex>
+#include <utility>
+
+#include <MessageQueueThread.h>
 #include <NativeModule.h>
 #include <fbjni/fbjni.h>
 #include <folly/Optional.h>
 
 #include "MethodInvoker.h"
+#include "SyncMethodCache.h"
 
 namespace facebook {
 namespace react {
 
 class Instance;
-class MessageQueueThread;
 
 struct JMethodDescriptor : public jni::JavaClass<JMethodDescriptor> {
   static constexpr auto kJavaDescriptor =
@@ -25,6 +33,7 @@ struct JMethodDescriptor : public jni::JavaClass<JMethodDescriptor> {
   std::string getSignature() const;
   std::string getName() const;
   std::string getType() const;
+  QueuePriority getPriority() const;
 };
 
 struct JavaModuleWrapper : jni::JavaClass<JavaModuleWrapper> {
@@ -47,6 +56,37 @@ struct JavaModuleWrapper : jni::JavaClass<JavaModuleWrapper> {
       ->getMethod<jni::JList<JMethodDescriptor::javaobject>::javaobject()>("getMethodDescriptors");
     return getMethods(self());
   }
+
+  // Null if the module has no memoized methods, valid once getMethodDescriptors was called
+  jni::local_ref<SyncMethodCache::javaobject> getSyncMethodCache() {
+    static auto getSyncMethodCache = javaClassStatic()
+      ->getMethod<SyncMethodCache::javaobject()>("getSyncMethodCache");
+    return getSyncMethodCache(self());
+  }
+};
+
+// The async calls to a module whose methods don't all have the same priority. Each call is posted
+// to the lane of its method, and the function posted runs the module's calls that haven't run yet,
+// oldest first, up to and including its own. A call to a higher lane takes the earlier calls to
+// its module ahead with it instead of overtaking them, and the functions posted for those calls
+// then find nothing left to run.
+class OrderedModuleCalls {
+ public:
+  ~OrderedModuleCalls();
+
+  void post(MessageQueueThread& queue, QueuePriority priority, std::function<void()>&& call);
+
+ private:
+  // Shared with the functions posted, which may run after the module is gone
+  struct Calls {
+    std::mutex mutex;
+    std::deque<std::pair<uint64_t, std::function<void()>>> pending;
+    uint64_t nextSequence = 0;
+  };
+
+  static void runUpTo(Calls& calls, uint64_t sequence);
+
+  std::shared_ptr<Calls> calls_ = std::make_shared<Calls>();
 };
 
 class JavaNativeModule : public NativeModule {
@@ -69,7 +109,17 @@ class JavaNativeModule : public NativeModule {
   std::weak_ptr<Instance> instance_;
   jni::global_ref<JavaModuleWrapper::javaobject> wrapper_;
   std::shared_ptr<MessageQueueThread> messageQueueThread_;
+  // Filled by getMethods, which isn't called when the module config comes from the cache
+  bool methodsLoaded_ = false;
   std::vector<folly::Optional<MethodInvoker>> syncMethods_;
+  std::vector<QueuePriority> methodPriorities_;
+  bool hasMixedPriorities_ = false;
+  OrderedModuleCalls orderedCalls_;
+  // Keeps syncMethodCache_ alive, which is read without calling into Java
+  jni::global_ref<SyncMethodCache::javaobject> syncMethodCacheRef_;
+  SyncMethodCache* syncMethodCache_ = nullptr;
+
+  void ensureMethodsLoaded();
 };
 
 // Experimental new implementation that uses direct method invocation
@@ -93,6 +143,9 @@ class NewJavaNativeModule : public NativeModule {
   std::shared_ptr<MessageQueueThread> messageQueueThread_;
   std::vector<MethodInvoker> methods_;
   std::vector<MethodDescriptor> methodDescriptors_;
+  std::vector<QueuePriority> methodPriorities_;
+  bool hasMixedPriorities_ = false;
+  OrderedModuleCalls orderedCalls_;
 
   MethodCallResult invokeInner(unsigned int reactMethodId, folly::dynamic&& params);
 };
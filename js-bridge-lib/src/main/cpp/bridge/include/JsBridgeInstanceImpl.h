@@ -3,7 +3,9 @@
 // This source code is licensed under the MIT license found in the
 // LICENSE file in the root directory of this source tree.
 
+#include <mutex>
 #include <string>
+#include <vector>
 
 #include <fbjni/fbjni.h>
 #include <folly/Memory.h>
@@ -14,6 +16,7 @@
 #include "JSLoader.h"
 #include "ModuleRegistryBuilder.h"
 #include "ModuleRegistry.h"
+#include "NativeArray.h"
 
 namespace facebook {
     namespace react {
@@ -22,8 +25,6 @@ namespace facebook {
 
         class JavaScriptExecutorHolder;
 
-        class NativeArray;
-
         struct ReactCallback : public jni::JavaClass<ReactCallback> {
             static constexpr auto kJavaDescriptor = "Lcom/sanyinchen/jsbridge/common/callback/JsBridgeCallback;";
         };
@@ -61,6 +62,20 @@ namespace facebook {
                     jni::alias_ref<jni::JCollection<JavaModuleWrapper::javaobject>::javaobject> javaModules,
                     jni::alias_ref<jni::JCollection<ModuleHolder::javaobject>::javaobject> cxxModules);
 
+            /**
+             * Hands the module configs saved by ModuleConfigCache to the ModuleRegistry, a JSON
+             * object of the module names to their config, or an empty string if there are none.
+             */
+            void jniSetModuleConfigCache(
+                    const std::string &configs,
+                    jni::alias_ref<jni::JArrayClass<jstring>> cacheableModuleNames);
+
+            /**
+             * Serializes the module configs for ModuleConfigCache to save, or returns an empty
+             * string if none was built since the last call.
+             */
+            std::string jniGetModuleConfigCache();
+
             /**
              * Sets the source URL of the underlying bridge without loading any JS code.
              */
@@ -80,10 +95,37 @@ namespace facebook {
             jniLoadScriptFromFile(const std::string &fileName, const std::string &sourceURL, bool loadSynchronously);
 
 
-            void jniCallJSFunction(std::string module, std::string method, NativeArray *arguments);
+            void jniCallJSFunction(std::string module, std::string method, NativeArray *arguments,
+                                   jint priority);
+
+            /**
+             * Calls the JS functions coalesced by JSCallCoalescer, in order and as a
+             * single batch.
+             */
+            void jniCallJSFunctions(
+                    jni::alias_ref<jni::JArrayClass<jstring>> modules,
+                    jni::alias_ref<jni::JArrayClass<jstring>> methods,
+                    jni::alias_ref<jni::JArrayClass<NativeArray::javaobject>> arguments);
 
             void jniCallJSCallback(jint callbackId, NativeArray *arguments);
 
+            /**
+             * Remembers the JS module or method name interned as {@code id} on the Java side.
+             */
+            void jniRegisterJSName(jint id, std::string name);
+
+            /**
+             * Calls a JS function with interned names and arguments encoded by
+             * JavaScriptModuleArguments, building the argument array in a single JNI call.
+             */
+            void jniCallJSFunctionEncoded(
+                    jint moduleId,
+                    jint methodId,
+                    jint argumentCount,
+                    jni::alias_ref<jni::JArrayByte> argumentTypes,
+                    jni::alias_ref<jni::JArrayDouble> argumentNumbers,
+                    jni::alias_ref<jni::JArrayClass<jobject>> argumentObjects);
+
             void setGlobalVariable(std::string propName,
                                    std::string &&jsonValue);
 
@@ -96,6 +138,9 @@ namespace facebook {
             std::shared_ptr<Instance> instance_;
             std::shared_ptr<ModuleRegistry> moduleRegistry_;
             std::shared_ptr<JMessageQueueThread> moduleMessageQueue_;
+            // Interned JS module and method names, indexed by id
+            std::mutex jsNamesMutex_;
+            std::vector<std::string> jsNames_;
         };
 
     }
@@ -8,14 +8,27 @@
 #include <condition_variable>
 #include <functional>
 #include <mutex>
+#include <utility>
 
 namespace facebook {
 namespace react {
 
+// Lanes of a MessageQueueThread, in the order of MessageQueueThread.Priority
+// on the Java side.
+enum class QueuePriority : int {
+  Immediate = 0,
+  Normal = 1,
+  Idle = 2,
+};
+
 class MessageQueueThread {
  public:
   virtual ~MessageQueueThread() {}
   virtual void runOnQueue(std::function<void()>&&) = 0;
+  // Queues without lanes run everything in order.
+  virtual void runOnQueueWithPriority(std::function<void()>&& runnable, QueuePriority) {
+    runOnQueue(std::move(runnable));
+  }
   // runOnQueueSync and quitSynchronous are dangerous.  They should only be
   // used for initialization and cleanup.
   virtual void runOnQueueSync(std::function<void()>&&) = 0;
@@ -6,6 +6,7 @@
 #pragma once
 
 #include <memory>
+#include <mutex>
 #include <unordered_set>
 #include <vector>
 
@@ -45,6 +46,15 @@ class RN_EXPORT ModuleRegistry {
 
   folly::Optional<ModuleConfig> getConfig(const std::string& name);
 
+  // Makes getConfig return the configs saved by a previous launch instead of building them, for
+  // the cacheable modules. cachedConfigs maps module names to their config, or to null for the
+  // modules without config. Must be called before JS runs.
+  void setConfigCache(folly::dynamic cachedConfigs, std::unordered_set<std::string> cacheableModules);
+
+  // Returns the cached configs and the ones of the cacheable modules built since, to be saved for
+  // the next launch, or null if none was built since the last call. Can be called from any thread.
+  folly::dynamic getConfigCacheUpdate();
+
   void callNativeMethod(unsigned int moduleId, unsigned int methodId, folly::dynamic&& params, int callId);
   MethodCallResult callSerializableNativeHook(unsigned int moduleId, unsigned int methodId, folly::dynamic&& args);
 
@@ -66,6 +76,12 @@ class RN_EXPORT ModuleRegistry {
   // If the function returns true, ModuleRegistry will try to find the module again (assuming it's registered)
   // If the functon returns false, ModuleRegistry will not try to find the module and return nullptr instead.
   ModuleNotFoundCallback moduleNotFoundCallback_;
+
+  // Guards the config cache, getConfig runs on the JS thread and the cache is saved from another
+  std::mutex configCacheMutex_;
+  folly::dynamic configCache_ = folly::dynamic::object;
+  std::unordered_set<std::string> cacheableModules_;
+  bool configCacheChanged_ = false;
 };
 
 }
@@ -19,6 +19,8 @@ struct ReadableType : public jni::JavaClass<ReadableType> {
   static auto constexpr kJavaDescriptor = "Lcom/sanyinchen/jsbridge/data/ReadableType;";
 
   static jni::local_ref<ReadableType> getType(folly::dynamic::Type type);
+  // Like getType(value.type()), but reports tagged binary values as Buffer.
+  static jni::local_ref<ReadableType> getType(const folly::dynamic& value);
 };
 
 namespace exceptions {
@@ -11,6 +11,7 @@
 #include <vector>
 
 #include "JSExecutor.h"
+#include "MessageQueueThread.h"
 
 namespace folly {
 struct dynamic;
@@ -21,7 +22,6 @@ namespace react {
 
 struct InstanceCallback;
 class JsToNativeBridge;
-class MessageQueueThread;
 class ModuleRegistry;
 class RAMBundleRegistry;
 
@@ -48,9 +48,20 @@ public:
 
   /**
    * Executes a function with the module ID and method ID and any additional
-   * arguments in JS.
+   * arguments in JS. The call is queued on the lane of the JS queue matching
+   * priority.
    */
-  void callFunction(std::string&& module, std::string&& method, folly::dynamic&& args);
+  void callFunction(
+      std::string&& module,
+      std::string&& method,
+      folly::dynamic&& args,
+      QueuePriority priority = QueuePriority::Normal);
+
+  /**
+   * Executes the functions in order, as a single JS invocation when the
+   * bundle supports it.
+   */
+  void callFunctions(std::vector<JSFunctionCall>&& calls);
 
   /**
    * Invokes a callback with the cbID, and optional additional arguments in JS.
@@ -84,7 +95,9 @@ public:
    */
   void destroy();
 private:
-  void runOnExecutorQueue(std::function<void(JSExecutor*)> task);
+  void runOnExecutorQueue(
+      std::function<void(JSExecutor*)> task,
+      QueuePriority priority = QueuePriority::Normal);
 
   // This is used to avoid a race condition where a proxyCallback gets queued
   // after ~NativeToJsBridge(), on the same thread. In that case, the callback
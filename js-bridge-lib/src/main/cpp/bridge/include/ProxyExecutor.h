@@ -45,6 +45,8 @@ public:
     const std::string& moduleId,
     const std::string& methodId,
     const folly::dynamic& arguments) override;
+  virtual void callFunctions(
+    const std::vector<JSFunctionCall>& calls) override;
   virtual void invokeCallback(
     const double callbackId,
     const folly::dynamic& arguments) override;
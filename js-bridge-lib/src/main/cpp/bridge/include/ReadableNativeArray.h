@@ -5,6 +5,8 @@
 
 #pragma once
 
+#include <fbjni/ByteBuffer.h>
+
 #include "NativeArray.h"
 
 #include "NativeCommon.h"
@@ -41,6 +43,10 @@ class ReadableNativeArray : public jni::HybridClass<ReadableNativeArray, NativeA
   // This actually returns a ReadableNativeMap::JavaPart, but due to
   // limitations of fbjni, we can't specify that here.
   jni::local_ref<NativeMap::jhybridobject> getMap(jint index);
+  jni::local_ref<jni::JByteBuffer> getByteBuffer(jint index);
+  jint getDoubleArray(jni::alias_ref<jni::JArrayDouble> dst);
+  jint getIntArray(jni::alias_ref<jni::JArrayInt> dst);
+  jni::local_ref<jdoubleArray> toDoubleArray();
   jni::local_ref<ReadableType> getType(jint index);
 
   static void registerNatives();
@@ -5,6 +5,7 @@
 
 #pragma once
 
+#include <fbjni/ByteBuffer.h>
 #include <fbjni/fbjni.h>
 #include <folly/dynamic.h>
 #include <folly/json.h>
@@ -23,12 +24,25 @@ struct ReadableMap : jni::JavaClass<ReadableMap> {
   static auto constexpr kJavaDescriptor = "Lcom/sanyinchen/jsbridge/data/ReadableMap;";
 };
 
+struct ReadableMapSnapshot : jni::JavaClass<ReadableMapSnapshot> {
+  static auto constexpr kJavaDescriptor = "Lcom/sanyinchen/jsbridge/data/ReadableMapSnapshot;";
+
+  static jni::local_ref<javaobject> create(
+      jni::alias_ref<jni::JArrayClass<jstring>> keys,
+      jni::alias_ref<jni::JArrayByte> types,
+      jni::alias_ref<jni::JArrayDouble> numbers,
+      jni::alias_ref<jni::JArrayClass<jobject>> objects) {
+    return newInstance(keys, types, numbers, objects);
+  }
+};
+
 struct ReadableNativeMap : jni::HybridClass<ReadableNativeMap, NativeMap> {
   static auto constexpr kJavaDescriptor = "Lcom/sanyinchen/jsbridge/data/ReadableNativeMap;";
 
   jni::local_ref<jni::JArrayClass<jstring>> importKeys();
   jni::local_ref<jni::JArrayClass<jobject>> importValues();
   jni::local_ref<jni::JArrayClass<jobject>> importTypes();
+  jni::local_ref<ReadableMapSnapshot::javaobject> importSnapshot();
   bool hasKey(const std::string& key);
   const folly::dynamic& getMapValue(const std::string& key);
   bool isNull(const std::string& key);
@@ -38,6 +52,7 @@ struct ReadableNativeMap : jni::HybridClass<ReadableNativeMap, NativeMap> {
   jni::local_ref<jstring> getStringKey(const std::string& key);
   jni::local_ref<ReadableNativeArray::jhybridobject> getArrayKey(const std::string& key);
   jni::local_ref<jhybridobject> getMapKey(const std::string& key);
+  jni::local_ref<jni::JByteBuffer> getByteBufferKey(const std::string& key);
   jni::local_ref<ReadableType> getValueType(const std::string& key);
   folly::Optional<folly::dynamic> keys_;
   static jni::local_ref<jhybridobject> createWithContents(folly::dynamic&& map);
@@ -69,6 +84,8 @@ struct ReadableNativeMapKeySetIterator : jni::HybridClass<ReadableNativeMapKeySe
 
 jint makeJIntOrThrow(int64_t integer);
 int64_t convertDynamicIfIntegral(const folly::dynamic&);
+// Copies a binary value into a new direct ByteBuffer, null stays null.
+jni::local_ref<jni::JByteBuffer> makeJByteBufferOrThrow(const folly::dynamic&);
 
 } // namespace react
 } // namespace facebook
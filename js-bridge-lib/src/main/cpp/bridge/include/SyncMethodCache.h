@@ -0,0 +1,85 @@
+// Copyright (c) Facebook, Inc. and its affiliates.
+
+// This source code is licensed under the MIT license found in the
+// LICENSE file in the root directory of this source tree.
+
+#pragma once
+
+#include <chrono>
+#include <mutex>
+#include <unordered_map>
+#include <vector>
+
+#include <NativeModule.h>
+#include <fbjni/fbjni.h>
+#include <folly/Optional.h>
+#include <folly/dynamic.h>
+
+namespace facebook {
+namespace react {
+
+// The results of the memoized synchronous methods of a Java module, see
+// ReactMethod#memoize. Owned by its Java SyncMethodCache, which sets which methods are
+// memoized and for how long, and invalidates them. JavaNativeModule answers the calls it has a
+// result for without calling into Java.
+class SyncMethodCache : public jni::HybridClass<SyncMethodCache> {
+ public:
+  static constexpr auto kJavaDescriptor =
+    "Lcom/sanyinchen/jsbridge/module/impl/java/SyncMethodCache;";
+
+  // Time to live of the methods that aren't memoized
+  static constexpr int64_t kNotMemoized = -1;
+  // Results kept per method, the oldest calls are dropped past it
+  static constexpr size_t kMaxResultsPerMethod = 64;
+
+  static void registerNatives();
+
+  bool isMemoized(unsigned int methodId) const;
+
+  // Returns the result of an earlier call with the same arguments if it hasn't expired or been
+  // invalidated, counting a hit, otherwise counts a miss and sets generation for put.
+  folly::Optional<MethodCallResult> get(
+    unsigned int methodId, const folly::dynamic& args, uint64_t& generation);
+
+  // Keeps the result of a call that missed, unless the method was invalidated since.
+  void put(
+    unsigned int methodId, const folly::dynamic& args, const MethodCallResult& result,
+    uint64_t generation);
+
+ private:
+  friend HybridBase;
+
+  using Clock = std::chrono::steady_clock;
+
+  struct Entry {
+    MethodCallResult result;
+    Clock::time_point expiry;
+  };
+
+  struct Method {
+    int64_t ttlMs;
+    std::unordered_map<folly::dynamic, Entry> results;
+    uint64_t generation = 0;
+    int64_t hits = 0;
+    int64_t misses = 0;
+  };
+
+  // ttlMs has a time to live per method id, 0 to keep the results until they are invalidated or
+  // kNotMemoized
+  explicit SyncMethodCache(const std::vector<int64_t>& ttlMs);
+
+  static jni::local_ref<jhybriddata> initHybrid(
+    jni::alias_ref<jclass>, jni::alias_ref<jni::JArrayLong> ttlMs);
+
+  // Drops the results of a method, or of every method if methodId is -1
+  void invalidate(jint methodId);
+  jlong getHitCount(jint methodId);
+  jlong getMissCount(jint methodId);
+
+  // Guards the results and counts, calls come from the JS thread and invalidations from any
+  std::mutex mutex_;
+  // Sized once, only the ttlMs are read without the lock
+  std::vector<Method> methods_;
+};
+
+}}
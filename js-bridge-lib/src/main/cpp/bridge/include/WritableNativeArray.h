@@ -27,6 +27,8 @@ struct WritableNativeArray
   WritableNativeArray();
   static jni::local_ref<jhybriddata> initHybrid(jni::alias_ref<jclass>);
 
+  // Empties the array and makes it usable again, even if it was consumed.
+  void clear();
   void pushNull();
   void pushBoolean(jboolean value);
   void pushDouble(jdouble value);
@@ -34,6 +36,9 @@ struct WritableNativeArray
   void pushString(jstring value);
   void pushNativeArray(WritableNativeArray* otherArray);
   void pushNativeMap(WritableNativeMap* map);
+  void pushDoubleArray(jni::alias_ref<jni::JArrayDouble> values);
+  void pushIntArray(jni::alias_ref<jni::JArrayInt> values);
+  void pushNativeByteBuffer(jni::alias_ref<jni::JByteBuffer> buffer, jint offset, jint length);
 
   static void registerNatives();
 };
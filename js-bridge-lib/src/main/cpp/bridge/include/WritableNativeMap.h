@@ -27,6 +27,8 @@ struct WritableNativeMap : jni::HybridClass<WritableNativeMap, ReadableNativeMap
 
   static jni::local_ref<jhybriddata> initHybrid(jni::alias_ref<jclass>);
 
+  // Empties the map and makes it usable again, even if it was consumed.
+  void clear();
   void putNull(std::string key);
   void putBoolean(std::string key, bool val);
   void putDouble(std::string key, double val);
@@ -34,6 +36,7 @@ struct WritableNativeMap : jni::HybridClass<WritableNativeMap, ReadableNativeMap
   void putString(std::string key, jni::alias_ref<jstring> val);
   void putNativeArray(std::string key, WritableNativeArray* val);
   void putNativeMap(std::string key, WritableNativeMap* val);
+  void putNativeByteBuffer(std::string key, jni::alias_ref<jni::JByteBuffer> val, jint offset, jint length);
   void mergeNativeMap(ReadableNativeMap* other);
 
   static void registerNatives();
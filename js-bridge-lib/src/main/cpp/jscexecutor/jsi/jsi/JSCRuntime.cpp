@@ -6,6 +6,7 @@
 #include "JSCRuntime.h"
 
 #include <JavaScriptCore/JavaScript.h>
+#include <JavaScriptCore/JSScriptRefPrivate.h>
 #include <atomic>
 #include <condition_variable>
 #include <cstdlib>
@@ -179,6 +180,9 @@ namespace facebook {
 
             jsi::Array createArray(size_t length) override;
 
+            jsi::ArrayBuffer createArrayBuffer(
+                    std::unique_ptr<std::string> bytes) override;
+
             size_t size(const jsi::Array &) override;
 
             size_t size(const jsi::ArrayBuffer &) override;
@@ -243,6 +247,8 @@ namespace facebook {
             JSGlobalContextRef ctx_;
             std::atomic<bool> ctxInvalid_;
             std::string desc_;
+            // The scripts JSC references without a copy, which must outlive ctx_
+            std::vector<std::unique_ptr<const jsi::Buffer>> referencedScripts_;
 #ifndef NDEBUG
             mutable std::atomic<intptr_t> objectCounter_;
             mutable std::atomic<intptr_t> stringCounter_;
@@ -368,17 +374,37 @@ namespace facebook {
         void JSCRuntime::evaluateJavaScript(
                 std::unique_ptr<const jsi::Buffer> buffer,
                 const std::string &sourceURL) {
-            std::string tmp(
-                    reinterpret_cast<const char *>(buffer->data()), buffer->size());
-            JSStringRef sourceRef = JSStringCreateWithUTF8CString(tmp.c_str());
             JSStringRef sourceURLRef = nullptr;
             if (!sourceURL.empty()) {
                 sourceURLRef = JSStringCreateWithUTF8CString(sourceURL.c_str());
             }
             JSValueRef exc = nullptr;
-            JSValueRef res =
-                    JSEvaluateScript(ctx_, sourceRef, nullptr, sourceURLRef, 0, &exc);
-            JSStringRelease(sourceRef);
+            JSValueRef res;
+            // An ASCII script is referenced where it is rather than copied to the heap, so the
+            // pages of a mapped bundle stay clean file pages. It's checked for syntax first, with
+            // the function boundaries kept for the evaluation.
+            JSScriptRef script = JSScriptCreateReferencingImmortalASCIIText(
+                    JSContextGetGroup(ctx_),
+                    sourceURLRef,
+                    1,
+                    reinterpret_cast<const char *>(buffer->data()),
+                    buffer->size(),
+                    nullptr,
+                    nullptr);
+            if (script) {
+                res = JSScriptEvaluate(ctx_, script, nullptr, &exc);
+                JSScriptRelease(script);
+                referencedScripts_.push_back(std::move(buffer));
+            } else {
+                // Not ASCII, or a syntax error for JSEvaluateScript to report. The buffer isn't
+                // NUL terminated when mapped, so it's copied.
+                std::string tmp(
+                        reinterpret_cast<const char *>(buffer->data()), buffer->size());
+                FBJNI_LOGE("js script isn't referenced, %zu bytes copied to the heap", tmp.size());
+                JSStringRef sourceRef = JSStringCreateWithUTF8CString(tmp.c_str());
+                res = JSEvaluateScript(ctx_, sourceRef, nullptr, sourceURLRef, 0, &exc);
+                JSStringRelease(sourceRef);
+            }
             if (sourceURLRef) {
                 JSStringRelease(sourceURLRef);
             }
@@ -804,24 +830,39 @@ namespace facebook {
 #endif
         }
 
-        bool JSCRuntime::isArrayBuffer(const jsi::Object & /*obj*/) const {
-            // TODO: T23270523 - This would fail on builds that use our custom JSC
-            // auto typedArrayType = JSValueGetTypedArrayType(ctx_, objectRef(obj),
-            // nullptr);  return typedArrayType == kJSTypedArrayTypeArrayBuffer;
-            throw std::runtime_error("Unsupported");
+        bool JSCRuntime::isArrayBuffer(const jsi::Object &obj) const {
+            // Needs a JSC exposing the typed array C API (JSTypedArray.h)
+            return JSValueGetTypedArrayType(ctx_, objectRef(obj), nullptr) ==
+                   kJSTypedArrayTypeArrayBuffer;
+        }
+
+        uint8_t *JSCRuntime::data(const jsi::ArrayBuffer &obj) {
+            return static_cast<uint8_t *>(
+                    JSObjectGetArrayBufferBytesPtr(ctx_, objectRef(obj), nullptr));
         }
 
-        uint8_t *JSCRuntime::data(const jsi::ArrayBuffer & /*obj*/) {
-            // TODO: T23270523 - This would fail on builds that use our custom JSC
-            // return static_cast<uint8_t*>(
-            //    JSObjectGetArrayBufferBytesPtr(ctx_, objectRef(obj), nullptr));
-            throw std::runtime_error("Unsupported");
+        size_t JSCRuntime::size(const jsi::ArrayBuffer &obj) {
+            return JSObjectGetArrayBufferByteLength(ctx_, objectRef(obj), nullptr);
         }
 
-        size_t JSCRuntime::size(const jsi::ArrayBuffer & /*obj*/) {
-            // TODO: T23270523 - This would fail on builds that use our custom JSC
-            // return JSObjectGetArrayBufferByteLength(ctx_, objectRef(obj), nullptr);
-            throw std::runtime_error("Unsupported");
+        jsi::ArrayBuffer JSCRuntime::createArrayBuffer(
+                std::unique_ptr<std::string> bytes) {
+            std::string *storage = bytes.release();
+            JSValueRef exc = nullptr;
+            JSObjectRef buffer = JSObjectMakeArrayBufferWithBytesNoCopy(
+                    ctx_,
+                    &(*storage)[0],
+                    storage->size(),
+                    [](void * /*bytes*/, void *context) {
+                        delete static_cast<std::string *>(context);
+                    },
+                    storage,
+                    &exc);
+            if (!buffer) {
+                delete storage;
+            }
+            checkException(buffer, exc);
+            return createObject(buffer).getArrayBuffer(*this);
         }
 
         bool JSCRuntime::isFunction(const jsi::Object &obj) const {
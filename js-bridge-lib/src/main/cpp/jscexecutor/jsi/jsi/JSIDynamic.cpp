@@ -8,6 +8,8 @@
 #include "folly/folly/dynamic.h"
 #include "jsi.h"
 
+#include <DynamicBuffer.h>
+
 using namespace facebook::jsi;
 
 namespace facebook {
@@ -34,6 +36,11 @@ Value valueFromDynamic(Runtime& runtime, const folly::dynamic& dyn) {
     // exception.
     return (double)dyn.getInt();
   case folly::dynamic::OBJECT: {
+    if (react::isDynamicBuffer(dyn)) {
+      return ArrayBuffer(
+          runtime,
+          std::make_unique<std::string>(react::getDynamicBufferBytes(dyn)));
+    }
     Object ret(runtime);
     for (const auto& element : dyn.items()) {
       Value value = valueFromDynamic(runtime, element.second);
@@ -67,6 +74,9 @@ folly::dynamic dynamicFromValue(Runtime& runtime, const Value& value) {
         ret.push_back(dynamicFromValue(runtime, array.getValueAtIndex(runtime, i)));
       }
       return ret;
+    } else if (obj.isArrayBuffer(runtime)) {
+      ArrayBuffer buffer = obj.getArrayBuffer(runtime);
+      return react::makeDynamicBuffer(buffer.data(runtime), buffer.size(runtime));
     } else if (obj.isFunction(runtime)) {
       throw JSError(runtime, "JS Functions are not convertible to dynamic");
     } else {
@@ -80,6 +80,10 @@ Instrumentation& Runtime::instrumentation() {
   return sharedInstance;
 }
 
+ArrayBuffer Runtime::createArrayBuffer(std::unique_ptr<std::string>) {
+  throw JSINativeException("ArrayBuffer creation is not supported by this runtime");
+}
+
 Pointer& Pointer::operator=(Pointer&& other) {
   if (ptr_) {
     ptr_->invalidate();
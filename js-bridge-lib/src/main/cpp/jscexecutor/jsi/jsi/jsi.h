@@ -234,6 +234,9 @@ class Runtime {
   virtual Value lockWeakObject(const WeakObject&) = 0;
 
   virtual Array createArray(size_t length) = 0;
+  // Creates an ArrayBuffer which takes ownership of \c bytes instead of
+  // copying them.  Runtimes without ArrayBuffer support throw.
+  virtual ArrayBuffer createArrayBuffer(std::unique_ptr<std::string> bytes);
   virtual size_t size(const Array&) = 0;
   virtual size_t size(const ArrayBuffer&) = 0;
   virtual uint8_t* data(const ArrayBuffer&) = 0;
@@ -698,6 +701,11 @@ class ArrayBuffer : public Object {
   ArrayBuffer(ArrayBuffer&&) = default;
   ArrayBuffer& operator=(ArrayBuffer&&) = default;
 
+  /// Creates a new ArrayBuffer backed by \c bytes.  The buffer keeps the
+  /// string alive, so its contents are not copied.
+  ArrayBuffer(Runtime& runtime, std::unique_ptr<std::string> bytes)
+      : ArrayBuffer(runtime.createArrayBuffer(std::move(bytes))) {}
+
   /// \return the size of the ArrayBuffer, according to its byteLength property.
   /// (C++ naming convention)
   size_t size(Runtime& runtime) const {
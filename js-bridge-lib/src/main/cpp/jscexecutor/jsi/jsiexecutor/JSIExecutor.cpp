@@ -216,6 +216,68 @@ namespace facebook {
             callNativeModules(ret, true);
         }
 
+        void JSIExecutor::callFunctions(const std::vector<JSFunctionCall> &calls) {
+            if (!callFunctionReturnFlushedQueue_) {
+                bindBridge();
+            }
+            if (calls.empty()) {
+                return;
+            }
+
+            if (!callFunctionsReturnFlushedQueue_) {
+                // Older bundle, make the calls one by one but only end the batch once
+                for (size_t i = 0; i < calls.size(); i++) {
+                    const JSFunctionCall &call = calls[i];
+                    Value ret = Value::undefined();
+                    try {
+                        ret = callFunctionReturnFlushedQueue_->call(
+                                *runtime_,
+                                call.moduleId,
+                                call.methodId,
+                                valueFromDynamic(*runtime_, call.arguments));
+                    } catch (...) {
+                        std::throw_with_nested(std::runtime_error(
+                                "Error calling " + call.moduleId + "." + call.methodId));
+                    }
+                    callNativeModules(ret, i == calls.size() - 1);
+                }
+                return;
+            }
+
+            auto errorProducer = [count = calls.size()] {
+                std::stringstream ss;
+                ss << "batch of " << count << " coalesced calls";
+                return ss.str();
+            };
+
+            Array batch(*runtime_, calls.size());
+            for (size_t i = 0; i < calls.size(); i++) {
+                const JSFunctionCall &call = calls[i];
+                batch.setValueAtIndex(
+                        *runtime_,
+                        i,
+                        Array::createWithElements(
+                                *runtime_,
+                                String::createFromUtf8(*runtime_, call.moduleId),
+                                String::createFromUtf8(*runtime_, call.methodId),
+                                valueFromDynamic(*runtime_, call.arguments)));
+            }
+
+            Value ret = Value::undefined();
+            try {
+                scopedTimeoutInvoker_(
+                        [&] {
+                            ret = callFunctionsReturnFlushedQueue_->call(*runtime_, batch);
+                        },
+                        std::move(errorProducer));
+            } catch (...) {
+                std::throw_with_nested(std::runtime_error(
+                        folly::to<std::string>("Error calling a batch of ", calls.size(), " functions")));
+            }
+
+            callNativeModules(ret, true);
+        }
+
         void JSIExecutor::invokeCallback(
                 const double callbackId,
                 const folly::dynamic &arguments) {
@@ -282,6 +344,13 @@ namespace facebook {
                 callFunctionReturnResultAndFlushedQueue_ =
                         batchedBridge.getPropertyAsFunction(
                                 *runtime_, "callFunctionReturnResultAndFlushedQueue");
+                Value callFunctions =
+                        batchedBridge.getProperty(*runtime_, "callFunctionsReturnFlushedQueue");
+                if (callFunctions.isObject() &&
+                    callFunctions.getObject(*runtime_).isFunction(*runtime_)) {
+                    callFunctionsReturnFlushedQueue_ =
+                            callFunctions.getObject(*runtime_).getFunction(*runtime_);
+                }
             });
         }
 
@@ -89,6 +89,7 @@ class JSIExecutor : public JSExecutor {
       const std::string& moduleId,
       const std::string& methodId,
       const folly::dynamic& arguments) override;
+  void callFunctions(const std::vector<JSFunctionCall>& calls) override;
   void invokeCallback(const double callbackId, const folly::dynamic& arguments)
       override;
   void setGlobalVariable(
@@ -129,6 +130,8 @@ class JSIExecutor : public JSExecutor {
   folly::Optional<jsi::Function> invokeCallbackAndReturnFlushedQueue_;
   folly::Optional<jsi::Function> flushedQueue_;
   folly::Optional<jsi::Function> callFunctionReturnResultAndFlushedQueue_;
+  // Missing from bundles built before call coalescing was added
+  folly::Optional<jsi::Function> callFunctionsReturnFlushedQueue_;
 };
 
 } // namespace react
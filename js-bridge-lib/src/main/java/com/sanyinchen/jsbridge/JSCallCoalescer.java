@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ * <p>
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import com.sanyinchen.jsbridge.JsBridgeInstanceImpl.PendingJSCall;
+import com.sanyinchen.jsbridge.data.NativeContainerPool;
+import com.sanyinchen.jsbridge.utils.UiThreadUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Buffers the calls {@link JsBridgeInstanceImpl} makes into JS and delivers them as a single
+ * batch, in one JNI call, one JS queue task and one JS invocation, instead of one of each per
+ * call. A batch is flushed when the window of the {@link JSCallCoalescingSpec} elapses (or at the
+ * next Choreographer frame), or as soon as it reaches the max batch size.
+ *
+ * Ordering guarantees:
+ * <ul>
+ * <li>Calls are delivered in the order they were buffered, and batches in the order they were
+ * flushed.
+ * <li>A call made with a coalescing key replaces the buffered call with the same module, method
+ * and key, if any. The surviving call takes the position of the latest one, so JS never sees a
+ * value before the calls that were made ahead of it.
+ * <li>Callbacks and promise results flush the buffered calls first, so they never overtake calls
+ * made before them on the same thread.
+ * <li>Calls with a priority other than NORMAL aren't buffered, they flush the buffered calls
+ * first too. Like without coalescing, the lane of the JS queue they go to may still run them
+ * ahead of the NORMAL calls sent before them.
+ * <li>Calls made before the JS bundle is loaded aren't coalesced, they keep being queued and sent
+ * in order once it is.
+ * </ul>
+ */
+final class JSCallCoalescer {
+
+    private final JsBridgeInstanceImpl mInstance;
+    private final JSCallCoalescingSpec mSpec;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    // Held while a batch is sent, so a flush only returns once everything buffered before it is
+    // on its way to JS
+    private final Object mFlushLock = new Object();
+
+    @GuardedBy("this")
+    private ArrayList<PendingJSCall> mCalls = new ArrayList<>();
+    // Index in mCalls of the call buffered for each coalescing key
+    @GuardedBy("this")
+    private final HashMap<String, Integer> mIndexByKey = new HashMap<>();
+    @GuardedBy("this")
+    private boolean mIsScheduled;
+
+    private final Runnable mScheduledFlush = new Runnable() {
+        @Override
+        public void run() {
+            onScheduledFlush();
+        }
+    };
+
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            onScheduledFlush();
+        }
+    };
+
+    private final Runnable mPostFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    };
+
+    JSCallCoalescer(JsBridgeInstanceImpl instance, JSCallCoalescingSpec spec) {
+        mInstance = instance;
+        mSpec = spec;
+    }
+
+    void add(PendingJSCall call) {
+        boolean flushNow;
+        boolean schedule = false;
+        synchronized (this) {
+            if (call.mCoalescingKey != null) {
+                String key = call.mModule + "." + call.mMethod + "#" + call.mCoalescingKey;
+                Integer replacedIndex = mIndexByKey.put(key, mCalls.size());
+                if (replacedIndex != null) {
+                    PendingJSCall replaced = mCalls.set(replacedIndex, null);
+                    if (replaced.mArguments != null) {
+                        NativeContainerPool.recycle(replaced.mArguments);
+                    }
+                }
+            }
+            mCalls.add(call);
+            flushNow = mCalls.size() >= mSpec.getMaxBatchSize();
+            if (!flushNow && !mIsScheduled) {
+                mIsScheduled = true;
+                schedule = true;
+            }
+        }
+        if (flushNow) {
+            flush();
+        } else if (schedule) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (!mSpec.isFrameAligned()) {
+            mMainHandler.postDelayed(mScheduledFlush, mSpec.getWindowMs());
+        } else if (UiThreadUtil.isOnUiThread()) {
+            mPostFrameCallback.run();
+        } else {
+            // Choreographer instances are per Looper, the frame callback must go to the main one
+            mMainHandler.post(mPostFrameCallback);
+        }
+    }
+
+    private void onScheduledFlush() {
+        synchronized (this) {
+            mIsScheduled = false;
+        }
+        flush();
+    }
+
+    /**
+     * Sends every buffered call to JS now.
+     */
+    void flush() {
+        synchronized (mFlushLock) {
+            ArrayList<PendingJSCall> calls;
+            synchronized (this) {
+                if (mCalls.isEmpty()) {
+                    return;
+                }
+                calls = mCalls;
+                mCalls = new ArrayList<>(calls.size());
+                mIndexByKey.clear();
+            }
+            mInstance.callFunctions(calls);
+        }
+    }
+
+    /**
+     * Drops the buffered calls, once the instance is destroyed.
+     */
+    void discard() {
+        mMainHandler.removeCallbacks(mScheduledFlush);
+        mMainHandler.removeCallbacks(mPostFrameCallback);
+        ArrayList<PendingJSCall> calls;
+        synchronized (this) {
+            calls = mCalls;
+            mCalls = new ArrayList<>();
+            mIndexByKey.clear();
+        }
+        for (PendingJSCall call : calls) {
+            if (call != null && call.mArguments != null) {
+                NativeContainerPool.recycle(call.mArguments);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ * <p>
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge;
+
+import com.facebook.infer.annotation.Assertions;
+
+/**
+ * Configures how {@link JsBridgeInstanceImpl} coalesces its calls into JS, see
+ * {@link JSCallCoalescer}. Calls are either buffered for a fixed window after the first one, or
+ * until the next Choreographer frame.
+ */
+public class JSCallCoalescingSpec {
+
+    // Calls buffered before a batch is flushed without waiting for the window or frame
+    private static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private final long mWindowMs;
+    private final int mMaxBatchSize;
+
+    private JSCallCoalescingSpec(long windowMs, int maxBatchSize) {
+        mWindowMs = windowMs;
+        mMaxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Delivers the calls made during a Choreographer frame at the start of the next one.
+     */
+    public static JSCallCoalescingSpec frameAligned() {
+        return new JSCallCoalescingSpec(0, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Delivers the calls made within {@code windowMs} of the first buffered one together.
+     */
+    public static JSCallCoalescingSpec window(long windowMs) {
+        Assertions.assertCondition(windowMs > 0, "The coalescing window must be positive");
+        return new JSCallCoalescingSpec(windowMs, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @return a copy of this spec that flushes as soon as {@code maxBatchSize} calls are buffered
+     */
+    public JSCallCoalescingSpec withMaxBatchSize(int maxBatchSize) {
+        Assertions.assertCondition(maxBatchSize > 0, "The max batch size must be positive");
+        return new JSCallCoalescingSpec(mWindowMs, maxBatchSize);
+    }
+
+    public boolean isFrameAligned() {
+        return mWindowMs == 0;
+    }
+
+    public long getWindowMs() {
+        return mWindowMs;
+    }
+
+    public int getMaxBatchSize() {
+        return mMaxBatchSize;
+    }
+}
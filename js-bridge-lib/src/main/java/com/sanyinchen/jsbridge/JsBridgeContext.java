@@ -18,6 +18,8 @@ import androidx.annotation.Nullable;
 
 import com.facebook.infer.annotation.Assertions;
 import com.sanyinchen.jsbridge.base.JsBridgeInstance;
+import com.sanyinchen.jsbridge.base.NotThreadSafeBridgeIdleDebugListener;
+import com.sanyinchen.jsbridge.common.futures.SimpleSettableFuture;
 import com.sanyinchen.jsbridge.context.JavaScriptContextHolder;
 import com.sanyinchen.jsbridge.exception.NativeModuleCallExceptionHandler;
 import com.sanyinchen.jsbridge.lifecycle.ActivityEventListener;
@@ -26,10 +28,13 @@ import com.sanyinchen.jsbridge.lifecycle.LifecycleState;
 import com.sanyinchen.jsbridge.module.bridge.NativeModule;
 import com.sanyinchen.jsbridge.module.js.JavaScriptModule;
 import com.sanyinchen.jsbridge.queue.MessageQueueThread;
+import com.sanyinchen.jsbridge.queue.MessageQueueThreadPerfStats;
 import com.sanyinchen.jsbridge.queue.ReactQueueConfiguration;
 import com.sanyinchen.jsbridge.utils.UiThreadUtil;
 
 import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 
@@ -44,6 +49,12 @@ public class JsBridgeContext extends ContextWrapper {
                     "ReactContext#getJSModule should only happen once initialize() has been called on your " +
                     "native module.";
 
+    // Keys of getQueuePerfSnapshots()
+    public static final String UI_QUEUE = "ui";
+    public static final String NATIVE_MODULES_QUEUE = "native_modules";
+    public static final String JS_QUEUE = "js";
+    public static final String NATIVE_MODULE_QUEUE_PREFIX = "native_module_";
+
     private final CopyOnWriteArraySet<LifecycleEventListener> mLifecycleEventListeners =
             new CopyOnWriteArraySet<>();
     private final CopyOnWriteArraySet<ActivityEventListener> mActivityEventListeners =
@@ -93,6 +104,34 @@ public class JsBridgeContext extends ContextWrapper {
         }
     }
 
+    /**
+     * Reads the perf counters of every queue of the instance without blocking them: the UI, native
+     * modules and JS queues, and the queues of native modules running on their own thread or on
+     * the native modules pool, keyed by {@link #NATIVE_MODULE_QUEUE_PREFIX} and the module name.
+     * Queues shared by several roles are reported under each of them.
+     *
+     * @return the snapshots, empty if there's no instance yet
+     */
+    public Map<String, MessageQueueThreadPerfStats.Snapshot> getQueuePerfSnapshots() {
+        Map<String, MessageQueueThreadPerfStats.Snapshot> snapshots = new LinkedHashMap<>();
+        if (mCatalystInstance == null) {
+            return snapshots;
+        }
+        ReactQueueConfiguration queueConfig = mCatalystInstance.getReactQueueConfiguration();
+        snapshots.put(UI_QUEUE, queueConfig.getUIQueueThread().getPerfStats().snapshot());
+        snapshots.put(
+                NATIVE_MODULES_QUEUE,
+                queueConfig.getNativeModulesQueueThread().getPerfStats().snapshot());
+        snapshots.put(JS_QUEUE, queueConfig.getJSQueueThread().getPerfStats().snapshot());
+        for (Map.Entry<String, MessageQueueThread> entry :
+                queueConfig.getNativeModuleQueueThreads().entrySet()) {
+            snapshots.put(
+                    NATIVE_MODULE_QUEUE_PREFIX + entry.getKey(),
+                    entry.getValue().getPerfStats().snapshot());
+        }
+        return snapshots;
+    }
+
     public void setNativeModuleCallExceptionHandler(
             @Nullable NativeModuleCallExceptionHandler nativeModuleCallExceptionHandler) {
         mNativeModuleCallExceptionHandler = nativeModuleCallExceptionHandler;
@@ -166,6 +205,9 @@ public class JsBridgeContext extends ContextWrapper {
      */
     public void onHostResume(@Nullable Activity activity) {
         mCurrentActivity = new WeakReference(activity);
+        if (mCatalystInstance != null) {
+            mCatalystInstance.getReactQueueConfiguration().setHostPaused(false);
+        }
         for (LifecycleEventListener listener : mLifecycleEventListeners) {
             try {
                 listener.onHostResume();
@@ -191,6 +233,9 @@ public class JsBridgeContext extends ContextWrapper {
      * Should be called by the hosting Fragment in {@link Fragment#onPause}
      */
     public void onHostPause() {
+        if (mCatalystInstance != null) {
+            mCatalystInstance.getReactQueueConfiguration().setHostPaused(true);
+        }
         for (LifecycleEventListener listener : mLifecycleEventListeners) {
             try {
                 listener.onHostPause();
@@ -217,13 +262,18 @@ public class JsBridgeContext extends ContextWrapper {
 
     /**
      * Destroy this instance, making it unusable.
+     *
+     * @return a future set once the threads of the instance are shut down
      */
-    public void destroy() {
+    public SimpleSettableFuture<Void> destroy() {
         UiThreadUtil.assertOnUiThread();
 
         if (mCatalystInstance != null) {
-            mCatalystInstance.destroy();
+            return mCatalystInstance.destroy();
         }
+        SimpleSettableFuture<Void> destroyed = new SimpleSettableFuture<>();
+        destroyed.set(null);
+        return destroyed;
     }
 
     /**
@@ -255,6 +305,23 @@ public class JsBridgeContext extends ContextWrapper {
         Assertions.assertNotNull(mNativeModulesMessageQueueThread).runOnQueue(runnable);
     }
 
+    /**
+     * Defers {@code runnable} until the bridge has no JS call in flight, or {@code deadlineMs} at
+     * most, see {@link JsBridgeInstance#runWhenBridgeIdle}. It runs on the native modules queue
+     * thread.
+     */
+    public void runWhenBridgeIdle(Runnable runnable, long deadlineMs) {
+        Assertions.assertNotNull(mCatalystInstance).runWhenBridgeIdle(runnable, deadlineMs);
+    }
+
+    public void addBridgeIdleDebugListener(NotThreadSafeBridgeIdleDebugListener listener) {
+        Assertions.assertNotNull(mCatalystInstance).addBridgeIdleDebugListener(listener);
+    }
+
+    public void removeBridgeIdleDebugListener(NotThreadSafeBridgeIdleDebugListener listener) {
+        Assertions.assertNotNull(mCatalystInstance).removeBridgeIdleDebugListener(listener);
+    }
+
     public void assertOnJSQueueThread() {
         Assertions.assertNotNull(mJSMessageQueueThread).assertIsOnThread();
     }
@@ -20,20 +20,24 @@ import com.facebook.jni.annotations.DoNotStrip;
 import com.facebook.soloader.SoLoader;
 import com.sanyinchen.jsbridge.annotation.ReactModule;
 import com.sanyinchen.jsbridge.base.JsBridgeInstance;
+import com.sanyinchen.jsbridge.base.NotThreadSafeBridgeIdleDebugListener;
+import com.sanyinchen.jsbridge.common.futures.SimpleSettableFuture;
 import com.sanyinchen.jsbridge.config.ReactConstants;
 import com.sanyinchen.jsbridge.context.JavaScriptContextHolder;
 import com.sanyinchen.jsbridge.common.callback.JsBridgeCallback;
 import com.sanyinchen.jsbridge.data.NativeArray;
 import com.sanyinchen.jsbridge.data.NativeArrayInterface;
-import com.sanyinchen.jsbridge.data.WritableNativeArray;
+import com.sanyinchen.jsbridge.data.NativeContainerPool;
 import com.sanyinchen.jsbridge.exception.NativeModuleCallExceptionHandler;
 import com.sanyinchen.jsbridge.executor.base.JavaScriptExecutor;
 import com.sanyinchen.jsbridge.load.JSBundleLoader;
+import com.sanyinchen.jsbridge.module.bridge.ModuleConfigCache;
 import com.sanyinchen.jsbridge.module.bridge.NativeModule;
 import com.sanyinchen.jsbridge.module.bridge.NativeModuleHolder;
 import com.sanyinchen.jsbridge.module.bridge.NativeModuleRegistry;
 import com.sanyinchen.jsbridge.module.impl.java.JavaModuleWrapper;
 import com.sanyinchen.jsbridge.module.js.JavaScriptModule;
+import com.sanyinchen.jsbridge.module.js.JavaScriptModuleArguments;
 import com.sanyinchen.jsbridge.module.js.JavaScriptModuleRegistry;
 import com.sanyinchen.jsbridge.module.jsi.JSIModule;
 import com.sanyinchen.jsbridge.module.jsi.JSIModuleRegistry;
@@ -47,9 +51,12 @@ import com.sanyinchen.jsbridge.utils.UiThreadUtil;
 import com.sanyinchen.jsbridge.utils.log.FLog;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 
@@ -65,6 +72,8 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
     }
 
     private static final AtomicInteger sNextInstanceIdForTrace = new AtomicInteger(1);
+    // Saves the module configs once the startup calls are done, or after this long
+    private static final long MODULE_CONFIG_CACHE_SAVE_DEADLINE_MS = 5000;
 
     public static class PendingJSCall {
 
@@ -72,16 +81,42 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
         public String mMethod;
         public @Nullable
         NativeArray mArguments;
+        // Only used when coalescing calls, see JSCallCoalescer
+        public @Nullable
+        String mCoalescingKey;
+        public MessageQueueThread.Priority mPriority;
 
         public PendingJSCall(String module, String method, @Nullable NativeArray arguments) {
+            this(module, method, arguments, null);
+        }
+
+        public PendingJSCall(
+                String module,
+                String method,
+                @Nullable NativeArray arguments,
+                @Nullable String coalescingKey) {
+            this(module, method, arguments, coalescingKey, MessageQueueThread.Priority.NORMAL);
+        }
+
+        public PendingJSCall(
+                String module,
+                String method,
+                @Nullable NativeArray arguments,
+                @Nullable String coalescingKey,
+                MessageQueueThread.Priority priority) {
             mModule = module;
             mMethod = method;
             mArguments = arguments;
+            mCoalescingKey = coalescingKey;
+            mPriority = priority;
         }
 
         void call(JsBridgeInstanceImpl catalystInstance) {
-            NativeArray arguments = mArguments != null ? mArguments : new WritableNativeArray();
-            catalystInstance.jniCallJSFunction(mModule, mMethod, arguments);
+            NativeArray arguments =
+                    mArguments != null ? mArguments : NativeContainerPool.obtainArray();
+            catalystInstance.jniCallJSFunction(mModule, mMethod, arguments, mPriority.ordinal());
+            // The arguments were consumed by the native call
+            NativeContainerPool.recycle(arguments);
         }
 
         public String toString() {
@@ -96,15 +131,30 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
     private final String mJsPendingCallsTitleForTrace =
             "pending_js_calls_instance" + sNextInstanceIdForTrace.getAndIncrement();
     private volatile boolean mDestroyed = false;
+    private final SimpleSettableFuture<Void> mDestroyFuture = new SimpleSettableFuture<>();
+    private final CopyOnWriteArrayList<NotThreadSafeBridgeIdleDebugListener> mBridgeIdleListeners =
+            new CopyOnWriteArrayList<>();
+    // Native modules queue thread only
+    private final ArrayDeque<Runnable> mIdleRunnables = new ArrayDeque<>();
+    private boolean mNotifiedBridgeIdle = true;
+    // Size of mIdleRunnables, read from the threads the bridge becomes idle on
+    private volatile int mIdleRunnableCount;
     private final JavaScriptModuleRegistry mJSModuleRegistry;
     private final JSBundleLoader mJSBundleLoader;
     private final ArrayList<PendingJSCall> mJSCallsPendingInit = new ArrayList<PendingJSCall>();
     private final Object mJSCallsPendingInitLock = new Object();
+    // Interned JS module and method names, see internJSName. Ids are indexes in mJSNames
+    private final ArrayList<String> mJSNames = new ArrayList<>();
+    private final HashMap<String, Integer> mJSNameIds = new HashMap<>();
 
     private final NativeModuleRegistry mNativeModuleRegistry;
     private final JSIModuleRegistry mJSIModuleRegistry = new JSIModuleRegistry();
     private final NativeModuleCallExceptionHandler mNativeModuleCallExceptionHandler;
     private final MessageQueueThread mNativeModulesQueueThread;
+    private final @Nullable
+    JSCallCoalescer mJSCallCoalescer;
+    private final @Nullable
+    ModuleConfigCache mModuleConfigCache;
     private boolean mInitialized = false;
     private volatile boolean mAcceptCalls = false;
 
@@ -124,17 +174,24 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
             final JavaScriptExecutor jsExecutor,
             final NativeModuleRegistry nativeModuleRegistry,
             final JSBundleLoader jsBundleLoader,
-            NativeModuleCallExceptionHandler nativeModuleCallExceptionHandler) {
+            NativeModuleCallExceptionHandler nativeModuleCallExceptionHandler,
+            @Nullable JSCallCoalescingSpec jsCallCoalescingSpec,
+            @Nullable ModuleConfigCache moduleConfigCache) {
         mHybridData = initHybrid();
 
         mReactQueueConfiguration = ReactQueueConfigurationImpl.create(
                 reactQueueConfigurationSpec,
                 new NativeExceptionHandler());
         mNativeModuleRegistry = nativeModuleRegistry;
+        mNativeModuleRegistry.setQueueConfiguration(mReactQueueConfiguration);
         mJSModuleRegistry = new JavaScriptModuleRegistry();
         mJSBundleLoader = jsBundleLoader;
         mNativeModuleCallExceptionHandler = nativeModuleCallExceptionHandler;
         mNativeModulesQueueThread = mReactQueueConfiguration.getNativeModulesQueueThread();
+        mJSCallCoalescer = jsCallCoalescingSpec != null
+                ? new JSCallCoalescer(this, jsCallCoalescingSpec)
+                : null;
+        mModuleConfigCache = moduleConfigCache;
         initializeBridge(
                 new BridgeCallback(this),
                 jsExecutor,
@@ -142,6 +199,13 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
                 mNativeModulesQueueThread,
                 mNativeModuleRegistry.getJavaModules(this),
                 mNativeModuleRegistry.getCxxModules());
+        if (mModuleConfigCache != null) {
+            // Before JS runs and requires the modules
+            String configs = mModuleConfigCache.load();
+            jniSetModuleConfigCache(
+                    configs != null ? configs : "",
+                    mModuleConfigCache.getCacheableModuleNames());
+        }
         mJavaScriptContextHolder = new JavaScriptContextHolder(getJavaScriptContext());
     }
 
@@ -190,7 +254,7 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
     public void extendNativeModules(NativeModuleRegistry modules) {
         //Extend the Java-visible registry of modules
         mNativeModuleRegistry.registerModules(modules);
-        Collection<JavaModuleWrapper> javaModules = modules.getJavaModules(this);
+        Collection<JavaModuleWrapper> javaModules = modules.getJavaModules(this, mNativeModuleRegistry);
         Collection<NativeModuleHolder> cxxModules = modules.getCxxModules();
         //Extend the Cxx-visible registry of modules wrapped in appropriate interfaces
         jniExtendNativeModules(javaModules, cxxModules);
@@ -208,6 +272,32 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
             Collection<JavaModuleWrapper> javaModules,
             Collection<NativeModuleHolder> cxxModules);
 
+    /**
+     * @param configs the configs saved by {@link #saveModuleConfigCache}, or an empty string
+     * @param cacheableModuleNames the modules whose configs are read from and saved to the cache
+     */
+    private native void jniSetModuleConfigCache(String configs, String[] cacheableModuleNames);
+
+    /**
+     * @return the cached configs and the ones built since, or an empty string if none was built
+     * since the last call
+     */
+    private native String jniGetModuleConfigCache();
+
+    /**
+     * Saves the configs the bridge built for the modules JS required to {@link #mModuleConfigCache}.
+     * Does I/O, runs on the AsyncTask serial executor, which also runs the end of {@link #destroy}.
+     */
+    private void saveModuleConfigCache() {
+        if (mModuleConfigCache == null) {
+            return;
+        }
+        String configs = jniGetModuleConfigCache();
+        if (!configs.isEmpty()) {
+            mModuleConfigCache.save(configs);
+        }
+    }
+
 
     @Override
     public void loadScriptFromAssets(AssetManager assetManager, String assetURL, boolean loadSynchronously) {
@@ -237,6 +327,27 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
             mJSCallsPendingInit.clear();
             mJSBundleHasLoaded = true;
         }
+
+        if (mModuleConfigCache != null) {
+            runWhenBridgeIdle(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            AsyncTask.execute(
+                                    new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            // Otherwise destroy() saved them before releasing the
+                                            // bridge
+                                            if (!mDestroyed) {
+                                                saveModuleConfigCache();
+                                            }
+                                        }
+                                    });
+                        }
+                    },
+                    MODULE_CONFIG_CACHE_SAVE_DEADLINE_MS);
+        }
     }
 
     @Override
@@ -255,7 +366,8 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
     private native void jniCallJSFunction(
             String module,
             String method,
-            NativeArray arguments);
+            NativeArray arguments,
+            int priority);
 
     @Override
     public void callFunction(
@@ -265,10 +377,123 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
         callFunction(new PendingJSCall(module, method, arguments));
     }
 
+    @Override
+    public void callFunction(
+            final String module,
+            final String method,
+            final NativeArray arguments,
+            final @Nullable String coalescingKey) {
+        callFunction(new PendingJSCall(module, method, arguments, coalescingKey));
+    }
+
+    @Override
+    public void callFunction(
+            final String module,
+            final String method,
+            final NativeArray arguments,
+            final MessageQueueThread.Priority priority) {
+        callFunction(new PendingJSCall(module, method, arguments, null, priority));
+    }
+
+    private native void jniCallJSFunctions(
+            String[] modules,
+            String[] methods,
+            NativeArray[] arguments);
+
+    /**
+     * Sends the calls buffered by the {@link JSCallCoalescer} to JS as a single batch. Collapsed
+     * calls are null and skipped.
+     */
+    void callFunctions(List<PendingJSCall> calls) {
+        int count = 0;
+        for (PendingJSCall call : calls) {
+            if (call != null) {
+                count++;
+            }
+        }
+        String[] modules = new String[count];
+        String[] methods = new String[count];
+        NativeArray[] arguments = new NativeArray[count];
+        int index = 0;
+        for (PendingJSCall call : calls) {
+            if (call == null) {
+                continue;
+            }
+            modules[index] = call.mModule;
+            methods[index] = call.mMethod;
+            arguments[index] =
+                    call.mArguments != null ? call.mArguments : NativeContainerPool.obtainArray();
+            index++;
+        }
+        if (mDestroyed) {
+            FLog.w(ReactConstants.TAG, "Dropping " + count + " coalesced JS calls, the bridge has been destroyed");
+        } else {
+            jniCallJSFunctions(modules, methods, arguments);
+        }
+        // The arguments were consumed by the native call
+        for (NativeArray argument : arguments) {
+            NativeContainerPool.recycle(argument);
+        }
+    }
+
+    private native void jniRegisterJSName(int id, String name);
+
+    @Override
+    public int internJSName(String name) {
+        synchronized (mJSNames) {
+            Integer id = mJSNameIds.get(name);
+            if (id != null) {
+                return id;
+            }
+            int newId = mJSNames.size();
+            mJSNames.add(name);
+            mJSNameIds.put(name, newId);
+            jniRegisterJSName(newId, name);
+            return newId;
+        }
+    }
+
+    private String getJSName(int id) {
+        synchronized (mJSNames) {
+            return mJSNames.get(id);
+        }
+    }
+
+    private native void jniCallJSFunctionEncoded(
+            int moduleId,
+            int methodId,
+            int argumentCount,
+            byte[] argumentTypes,
+            double[] argumentNumbers,
+            Object[] argumentObjects);
+
+    @Override
+    public void callFunction(
+            final int moduleId,
+            final int methodId,
+            final JavaScriptModuleArguments arguments) {
+        if (mDestroyed || !mAcceptCalls || mJSCallCoalescer != null) {
+            // Rare, let the string based path log, queue or coalesce the call
+            callFunction(new PendingJSCall(
+                    getJSName(moduleId), getJSName(methodId), arguments.toNativeArray()));
+            return;
+        }
+        jniCallJSFunctionEncoded(
+                moduleId,
+                methodId,
+                arguments.size(),
+                arguments.getTypes(),
+                arguments.getNumbers(),
+                arguments.getObjects());
+    }
+
     public void callFunction(PendingJSCall function) {
         if (mDestroyed) {
             final String call = function.toString();
             FLog.w(ReactConstants.TAG, "Calling JS function after bridge has been destroyed: " + call);
+            if (function.mArguments != null) {
+                NativeContainerPool.recycle(function.mArguments);
+            }
             return;
         }
         if (!mAcceptCalls) {
@@ -280,6 +505,15 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
                 }
             }
         }
+        if (mJSCallCoalescer != null) {
+            if (function.mPriority == MessageQueueThread.Priority.NORMAL) {
+                mJSCallCoalescer.add(function);
+                return;
+            }
+            // Prioritized calls aren't held back to be coalesced, but they don't overtake the
+            // calls buffered before them either: only the lanes of the JS queue reorder them
+            mJSCallCoalescer.flush();
+        }
         function.call(this);
     }
 
@@ -290,10 +524,16 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
 
         if (mDestroyed) {
             FLog.w(ReactConstants.TAG, "Invoking JS callback after bridge has been destroyed.");
+            NativeContainerPool.recycle(arguments);
             return;
         }
 
+        if (mJSCallCoalescer != null) {
+            // Keep the callback behind the calls made before it
+            mJSCallCoalescer.flush();
+        }
         jniCallJSCallback(callbackID, (NativeArray) arguments);
+        NativeContainerPool.recycle(arguments);
     }
 
     /**
@@ -302,15 +542,18 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
      * fully shut down other threads.
      */
     @Override
-    public void destroy() {
+    public SimpleSettableFuture<Void> destroy() {
         Log.d(ReactConstants.TAG, "CatalystInstanceImpl.destroy() start");
         UiThreadUtil.assertOnUiThread();
 
         if (mDestroyed) {
-            return;
+            return mDestroyFuture;
         }
 
         mDestroyed = true;
+        if (mJSCallCoalescer != null) {
+            mJSCallCoalescer.discard();
+        }
 
         mNativeModulesQueueThread.runOnQueue(
                 new Runnable() {
@@ -318,6 +561,15 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
                     public void run() {
                         mNativeModuleRegistry.notifyJSInstanceDestroy();
                         mJSIModuleRegistry.notifyJSInstanceDestroy();
+                        mIdleRunnables.clear();
+                        mIdleRunnableCount = 0;
+                        boolean wasIdle = (mPendingJSCalls.getAndSet(0) == 0);
+                        for (NotThreadSafeBridgeIdleDebugListener listener : mBridgeIdleListeners) {
+                            if (!wasIdle) {
+                                listener.onTransitionToBridgeIdle();
+                            }
+                            listener.onBridgeDestroyed();
+                        }
                         AsyncTask.execute(
                                 new Runnable() {
                                     @Override
@@ -330,13 +582,18 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
                                         // the VM destroyed underneath them, so notify them before we resetNative
                                         mJavaScriptContextHolder.clear();
 
+                                        // Modules required after the first save
+                                        saveModuleConfigCache();
                                         mHybridData.resetNative();
                                         getReactQueueConfiguration().destroy();
+                                        NativeContainerPool.clear();
                                         Log.d(ReactConstants.TAG, "CatalystInstanceImpl.destroy() end");
+                                        mDestroyFuture.set(null);
                                     }
                                 });
                     }
                 });
+        return mDestroyFuture;
     }
 
     @Override
@@ -438,37 +695,120 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
 
     private native long getJavaScriptContext();
 
+    @Override
+    public boolean isBridgeIdle() {
+        return mPendingJSCalls.get() == 0;
+    }
+
+    @Override
+    public void addBridgeIdleDebugListener(NotThreadSafeBridgeIdleDebugListener listener) {
+        mBridgeIdleListeners.add(listener);
+    }
+
+    @Override
+    public void removeBridgeIdleDebugListener(NotThreadSafeBridgeIdleDebugListener listener) {
+        mBridgeIdleListeners.remove(listener);
+    }
+
+    @Override
+    public void runWhenBridgeIdle(final Runnable runnable, long deadlineMs) {
+        mNativeModulesQueueThread.runOnQueue(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mDestroyed) {
+                            return;
+                        }
+                        mIdleRunnables.add(runnable);
+                        mIdleRunnableCount = mIdleRunnables.size();
+                        // Written before reading the count of pending calls, so a call
+                        // completing meanwhile sees it and dispatches the idle state
+                        if (mPendingJSCalls.get() == 0) {
+                            runIdleRunnables();
+                        }
+                    }
+                });
+        // On the queue the idle state is dispatched on, so a busy UI thread doesn't delay it
+        mNativeModulesQueueThread.runAtDeadline(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        // Still waiting for the bridge to become idle
+                        if (mIdleRunnables.remove(runnable)) {
+                            mIdleRunnableCount = mIdleRunnables.size();
+                            runnable.run();
+                        }
+                    }
+                },
+                SystemClock.uptimeMillis() + deadlineMs,
+                MessageQueueThread.DEFAULT_TIMER_SLACK_MS);
+    }
+
+    /**
+     * Called by the C++ bridge, from any thread, before each call or callback into JS.
+     */
     private void incrementPendingJSCalls() {
-//        int oldPendingCalls = mPendingJSCalls.getAndIncrement();
-//        boolean wasIdle = oldPendingCalls == 0;
-//        if (wasIdle && !mBridgeIdleListeners.isEmpty()) {
-//            mNativeModulesQueueThread.runOnQueue(new Runnable() {
-//                @Override
-//                public void run() {
-//                    for (NotThreadSafeBridgeIdleDebugListener listener : mBridgeIdleListeners) {
-//                        listener.onTransitionToBridgeBusy();
-//                    }
-//                }
-//            });
-//        }
+        boolean wasIdle = mPendingJSCalls.getAndIncrement() == 0;
+        if (wasIdle && !mBridgeIdleListeners.isEmpty()) {
+            dispatchBridgeIdleState();
+        }
     }
 
+    /**
+     * Called by the C++ bridge on the JS thread once JS returned the batch of native module calls
+     * ending a call.
+     */
     private void decrementPendingJSCalls() {
-//        int newPendingCalls = mPendingJSCalls.decrementAndGet();
-//        // TODO(9604406): handle case of web workers injecting messages to main thread
-//        //Assertions.assertCondition(newPendingCalls >= 0);
-//        boolean isNowIdle = newPendingCalls == 0;
-//
-//        if (isNowIdle && !mBridgeIdleListeners.isEmpty()) {
-//            mNativeModulesQueueThread.runOnQueue(new Runnable() {
-//                @Override
-//                public void run() {
-//                    for (NotThreadSafeBridgeIdleDebugListener listener : mBridgeIdleListeners) {
-//                        listener.onTransitionToBridgeIdle();
-//                    }
-//                }
-//            });
-//        }
+        int pendingCalls = mPendingJSCalls.get();
+        // Loading a script synchronously ends a batch it didn't start, never go below 0
+        while (pendingCalls > 0 &&
+                !mPendingJSCalls.compareAndSet(pendingCalls, pendingCalls - 1)) {
+            pendingCalls = mPendingJSCalls.get();
+        }
+        boolean isNowIdle = pendingCalls == 1;
+        if (isNowIdle && (!mBridgeIdleListeners.isEmpty() || mIdleRunnableCount > 0)) {
+            dispatchBridgeIdleState();
+        }
+    }
+
+    /**
+     * Notifies the listeners on the native modules queue thread if the bridge went idle or busy
+     * since they were last notified, and runs the Runnables waiting for it to become idle.
+     * Transitions are dispatched from several threads, so the state is read again there rather
+     * than passed along, which keeps the notifications in order.
+     */
+    private void dispatchBridgeIdleState() {
+        mNativeModulesQueueThread.runOnQueue(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mDestroyed) {
+                            return;
+                        }
+                        boolean isIdle = mPendingJSCalls.get() == 0;
+                        if (isIdle != mNotifiedBridgeIdle) {
+                            mNotifiedBridgeIdle = isIdle;
+                            for (NotThreadSafeBridgeIdleDebugListener listener : mBridgeIdleListeners) {
+                                if (isIdle) {
+                                    listener.onTransitionToBridgeIdle();
+                                } else {
+                                    listener.onTransitionToBridgeBusy();
+                                }
+                            }
+                        }
+                        if (isIdle) {
+                            runIdleRunnables();
+                        }
+                    }
+                });
+    }
+
+    private void runIdleRunnables() {
+        while (!mIdleRunnables.isEmpty() && mPendingJSCalls.get() == 0) {
+            Runnable runnable = mIdleRunnables.poll();
+            mIdleRunnableCount = mIdleRunnables.size();
+            runnable.run();
+        }
     }
 
     private void onNativeException(Exception e) {
@@ -505,6 +845,10 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
         JavaScriptExecutor mJSExecutor;
         private @Nullable
         NativeModuleCallExceptionHandler mNativeModuleCallExceptionHandler;
+        private @Nullable
+        JSCallCoalescingSpec mJSCallCoalescingSpec;
+        private @Nullable
+        ModuleConfigCache mModuleConfigCache;
 
 
         public Builder setReactQueueConfigurationSpec(
@@ -534,13 +878,32 @@ public class JsBridgeInstanceImpl implements JsBridgeInstance {
             return this;
         }
 
+        /**
+         * Coalesces the calls into JS, see {@link JSCallCoalescer}. Off by default.
+         */
+        public Builder setJSCallCoalescingSpec(@Nullable JSCallCoalescingSpec spec) {
+            mJSCallCoalescingSpec = spec;
+            return this;
+        }
+
+        /**
+         * Hands the module configs saved by the previous launch to the bridge and saves the ones it
+         * builds, see {@link ModuleConfigCache}. Off by default.
+         */
+        public Builder setModuleConfigCache(@Nullable ModuleConfigCache cache) {
+            mModuleConfigCache = cache;
+            return this;
+        }
+
         public JsBridgeInstanceImpl build() {
             return new JsBridgeInstanceImpl(
                     Assertions.assertNotNull(mReactQueueConfigurationSpec),
                     Assertions.assertNotNull(mJSExecutor),
                     Assertions.assertNotNull(mRegistry),
                     Assertions.assertNotNull(mJSBundleLoader),
-                    Assertions.assertNotNull(mNativeModuleCallExceptionHandler));
+                    Assertions.assertNotNull(mNativeModuleCallExceptionHandler),
+                    mJSCallCoalescingSpec,
+                    mModuleConfigCache);
         }
 
     }
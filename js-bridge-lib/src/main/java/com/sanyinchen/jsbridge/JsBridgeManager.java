@@ -20,14 +20,21 @@ import com.facebook.infer.annotation.ThreadConfined;
 import com.facebook.infer.annotation.ThreadSafe;
 import com.facebook.soloader.SoLoader;
 import com.sanyinchen.jsbridge.base.JsBridgeInstance;
+import com.sanyinchen.jsbridge.common.futures.SimpleSettableFuture;
+import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
 import com.sanyinchen.jsbridge.exception.NativeModuleCallExceptionHandler;
 import com.sanyinchen.jsbridge.executor.base.JavaScriptExecutor;
 import com.sanyinchen.jsbridge.executor.base.JavaScriptExecutorFactory;
 import com.sanyinchen.jsbridge.load.JSBundleLoader;
+import com.sanyinchen.jsbridge.module.bridge.ModuleConfigCache;
 import com.sanyinchen.jsbridge.module.bridge.NativeModuleRegistry;
 import com.sanyinchen.jsbridge.module.bridge.NativeModuleRegistryBuilder;
 import com.sanyinchen.jsbridge.module.bridge.NativeModelPackage;
 import com.sanyinchen.jsbridge.module.jsi.JSIModulePackage;
+import com.sanyinchen.jsbridge.queue.MessageQueueThread;
+import com.sanyinchen.jsbridge.queue.QueueStallWatchdog;
+import com.sanyinchen.jsbridge.queue.SharedQueueThreadPools;
+import com.sanyinchen.jsbridge.queue.ReactQueueConfiguration;
 import com.sanyinchen.jsbridge.queue.ReactQueueConfigurationSpec;
 import com.sanyinchen.jsbridge.utils.UiThreadUtil;
 
@@ -36,6 +43,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import static com.facebook.infer.annotation.ThreadConfined.UI;
 
@@ -69,13 +77,23 @@ public class JsBridgeManager {
             Collections.synchronizedSet(new HashSet<ReactInstanceEventListener>());
     // Identifies whether the instance manager is or soon will be initialized (on background thread)
     private volatile boolean mHasStartedCreatingInitialContext = false;
-    // Identifies whether the instance manager destroy function is in process,
-    // while true any spawned create thread should wait for proper clean up before initializing
-    private volatile Boolean mHasStartedDestroying = false;
+    // Set while destroy() shuts the threads of the current context down, contexts requested
+    // meanwhile are created once it's set
+    @ThreadConfined(UI)
+    private @Nullable SimpleSettableFuture<Void> mTeardownFuture;
+    // Incremented by destroy(), contexts whose creation started before are destroyed once created
+    @ThreadConfined(UI)
+    private int mContextGeneration;
     private final @Nullable
     NativeModuleCallExceptionHandler mNativeModuleCallExceptionHandler;
     private final @Nullable
     JSIModulePackage mJSIModulePackage;
+    private final @Nullable
+    JSCallCoalescingSpec mJSCallCoalescingSpec;
+    private final @Nullable
+    QueueStallWatchdog mQueueStallWatchdog;
+    private final @Nullable
+    SharedQueueThreadPools mSharedQueueThreadPools;
 
     /**
      * Listener interface for react instance events.
@@ -119,7 +137,10 @@ public class JsBridgeManager {
             @Nullable String jsMainModulePath,
             List<NativeModelPackage> packages,
             NativeModuleCallExceptionHandler nativeModuleCallExceptionHandler,
-            @Nullable JSIModulePackage jsiModulePackage) {
+            @Nullable JSIModulePackage jsiModulePackage,
+            @Nullable JSCallCoalescingSpec jsCallCoalescingSpec,
+            @Nullable QueueStallWatchdog queueStallWatchdog,
+            @Nullable SharedQueueThreadPools sharedQueueThreadPools) {
         initializeSoLoaderIfNecessary(applicationContext);
 
         mApplicationContext = applicationContext;
@@ -133,6 +154,9 @@ public class JsBridgeManager {
             mPackages.addAll(packages);
         }
         mJSIModulePackage = jsiModulePackage;
+        mJSCallCoalescingSpec = jsCallCoalescingSpec;
+        mQueueStallWatchdog = queueStallWatchdog;
+        mSharedQueueThreadPools = sharedQueueThreadPools;
     }
 
     private static void initializeSoLoaderIfNecessary(Context applicationContext) {
@@ -180,99 +204,195 @@ public class JsBridgeManager {
         final ReactContextInitParams initParams = new ReactContextInitParams(
                 jsExecutorFactory,
                 jsBundleLoader);
-        if (mCreateReactContextThread == null) {
+        if (mCreateReactContextThread == null && mTeardownFuture == null) {
             runCreateReactContextOnNewThread(initParams);
         } else {
             mPendingReactContextInitParams = initParams;
         }
     }
 
+    /**
+     * Destroys the current context, if any, after which {@link #run} can be called again. A
+     * context being created meanwhile is destroyed as soon as it's created, and the ones requested
+     * before the returned future is set are created after.
+     *
+     * @return a future set on the UI thread once the threads of the context are shut down, chain
+     * on it rather than blocking the UI thread
+     */
+    @ThreadConfined(UI)
+    public SimpleSettableFuture<Void> destroy() {
+        UiThreadUtil.assertOnUiThread();
+        if (mTeardownFuture != null) {
+            return mTeardownFuture;
+        }
+        mContextGeneration++;
+        mHasStartedCreatingInitialContext = false;
+        mPendingReactContextInitParams = null;
+
+        final JsBridgeContext reactContext;
+        synchronized (mReactContextLock) {
+            reactContext = mCurrentReactContext;
+            mCurrentReactContext = null;
+        }
+        if (reactContext == null) {
+            SimpleSettableFuture<Void> destroyed = new SimpleSettableFuture<>();
+            destroyed.set(null);
+            return destroyed;
+        }
+        MessageQueueThread uiQueueThread = Assertions.assertNotNull(reactContext.getCatalystInstance())
+                .getReactQueueConfiguration()
+                .getUIQueueThread();
+        mTeardownFuture = reactContext.destroy().thenRun(
+                uiQueueThread,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        mTeardownFuture = null;
+                        runPendingCreateReactContext();
+                    }
+                });
+        return mTeardownFuture;
+    }
+
+    @ThreadConfined(UI)
+    private void runPendingCreateReactContext() {
+        if (mPendingReactContextInitParams != null &&
+                mCreateReactContextThread == null &&
+                mTeardownFuture == null) {
+            runCreateReactContextOnNewThread(mPendingReactContextInitParams);
+            mPendingReactContextInitParams = null;
+        }
+    }
+
+    /**
+     * Creates the context on a new thread, then chains the stages that follow without blocking any
+     * thread: see {@link #setupReactContextInBackground}.
+     */
     @ThreadConfined(UI)
     private void runCreateReactContextOnNewThread(final ReactContextInitParams initParams) {
+        // As destroy() may have run and set this to false, ensure that it is true before we create
+        mHasStartedCreatingInitialContext = true;
+        final int generation = mContextGeneration;
+        final SimpleSettableFuture<JsBridgeContext> created = new SimpleSettableFuture<>();
         mCreateReactContextThread =
                 new Thread(
                         null,
                         new Runnable() {
                             @Override
                             public void run() {
-                                synchronized (JsBridgeManager.this.mHasStartedDestroying) {
-                                    while (JsBridgeManager.this.mHasStartedDestroying) {
-                                        try {
-                                            JsBridgeManager.this.mHasStartedDestroying.wait();
-                                        } catch (InterruptedException e) {
-                                            continue;
-                                        }
-                                    }
-                                }
-                                // As destroy() may have run and set this to false, ensure that it is true before we create
-                                mHasStartedCreatingInitialContext = true;
-
+                                Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
                                 try {
-                                    Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
-                                    final JsBridgeContext reactApplicationContext =
+                                    created.set(
                                             createReactContext(
                                                     initParams.getJsExecutorFactory().create(),
-                                                    initParams.getJsBundleLoader());
-
-                                    mCreateReactContextThread = null;
-                                    final Runnable maybeRecreateReactContextRunnable =
-                                            new Runnable() {
-                                                @Override
-                                                public void run() {
-                                                    if (mPendingReactContextInitParams != null) {
-                                                        runCreateReactContextOnNewThread(mPendingReactContextInitParams);
-                                                        mPendingReactContextInitParams = null;
-                                                    }
-                                                }
-                                            };
-                                    Runnable setupReactContextRunnable =
-                                            new Runnable() {
-                                                @Override
-                                                public void run() {
-                                                    try {
-                                                        setupReactContext(reactApplicationContext);
-                                                    } catch (Exception e) {
-                                                        e.printStackTrace();
-                                                        // mDevSupportManager.handleException(e);
-                                                    }
-                                                }
-                                            };
-
-                                    reactApplicationContext.runOnNativeModulesQueueThread(setupReactContextRunnable);
-                                    UiThreadUtil.runOnUiThread(maybeRecreateReactContextRunnable);
+                                                    initParams.getJsBundleLoader()));
                                 } catch (Exception e) {
-                                    e.printStackTrace();
+                                    created.setException(e);
                                 }
                             }
                         }, "create_react_context");
+        created.addListener(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        setupReactContextInBackground(created, generation);
+                    }
+                });
         mCreateReactContextThread.start();
     }
 
-    private void setupReactContext(final JsBridgeContext reactContext) {
-        synchronized (mReactContextLock) {
-            mCurrentReactContext = Assertions.assertNotNull(reactContext);
+    /**
+     * Initializes the modules of a created context on its native modules queue thread, then
+     * publishes it on the UI thread.
+     */
+    private void setupReactContextInBackground(
+            SimpleSettableFuture<JsBridgeContext> created,
+            final int generation) {
+        final JsBridgeContext reactContext;
+        try {
+            reactContext = created.get();
+        } catch (Exception e) {
+            e.printStackTrace();
+            UiThreadUtil.runOnUiThread(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            onCreateReactContextFinished();
+                        }
+                    });
+            return;
         }
-
-        JsBridgeInstance catalystInstance =
+        final JsBridgeInstance catalystInstance =
                 Assertions.assertNotNull(reactContext.getCatalystInstance());
+        ReactQueueConfiguration queueConfiguration = catalystInstance.getReactQueueConfiguration();
+        final SimpleSettableFuture<Void> published = queueConfiguration.getNativeModulesQueueThread()
+                .callOnQueue(
+                        new Callable<Void>() {
+                            @Override
+                            public Void call() {
+                                catalystInstance.initialize();
+                                return null;
+                            }
+                        })
+                .thenRun(
+                        queueConfiguration.getUIQueueThread(),
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                setupReactContext(reactContext, generation);
+                                onCreateReactContextFinished();
+                            }
+                        });
+        published.addListener(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            published.get();
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                            // mDevSupportManager.handleException(e);
+                            UiThreadUtil.runOnUiThread(
+                                    new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            onCreateReactContextFinished();
+                                        }
+                                    });
+                        }
+                    }
+                });
+    }
 
-        catalystInstance.initialize();
+    @ThreadConfined(UI)
+    private void onCreateReactContextFinished() {
+        mCreateReactContextThread = null;
+        runPendingCreateReactContext();
+    }
 
+    @ThreadConfined(UI)
+    private void setupReactContext(final JsBridgeContext reactContext, int generation) {
+        if (generation != mContextGeneration) {
+            // destroy() was called while the context was created
+            reactContext.destroy();
+            return;
+        }
+        synchronized (mReactContextLock) {
+            mCurrentReactContext = Assertions.assertNotNull(reactContext);
+        }
 
         ReactInstanceEventListener[] listeners =
                 new ReactInstanceEventListener[mReactInstanceEventListeners.size()];
         final ReactInstanceEventListener[] finalListeners =
                 mReactInstanceEventListeners.toArray(listeners);
+        for (ReactInstanceEventListener listener : finalListeners) {
+            listener.onReactContextInitialized(reactContext);
+        }
 
-        UiThreadUtil.runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        for (ReactInstanceEventListener listener : finalListeners) {
-                            listener.onReactContextInitialized(reactContext);
-                        }
-                    }
-                });
+        // Adaptive queues go back to the default priority on their own once they drain
+        if (ReactFeatureFlags.useAdaptiveQueueThreadPriority) {
+            return;
+        }
         reactContext.runOnJSQueueThread(
                 new Runnable() {
                     @Override
@@ -304,11 +424,18 @@ public class JsBridgeManager {
         NativeModuleRegistry nativeModuleRegistry = processPackages(reactContext, mPackages, false);
 
         JsBridgeInstanceImpl.Builder catalystInstanceBuilder = new JsBridgeInstanceImpl.Builder()
-                .setReactQueueConfigurationSpec(ReactQueueConfigurationSpec.createDefault())
+                .setReactQueueConfigurationSpec(
+                        ReactQueueConfigurationSpec.createDefault(
+                                mQueueStallWatchdog, mSharedQueueThreadPools))
                 .setJSExecutor(jsExecutor)
                 .setRegistry(nativeModuleRegistry)
                 .setJSBundleLoader(jsBundleLoader)
-                .setNativeModuleCallExceptionHandler(exceptionHandler);
+                .setNativeModuleCallExceptionHandler(exceptionHandler)
+                .setJSCallCoalescingSpec(mJSCallCoalescingSpec)
+                .setModuleConfigCache(
+                        ReactFeatureFlags.cacheModuleConfig
+                                ? ModuleConfigCache.create(mApplicationContext, nativeModuleRegistry)
+                                : null);
 
         final JsBridgeInstance catalystInstance = catalystInstanceBuilder.build();
 
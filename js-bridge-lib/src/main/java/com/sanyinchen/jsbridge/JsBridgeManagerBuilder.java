@@ -15,6 +15,8 @@ import com.sanyinchen.jsbridge.executor.jsc.JSCExecutorFactory;
 import com.sanyinchen.jsbridge.load.JSBundleLoader;
 import com.sanyinchen.jsbridge.module.bridge.NativeModelPackage;
 import com.sanyinchen.jsbridge.module.jsi.JSIModulePackage;
+import com.sanyinchen.jsbridge.queue.QueueStallWatchdog;
+import com.sanyinchen.jsbridge.queue.SharedQueueThreadPools;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -48,6 +50,12 @@ public class JsBridgeManagerBuilder {
     private int mMinTimeLeftInFrameForNonBatchedOperationMs = -1;
     private @Nullable
     JSIModulePackage mJSIModulesPackage;
+    private @Nullable
+    JSCallCoalescingSpec mJSCallCoalescingSpec;
+    private @Nullable
+    QueueStallWatchdog mQueueStallWatchdog;
+    private @Nullable
+    SharedQueueThreadPools mSharedQueueThreadPools;
 
     public JsBridgeManagerBuilder() {
     }
@@ -59,6 +67,37 @@ public class JsBridgeManagerBuilder {
         return this;
     }
 
+    /**
+     * Buffers the calls into JS and delivers them in batches, see {@link JSCallCoalescingSpec}.
+     * Calls are sent one by one when not set.
+     */
+    public JsBridgeManagerBuilder setJSCallCoalescingSpec(
+            @Nullable JSCallCoalescingSpec jsCallCoalescingSpec) {
+        mJSCallCoalescingSpec = jsCallCoalescingSpec;
+        return this;
+    }
+
+    /**
+     * Reports the Runnables that stall the bridge queues, see {@link QueueStallWatchdog}. Stalls
+     * aren't watched when not set.
+     */
+    public JsBridgeManagerBuilder setQueueStallWatchdog(
+            @Nullable QueueStallWatchdog queueStallWatchdog) {
+        mQueueStallWatchdog = queueStallWatchdog;
+        return this;
+    }
+
+    /**
+     * Runs the native modules and JS queues on pools shared with other managers instead of
+     * threads of their own, see {@link SharedQueueThreadPools}. The caller shuts the pools down
+     * once every manager using them is destroyed.
+     */
+    public JsBridgeManagerBuilder setSharedQueueThreadPools(
+            @Nullable SharedQueueThreadPools sharedQueueThreadPools) {
+        mSharedQueueThreadPools = sharedQueueThreadPools;
+        return this;
+    }
+
     /**
      * Factory for desired implementation of JavaScriptExecutor.
      */
@@ -185,6 +224,9 @@ public class JsBridgeManagerBuilder {
                 mJSMainModulePath,
                 mPackages,
                 mNativeModuleCallExceptionHandler,
-                mJSIModulesPackage);
+                mJSIModulesPackage,
+                mJSCallCoalescingSpec,
+                mQueueStallWatchdog,
+                mSharedQueueThreadPools);
     }
 }
@@ -7,6 +7,8 @@
 
 package com.sanyinchen.jsbridge.annotation;
 
+import com.sanyinchen.jsbridge.queue.MessageQueueThread;
+
 import java.lang.annotation.Retention;
 
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
@@ -36,4 +38,42 @@ public @interface ReactMethod {
    * methods when running under the websocket executor is currently not supported.
    */
   boolean isBlockingSynchronousMethod() default false;
+
+  /**
+   * The lane of the module's queue the method's calls from JS are posted to, see
+   * {@link MessageQueueThread.Priority}. Use IMMEDIATE for calls something is waiting on, like
+   * input handling, and IDLE for fire-and-forget calls like logging. Ignored for synchronous
+   * methods, which run on the JS thread.
+   *
+   * The priority only decides when the module gets to run, its calls still run in the order they
+   * were made: an IMMEDIATE call runs after the earlier calls to its module, which it takes ahead
+   * with it. The batch of calls JS flushed only completes once they have all run, whatever their
+   * lane.
+   */
+  MessageQueueThread.Priority priority() default MessageQueueThread.Priority.NORMAL;
+
+  /**
+   * Whether the results of this synchronous method are memoized: a call from JS with the same
+   * arguments as an earlier call gets the earlier result back without calling into Java, until
+   * {@link #memoizeTtlMs()} passes or the module invalidates it, see
+   * {@link com.sanyinchen.jsbridge.module.impl.java.BaseJavaModule#invalidateMemoizedResults()}.
+   * Only for methods whose result doesn't change between invalidations. Ignored for asynchronous
+   * methods.
+   */
+  boolean memoize() default false;
+
+  /**
+   * How long the memoized results of the method are returned, in milliseconds. 0 keeps them until
+   * they are invalidated.
+   */
+  long memoizeTtlMs() default 0;
+
+  /**
+   * Whether the calls to this promise method from JS with equal arguments share one execution
+   * while it runs: a call made before the promise of an earlier one settled doesn't call the
+   * method again, its promise gets the same resolution or rejection. Only for methods whose
+   * result depends on their arguments alone, like fetching a resource. Ignored for methods that
+   * don't take a {@link com.sanyinchen.jsbridge.base.Promise}.
+   */
+  boolean shareInFlightCalls() default false;
 }
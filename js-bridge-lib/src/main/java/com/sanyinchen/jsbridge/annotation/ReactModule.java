@@ -43,9 +43,59 @@ public @interface ReactModule {
    */
   boolean hasConstants() default true;
 
+  /**
+   * Whether this module's constants can change from one launch to the next with the same app
+   * version, e.g. they depend on the device state or on settings. The config of a module with
+   * volatile constants is never cached, see
+   * {@link com.sanyinchen.jsbridge.config.ReactFeatureFlags#cacheModuleConfig}.
+   */
+  boolean hasVolatileConstants() default false;
+
+  /**
+   * Whether this module's constants are slow to compute, e.g. they read preferences, files or the
+   * package manager. Deferred constants are computed on the native modules pool while the bridge
+   * starts, and JavaScript only waits for them if it requires the module before they are ready.
+   * {@link com.sanyinchen.jsbridge.module.impl.java.BaseJavaModule#getConstants()} must then be
+   * safe to call from any thread, before the module is initialized.
+   */
+  boolean hasDeferredConstants() default false;
+
   /**
    * Indicates if a module is a C++ module or a Java Module
    * @return
    */
   boolean isCxxModule() default false;
+
+  /**
+   * Where calls from JavaScript to this module's methods are run. Calls to a module always run one
+   * at a time and in the order they were made, whatever the policy and the
+   * {@link ReactMethod#priority()} of the methods: a call to a higher lane runs the module's
+   * earlier calls first instead of overtaking them.
+   */
+  ExecutionPolicy executionPolicy() default ExecutionPolicy.SHARED;
+
+  /**
+   * Names of the modules that must be initialized before this one. Only used when modules are
+   * initialized in parallel, see
+   * {@link com.sanyinchen.jsbridge.config.ReactFeatureFlags#initializeNativeModulesInParallel}.
+   * Names of modules that aren't registered are ignored.
+   */
+  String[] dependencies() default {};
+
+  enum ExecutionPolicy {
+    /**
+     * On the native modules thread, shared with every other module using this policy
+     */
+    SHARED,
+    /**
+     * On a thread of its own, for modules doing slow work (disk, crypto) that shouldn't hold up
+     * other modules
+     */
+    DEDICATED,
+    /**
+     * On the bounded native modules thread pool, for stateless modules that don't need a thread of
+     * their own
+     */
+    POOLED,
+  }
 }
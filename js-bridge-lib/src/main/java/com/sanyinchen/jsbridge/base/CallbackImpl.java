@@ -7,7 +7,7 @@
 
 package com.sanyinchen.jsbridge.base;
 
-import com.sanyinchen.jsbridge.data.Arguments;
+import com.sanyinchen.jsbridge.data.NativeContainerPool;
 
 /**
  * Implementation of javascript callback function that use Bridge to schedule method execution
@@ -31,7 +31,7 @@ public final class CallbackImpl implements Callback {
         "module. This callback type only permits a single invocation from "+
         "native code.");
     }
-    mJSInstance.invokeCallback(mCallbackId, Arguments.fromJavaArgs(args));
+    mJSInstance.invokeCallback(mCallbackId, NativeContainerPool.obtainArrayFromJavaArgs(args));
     mInvoked = true;
   }
 }
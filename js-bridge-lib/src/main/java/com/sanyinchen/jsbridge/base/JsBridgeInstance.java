@@ -10,6 +10,7 @@ package com.sanyinchen.jsbridge.base;
 import androidx.annotation.Nullable;
 
 import com.facebook.jni.annotations.DoNotStrip;
+import com.sanyinchen.jsbridge.common.futures.SimpleSettableFuture;
 import com.sanyinchen.jsbridge.context.JavaScriptContextHolder;
 import com.sanyinchen.jsbridge.data.NativeArray;
 import com.sanyinchen.jsbridge.data.NativeArrayInterface;
@@ -18,8 +19,10 @@ import com.sanyinchen.jsbridge.memory.MemoryPressureListener;
 import com.sanyinchen.jsbridge.module.bridge.NativeModuleRegistry;
 import com.sanyinchen.jsbridge.module.bridge.NativeModule;
 import com.sanyinchen.jsbridge.module.js.JavaScriptModule;
+import com.sanyinchen.jsbridge.module.js.JavaScriptModuleArguments;
 import com.sanyinchen.jsbridge.module.jsi.JSIModule;
 import com.sanyinchen.jsbridge.module.jsi.JSIModuleSpec;
+import com.sanyinchen.jsbridge.queue.MessageQueueThread;
 import com.sanyinchen.jsbridge.queue.ReactQueueConfiguration;
 
 import java.util.Collection;
@@ -61,15 +64,74 @@ public interface JsBridgeInstance
             String method,
             NativeArray arguments);
 
+    /**
+     * Same as {@link #callFunction(String, String, NativeArray)}. When calls are coalesced, a
+     * buffered call to the same module and method with an equal {@code coalescingKey} is replaced
+     * by this one. The key is ignored otherwise.
+     */
+    void callFunction(
+            String module,
+            String method,
+            NativeArray arguments,
+            @Nullable String coalescingKey);
+
+    /**
+     * Same as {@link #callFunction(String, String, NativeArray)}, posted to the lane of
+     * {@code priority} of the JS queue, see {@link MessageQueueThread.Priority}. IMMEDIATE calls
+     * can run before calls made earlier with a lower priority, and are never coalesced.
+     */
+    void callFunction(
+            String module,
+            String method,
+            NativeArray arguments,
+            MessageQueueThread.Priority priority);
+
+    /**
+     * @return a small id standing for the JS module or method {@code name}, to be passed to
+     * {@link #callFunction(int, int, JavaScriptModuleArguments)}. Ids are only valid for this
+     * instance.
+     */
+    int internJSName(String name);
+
+    /**
+     * Same as {@link #callFunction(String, String, NativeArray)}, with interned names and
+     * arguments encoded by a generated {@link JavaScriptModule} implementation.
+     */
+    void callFunction(
+            int moduleId,
+            int methodId,
+            JavaScriptModuleArguments arguments);
+
     /**
      * Destroys this catalyst instance, waiting for any other threads in ReactQueueConfiguration
      * (besides the UI thread) to finish running. Must be called from the UI thread so that we can
      * fully shut down other threads.
+     *
+     * @return a future set once the threads are shut down, the same one for every call
      */
-    void destroy();
+    SimpleSettableFuture<Void> destroy();
 
     boolean isDestroyed();
 
+    /**
+     * @return whether no JS call or callback is in flight: every call made into JS has returned
+     * and handed its batch of native module calls over
+     */
+    boolean isBridgeIdle();
+
+    void addBridgeIdleDebugListener(NotThreadSafeBridgeIdleDebugListener listener);
+
+    void removeBridgeIdleDebugListener(NotThreadSafeBridgeIdleDebugListener listener);
+
+    /**
+     * Runs {@code runnable} on the native modules queue thread once the bridge is idle, see
+     * {@link #isBridgeIdle}, or after {@code deadlineMs} if it doesn't become idle before. Meant for
+     * work that shouldn't compete with JS, like prefetching or warming caches. Runnables waiting
+     * for the bridge to become idle run in the order they were scheduled, and stop running as soon
+     * as one of them makes the bridge busy. They are dropped if the instance is destroyed first.
+     */
+    void runWhenBridgeIdle(Runnable runnable, long deadlineMs);
+
     /**
      * Initialize all the native modules
      */
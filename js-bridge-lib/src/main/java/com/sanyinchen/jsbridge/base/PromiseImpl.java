@@ -7,6 +7,7 @@
 
 package com.sanyinchen.jsbridge.base;
 
+import com.sanyinchen.jsbridge.data.NativeContainerPool;
 import com.sanyinchen.jsbridge.data.WritableMap;
 import com.sanyinchen.jsbridge.data.WritableNativeArray;
 import com.sanyinchen.jsbridge.data.WritableNativeMap;
@@ -214,21 +215,23 @@ public class PromiseImpl implements Promise {
     // iOS: /React/Base/RCTUtils.m -> RCTJSErrorFromCodeMessageAndNSError
     if (throwable != null) {
       StackTraceElement[] stackTrace = throwable.getStackTrace();
-      WritableNativeArray nativeStackAndroid = new WritableNativeArray();
+      WritableNativeArray nativeStackAndroid = NativeContainerPool.obtainArray();
 
       // Build an an Array of StackFrames to match JavaScript:
       // iOS: /Libraries/Core/Devtools/parseErrorStack.js -> StackFrame
       for (int i = 0; i < stackTrace.length && i < ERROR_STACK_FRAME_LIMIT; i++) {
         StackTraceElement frame = stackTrace[i];
-        WritableMap frameMap = new WritableNativeMap();
+        WritableNativeMap frameMap = NativeContainerPool.obtainMap();
         // NOTE: no column number exists StackTraceElement
         frameMap.putString(STACK_FRAME_KEY_FILE, frame.getFileName());
         frameMap.putInt(STACK_FRAME_KEY_LINE_NUMBER, frame.getLineNumber());
         frameMap.putString(STACK_FRAME_KEY_METHOD_NAME, frame.getMethodName());
         nativeStackAndroid.pushMap(frameMap);
+        NativeContainerPool.recycle(frameMap);
       }
 
       errorInfo.putArray(ERROR_MAP_KEY_NATIVE_STACK, nativeStackAndroid);
+      NativeContainerPool.recycle(nativeStackAndroid);
     } else {
       errorInfo.putArray(ERROR_MAP_KEY_NATIVE_STACK, new WritableNativeArray());
     }
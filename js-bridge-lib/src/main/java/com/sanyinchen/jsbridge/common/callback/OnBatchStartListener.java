@@ -0,0 +1,17 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.common.callback;
+
+/**
+ * Interface for a module that will be notified before the first JS->Java call of a batch is
+ * dispatched. Every batch that starts is followed by {@link OnBatchCompleteListener#onBatchComplete}.
+ */
+public interface OnBatchStartListener {
+
+  void onBatchStart();
+}
@@ -7,6 +7,10 @@
 
 package com.sanyinchen.jsbridge.common.futures;
 
+import com.sanyinchen.jsbridge.queue.MessageQueueThread;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -14,17 +18,34 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 
 /**
  * A super simple Future-like class that can safely notify another Thread when a value is ready.
  * Does not support canceling.
+ *
+ * Besides blocking on {@link #get}, the value can be consumed without blocking any thread through
+ * {@link #addListener} or by chaining a continuation on a {@link MessageQueueThread} with
+ * {@link #thenRun} or {@link #thenApply}.
  */
 public class SimpleSettableFuture<T> implements Future<T> {
+
+  /**
+   * Computes the value of a future from the value of the one it's chained to, see
+   * {@link #thenApply}.
+   */
+  public interface Function<T, R> {
+    @Nullable R apply(@Nullable T value) throws Exception;
+  }
+
   private final CountDownLatch mReadyLatch = new CountDownLatch(1);
   private @Nullable
   T mResult;
   private @Nullable
   Exception mException;
+  // Null once the future is done
+  @GuardedBy("this")
+  private @Nullable List<Runnable> mListeners = new ArrayList<>();
 
   /**
    * Sets the result. If another thread has called {@link #get}, they will immediately receive the
@@ -34,6 +55,7 @@ public class SimpleSettableFuture<T> implements Future<T> {
     checkNotSet();
     mResult = result;
     mReadyLatch.countDown();
+    runListeners();
   }
 
   /**
@@ -44,6 +66,79 @@ public class SimpleSettableFuture<T> implements Future<T> {
     checkNotSet();
     mException = exception;
     mReadyLatch.countDown();
+    runListeners();
+  }
+
+  /**
+   * Runs {@code listener} once a value or an exception is set, on the thread that sets it, or
+   * right away on the calling thread if the future is already done. {@link #get} doesn't block
+   * when called from the listener.
+   */
+  public void addListener(Runnable listener) {
+    synchronized (this) {
+      if (mListeners != null) {
+        mListeners.add(listener);
+        return;
+      }
+    }
+    listener.run();
+  }
+
+  /**
+   * Runs {@code runnable} on {@code queueThread} once this future has a value, without blocking
+   * any thread.
+   *
+   * @return a future set once {@code runnable} has run, or with the exception of this future or
+   * of {@code runnable}, in which case {@code runnable} doesn't run or didn't complete
+   */
+  public SimpleSettableFuture<Void> thenRun(
+      MessageQueueThread queueThread,
+      final Runnable runnable) {
+    return thenApply(
+        queueThread,
+        new Function<T, Void>() {
+          @Override
+          public @Nullable Void apply(@Nullable T value) {
+            runnable.run();
+            return null;
+          }
+        });
+  }
+
+  /**
+   * Computes a value from the value of this future on {@code queueThread}, without blocking any
+   * thread.
+   *
+   * @return a future set with the value returned by {@code function}, or with the exception of
+   * this future or of {@code function}, in which case {@code function} doesn't run or didn't
+   * complete
+   */
+  public <R> SimpleSettableFuture<R> thenApply(
+      final MessageQueueThread queueThread,
+      final Function<? super T, ? extends R> function) {
+    final SimpleSettableFuture<R> next = new SimpleSettableFuture<>();
+    addListener(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (mException != null) {
+              next.setException(mException);
+              return;
+            }
+            queueThread.runOnQueue(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    try {
+                      next.set(function.apply(mResult));
+                    } catch (Exception e) {
+                      next.setException(e);
+                    }
+                  }
+                });
+          }
+        });
+    return next;
   }
 
   @Override
@@ -119,6 +214,19 @@ public class SimpleSettableFuture<T> implements Future<T> {
     }
   }
 
+  private void runListeners() {
+    List<Runnable> listeners;
+    synchronized (this) {
+      listeners = mListeners;
+      mListeners = null;
+    }
+    if (listeners != null) {
+      for (Runnable listener : listeners) {
+        listener.run();
+      }
+    }
+  }
+
   private void checkNotSet() {
     if (mReadyLatch.getCount() == 0) {
       throw new RuntimeException("Result has already been set!");
@@ -31,10 +31,63 @@ public class ReactFeatureFlags {
    */
   public static boolean useMapNativeAccessor = false;
 
+  /**
+   * Read native maps from a flat snapshot with sorted keys and unboxed numbers, imported in one
+   * Java-JS interop, instead of copying them into a HashMap
+   */
+  public static boolean useMapSnapshotAccessor = false;
+
+  /**
+   * Reuse the native arrays and maps the bridge creates for its own calls into JS once they have
+   * been consumed, see {@link com.sanyinchen.jsbridge.data.NativeContainerPool}
+   */
+  public static boolean poolNativeContainers = false;
+
   /**
    * Should this application use TurboModules. If yes, then any module that inherits
    * {@link com.facebook.react.turbomodule.core.interfaces.TurboModule} will NOT be passed in to
    * C++ CatalystInstanceImpl
    */
   public static boolean useTurboModules = false;
+
+  /**
+   * Call {@link com.sanyinchen.jsbridge.annotation.ReactMethod}s through the dispatchers generated
+   * at compile time instead of reflection, when one exists for the module
+   */
+  public static boolean useGeneratedMethodDispatchers = true;
+
+  /**
+   * Build native module method descriptors from the index generated at compile time instead of
+   * scanning module classes with reflection, when the module is indexed
+   */
+  public static boolean useGeneratedMethodIndex = true;
+
+  /**
+   * Call {@link com.sanyinchen.jsbridge.module.js.JavaScriptModule}s through the implementations
+   * generated at compile time, which encode their arguments in one Java-JS interop, instead of a
+   * {@link java.lang.reflect.Proxy}, when one exists for the interface
+   */
+  public static boolean useGeneratedJSModules = true;
+
+  /**
+   * Create and initialize native modules on the native modules pool when the instance is
+   * initialized, in parallel as far as their
+   * {@link com.sanyinchen.jsbridge.annotation.ReactModule#dependencies()} allow, instead of one
+   * after the other on the native modules queue thread
+   */
+  public static boolean initializeNativeModulesInParallel = false;
+
+  /**
+   * Raise the priority of the JS and native modules queue threads while they are backlogged and
+   * lower it while the host is paused, see {@link com.sanyinchen.jsbridge.queue.AdaptiveThreadPriority},
+   * instead of dropping them to the default priority once the instance is set up
+   */
+  public static boolean useAdaptiveQueueThreadPriority = false;
+
+  /**
+   * Keep the configs of the native modules JS requires, constants included, in a file and hand
+   * them to the bridge on the next launches of the same app version instead of building them
+   * again, see {@link com.sanyinchen.jsbridge.module.bridge.ModuleConfigCache}
+   */
+  public static boolean cacheModuleConfig = false;
 }
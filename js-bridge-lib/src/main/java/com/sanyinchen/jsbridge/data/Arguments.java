@@ -11,6 +11,7 @@ import android.os.Bundle;
 import androidx.annotation.Nullable;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
@@ -69,6 +70,8 @@ public class Arguments {
         nativeArray.pushArray((WritableNativeArray) elem);
       } else if (elem instanceof WritableNativeMap) {
         nativeArray.pushMap((WritableNativeMap) elem);
+      } else if (elem instanceof ByteBuffer) {
+        nativeArray.pushByteBuffer((ByteBuffer) elem);
       } else {
         throw new IllegalArgumentException("Could not convert " + elem.getClass());
       }
@@ -113,6 +116,8 @@ public class Arguments {
       nativeMap.putArray(key, (WritableNativeArray) value);
     } else if (value instanceof WritableNativeMap) {
       nativeMap.putMap(key, (WritableNativeMap) value);
+    } else if (value instanceof ByteBuffer) {
+      nativeMap.putByteBuffer(key, (ByteBuffer) value);
     } else {
       throw new IllegalArgumentException("Could not convert " + value.getClass());
     }
@@ -164,7 +169,14 @@ public class Arguments {
   }
 
   public static WritableNativeArray fromJavaArgs(Object[] args) {
-    WritableNativeArray arguments = new WritableNativeArray();
+    return pushJavaArgs(new WritableNativeArray(), args);
+  }
+
+  /**
+   * Pushes {@code args} to {@code arguments} the way {@link #fromJavaArgs} does. The bridge uses
+   * it to fill the arrays of {@link NativeContainerPool#obtainArrayFromJavaArgs}.
+   */
+  static WritableNativeArray pushJavaArgs(WritableNativeArray arguments, Object[] args) {
     for (int i = 0; i < args.length; i++) {
       Object argument = args[i];
       if (argument == null) {
@@ -187,6 +199,8 @@ public class Arguments {
         arguments.pushMap((WritableNativeMap) argument);
       } else if (argumentClass == WritableNativeArray.class) {
         arguments.pushArray((WritableNativeArray) argument);
+      } else if (argument instanceof ByteBuffer) {
+        arguments.pushByteBuffer((ByteBuffer) argument);
       } else {
         throw new RuntimeException("Cannot convert argument of type " + argumentClass);
       }
@@ -213,16 +227,24 @@ public class Arguments {
         catalystArray.pushMap(fromBundle(v));
       }
     } else if (array instanceof int[]) {
-      for (int v : (int[]) array) {
-        catalystArray.pushInt(v);
+      if (catalystArray instanceof WritableNativeArray) {
+        ((WritableNativeArray) catalystArray).pushIntArray((int[]) array);
+      } else {
+        for (int v : (int[]) array) {
+          catalystArray.pushInt(v);
+        }
       }
     } else if (array instanceof float[]) {
       for (float v : (float[]) array) {
         catalystArray.pushDouble(v);
       }
     } else if (array instanceof double[]) {
-      for (double v : (double[]) array) {
-        catalystArray.pushDouble(v);
+      if (catalystArray instanceof WritableNativeArray) {
+        ((WritableNativeArray) catalystArray).pushDoubleArray((double[]) array);
+      } else {
+        for (double v : (double[]) array) {
+          catalystArray.pushDouble(v);
+        }
       }
     } else if (array instanceof boolean[]) {
       for (boolean v : (boolean[]) array) {
@@ -353,6 +375,9 @@ public class Arguments {
         case Array:
           list.add(toList(readableArray.getArray(i)));
           break;
+        case Buffer:
+          list.add(readableArray.getByteBuffer(i));
+          break;
         default:
           throw new IllegalArgumentException("Could not convert object in array.");
       }
@@ -400,6 +425,12 @@ public class Arguments {
         case Array:
           bundle.putSerializable(key, toList(readableMap.getArray(key)));
           break;
+        case Buffer:
+          ByteBuffer buffer = readableMap.getByteBuffer(key);
+          byte[] bytes = new byte[buffer.remaining()];
+          buffer.get(bytes);
+          bundle.putByteArray(key, bytes);
+          break;
         default:
           throw new IllegalArgumentException("Could not convert object with key: " + key + ".");
       }
@@ -7,6 +7,8 @@
 
 package com.sanyinchen.jsbridge.data;
 
+import java.nio.ByteBuffer;
+
 /**
  * Type representing a piece of data with unknown runtime type. Useful for allowing javascript to
  * pass one of multiple types down to the native layer.
@@ -19,6 +21,7 @@ public interface Dynamic {
   String asString();
   ReadableArray asArray();
   ReadableMap asMap();
+  ByteBuffer asByteBuffer();
   ReadableType getType();
   void recycle();
 }
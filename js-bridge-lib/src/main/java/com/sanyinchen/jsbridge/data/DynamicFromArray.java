@@ -10,6 +10,8 @@ package com.sanyinchen.jsbridge.data;
 
 import androidx.core.util.Pools;
 
+import java.nio.ByteBuffer;
+
 import javax.annotation.Nullable;
 
 /**
@@ -98,6 +100,14 @@ public class DynamicFromArray implements Dynamic {
     return mArray.getMap(mIndex);
   }
 
+  @Override
+  public ByteBuffer asByteBuffer() {
+    if (mArray == null) {
+      throw new IllegalStateException("This dynamic value has been recycled");
+    }
+    return mArray.getByteBuffer(mIndex);
+  }
+
   @Override
   public ReadableType getType() {
     if (mArray == null) {
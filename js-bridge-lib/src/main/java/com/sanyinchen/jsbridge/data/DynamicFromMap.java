@@ -10,6 +10,8 @@ package com.sanyinchen.jsbridge.data;
 
 import androidx.core.util.Pools;
 
+import java.nio.ByteBuffer;
+
 import javax.annotation.Nullable;
 
 /**
@@ -104,6 +106,14 @@ public class DynamicFromMap implements Dynamic {
     return mMap.getMap(mName);
   }
 
+  @Override
+  public ByteBuffer asByteBuffer() {
+    if (mMap == null || mName == null) {
+      throw new IllegalStateException("This dynamic value has been recycled");
+    }
+    return mMap.getByteBuffer(mName);
+  }
+
   @Override
   public ReadableType getType() {
     if (mMap == null || mName == null) {
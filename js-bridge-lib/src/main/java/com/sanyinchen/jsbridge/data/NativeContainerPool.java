@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.data;
+
+import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Pool of the {@link WritableNativeArray}s and {@link WritableNativeMap}s the bridge creates for
+ * its own calls into JS (callback and promise arguments, JS module calls). Once the bridge has
+ * handed one of them to native code, which consumes its contents, it is cleared and reused
+ * instead of leaving its native part to the {@link com.facebook.jni.DestructorThread}. Containers
+ * that don't fit in the pool are released right away.
+ *
+ * Only containers obtained from this pool are ever recycled, and only by the bridge, so
+ * containers created by modules keep their usual lifecycle. Enabled through
+ * {@link ReactFeatureFlags#poolNativeContainers}.
+ */
+public final class NativeContainerPool {
+
+  private static final int MAX_POOL_SIZE = 32;
+
+  @GuardedBy("sArrays")
+  private static final ArrayDeque<WritableNativeArray> sArrays = new ArrayDeque<>(MAX_POOL_SIZE);
+  @GuardedBy("sMaps")
+  private static final ArrayDeque<WritableNativeMap> sMaps = new ArrayDeque<>(MAX_POOL_SIZE);
+
+  private static final AtomicLong sArrayHits = new AtomicLong();
+  private static final AtomicLong sArrayMisses = new AtomicLong();
+  private static final AtomicLong sMapHits = new AtomicLong();
+  private static final AtomicLong sMapMisses = new AtomicLong();
+  // Native containers created by the pool that haven't been released yet, in use or pooled
+  private static final AtomicInteger sLiveArrays = new AtomicInteger();
+  private static final AtomicInteger sLiveMaps = new AtomicInteger();
+
+  private NativeContainerPool() {
+  }
+
+  /**
+   * Pool counters at a given time, see {@link #getStats()}.
+   */
+  public static class Stats {
+    public long arrayHits;
+    public long arrayMisses;
+    public long mapHits;
+    public long mapMisses;
+    public int pooledArrays;
+    public int pooledMaps;
+    public int liveArrays;
+    public int liveMaps;
+
+    /**
+     * @return the share of obtain calls served from the pool, between 0 and 1
+     */
+    public double getHitRate() {
+      long hits = arrayHits + mapHits;
+      long total = hits + arrayMisses + mapMisses;
+      return total == 0 ? 0 : (double) hits / total;
+    }
+  }
+
+  /**
+   * @return an empty array that the bridge will recycle after passing it to JS
+   */
+  public static WritableNativeArray obtainArray() {
+    if (!ReactFeatureFlags.poolNativeContainers) {
+      return new WritableNativeArray();
+    }
+    WritableNativeArray array;
+    synchronized (sArrays) {
+      array = sArrays.poll();
+    }
+    if (array != null) {
+      sArrayHits.incrementAndGet();
+      return array;
+    }
+    sArrayMisses.incrementAndGet();
+    sLiveArrays.incrementAndGet();
+    array = new WritableNativeArray();
+    array.mIsPooled = true;
+    return array;
+  }
+
+  /**
+   * Same as {@link Arguments#fromJavaArgs}, for the bridge's own calls into JS.
+   *
+   * @return an array that the bridge will recycle after passing it to JS
+   */
+  public static WritableNativeArray obtainArrayFromJavaArgs(Object[] args) {
+    return Arguments.pushJavaArgs(obtainArray(), args);
+  }
+
+  /**
+   * @return an empty map that the bridge will recycle after passing it to JS
+   */
+  public static WritableNativeMap obtainMap() {
+    if (!ReactFeatureFlags.poolNativeContainers) {
+      return new WritableNativeMap();
+    }
+    WritableNativeMap map;
+    synchronized (sMaps) {
+      map = sMaps.poll();
+    }
+    if (map != null) {
+      sMapHits.incrementAndGet();
+      return map;
+    }
+    sMapMisses.incrementAndGet();
+    sLiveMaps.incrementAndGet();
+    map = new WritableNativeMap();
+    map.mIsPooled = true;
+    return map;
+  }
+
+  /**
+   * Returns {@code array} to the pool if it came from it. Must only be called once its contents
+   * were consumed and nothing else references it anymore.
+   */
+  public static void recycle(NativeArrayInterface array) {
+    if (!(array instanceof WritableNativeArray) || !((WritableNativeArray) array).mIsPooled) {
+      return;
+    }
+    WritableNativeArray nativeArray = (WritableNativeArray) array;
+    nativeArray.clear();
+    synchronized (sArrays) {
+      if (ReactFeatureFlags.poolNativeContainers && sArrays.size() < MAX_POOL_SIZE) {
+        sArrays.add(nativeArray);
+        return;
+      }
+    }
+    nativeArray.releaseNative();
+    sLiveArrays.decrementAndGet();
+  }
+
+  /**
+   * Returns {@code map} to the pool if it came from it. Must only be called once its contents
+   * were consumed and nothing else references it anymore.
+   */
+  public static void recycle(ReadableMap map) {
+    if (!(map instanceof WritableNativeMap) || !((WritableNativeMap) map).mIsPooled) {
+      return;
+    }
+    WritableNativeMap nativeMap = (WritableNativeMap) map;
+    nativeMap.clear();
+    synchronized (sMaps) {
+      if (ReactFeatureFlags.poolNativeContainers && sMaps.size() < MAX_POOL_SIZE) {
+        sMaps.add(nativeMap);
+        return;
+      }
+    }
+    nativeMap.releaseNative();
+    sLiveMaps.decrementAndGet();
+  }
+
+  /**
+   * Releases the native memory of every pooled container right away.
+   */
+  public static void clear() {
+    while (true) {
+      WritableNativeArray array;
+      synchronized (sArrays) {
+        array = sArrays.poll();
+      }
+      if (array == null) {
+        break;
+      }
+      array.releaseNative();
+      sLiveArrays.decrementAndGet();
+    }
+    while (true) {
+      WritableNativeMap map;
+      synchronized (sMaps) {
+        map = sMaps.poll();
+      }
+      if (map == null) {
+        break;
+      }
+      map.releaseNative();
+      sLiveMaps.decrementAndGet();
+    }
+  }
+
+  public static Stats getStats() {
+    Stats stats = new Stats();
+    stats.arrayHits = sArrayHits.get();
+    stats.arrayMisses = sArrayMisses.get();
+    stats.mapHits = sMapHits.get();
+    stats.mapMisses = sMapMisses.get();
+    synchronized (sArrays) {
+      stats.pooledArrays = sArrays.size();
+    }
+    synchronized (sMaps) {
+      stats.pooledMaps = sMaps.size();
+    }
+    stats.liveArrays = sLiveArrays.get();
+    stats.liveMaps = sLiveMaps.get();
+    return stats;
+  }
+}
@@ -23,6 +23,13 @@ public abstract class NativeMap {
     @Override
     public native String toString();
 
+    /**
+     * Deletes the native part now instead of waiting for the DestructorThread.
+     */
+    void releaseNative() {
+        mHybridData.resetNative();
+    }
+
     @DoNotStrip
     private HybridData mHybridData;
 }
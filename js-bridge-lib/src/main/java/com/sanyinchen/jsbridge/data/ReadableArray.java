@@ -10,6 +10,7 @@ package com.sanyinchen.jsbridge.data;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -29,6 +30,8 @@ public interface ReadableArray {
   ReadableArray getArray(int index);
   @Nullable
   ReadableMap getMap(int index);
+  @Nullable
+  ByteBuffer getByteBuffer(int index);
   @NonNull
   Dynamic getDynamic(int index);
   @NonNull
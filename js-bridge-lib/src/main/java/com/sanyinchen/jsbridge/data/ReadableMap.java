@@ -10,6 +10,7 @@ package com.sanyinchen.jsbridge.data;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 
 
@@ -38,6 +39,9 @@ public interface ReadableMap {
     @Nullable
     ReadableMap getMap(@NonNull String name);
 
+    @Nullable
+    ByteBuffer getByteBuffer(@NonNull String name);
+
     @NonNull
     Dynamic getDynamic(@NonNull String name);
 
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.data;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.jni.annotations.DoNotStrip;
+import com.sanyinchen.jsbridge.exception.NoSuchKeyException;
+
+import java.util.Arrays;
+
+/**
+ * Flat, read-only copy of the top level of a {@link ReadableNativeMap}, built natively in a single
+ * JNI pass. Keys are sorted so lookups are a binary search, booleans and numbers live unboxed in a
+ * double[], and only strings, buffers and child containers are objects. Children are left as
+ * {@link ReadableNativeMap}s and {@link ReadableNativeArray}s, so they aren't imported until read.
+ */
+@DoNotStrip
+final class ReadableMapSnapshot {
+
+    // Type bytes are ReadableType ordinals, keep ReadableNativeMap::importSnapshot in sync
+    private static final ReadableType[] TYPES = ReadableType.values();
+
+    private final String[] mKeys;
+    private final byte[] mTypes;
+    private final double[] mNumbers;
+    private final Object[] mObjects;
+
+    @DoNotStrip
+    private ReadableMapSnapshot(String[] keys, byte[] types, double[] numbers, Object[] objects) {
+        mKeys = keys;
+        mTypes = types;
+        mNumbers = numbers;
+        mObjects = objects;
+        // Native code sorts by UTF-8 bytes, which only differs from String order for some
+        // supplementary characters
+        if (!isSorted()) {
+            sortByKey();
+        }
+    }
+
+    int size() {
+        return mKeys.length;
+    }
+
+    String keyAt(int index) {
+        return mKeys[index];
+    }
+
+    ReadableType typeAt(int index) {
+        return TYPES[mTypes[index]];
+    }
+
+    boolean hasKey(String name) {
+        return Arrays.binarySearch(mKeys, name) >= 0;
+    }
+
+    boolean isNull(String name) {
+        return mTypes[indexOf(name)] == ReadableType.Null.ordinal();
+    }
+
+    ReadableType getType(String name) {
+        return typeAt(indexOf(name));
+    }
+
+    boolean getBoolean(String name) {
+        return mNumbers[indexOf(name, ReadableType.Boolean)] != 0;
+    }
+
+    double getDouble(String name) {
+        return mNumbers[indexOf(name, ReadableType.Number)];
+    }
+
+    int getInt(String name) {
+        // All numbers coming out of native are doubles, so truncate like the HashMap mode
+        return (int) mNumbers[indexOf(name, ReadableType.Number)];
+    }
+
+    /**
+     * @return the string, buffer or child stored at {@code name}, or {@code null} if the value is
+     * null
+     */
+    @Nullable
+    Object getObject(String name, ReadableType type) {
+        int index = indexOf(name);
+        if (mTypes[index] == ReadableType.Null.ordinal()) {
+            return null;
+        }
+        checkType(name, index, type);
+        return mObjects[index];
+    }
+
+    /**
+     * @return the value at {@code index} as the HashMap mode would store it
+     */
+    @Nullable
+    Object valueAt(int index) {
+        switch (typeAt(index)) {
+            case Null:
+                return null;
+            case Boolean:
+                return mNumbers[index] != 0;
+            case Number:
+                return mNumbers[index];
+            default:
+                return mObjects[index];
+        }
+    }
+
+    private int indexOf(String name) {
+        int index = Arrays.binarySearch(mKeys, name);
+        if (index < 0) {
+            throw new NoSuchKeyException(name);
+        }
+        return index;
+    }
+
+    private int indexOf(String name, ReadableType type) {
+        int index = indexOf(name);
+        // Reading a primitive out of a null value fails the same way as in the HashMap mode
+        if (mTypes[index] == ReadableType.Null.ordinal()) {
+            throw new NoSuchKeyException(name);
+        }
+        checkType(name, index, type);
+        return index;
+    }
+
+    private void checkType(String name, int index, ReadableType type) {
+        if (mTypes[index] != type.ordinal()) {
+            throw new ClassCastException(
+                    "Value for " + name + " cannot be cast from " + typeAt(index) + " to " + type);
+        }
+    }
+
+    private boolean isSorted() {
+        for (int i = 1; i < mKeys.length; i++) {
+            if (mKeys[i - 1].compareTo(mKeys[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Insertion sort, the keys are almost always sorted already
+    private void sortByKey() {
+        for (int i = 1; i < mKeys.length; i++) {
+            String key = mKeys[i];
+            byte type = mTypes[i];
+            double number = mNumbers[i];
+            Object object = mObjects[i];
+            int j = i - 1;
+            while (j >= 0 && mKeys[j].compareTo(key) > 0) {
+                mKeys[j + 1] = mKeys[j];
+                mTypes[j + 1] = mTypes[j];
+                mNumbers[j + 1] = mNumbers[j];
+                mObjects[j + 1] = mObjects[j];
+                j--;
+            }
+            mKeys[j + 1] = key;
+            mTypes[j + 1] = type;
+            mNumbers[j + 1] = number;
+            mObjects[j + 1] = object;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import com.facebook.jni.HybridData;
 import com.facebook.jni.annotations.DoNotStrip;
 import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -62,6 +63,14 @@ public class ReadableNativeArray extends NativeArray implements ReadableArray {
 
     private native Object[] importArray();
 
+    /**
+     * Forgets the values imported so far, for arrays whose native contents get replaced.
+     */
+    synchronized void clearLocalCache() {
+        mLocalArray = null;
+        mLocalTypeArray = null;
+    }
+
     private ReadableType[] getLocalTypeArray() {
         // Fast, non-blocking check for the common case
         if (mLocalTypeArray != null) {
@@ -171,6 +180,58 @@ public class ReadableNativeArray extends NativeArray implements ReadableArray {
 
     private native ReadableNativeMap getMapNative(int index);
 
+    /**
+     * @return a direct ByteBuffer holding a copy of the bytes, positioned at 0. Each call returns
+     * a new buffer object, so reading it doesn't affect other callers.
+     */
+    @Override
+    public @Nullable
+    ByteBuffer getByteBuffer(int index) {
+        if (ReactFeatureFlags.useArrayNativeAccessor) {
+            jniPassCounter++;
+            return getByteBufferNative(index);
+        }
+        ByteBuffer buffer = (ByteBuffer) getLocalArray()[index];
+        return buffer == null ? null : buffer.duplicate();
+    }
+
+    private native ByteBuffer getByteBufferNative(int index);
+
+    /**
+     * Copies every element into {@code dst} in a single JNI call, without boxing them. All the
+     * elements must be numbers.
+     *
+     * @return the number of elements copied, which is {@link #size()}
+     * @throws ArrayIndexOutOfBoundsException if {@code dst} is shorter than this array
+     */
+    public int getDoubleArray(double[] dst) {
+        jniPassCounter++;
+        return getDoubleArrayNative(dst);
+    }
+
+    private native int getDoubleArrayNative(double[] dst);
+
+    /**
+     * Like {@link #getDoubleArray}, but all the elements must be integral numbers that fit in an
+     * int.
+     */
+    public int getIntArray(int[] dst) {
+        jniPassCounter++;
+        return getIntArrayNative(dst);
+    }
+
+    private native int getIntArrayNative(int[] dst);
+
+    /**
+     * @return a new array holding every element, which must all be numbers
+     */
+    public double[] toDoubleArray() {
+        jniPassCounter++;
+        return toDoubleArrayNative();
+    }
+
+    private native double[] toDoubleArrayNative();
+
     @Override
     public @NonNull
     ReadableType getType(int index) {
@@ -214,6 +275,9 @@ public class ReadableNativeArray extends NativeArray implements ReadableArray {
                 case Array:
                     arrayList.add(getArray(i).toArrayList());
                     break;
+                case Buffer:
+                    arrayList.add(getByteBuffer(i));
+                    break;
                 default:
                     throw new IllegalArgumentException("Could not convert object at index: " + i + ".");
             }
@@ -16,6 +16,7 @@ import com.facebook.jni.annotations.DoNotStrip;
 import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
 import com.sanyinchen.jsbridge.exception.NoSuchKeyException;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Iterator;
 
@@ -38,12 +39,22 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
     HashMap<String, Object> mLocalMap;
     private @Nullable
     HashMap<String, ReadableType> mLocalTypeMap;
+    private volatile @Nullable
+    ReadableMapSnapshot mSnapshot;
     private static int mJniCallCounter;
 
     public static void setUseNativeAccessor(boolean useNativeAccessor) {
         ReactFeatureFlags.useMapNativeAccessor = useNativeAccessor;
     }
 
+    /**
+     * Reads values from a flat snapshot of the map, see {@link ReadableMapSnapshot}. Ignored when
+     * the native accessor is used.
+     */
+    public static void setUseSnapshotAccessor(boolean useSnapshotAccessor) {
+        ReactFeatureFlags.useMapSnapshotAccessor = useSnapshotAccessor;
+    }
+
     public static int getJNIPassCounter() {
         return mJniCallCounter;
     }
@@ -74,6 +85,16 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
 
     private native String[] importKeys();
 
+    /**
+     * Forgets the values imported so far, for maps whose native contents get replaced.
+     */
+    synchronized void clearLocalCache() {
+        mKeys = null;
+        mLocalMap = null;
+        mLocalTypeMap = null;
+        mSnapshot = null;
+    }
+
     private native Object[] importValues();
 
     private @Nonnull
@@ -104,12 +125,32 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
 
     private native Object[] importTypes();
 
+    private ReadableMapSnapshot getSnapshot() {
+        // Fast and non-blocking return for common case
+        ReadableMapSnapshot snapshot = mSnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (mSnapshot == null) {
+                mSnapshot = Assertions.assertNotNull(importSnapshot());
+                mJniCallCounter++;
+            }
+            return mSnapshot;
+        }
+    }
+
+    private native ReadableMapSnapshot importSnapshot();
+
     @Override
     public boolean hasKey(@Nonnull String name) {
         if (ReactFeatureFlags.useMapNativeAccessor) {
             mJniCallCounter++;
             return hasKeyNative(name);
         }
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            return getSnapshot().hasKey(name);
+        }
         return getLocalMap().containsKey(name);
     }
 
@@ -121,6 +162,9 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
             mJniCallCounter++;
             return isNullNative(name);
         }
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            return getSnapshot().isNull(name);
+        }
         if (getLocalMap().containsKey(name)) {
             return getLocalMap().get(name) == null;
         }
@@ -171,6 +215,9 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
             mJniCallCounter++;
             return getBooleanNative(name);
         }
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            return getSnapshot().getBoolean(name);
+        }
         return getValue(name, Boolean.class).booleanValue();
     }
 
@@ -182,6 +229,9 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
             mJniCallCounter++;
             return getDoubleNative(name);
         }
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            return getSnapshot().getDouble(name);
+        }
         return getValue(name, Double.class).doubleValue();
     }
 
@@ -193,6 +243,9 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
             mJniCallCounter++;
             return getIntNative(name);
         }
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            return getSnapshot().getInt(name);
+        }
 
         // All numbers coming out of native are doubles, so cast here then truncate
         return getValue(name, Double.class).intValue();
@@ -207,6 +260,9 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
             mJniCallCounter++;
             return getStringNative(name);
         }
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            return (String) getSnapshot().getObject(name, ReadableType.String);
+        }
         return getNullableValue(name, String.class);
     }
 
@@ -219,6 +275,9 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
             mJniCallCounter++;
             return getArrayNative(name);
         }
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            return (ReadableArray) getSnapshot().getObject(name, ReadableType.Array);
+        }
         return getNullableValue(name, ReadableArray.class);
     }
 
@@ -231,11 +290,35 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
             mJniCallCounter++;
             return getMapNative(name);
         }
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            return (ReadableNativeMap) getSnapshot().getObject(name, ReadableType.Map);
+        }
         return getNullableValue(name, ReadableNativeMap.class);
     }
 
     private native ReadableNativeMap getMapNative(String name);
 
+    /**
+     * @return a direct ByteBuffer holding a copy of the bytes, positioned at 0. Each call returns
+     * a new buffer object, so reading it doesn't affect other callers.
+     */
+    @Override
+    public @Nullable
+    ByteBuffer getByteBuffer(@Nonnull String name) {
+        if (ReactFeatureFlags.useMapNativeAccessor) {
+            mJniCallCounter++;
+            return getByteBufferNative(name);
+        }
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            ByteBuffer buffer = (ByteBuffer) getSnapshot().getObject(name, ReadableType.Buffer);
+            return buffer == null ? null : buffer.duplicate();
+        }
+        ByteBuffer buffer = getNullableValue(name, ByteBuffer.class);
+        return buffer == null ? null : buffer.duplicate();
+    }
+
+    private native ByteBuffer getByteBufferNative(String name);
+
     @Override
     public @Nonnull
     ReadableType getType(@Nonnull String name) {
@@ -243,6 +326,9 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
             mJniCallCounter++;
             return getTypeNative(name);
         }
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            return getSnapshot().getType(name);
+        }
         if (getLocalTypeMap().containsKey(name)) {
             return Assertions.assertNotNull(getLocalTypeMap().get(name));
         }
@@ -295,6 +381,9 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
                     case Array:
                         hashMap.put(key, Assertions.assertNotNull(getArray(key)).toArrayList());
                         break;
+                    case Buffer:
+                        hashMap.put(key, getByteBuffer(key));
+                        break;
                     default:
                         throw new IllegalArgumentException("Could not convert object with key: " + key + ".");
                 }
@@ -302,6 +391,30 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
             return hashMap;
         }
 
+        if (ReactFeatureFlags.useMapSnapshotAccessor) {
+            ReadableMapSnapshot snapshot = getSnapshot();
+            int size = snapshot.size();
+            HashMap<String, Object> hashMap = new HashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                Object value = snapshot.valueAt(i);
+                switch (snapshot.typeAt(i)) {
+                    case Map:
+                        value = ((ReadableNativeMap) value).toHashMap();
+                        break;
+                    case Array:
+                        value = ((ReadableNativeArray) value).toArrayList();
+                        break;
+                    case Buffer:
+                        value = ((ByteBuffer) value).duplicate();
+                        break;
+                    default:
+                        break;
+                }
+                hashMap.put(snapshot.keyAt(i), value);
+            }
+            return hashMap;
+        }
+
         // we can almost just return getLocalMap(), but we need to convert nested arrays and maps to the
         // correct types first
         HashMap<String, Object> hashMap = new HashMap<>(getLocalMap());
@@ -321,6 +434,9 @@ public class ReadableNativeMap extends NativeMap implements ReadableMap {
                 case Array:
                     hashMap.put(key, Assertions.assertNotNull(getArray(key)).toArrayList());
                     break;
+                case Buffer:
+                    hashMap.put(key, getByteBuffer(key));
+                    break;
                 default:
                     throw new IllegalArgumentException("Could not convert object with key: " + key + ".");
             }
@@ -22,4 +22,8 @@ public enum ReadableType {
     String,
     Map,
     Array,
+    /**
+     * Binary data, read with getByteBuffer. Maps to an ArrayBuffer in JS.
+     */
+    Buffer,
 }
@@ -10,6 +10,8 @@ package com.sanyinchen.jsbridge.data;
 
 import androidx.annotation.Nullable;
 
+import java.nio.ByteBuffer;
+
 /**
  * Interface for a mutable array. Used to pass arguments from Java to JS.
  */
@@ -28,4 +30,9 @@ public interface WritableArray extends ReadableArray {
     void pushArray(@Nullable WritableArray array);
 
     void pushMap(@Nullable WritableMap map);
+
+    /**
+     * Pushes the bytes between the position and the limit of {@code buffer}, which must be direct.
+     */
+    void pushByteBuffer(@Nullable ByteBuffer buffer);
 }
@@ -7,6 +7,8 @@
 
 package com.sanyinchen.jsbridge.data;
 
+import java.nio.ByteBuffer;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -22,6 +24,8 @@ public interface WritableMap extends ReadableMap {
   void putString(@Nonnull String key, @Nullable String value);
   void putArray(@Nonnull String key, @Nullable WritableArray value);
   void putMap(@Nonnull String key, @Nullable WritableMap value);
+  // Puts the bytes between the position and the limit of value, which must be direct
+  void putByteBuffer(@Nonnull String key, @Nullable ByteBuffer value);
 
   void merge(@Nonnull ReadableMap source);
 }
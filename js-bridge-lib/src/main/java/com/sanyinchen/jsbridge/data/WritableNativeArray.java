@@ -13,6 +13,8 @@ import com.facebook.infer.annotation.Assertions;
 import com.facebook.jni.HybridData;
 import com.facebook.jni.annotations.DoNotStrip;
 
+import java.nio.ByteBuffer;
+
 /**
  * Implementation of a write-only array stored in native memory. Use
  * {@link Arguments#createArray()} if you need to stub out creating this class in a test.
@@ -21,6 +23,8 @@ import com.facebook.jni.annotations.DoNotStrip;
 @DoNotStrip
 public class WritableNativeArray extends ReadableNativeArray implements WritableArray {
 
+  // Set on the arrays handed out by NativeContainerPool
+  boolean mIsPooled;
 
   public WritableNativeArray() {
     super(initHybrid());
@@ -53,7 +57,45 @@ public class WritableNativeArray extends ReadableNativeArray implements Writable
     pushNativeMap((WritableNativeMap) map);
   }
 
+  /**
+   * Pushes every value in a single JNI call.
+   */
+  public void pushDoubleArray(double[] values) {
+    pushDoubleArrayNative(Assertions.assertNotNull(values));
+  }
+
+  /**
+   * Pushes every value in a single JNI call.
+   */
+  public void pushIntArray(int[] values) {
+    pushIntArrayNative(Assertions.assertNotNull(values));
+  }
+
+  // Note: the bytes are copied once into native memory, so the buffer can be reused.
+  @Override
+  public void pushByteBuffer(@Nullable ByteBuffer buffer) {
+    Assertions.assertCondition(
+        buffer == null || buffer.isDirect(), "Only direct ByteBuffers can be pushed");
+    if (buffer == null) {
+      pushNull();
+      return;
+    }
+    pushNativeByteBuffer(buffer, buffer.position(), buffer.remaining());
+  }
+
+  /**
+   * Empties the array, including when it was already consumed, so it can be reused.
+   */
+  void clear() {
+    clearLocalCache();
+    clearNative();
+  }
+
   private static native HybridData initHybrid();
+  private native void clearNative();
   private native void pushNativeArray(WritableNativeArray array);
   private native void pushNativeMap(WritableNativeMap map);
+  private native void pushDoubleArrayNative(double[] values);
+  private native void pushIntArrayNative(int[] values);
+  private native void pushNativeByteBuffer(ByteBuffer buffer, int offset, int length);
 }
@@ -15,6 +15,8 @@ import com.facebook.infer.annotation.Assertions;
 import com.facebook.jni.HybridData;
 import com.facebook.jni.annotations.DoNotStrip;
 
+import java.nio.ByteBuffer;
+
 
 /**
  * Implementation of a write-only map stored in native memory. Use
@@ -24,6 +26,9 @@ import com.facebook.jni.annotations.DoNotStrip;
 @DoNotStrip
 public class WritableNativeMap extends ReadableNativeMap implements WritableMap {
 
+  // Set on the maps handed out by NativeContainerPool
+  boolean mIsPooled;
+
   @Override
   public native void putBoolean(@NonNull String key, boolean value);
   @Override
@@ -51,6 +56,18 @@ public class WritableNativeMap extends ReadableNativeMap implements WritableMap
     putNativeArray(key, (WritableNativeArray) value);
   }
 
+  // Note: the bytes are copied once into native memory, so the buffer can be reused.
+  @Override
+  public void putByteBuffer(@NonNull String key, @Nullable ByteBuffer value) {
+    Assertions.assertCondition(
+        value == null || value.isDirect(), "Only direct ByteBuffers can be put");
+    if (value == null) {
+      putNull(key);
+      return;
+    }
+    putNativeByteBuffer(key, value, value.position(), value.remaining());
+  }
+
   // Note: this **DOES NOT** consume the source map
   @Override
   public void merge(@NonNull ReadableMap source) {
@@ -62,9 +79,19 @@ public class WritableNativeMap extends ReadableNativeMap implements WritableMap
     super(initHybrid());
   }
 
+  /**
+   * Empties the map, including when it was already consumed, so it can be reused.
+   */
+  void clear() {
+    clearLocalCache();
+    clearNative();
+  }
+
   private static native HybridData initHybrid();
+  private native void clearNative();
 
   private native void putNativeMap(String key, WritableNativeMap value);
   private native void putNativeArray(String key, WritableNativeArray value);
+  private native void putNativeByteBuffer(String key, ByteBuffer value, int offset, int length);
   private native void mergeNativeMap(ReadableNativeMap source);
 }
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.bridge;
+
+import com.sanyinchen.jsbridge.data.ReadableArray;
+
+import java.util.List;
+
+/**
+ * Implemented by {@link NativeModule}s that want to receive all of their JS->Java calls of a batch
+ * at once, e.g. to turn many small writes into a single one.
+ *
+ * <p>Calls to such a module aren't invoked as they arrive, but queued and handed to
+ * {@link #onBatchedCalls} when JS finishes flushing the batch, before any
+ * {@link com.sanyinchen.jsbridge.common.callback.OnBatchCompleteListener} is notified. Calls keep
+ * the order JS made them in, but run after the calls to unbatched modules from the same batch.
+ */
+public interface BatchedNativeModule {
+
+    interface Call {
+        /**
+         * @return the name of the {@link com.sanyinchen.jsbridge.annotation.ReactMethod} JS called
+         */
+        String getMethodName();
+
+        ReadableArray getArguments();
+
+        /**
+         * Calls the method the way it would have been called if the module wasn't batched.
+         */
+        void invoke();
+    }
+
+    /**
+     * Called with the calls made to this module in the last batch, in the order JS made them, on
+     * the queue picked by the module's execution policy. Never called with an empty list.
+     */
+    void onBatchedCalls(List<Call> calls);
+}
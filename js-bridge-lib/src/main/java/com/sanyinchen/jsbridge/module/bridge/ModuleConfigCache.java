@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.bridge;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+
+import com.sanyinchen.jsbridge.config.ReactConstants;
+import com.sanyinchen.jsbridge.utils.log.FLog;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * The file keeping the configs the bridge built for the native modules JS required: their
+ * constants, method names and promise and sync method ids, serialized by the C++ ModuleRegistry.
+ * On the next launch they are handed back to it, which skips building them again for the modules
+ * it finds in there. See {@link com.sanyinchen.jsbridge.config.ReactFeatureFlags#cacheModuleConfig}.
+ *
+ * The file is only used by the same version of the app, installed at the same time, with the same
+ * native modules. The configs of modules with
+ * {@link com.sanyinchen.jsbridge.annotation.ReactModule#hasVolatileConstants()} are never cached,
+ * and neither are the ones of modules added later with
+ * {@link com.sanyinchen.jsbridge.base.JsBridgeInstance#extendNativeModules}.
+ *
+ * Method ids are indices in the order the module's methods are listed, which only depends on its
+ * class, so they hold as long as the app isn't updated.
+ */
+public class ModuleConfigCache {
+
+    private static final String DIRECTORY_NAME = "jsbridge_module_config";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File mFile;
+    private final String mKey;
+    private final String[] mCacheableModuleNames;
+
+    /**
+     * @param key stands for the version of the app and its modules, a file saved with another key
+     * isn't loaded
+     */
+    ModuleConfigCache(File file, String key, String[] cacheableModuleNames) {
+        mFile = file;
+        mKey = key;
+        mCacheableModuleNames = cacheableModuleNames;
+    }
+
+    /**
+     * @return the cache of the modules of {@code registry}, or null if the version of the app
+     * can't be read
+     */
+    public static @Nullable
+    ModuleConfigCache create(Context context, NativeModuleRegistry registry) {
+        PackageInfo packageInfo;
+        try {
+            packageInfo = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+        } catch (PackageManager.NameNotFoundException e) {
+            FLog.w(ReactConstants.TAG, "Not caching the module configs, the app version is unknown", e);
+            return null;
+        }
+
+        List<String> modules = new ArrayList<>();
+        List<String> cacheableModuleNames = new ArrayList<>();
+        for (NativeModuleHolder holder : registry.getModuleMap().values()) {
+            modules.add(holder.getName() + "=" + holder.getClassName() +
+                    (holder.getHasVolatileConstants() ? "!" : ""));
+            if (!holder.getHasVolatileConstants()) {
+                cacheableModuleNames.add(holder.getName());
+            }
+        }
+        // The order of the registry depends on the order the packages listed their modules in
+        Collections.sort(modules);
+        String modulesHash = Integer.toHexString(modules.toString().hashCode());
+
+        File file = new File(
+                new File(context.getCacheDir(), DIRECTORY_NAME),
+                "modules_" + modulesHash + ".json");
+        String key = packageInfo.versionCode + ":" + packageInfo.versionName + ":" +
+                packageInfo.lastUpdateTime + ":" + modulesHash;
+        return new ModuleConfigCache(
+                file,
+                key,
+                cacheableModuleNames.toArray(new String[cacheableModuleNames.size()]));
+    }
+
+    /**
+     * @return the names of the modules whose config can be cached
+     */
+    public String[] getCacheableModuleNames() {
+        return mCacheableModuleNames;
+    }
+
+    /**
+     * Reads the configs saved by a previous launch.
+     *
+     * @return the configs, a JSON object of the module names to their config, or null if there are
+     * none for this version of the app and these modules
+     */
+    public synchronized @Nullable
+    String load() {
+        if (!mFile.exists()) {
+            return null;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(mFile), UTF_8));
+            if (!mKey.equals(reader.readLine())) {
+                // Saved by another version of the app, the next save overwrites it
+                return null;
+            }
+            StringBuilder configs = new StringBuilder((int) mFile.length());
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                configs.append(buffer, 0, read);
+            }
+            return configs.toString();
+        } catch (IOException e) {
+            FLog.w(ReactConstants.TAG, "Failed to read the cached module configs", e);
+            return null;
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Replaces the saved configs. The file is written next to the previous one and renamed over
+     * it, a launch reading it meanwhile or a crash while writing it never sees a partial file.
+     * Does I/O, don't call it on the UI or JS thread.
+     *
+     * @param configs a JSON object of the module names to their config
+     */
+    public synchronized void save(String configs) {
+        File directory = mFile.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            FLog.w(ReactConstants.TAG, "Failed to create " + directory);
+            return;
+        }
+        File tmpFile = new File(directory, mFile.getName() + ".tmp");
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(tmpFile), UTF_8);
+            writer.write(mKey);
+            writer.write('\n');
+            writer.write(configs);
+            writer.close();
+            writer = null;
+            if (!tmpFile.renameTo(mFile)) {
+                throw new IOException("Failed to rename " + tmpFile + " to " + mFile);
+            }
+        } catch (IOException e) {
+            FLog.w(ReactConstants.TAG, "Failed to save the module configs", e);
+            tmpFile.delete();
+        } finally {
+            closeQuietly(writer);
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing left to do with it
+        }
+    }
+}
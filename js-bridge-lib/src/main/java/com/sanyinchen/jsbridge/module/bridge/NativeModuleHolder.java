@@ -7,10 +7,14 @@ package com.sanyinchen.jsbridge.module.bridge;
 
 import com.facebook.infer.annotation.Assertions;
 import com.facebook.jni.annotations.DoNotStrip;
+import com.sanyinchen.jsbridge.annotation.ReactModule;
+import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
 import com.sanyinchen.jsbridge.module.impl.cxx.CxxModuleWrapper;
 import com.sanyinchen.jsbridge.module.model.ReactModuleInfo;
+import com.sanyinchen.jsbridge.queue.MessageQueueThread;
 import com.sanyinchen.jsbridge.utils.SoftAssertions;
 
+import java.util.ArrayDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
@@ -53,18 +57,33 @@ public class NativeModuleHolder {
     boolean mIsCreating;
     private @GuardedBy("this")
     boolean mIsInitializing;
+    // Set from when a parallel initialization of the module is scheduled until it has run, see
+    // ensureInitialized()
+    private volatile @Nullable
+    Runnable mPendingInitialization;
+    // Calls from JS made before the parallel initialization ran, and the queue they run on once it
+    // has, see runWhenInitialized()
+    private volatile boolean mHasCallsAwaitingInitialization;
+    private @Nullable
+    @GuardedBy("this")
+    ArrayDeque<Runnable> mCallsAwaitingInitialization;
+    private @Nullable
+    @GuardedBy("this")
+    MessageQueueThread mCallsQueueThread;
 
     public NativeModuleHolder(ReactModuleInfo moduleInfo, Provider<? extends NativeModule> provider) {
         mName = moduleInfo.name();
         mProvider = provider;
         mReactModuleInfo = moduleInfo;
-        if (moduleInfo.needsEagerInit()) {
+        // Eager modules initialized in parallel are created by NativeModuleInitializer
+        if (moduleInfo.needsEagerInit() && !ReactFeatureFlags.initializeNativeModulesInParallel) {
             mModule = create();
         }
     }
 
     public NativeModuleHolder(NativeModule nativeModule) {
         mName = nativeModule.getName();
+        ReactModule annotation = nativeModule.getClass().getAnnotation(ReactModule.class);
         mReactModuleInfo =
                 new ReactModuleInfo(
                         nativeModule.getName(),
@@ -73,7 +92,12 @@ public class NativeModuleHolder {
                         true,
                         true,
                         CxxModuleWrapper.class.isAssignableFrom(nativeModule.getClass()),
-                        false
+                        false,
+                        annotation != null ?
+                                annotation.executionPolicy() : ReactModule.ExecutionPolicy.SHARED,
+                        annotation != null ? annotation.dependencies() : new String[0],
+                        annotation != null && annotation.hasVolatileConstants(),
+                        annotation != null && annotation.hasDeferredConstants()
                 );
 
         mModule = nativeModule;
@@ -104,6 +128,131 @@ public class NativeModuleHolder {
         }
     }
 
+    /*
+     * Called when the initialization of the module is scheduled on another thread. Until
+     * markInitialized() is called, ensureInitialized() runs or waits for {@code initialization},
+     * and runWhenInitialized() keeps the calls from JS.
+     */
+    /* package */ void markInitializationPending(Runnable initialization) {
+        mPendingInitialization = initialization;
+    }
+
+    /*
+     * Called once the scheduled initialization has run, on the thread that ran it. Hands the calls
+     * kept by runWhenInitialized() over to their queue.
+     */
+    /* package */ void markInitialized() {
+        MessageQueueThread callsQueueThread;
+        synchronized (this) {
+            mPendingInitialization = null;
+            this.notifyAll();
+            if (mCallsAwaitingInitialization == null) {
+                return;
+            }
+            callsQueueThread = Assertions.assertNotNull(mCallsQueueThread);
+        }
+        runCallsAwaitingInitialization(callsQueueThread);
+    }
+
+    /*
+     * Blocks until markInitialized() is called. Only used by the thread that needs the module once
+     * another thread started initializing it, see NativeModuleInitializer#ensureInitialized.
+     */
+    /* package */ void awaitInitialized() {
+        synchronized (this) {
+            while (mPendingInitialization != null) {
+                try {
+                    this.wait();
+                } catch (InterruptedException e) {
+                    continue;
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes sure the initialization scheduled by {@link NativeModuleInitializer} has run before JS
+     * uses the module synchronously, running it, and the ones of the modules it depends on, on
+     * this thread unless another thread already started it. Never waits for a thread of the
+     * native modules pool to be free. Returns right away otherwise, with a single volatile read.
+     */
+    public void ensureInitialized() {
+        Runnable initialization = mPendingInitialization;
+        if (initialization != null) {
+            initialization.run();
+        }
+    }
+
+    /**
+     * @return whether calls from JS are kept by {@link #runWhenInitialized} for now
+     */
+    public boolean isWaitingForInitialization() {
+        return mPendingInitialization != null || mHasCallsAwaitingInitialization;
+    }
+
+    /**
+     * Keeps {@code call} until the initialization scheduled by {@link NativeModuleInitializer} has
+     * run, without blocking the calling thread, then posts it to {@code queueThread}. Calls made
+     * meanwhile are kept too, so they all run in the order they were made.
+     *
+     * @param queueThread the queue the calls to the module are made on, and this is called on
+     * @return false if there is nothing to wait for, the caller must run {@code call} right away
+     */
+    public boolean runWhenInitialized(Runnable call, MessageQueueThread queueThread) {
+        if (mPendingInitialization == null && !mHasCallsAwaitingInitialization) {
+            return false;
+        }
+        synchronized (this) {
+            if (mPendingInitialization == null && mCallsAwaitingInitialization == null) {
+                return false;
+            }
+            if (mCallsAwaitingInitialization == null) {
+                mCallsAwaitingInitialization = new ArrayDeque<>();
+                mCallsQueueThread = queueThread;
+                mHasCallsAwaitingInitialization = true;
+            }
+            mCallsAwaitingInitialization.add(call);
+            return true;
+        }
+    }
+
+    /**
+     * Runs the calls kept by {@link #runWhenInitialized} on their queue, one after the other.
+     * Calls made meanwhile are still kept, and run after them. If one throws, the queue's exception
+     * handler gets the exception and the remaining calls run in a later Runnable.
+     */
+    private void runCallsAwaitingInitialization(final MessageQueueThread queueThread) {
+        queueThread.runOnQueue(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean isDone = false;
+                        try {
+                            Runnable call;
+                            while ((call = nextCallAwaitingInitialization()) != null) {
+                                call.run();
+                            }
+                            isDone = true;
+                        } finally {
+                            if (!isDone) {
+                                runCallsAwaitingInitialization(queueThread);
+                            }
+                        }
+                    }
+                });
+    }
+
+    private synchronized @Nullable
+    Runnable nextCallAwaitingInitialization() {
+        Runnable call = Assertions.assertNotNull(mCallsAwaitingInitialization).poll();
+        if (call == null) {
+            mCallsAwaitingInitialization = null;
+            mCallsQueueThread = null;
+            mHasCallsAwaitingInitialization = false;
+        }
+        return call;
+    }
+
     /* pacakge */
     synchronized boolean hasInstance() {
         return mModule != null;
@@ -120,6 +269,14 @@ public class NativeModuleHolder {
         return mName;
     }
 
+    public boolean getNeedsEagerInit() {
+        return mReactModuleInfo.needsEagerInit();
+    }
+
+    public String[] getDependencies() {
+        return mReactModuleInfo.dependencies();
+    }
+
     public boolean getCanOverrideExistingModule() {
         return mReactModuleInfo.canOverrideExistingModule();
     }
@@ -128,6 +285,14 @@ public class NativeModuleHolder {
         return mReactModuleInfo.hasConstants();
     }
 
+    public boolean getHasVolatileConstants() {
+        return mReactModuleInfo.hasVolatileConstants();
+    }
+
+    public boolean getHasDeferredConstants() {
+        return mReactModuleInfo.hasDeferredConstants();
+    }
+
     public boolean isTurboModule() {
         return mReactModuleInfo.isTurboModule();
     }
@@ -140,6 +305,10 @@ public class NativeModuleHolder {
         return mReactModuleInfo.className();
     }
 
+    public ReactModule.ExecutionPolicy getExecutionPolicy() {
+        return mReactModuleInfo.executionPolicy();
+    }
+
     @DoNotStrip
     public NativeModule getModule() {
         NativeModule module;
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.bridge;
+
+import android.os.Trace;
+
+import com.sanyinchen.jsbridge.config.ReactConstants;
+import com.sanyinchen.jsbridge.queue.MessageQueueThreadPool;
+import com.sanyinchen.jsbridge.utils.log.FLog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Creates and initializes the modules of a {@link NativeModuleRegistry} on the native modules pool,
+ * see {@link com.sanyinchen.jsbridge.config.ReactFeatureFlags#initializeNativeModulesInParallel}.
+ * A module starts once the modules it depends on, see
+ * {@link com.sanyinchen.jsbridge.annotation.ReactModule#dependencies()}, are initialized, and
+ * independent modules run in parallel on up to the pool size threads. Async JS calls to a module
+ * are kept until it is initialized, see {@link NativeModuleHolder#runWhenInitialized}, and the
+ * threads using a module synchronously initialize it themselves if the pool hasn't started it yet,
+ * see {@link NativeModuleHolder#ensureInitialized()}. No thread ever waits for the pool to run an
+ * initialization, the pool may be running the calls that wait.
+ *
+ * Each initialization is traced as a section of its own, and once every module is initialized the
+ * critical path, the chain of dependencies that finished last, is logged.
+ */
+class NativeModuleInitializer {
+
+    private static final class Node {
+        final NativeModuleHolder mHolder;
+        final List<Node> mDependencies = new ArrayList<>();
+        final List<Node> mDependents = new ArrayList<>();
+        final AtomicInteger mPendingDependencies = new AtomicInteger();
+        // Set by the thread that initializes the module, the pool or the first one to need it
+        final AtomicBoolean mIsClaimed = new AtomicBoolean();
+        // Written by the thread initializing the module, read once every module is initialized
+        volatile long mStartNanos;
+        volatile long mEndNanos;
+
+        Node(NativeModuleHolder holder) {
+            mHolder = holder;
+        }
+    }
+
+    private final NativeModuleRegistry mRegistry;
+    private final MessageQueueThreadPool mPool;
+    private final List<Node> mNodes;
+    private final AtomicInteger mRemaining;
+    private final long mStartNanos = System.nanoTime();
+
+    private NativeModuleInitializer(
+            NativeModuleRegistry registry,
+            MessageQueueThreadPool pool,
+            List<Node> nodes) {
+        mRegistry = registry;
+        mPool = pool;
+        mNodes = nodes;
+        mRemaining = new AtomicInteger(nodes.size());
+    }
+
+    /**
+     * Schedules the initialization of {@code modules} and returns without waiting for it.
+     *
+     * @throws IllegalStateException if the modules depend on each other in a cycle
+     */
+    static void start(
+            NativeModuleRegistry registry,
+            Map<String, NativeModuleHolder> modules,
+            MessageQueueThreadPool pool) {
+        Map<String, Node> nodes = new HashMap<>();
+        for (Map.Entry<String, NativeModuleHolder> entry : modules.entrySet()) {
+            nodes.put(entry.getKey(), new Node(entry.getValue()));
+        }
+        for (Node node : nodes.values()) {
+            for (String dependencyName : node.mHolder.getDependencies()) {
+                Node dependency = nodes.get(dependencyName);
+                if (dependency == null) {
+                    FLog.w(
+                            ReactConstants.TAG,
+                            "Native module " + node.mHolder.getName() + " depends on " +
+                                    dependencyName + ", which isn't registered");
+                    continue;
+                }
+                node.mDependencies.add(dependency);
+                dependency.mDependents.add(node);
+                node.mPendingDependencies.incrementAndGet();
+            }
+        }
+        assertNoCycle(nodes.values());
+
+        final NativeModuleInitializer initializer =
+                new NativeModuleInitializer(registry, pool, new ArrayList<>(nodes.values()));
+        for (final Node node : initializer.mNodes) {
+            node.mHolder.markInitializationPending(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            initializer.ensureInitialized(node);
+                        }
+                    });
+        }
+        for (Node node : initializer.mNodes) {
+            if (node.mPendingDependencies.get() == 0) {
+                initializer.schedule(node);
+            }
+        }
+    }
+
+    private static void assertNoCycle(Iterable<Node> nodes) {
+        Map<Node, Integer> pendingDependencies = new HashMap<>();
+        ArrayDeque<Node> ready = new ArrayDeque<>();
+        for (Node node : nodes) {
+            pendingDependencies.put(node, node.mDependencies.size());
+            if (node.mDependencies.isEmpty()) {
+                ready.add(node);
+            }
+        }
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            pendingDependencies.remove(node);
+            for (Node dependent : node.mDependents) {
+                int pending = pendingDependencies.get(dependent) - 1;
+                pendingDependencies.put(dependent, pending);
+                if (pending == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (!pendingDependencies.isEmpty()) {
+            List<String> names = new ArrayList<>();
+            for (Node node : pendingDependencies.keySet()) {
+                names.add(node.mHolder.getName());
+            }
+            throw new IllegalStateException(
+                    "Native modules depend on each other in a cycle: " + names);
+        }
+    }
+
+    private void schedule(final Node node) {
+        mPool.createSerialQueue("init_" + node.mHolder.getName()).runOnQueue(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        if (node.mIsClaimed.compareAndSet(false, true)) {
+                            initialize(node);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Initializes {@code node} on this thread, after the modules it depends on, unless another
+     * thread already started it. In that case waits for that thread, which is running it.
+     */
+    private void ensureInitialized(Node node) {
+        for (Node dependency : node.mDependencies) {
+            dependency.mHolder.ensureInitialized();
+        }
+        if (node.mIsClaimed.compareAndSet(false, true)) {
+            initialize(node);
+        } else {
+            node.mHolder.awaitInitialized();
+        }
+    }
+
+    private void initialize(Node node) {
+        NativeModuleHolder holder = node.mHolder;
+        node.mStartNanos = System.nanoTime();
+        Trace.beginSection("NativeModule.initialize " + holder.getName());
+        try {
+            holder.markInitializable();
+            // Eager modules aren't created by their holder when they are initialized in parallel
+            if (holder.getNeedsEagerInit()) {
+                holder.getModule();
+            }
+            if (holder.hasInstance()) {
+                mRegistry.registerBatchListeners(holder.getModule());
+            }
+        } finally {
+            Trace.endSection();
+            node.mEndNanos = System.nanoTime();
+            holder.markInitialized();
+            for (Node dependent : node.mDependents) {
+                if (dependent.mPendingDependencies.decrementAndGet() == 0) {
+                    schedule(dependent);
+                }
+            }
+            if (mRemaining.decrementAndGet() == 0) {
+                logCriticalPath();
+            }
+        }
+    }
+
+    private void logCriticalPath() {
+        Node last = null;
+        for (Node node : mNodes) {
+            if (last == null || node.mEndNanos > last.mEndNanos) {
+                last = node;
+            }
+        }
+        if (last == null) {
+            return;
+        }
+        StringBuilder path = new StringBuilder();
+        for (Node node = last; node != null; node = latestDependency(node)) {
+            if (path.length() > 0) {
+                path.insert(0, " -> ");
+            }
+            path.insert(
+                    0,
+                    node.mHolder.getName() + " (" +
+                            TimeUnit.NANOSECONDS.toMillis(node.mEndNanos - node.mStartNanos) + "ms)");
+        }
+        FLog.i(
+                ReactConstants.TAG,
+                "Initialized " + mNodes.size() + " native modules in " +
+                        TimeUnit.NANOSECONDS.toMillis(last.mEndNanos - mStartNanos) +
+                        "ms, critical path: " + path);
+    }
+
+    /**
+     * @return the dependency of {@code node} that finished last, the one it waited for
+     */
+    private static @Nullable
+    Node latestDependency(Node node) {
+        Node latest = null;
+        for (Node dependency : node.mDependencies) {
+            if (latest == null || dependency.mEndNanos > latest.mEndNanos) {
+                latest = dependency;
+            }
+        }
+        return latest;
+    }
+}
@@ -12,18 +12,43 @@ import com.sanyinchen.jsbridge.annotation.ReactModule;
 import com.sanyinchen.jsbridge.base.JSInstance;
 import com.sanyinchen.jsbridge.module.impl.java.JavaModuleWrapper;
 import com.sanyinchen.jsbridge.common.callback.OnBatchCompleteListener;
+import com.sanyinchen.jsbridge.common.callback.OnBatchStartListener;
+import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
+import com.sanyinchen.jsbridge.queue.MessageQueueThread;
+import com.sanyinchen.jsbridge.queue.ReactQueueConfiguration;
 
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
 
 /** A set of Java APIs to expose to a particular JavaScript instance. */
 public class NativeModuleRegistry {
 
     private final JsBridgeContext mReactApplicationContext;
     private final Map<String, NativeModuleHolder> mModules;
+    private final CopyOnWriteArrayList<OnBatchStartListener> mBatchStartListeners =
+            new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<OnBatchCompleteListener> mBatchCompleteListeners =
+            new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<JavaModuleWrapper> mModulesWithBatchedCalls =
+            new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean mIsBatchActive = new AtomicBoolean(false);
+    // Calls handed over to modules that don't run on the native modules queue thread, or kept until
+    // their module is initialized, and which haven't finished yet. A batch is only complete once
+    // they have.
+    private final AtomicInteger mPendingModuleQueueCalls = new AtomicInteger(0);
+    // Only accessed on the native modules queue thread
+    private boolean mIsBatchCompletePending;
+    private volatile @Nullable
+    ReactQueueConfiguration mQueueConfiguration;
 
     public NativeModuleRegistry(
             JsBridgeContext reactApplicationContext, Map<String, NativeModuleHolder> modules) {
@@ -33,8 +58,8 @@ public class NativeModuleRegistry {
         // mModules.remove("NativeLog");
     }
 
-    /** Private getters for combining NativeModuleRegistrys */
-    private Map<String, NativeModuleHolder> getModuleMap() {
+    /** Getters for combining NativeModuleRegistrys */
+    Map<String, NativeModuleHolder> getModuleMap() {
         return mModules;
     }
 
@@ -43,10 +68,26 @@ public class NativeModuleRegistry {
     }
 
     public Collection<JavaModuleWrapper> getJavaModules(JSInstance jsInstance) {
+        return getJavaModules(jsInstance, this);
+    }
+
+    /**
+     * @param batchRegistry the registry that will be told about the batches of JS->Java calls made
+     *                      to these modules, i.e. the one these modules get registered into
+     */
+    public Collection<JavaModuleWrapper> getJavaModules(
+            JSInstance jsInstance, NativeModuleRegistry batchRegistry) {
         ArrayList<JavaModuleWrapper> javaModules = new ArrayList<>();
+        ReactQueueConfiguration queueConfiguration = batchRegistry.mQueueConfiguration;
         for (Map.Entry<String, NativeModuleHolder> entry : mModules.entrySet()) {
-            if (!entry.getValue().isCxxModule()) {
-                javaModules.add(new JavaModuleWrapper(jsInstance, entry.getValue()));
+            NativeModuleHolder holder = entry.getValue();
+            if (!holder.isCxxModule()) {
+                JavaModuleWrapper wrapper = new JavaModuleWrapper(jsInstance, holder, batchRegistry);
+                // Started now, the bridge only asks for the constants once JS requires the module
+                if (holder.getHasDeferredConstants() && queueConfiguration != null) {
+                    wrapper.deferConstants(queueConfiguration.getNativeModulesPool());
+                }
+                javaModules.add(wrapper);
             }
         }
         return javaModules;
@@ -96,20 +137,196 @@ public class NativeModuleRegistry {
                         + "https://github.com/facebook/react-native/wiki/Breaking-Changes#d4611211-reactnativeandroidbreaking-move-nativemodule-initialization-off-ui-thread---aaachiuuu "
                         + " for more details.");
 
+        ReactQueueConfiguration queueConfiguration = mQueueConfiguration;
+        if (ReactFeatureFlags.initializeNativeModulesInParallel && queueConfiguration != null) {
+            NativeModuleInitializer.start(
+                    this, mModules, queueConfiguration.getNativeModulesPool());
+            return;
+        }
         for (NativeModuleHolder module : mModules.values()) {
             module.markInitializable();
+            if (module.hasInstance()) {
+                registerBatchListeners(module.getModule());
+            }
         }
     }
 
+    /**
+     * Sets the queues the modules of this registry run on. Until this is called, all calls run on
+     * the thread that dispatches them.
+     */
+    public void setQueueConfiguration(ReactQueueConfiguration queueConfiguration) {
+        mQueueConfiguration = queueConfiguration;
+    }
+
+    /**
+     * @return the native modules queue thread, or {@code null} until
+     * {@link #setQueueConfiguration} is called
+     */
+    public @Nullable
+    MessageQueueThread getNativeModulesQueueThread() {
+        ReactQueueConfiguration queueConfiguration = mQueueConfiguration;
+        return queueConfiguration != null ? queueConfiguration.getNativeModulesQueueThread() : null;
+    }
+
+    /**
+     * @return the queue calls to {@code module} must run on, or {@code null} if they run on the
+     * native modules queue thread they are dispatched from
+     */
+    public @Nullable
+    MessageQueueThread getModuleQueueThread(NativeModuleHolder module) {
+        ReactQueueConfiguration queueConfiguration = mQueueConfiguration;
+        if (queueConfiguration == null ||
+                module.getExecutionPolicy() == ReactModule.ExecutionPolicy.SHARED) {
+            return null;
+        }
+        return queueConfiguration.getNativeModuleQueueThread(
+                module.getName(), module.getExecutionPolicy());
+    }
+
+    /**
+     * Runs a call on the queue of a module that doesn't use the native modules queue thread,
+     * keeping track of it so the current batch doesn't complete before it has run. Must be called
+     * on the native modules queue thread, which keeps the calls of every module in order.
+     */
+    public void runOnModuleQueue(MessageQueueThread moduleQueueThread, final Runnable call) {
+        runOnModuleQueue(moduleQueueThread, call, MessageQueueThread.Priority.NORMAL);
+    }
+
+    /**
+     * Same as {@link #runOnModuleQueue(MessageQueueThread, Runnable)}, posting to the lane of
+     * {@code priority}.
+     */
+    public void runOnModuleQueue(
+            MessageQueueThread moduleQueueThread,
+            final Runnable call,
+            MessageQueueThread.Priority priority) {
+        mPendingModuleQueueCalls.incrementAndGet();
+        moduleQueueThread.runOnQueue(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            call.run();
+                        } finally {
+                            onModuleQueueCallFinished();
+                        }
+                    }
+                },
+                priority);
+    }
+
+    /**
+     * Keeps a call to {@code module} until its parallel initialization has run, see
+     * {@link NativeModuleHolder#runWhenInitialized}, then runs it on the native modules queue
+     * thread, keeping track of it so the current batch doesn't complete before it has run. Must be
+     * called on the native modules queue thread.
+     *
+     * @return false if there is nothing to wait for, the caller must run {@code call} right away
+     */
+    public boolean runWhenInitialized(NativeModuleHolder module, final Runnable call) {
+        MessageQueueThread nativeModulesQueueThread = getNativeModulesQueueThread();
+        if (nativeModulesQueueThread == null) {
+            // Not initialized in parallel
+            return false;
+        }
+        mPendingModuleQueueCalls.incrementAndGet();
+        boolean isKept = module.runWhenInitialized(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            call.run();
+                        } finally {
+                            onModuleQueueCallFinished();
+                        }
+                    }
+                },
+                nativeModulesQueueThread);
+        if (!isKept) {
+            // No batch can have completed meanwhile, it completes on this thread
+            mPendingModuleQueueCalls.decrementAndGet();
+        }
+        return isKept;
+    }
+
+    private void onModuleQueueCallFinished() {
+        if (mPendingModuleQueueCalls.decrementAndGet() != 0) {
+            return;
+        }
+        ReactQueueConfiguration queueConfiguration = mQueueConfiguration;
+        if (queueConfiguration == null) {
+            return;
+        }
+        queueConfiguration.getNativeModulesQueueThread().runOnQueue(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mIsBatchCompletePending && mPendingModuleQueueCalls.get() == 0) {
+                            mIsBatchCompletePending = false;
+                            notifyBatchComplete();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Subscribes {@code module} to batch notifications if it implements {@link OnBatchStartListener}
+     * or {@link OnBatchCompleteListener}. Modules that already exist when the instance is initialized
+     * are registered then, lazily created ones when JS first calls them. Registering a module more
+     * than once has no effect.
+     */
+    public void registerBatchListeners(NativeModule module) {
+        if (module instanceof OnBatchStartListener) {
+            mBatchStartListeners.addIfAbsent((OnBatchStartListener) module);
+        }
+        if (module instanceof OnBatchCompleteListener) {
+            mBatchCompleteListeners.addIfAbsent((OnBatchCompleteListener) module);
+        }
+    }
+
+    /**
+     * Called before every JS->Java call is dispatched, notifies the {@link OnBatchStartListener}s
+     * on the first call of a batch.
+     */
+    public void onNativeModuleCall() {
+        if (mIsBatchActive.compareAndSet(false, true)) {
+            for (OnBatchStartListener listener : mBatchStartListeners) {
+                listener.onBatchStart();
+            }
+        }
+    }
+
+    /**
+     * Queues {@code module} to have its batched calls delivered when the current batch completes.
+     * Called once per batch, when the first call to a {@link BatchedNativeModule} is queued.
+     */
+    public void addModuleWithBatchedCalls(JavaModuleWrapper module) {
+        mModulesWithBatchedCalls.add(module);
+    }
+
+    /**
+     * Called on the native modules queue thread once JS has flushed a batch. Listeners are notified
+     * once the calls of the batch that were handed over to other module queues have run too. If
+     * JS starts flushing the next batch before that, both batches are reported as one.
+     */
     public void onBatchComplete() {
-        // The only native module that uses the onBatchComplete is the UI Manager. Hence, instead of
-        // iterating over all the modules for find this one instance, and then calling it, we
-        // short-circuit
-        // the search, and simply call OnBatchComplete on the UI Manager.
-        // With Fabric, UIManager would no longer be a NativeModule, so this call would simply go away
-        NativeModuleHolder moduleHolder = mModules.get("UIManager");
-        if (moduleHolder != null && moduleHolder.hasInstance()) {
-            ((OnBatchCompleteListener) moduleHolder.getModule()).onBatchComplete();
+        JavaModuleWrapper module;
+        while ((module = mModulesWithBatchedCalls.poll()) != null) {
+            module.dispatchBatchedCalls();
+        }
+        if (mPendingModuleQueueCalls.get() > 0) {
+            mIsBatchCompletePending = true;
+            return;
+        }
+        mIsBatchCompletePending = false;
+        notifyBatchComplete();
+    }
+
+    private void notifyBatchComplete() {
+        mIsBatchActive.set(false);
+        for (OnBatchCompleteListener listener : mBatchCompleteListeners) {
+            listener.onBatchComplete();
         }
     }
 
@@ -5,12 +5,11 @@
 
 package com.sanyinchen.jsbridge.module.impl.cxx;
 
-import static com.sanyinchen.jsbridge.data.Arguments.fromJavaArgs;
-
 import com.facebook.jni.HybridData;
 import com.facebook.jni.annotations.DoNotStrip;
 import com.sanyinchen.jsbridge.base.Callback;
 import com.sanyinchen.jsbridge.data.NativeArray;
+import com.sanyinchen.jsbridge.data.NativeContainerPool;
 
 /**
  * Callback impl that calls directly into the cxx bridge. Created from C++.
@@ -27,7 +26,9 @@ public class CxxCallbackImpl implements Callback {
 
   @Override
   public void invoke(Object... args) {
-    nativeInvoke(fromJavaArgs(args));
+    NativeArray arguments = NativeContainerPool.obtainArrayFromJavaArgs(args);
+    nativeInvoke(arguments);
+    NativeContainerPool.recycle(arguments);
   }
 
   private native void nativeInvoke(NativeArray arguments);
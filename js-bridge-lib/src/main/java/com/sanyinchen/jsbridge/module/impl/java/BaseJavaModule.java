@@ -43,6 +43,8 @@ public abstract class BaseJavaModule implements NativeModule {
   static final public String METHOD_TYPE_PROMISE= "promise";
   static final public String METHOD_TYPE_SYNC = "sync";
 
+  private volatile @Nullable SyncMethodCache mSyncMethodCache;
+
   /**
    * @return a map of constants this module exports to JS. Supports JSON types.
    */
@@ -70,4 +72,38 @@ public abstract class BaseJavaModule implements NativeModule {
   public boolean hasConstants() {
     return false;
   }
+
+  /**
+   * @return the results of this module's memoized synchronous methods, and how often they were
+   * used, or null if it has none or JS didn't load its methods yet, see
+   * {@link com.sanyinchen.jsbridge.annotation.ReactMethod#memoize()}
+   */
+  public @Nullable SyncMethodCache getSyncMethodCache() {
+    return mSyncMethodCache;
+  }
+
+  /**
+   * Makes the next calls to this module's memoized synchronous methods call them again, once what
+   * they return changed. Can be called from any thread.
+   */
+  protected void invalidateMemoizedResults() {
+    SyncMethodCache syncMethodCache = mSyncMethodCache;
+    if (syncMethodCache != null) {
+      syncMethodCache.invalidate();
+    }
+  }
+
+  /**
+   * Makes the next calls to one of this module's memoized synchronous methods call it again.
+   */
+  protected void invalidateMemoizedResults(String methodName) {
+    SyncMethodCache syncMethodCache = mSyncMethodCache;
+    if (syncMethodCache != null) {
+      syncMethodCache.invalidate(methodName);
+    }
+  }
+
+  void setSyncMethodCache(SyncMethodCache syncMethodCache) {
+    mSyncMethodCache = syncMethodCache;
+  }
 }
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.impl.java;
+
+import com.sanyinchen.jsbridge.base.CallbackImpl;
+import com.sanyinchen.jsbridge.base.JSInstance;
+import com.sanyinchen.jsbridge.base.PromiseImpl;
+import com.sanyinchen.jsbridge.data.Arguments;
+import com.sanyinchen.jsbridge.data.NativeArrayInterface;
+import com.sanyinchen.jsbridge.data.NativeContainerPool;
+import com.sanyinchen.jsbridge.data.ReadableArray;
+import com.sanyinchen.jsbridge.data.ReadableNativeArray;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+
+/**
+ * The running calls of a module's promise methods with
+ * {@link com.sanyinchen.jsbridge.annotation.ReactMethod#shareInFlightCalls()}. A call with the
+ * same method and arguments as a running one joins it instead of calling the method again.
+ *
+ * The method runs with a {@link JSInstance} that sees its promise settle, and sends a copy of the
+ * resolution or rejection to the promises of the calls that joined it. Once the promise settles,
+ * the next call runs the method again. A method whose promise never settles keeps the calls with
+ * the same arguments waiting, as it would have without sharing. A method that throws instead
+ * rejects its own promise and the ones of the calls that joined it.
+ */
+class InFlightPromiseCalls {
+
+    private static final class Key {
+        final int mMethodId;
+        final List<Object> mArguments;
+
+        Key(int methodId, List<Object> arguments) {
+            mMethodId = methodId;
+            mArguments = arguments;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mMethodId == other.mMethodId && mArguments.equals(other.mArguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mMethodId + mArguments.hashCode();
+        }
+    }
+
+    /**
+     * A running call, and the JS instance its method runs with.
+     */
+    final class Call implements JSInstance {
+        private final Key mKey;
+        private final JSInstance mJSInstance;
+        private final int mResolveId;
+        private final int mRejectId;
+        // Resolve and reject callback ids of the calls that joined this one, guarded by
+        // InFlightPromiseCalls.this
+        private final List<int[]> mJoinedCalls = new ArrayList<>();
+        // Set by whichever comes first of the promise settling and the method throwing
+        private final AtomicBoolean mIsSettled = new AtomicBoolean();
+
+        private Call(Key key, JSInstance jsInstance, int resolveId, int rejectId) {
+            mKey = key;
+            mJSInstance = jsInstance;
+            mResolveId = resolveId;
+            mRejectId = rejectId;
+        }
+
+        /**
+         * Called from any thread when the promise of the method settles, or when the method calls
+         * a callback of its own.
+         */
+        @Override
+        public void invokeCallback(int callbackID, NativeArrayInterface arguments) {
+            if (callbackID != mResolveId && callbackID != mRejectId) {
+                mJSInstance.invokeCallback(callbackID, arguments);
+                return;
+            }
+            if (!mIsSettled.compareAndSet(false, true)) {
+                // Already rejected, the method threw after handing its promise over
+                NativeContainerPool.recycle(arguments);
+                return;
+            }
+            boolean isResolved = callbackID == mResolveId;
+            List<int[]> joinedCalls = finish(this);
+            if (!joinedCalls.isEmpty()) {
+                // Copied before the bridge consumes the arguments
+                List<Object> values = ((ReadableArray) arguments).toArrayList();
+                for (int[] joinedCall : joinedCalls) {
+                    mJSInstance.invokeCallback(
+                            isResolved ? joinedCall[0] : joinedCall[1],
+                            Arguments.makeNativeArray(values));
+                }
+            }
+            mJSInstance.invokeCallback(callbackID, arguments);
+        }
+
+        /**
+         * Rejects the promise of this call, unless it already settled, and the ones of the calls
+         * that joined it, when the method threw. Otherwise their callbacks would be kept by JS
+         * forever: the bridge only reports the exception.
+         */
+        void fail(RuntimeException e) {
+            List<int[]> calls = finish(this);
+            if (mResolveId >= 0 && mIsSettled.compareAndSet(false, true)) {
+                calls.add(0, new int[]{mResolveId, mRejectId});
+            }
+            for (int[] callbackIds : calls) {
+                new PromiseImpl(
+                        new CallbackImpl(mJSInstance, callbackIds[0]),
+                        new CallbackImpl(mJSInstance, callbackIds[1]))
+                        .reject(e);
+            }
+        }
+    }
+
+    private final Map<Key, Call> mCalls = new HashMap<>();
+
+    /**
+     * Starts a call, on the thread the module's calls run on.
+     *
+     * @param parameters the arguments from JS, the last two being the ids of the promise's
+     * callbacks
+     * @return the call to run the method with, or null if it joined a running call and the
+     * method must not run
+     */
+    @Nullable
+    Call start(JSInstance jsInstance, int methodId, ReadableNativeArray parameters) {
+        int size = parameters.size();
+        if (size < 2 || parameters.isNull(size - 2) || parameters.isNull(size - 1)) {
+            // Runs on its own, its promise can't be settled through callback ids anyway
+            return new Call(null, jsInstance, -1, -1);
+        }
+        int resolveId = (int) parameters.getDouble(size - 2);
+        int rejectId = (int) parameters.getDouble(size - 1);
+        Key key = new Key(methodId, parameters.toArrayList().subList(0, size - 2));
+        synchronized (this) {
+            Call call = mCalls.get(key);
+            if (call != null) {
+                call.mJoinedCalls.add(new int[]{resolveId, rejectId});
+                return null;
+            }
+            call = new Call(key, jsInstance, resolveId, rejectId);
+            mCalls.put(key, call);
+            return call;
+        }
+    }
+
+    /**
+     * Ends a call, calls with the same arguments run the method again from now on.
+     *
+     * @return the resolve and reject callback ids of the calls that joined it
+     */
+    private synchronized List<int[]> finish(Call call) {
+        if (call.mKey == null || mCalls.get(call.mKey) != call) {
+            // Already finished, or never shared
+            return new ArrayList<>();
+        }
+        mCalls.remove(call.mKey);
+        return new ArrayList<>(call.mJoinedCalls);
+    }
+}
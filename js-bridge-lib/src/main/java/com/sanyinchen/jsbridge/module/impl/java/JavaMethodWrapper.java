@@ -26,6 +26,7 @@ import com.sanyinchen.jsbridge.data.WritableArray;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 
 import javax.annotation.Nullable;
 
@@ -115,6 +116,16 @@ public class JavaMethodWrapper implements NativeModule.NativeMethod {
                 }
             };
 
+    static final private ArgumentExtractor<ByteBuffer> ARGUMENT_EXTRACTOR_BYTE_BUFFER =
+            new ArgumentExtractor<ByteBuffer>() {
+                @Override
+                public @Nullable
+                ByteBuffer extractArgument(
+                        JSInstance jsInstance, ReadableArray jsArguments, int atIndex) {
+                    return jsArguments.getByteBuffer(atIndex);
+                }
+            };
+
     static final private ArgumentExtractor<Callback> ARGUMENT_EXTRACTOR_CALLBACK =
             new ArgumentExtractor<Callback>() {
                 @Override
@@ -165,6 +176,8 @@ public class JavaMethodWrapper implements NativeModule.NativeMethod {
             return 'A';
         } else if (paramClass == Dynamic.class) {
             return 'Y';
+        } else if (paramClass == ByteBuffer.class) {
+            return 'B';
         } else {
             throw new RuntimeException(
                     "Got unknown param class: " + paramClass.getSimpleName());
@@ -318,6 +331,8 @@ public class JavaMethodWrapper implements NativeModule.NativeMethod {
                 argumentExtractors[i] = ARGUMENT_EXTRACTOR_ARRAY;
             } else if (argumentClass == Dynamic.class) {
                 argumentExtractors[i] = ARGUMENT_EXTRACTOR_DYNAMIC;
+            } else if (argumentClass == ByteBuffer.class) {
+                argumentExtractors[i] = ARGUMENT_EXTRACTOR_BYTE_BUFFER;
             } else {
                 throw new RuntimeException(
                         "Got unknown argument class: " + argumentClass.getSimpleName());
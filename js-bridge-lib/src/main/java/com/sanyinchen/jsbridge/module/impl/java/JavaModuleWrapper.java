@@ -7,22 +7,32 @@
 
 package com.sanyinchen.jsbridge.module.impl.java;
 
+import android.os.Trace;
+
 import com.facebook.jni.annotations.DoNotStrip;
 import com.sanyinchen.jsbridge.annotation.ReactMethod;
 import com.sanyinchen.jsbridge.base.JSInstance;
+import com.sanyinchen.jsbridge.common.futures.SimpleSettableFuture;
 import com.sanyinchen.jsbridge.data.Arguments;
 import com.sanyinchen.jsbridge.data.NativeMap;
+import com.sanyinchen.jsbridge.data.ReadableArray;
 import com.sanyinchen.jsbridge.data.ReadableNativeArray;
+import com.sanyinchen.jsbridge.module.bridge.BatchedNativeModule;
 import com.sanyinchen.jsbridge.module.bridge.NativeModule;
 import com.sanyinchen.jsbridge.module.bridge.NativeModuleHolder;
+import com.sanyinchen.jsbridge.module.bridge.NativeModuleRegistry;
 import com.sanyinchen.jsbridge.module.bridge.NativeModuleSpec;
+import com.sanyinchen.jsbridge.queue.MessageQueueThread;
+import com.sanyinchen.jsbridge.queue.MessageQueueThreadPool;
 
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nullable;
 
@@ -46,22 +56,113 @@ public class JavaModuleWrapper {
         String name;
         @DoNotStrip
         String type;
+        // Ordinal of the method's MessageQueueThread.Priority, read from C++
+        @DoNotStrip
+        int priority;
+        // See ReactMethod#shareInFlightCalls
+        boolean sharesInFlightCalls;
     }
 
+    private class BatchedCall implements BatchedNativeModule.Call {
+        private final int mMethodId;
+        private final ReadableNativeArray mArguments;
+
+        BatchedCall(int methodId, ReadableNativeArray arguments) {
+            mMethodId = methodId;
+            mArguments = arguments;
+        }
+
+        @Override
+        public String getMethodName() {
+            return mDescs.get(mMethodId).name;
+        }
+
+        @Override
+        public ReadableArray getArguments() {
+            return mArguments;
+        }
+
+        @Override
+        public void invoke() {
+            invokeNow(mMethodId, mArguments);
+        }
+    }
+
+    private static final MessageQueueThread.Priority[] PRIORITIES =
+            MessageQueueThread.Priority.values();
+
     private final JSInstance mJSInstance;
     private final NativeModuleHolder mNativeModuleHolder;
+    private final @Nullable
+    NativeModuleRegistry mBatchRegistry;
+    private final ArrayList<BatchedNativeModule.Call> mBatchedCalls = new ArrayList<>();
+    private volatile boolean mBatchListenersRegistered;
+    private @Nullable
+    MessageQueueThread mModuleQueueThread;
+    private volatile boolean mModuleQueueThreadResolved;
+    // The calls handed over to the module's queue that haven't run yet, oldest first, when its
+    // methods don't all have the same priority, see runModuleQueueCallsUpTo
+    private final ArrayDeque<ModuleQueueCall> mModuleQueueCalls = new ArrayDeque<>();
+    private long mNextModuleQueueCallSequence;
+    private boolean mHasMixedPriorities;
     private final ArrayList<NativeModule.NativeMethod> mMethods;
     private final ArrayList<MethodDescriptor> mDescs;
+    private @Nullable
+    NativeMethodDispatcher mDispatcher;
+    // Maps the method ids handed to JS onto the ids of mDispatcher, -1 where reflection is used
+    private @Nullable
+    int[] mDispatcherMethodIds;
+    private @Nullable
+    SyncMethodCache mSyncMethodCache;
+    // Null if no method shares its in-flight calls
+    private @Nullable
+    InFlightPromiseCalls mInFlightPromiseCalls;
+    // The constants being computed on the native modules pool, see deferConstants
+    private volatile @Nullable
+    DeferredConstants mDeferredConstants;
+
+    private static class ModuleQueueCall {
+        final long mSequence;
+        final Runnable mRunnable;
+
+        ModuleQueueCall(long sequence, Runnable runnable) {
+            mSequence = sequence;
+            mRunnable = runnable;
+        }
+    }
+
+    /**
+     * Constants computed on the native modules pool, or by {@link #getConstants} if it claims them
+     * before the pool started.
+     */
+    private static class DeferredConstants {
+        final SimpleSettableFuture<NativeMap> mFuture = new SimpleSettableFuture<>();
+        final AtomicBoolean mIsClaimed = new AtomicBoolean();
+    }
 
     public JavaModuleWrapper(JSInstance jsInstance, NativeModuleHolder NativeModuleHolder) {
+        this(jsInstance, NativeModuleHolder, null);
+    }
+
+    public JavaModuleWrapper(
+            JSInstance jsInstance,
+            NativeModuleHolder NativeModuleHolder,
+            @Nullable NativeModuleRegistry batchRegistry) {
         mJSInstance = jsInstance;
         mNativeModuleHolder = NativeModuleHolder;
+        mBatchRegistry = batchRegistry;
         mMethods = new ArrayList<>();
         mDescs = new ArrayList();
     }
 
+    /**
+     * @return the module, once initialized. Sync methods and constants reach the module through
+     * here, on the JS thread, and can't wait for a module initialized in parallel to be ready the
+     * way async calls do, see {@link NativeModuleHolder#ensureInitialized()}.
+     */
     @DoNotStrip
     public BaseJavaModule getModule() {
+        mNativeModuleHolder.ensureInitialized();
         return (BaseJavaModule) mNativeModuleHolder.getModule();
     }
 
@@ -72,8 +173,6 @@ public class JavaModuleWrapper {
 
     @DoNotStrip
     private void findMethods() {
-        Set<String> methodNames = new HashSet<>();
-
         Class<? extends NativeModule> classForMethods = mNativeModuleHolder.getModule().getClass();
         Class<? extends NativeModule> superClass =
                 (Class<? extends NativeModule>) classForMethods.getSuperclass();
@@ -83,6 +182,91 @@ public class JavaModuleWrapper {
             // module.
             classForMethods = superClass;
         }
+        mDispatcher = NativeMethodDispatchers.find(classForMethods);
+        if (mDispatcher == null || !findMethodsFromIndex(classForMethods)) {
+            findMethodsWithReflection(classForMethods);
+        }
+        if (mDispatcher != null) {
+            mDispatcherMethodIds = buildDispatcherMethodIds(mDispatcher);
+        }
+        mSyncMethodCache = buildSyncMethodCache();
+        for (MethodDescriptor md : mDescs) {
+            mHasMixedPriorities = mHasMixedPriorities || md.priority != mDescs.get(0).priority;
+        }
+        for (MethodDescriptor md : mDescs) {
+            if (md.sharesInFlightCalls) {
+                mInFlightPromiseCalls = new InFlightPromiseCalls();
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return the cache of the methods with {@link ReactMethod#memoize()}, or null if there are none
+     */
+    private @Nullable
+    SyncMethodCache buildSyncMethodCache() {
+        String[] methodNames = new String[mDescs.size()];
+        long[] memoizeTtlMs = new long[mDescs.size()];
+        boolean hasMemoizedMethods = false;
+        for (int i = 0; i < mDescs.size(); i++) {
+            MethodDescriptor md = mDescs.get(i);
+            methodNames[i] = md.name;
+            memoizeTtlMs[i] = SyncMethodCache.NOT_MEMOIZED;
+            // Only sync methods have their Method, memoization is ignored for the others
+            ReactMethod annotation =
+                    md.method != null ? md.method.getAnnotation(ReactMethod.class) : null;
+            if (annotation != null && annotation.memoize()) {
+                if (annotation.memoizeTtlMs() < 0) {
+                    throw new IllegalArgumentException(
+                            "Java Module " + getName() + " method " + md.name +
+                                    " has a negative memoizeTtlMs");
+                }
+                memoizeTtlMs[i] = annotation.memoizeTtlMs();
+                hasMemoizedMethods = true;
+            }
+        }
+        if (!hasMemoizedMethods) {
+            return null;
+        }
+        SyncMethodCache syncMethodCache = new SyncMethodCache(methodNames, memoizeTtlMs);
+        getModule().setSyncMethodCache(syncMethodCache);
+        return syncMethodCache;
+    }
+
+    /**
+     * Builds the method descriptors from the index generated at compile time. Async methods of
+     * indexed modules are always called through {@link #mDispatcher}, so only sync methods, which
+     * C++ calls through their {@link Method}, need any reflection.
+     */
+    private boolean findMethodsFromIndex(Class<? extends NativeModule> classForMethods) {
+        NativeMethodInfo[] methodInfos = NativeMethodDispatchers.findMethods(classForMethods);
+        if (methodInfos == null) {
+            return false;
+        }
+        for (NativeMethodInfo methodInfo : methodInfos) {
+            MethodDescriptor md = new MethodDescriptor();
+            md.name = methodInfo.name();
+            md.type = methodInfo.type();
+            md.priority = methodInfo.priority().ordinal();
+            md.sharesInFlightCalls = methodInfo.sharesInFlightCalls();
+            if (BaseJavaModule.METHOD_TYPE_SYNC.equals(md.type)) {
+                md.signature = methodInfo.signature();
+                try {
+                    md.method = classForMethods.getDeclaredMethod(md.name, methodInfo.parameterTypes());
+                } catch (NoSuchMethodException e) {
+                    throw new RuntimeException(
+                            "Java Module " + getName() + " is out of sync with its generated index", e);
+                }
+                md.method.setAccessible(true);
+            }
+            mDescs.add(md);
+        }
+        return true;
+    }
+
+    private void findMethodsWithReflection(Class<? extends NativeModule> classForMethods) {
+        Set<String> methodNames = new HashSet<>();
         Method[] targetMethods = classForMethods.getDeclaredMethods();
 
         for (Method targetMethod : targetMethods) {
@@ -99,6 +283,9 @@ public class JavaModuleWrapper {
                 JavaMethodWrapper method = new JavaMethodWrapper(this, targetMethod, annotation.isBlockingSynchronousMethod());
                 md.name = methodName;
                 md.type = method.getType();
+                md.priority = annotation.priority().ordinal();
+                md.sharesInFlightCalls = annotation.shareInFlightCalls() &&
+                        BaseJavaModule.METHOD_TYPE_PROMISE.equals(md.type);
                 if (md.type == BaseJavaModule.METHOD_TYPE_SYNC) {
                     md.signature = method.getSignature();
                     md.method = targetMethod;
@@ -109,6 +296,21 @@ public class JavaModuleWrapper {
         }
     }
 
+    private int[] buildDispatcherMethodIds(NativeMethodDispatcher dispatcher) {
+        String[] dispatcherMethodNames = dispatcher.getMethodNames();
+        int[] dispatcherMethodIds = new int[mDescs.size()];
+        for (int i = 0; i < dispatcherMethodIds.length; i++) {
+            dispatcherMethodIds[i] = -1;
+            for (int j = 0; j < dispatcherMethodNames.length; j++) {
+                if (dispatcherMethodNames[j].equals(mDescs.get(i).name)) {
+                    dispatcherMethodIds[i] = j;
+                    break;
+                }
+            }
+        }
+        return dispatcherMethodIds;
+    }
+
     @DoNotStrip
     public List<MethodDescriptor> getMethodDescriptors() {
         if (mDescs.isEmpty()) {
@@ -117,6 +319,48 @@ public class JavaModuleWrapper {
         return mDescs;
     }
 
+    /**
+     * @return the results of the memoized methods, read by C++ once it got the method descriptors
+     */
+    @DoNotStrip
+    public @Nullable
+    SyncMethodCache getSyncMethodCache() {
+        return mSyncMethodCache;
+    }
+
+    /**
+     * Starts computing the constants of a module with
+     * {@link com.sanyinchen.jsbridge.annotation.ReactModule#hasDeferredConstants()} on
+     * {@code pool}, creating the module there if needed. {@link #getConstants} waits for them if
+     * the pool is computing them, and computes them itself if the pool hasn't started, or never
+     * will because it has been shut down.
+     */
+    public void deferConstants(MessageQueueThreadPool pool) {
+        if (!mNativeModuleHolder.getHasConstants()) {
+            return;
+        }
+        final DeferredConstants deferredConstants = new DeferredConstants();
+        mDeferredConstants = deferredConstants;
+        pool.createSerialQueue("constants_" + getName()).runOnQueue(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!deferredConstants.mIsClaimed.compareAndSet(false, true)) {
+                            // JS asked for them first
+                            return;
+                        }
+                        try {
+                            deferredConstants.mFuture.set(computeConstants());
+                        } catch (Throwable t) {
+                            // Left unset, getConstants would wait forever. getConstants rethrows
+                            // it, the future takes Exceptions so it gets an Error wrapped.
+                            deferredConstants.mFuture.setException(
+                                    t instanceof Exception ? (Exception) t : new RuntimeException(t));
+                        }
+                    }
+                });
+    }
+
     @DoNotStrip
     public @Nullable
     NativeMap getConstants() {
@@ -124,18 +368,216 @@ public class JavaModuleWrapper {
             return null;
         }
 
-        final String moduleName = getName();
-        BaseJavaModule baseJavaModule = getModule();
-        Map<String, Object> map = baseJavaModule.getConstants();
-        return Arguments.makeNativeMap(map);
+        DeferredConstants deferredConstants = mDeferredConstants;
+        // The bridge consumes the map it gets, so only the first call can use the deferred one and
+        // later calls compute the constants again
+        mDeferredConstants = null;
+        if (deferredConstants == null || deferredConstants.mIsClaimed.compareAndSet(false, true)) {
+            // Not deferred, or the pool hasn't started computing them. It may never, once it has
+            // been shut down, so don't wait for it.
+            return computeConstants();
+        }
+        // Only takes time when JS required the module while the pool computed the constants.
+        // Rethrows what computing them threw.
+        Trace.beginSection("NativeModule.awaitConstants " + getName());
+        try {
+            return deferredConstants.mFuture.getOrThrow();
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private NativeMap computeConstants() {
+        Trace.beginSection("NativeModule.getConstants " + getName());
+        try {
+            Map<String, Object> map = getModule().getConstants();
+            return Arguments.makeNativeMap(map);
+        } finally {
+            Trace.endSection();
+        }
     }
 
     @DoNotStrip
-    public void invoke(int methodId, ReadableNativeArray parameters) {
-        if (mMethods == null || methodId >= mMethods.size()) {
+    public void invoke(final int methodId, final ReadableNativeArray parameters) {
+        if (methodId >= mDescs.size()) {
+            return;
+        }
+        // Modules initialized in parallel may not be ready for the first calls, which are kept
+        // rather than block the native modules queue, that may share its threads with the pool
+        // initializing them
+        if (mBatchRegistry != null &&
+                mNativeModuleHolder.isWaitingForInitialization() &&
+                mBatchRegistry.runWhenInitialized(
+                        mNativeModuleHolder,
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                dispatch(methodId, parameters);
+                            }
+                        })) {
             return;
         }
+        dispatch(methodId, parameters);
+    }
+
+    private void dispatch(int methodId, ReadableNativeArray parameters) {
+        if (mBatchRegistry != null) {
+            NativeModule module = mNativeModuleHolder.getModule();
+            if (!mBatchListenersRegistered) {
+                mBatchListenersRegistered = true;
+                mBatchRegistry.registerBatchListeners(module);
+            }
+            mBatchRegistry.onNativeModuleCall();
+            if (module instanceof BatchedNativeModule) {
+                boolean isFirstCallOfBatch;
+                synchronized (mBatchedCalls) {
+                    isFirstCallOfBatch = mBatchedCalls.isEmpty();
+                    mBatchedCalls.add(new BatchedCall(methodId, parameters));
+                }
+                if (isFirstCallOfBatch) {
+                    mBatchRegistry.addModuleWithBatchedCalls(this);
+                }
+                return;
+            }
 
-        mMethods.get(methodId).invoke(mJSInstance, parameters);
+            final MessageQueueThread moduleQueueThread = getModuleQueueThread();
+            if (moduleQueueThread != null) {
+                final int finalMethodId = methodId;
+                final ReadableNativeArray finalParameters = parameters;
+                Runnable call = new Runnable() {
+                    @Override
+                    public void run() {
+                        describeCall(moduleQueueThread, finalMethodId);
+                        invokeNow(finalMethodId, finalParameters);
+                    }
+                };
+                if (mHasMixedPriorities) {
+                    // Posted to the lane of the method, but runs the module's earlier calls first
+                    // so that none is overtaken
+                    final long sequence;
+                    synchronized (mModuleQueueCalls) {
+                        sequence = mNextModuleQueueCallSequence++;
+                        mModuleQueueCalls.add(new ModuleQueueCall(sequence, call));
+                    }
+                    call = new Runnable() {
+                        @Override
+                        public void run() {
+                            runModuleQueueCallsUpTo(sequence);
+                        }
+                    };
+                }
+                mBatchRegistry.runOnModuleQueue(
+                        moduleQueueThread,
+                        call,
+                        PRIORITIES[mDescs.get(methodId).priority]);
+                return;
+            }
+
+            MessageQueueThread nativeModulesQueueThread = mBatchRegistry.getNativeModulesQueueThread();
+            if (nativeModulesQueueThread != null && nativeModulesQueueThread.isOnThread()) {
+                describeCall(nativeModulesQueueThread, methodId);
+            }
+        }
+        invokeNow(methodId, parameters);
+    }
+
+    /**
+     * Runs the module's queue calls that haven't run yet, oldest first, up to and including the
+     * one numbered {@code sequence}. A call posted to a higher lane thereby takes the earlier calls
+     * ahead with it, and the Runnables posted for those find nothing left to run.
+     */
+    private void runModuleQueueCallsUpTo(long sequence) {
+        while (true) {
+            ModuleQueueCall call;
+            synchronized (mModuleQueueCalls) {
+                call = mModuleQueueCalls.peek();
+                if (call == null || call.mSequence > sequence) {
+                    return;
+                }
+                mModuleQueueCalls.poll();
+            }
+            call.mRunnable.run();
+        }
+    }
+
+    /**
+     * Names the method about to run on {@code queueThread} in its perf stats, for the stall
+     * reports of a {@link com.sanyinchen.jsbridge.queue.QueueStallWatchdog}.
+     */
+    private void describeCall(MessageQueueThread queueThread, int methodId) {
+        queueThread.getPerfStats().describeCurrentTask(getName(), mDescs.get(methodId).name);
+    }
+
+    /**
+     * @return the queue the module asked to run on through its
+     * {@link com.sanyinchen.jsbridge.annotation.ReactModule#executionPolicy()}, or {@code null} if
+     * it runs on the native modules queue thread
+     */
+    private @Nullable
+    MessageQueueThread getModuleQueueThread() {
+        if (!mModuleQueueThreadResolved && mBatchRegistry != null) {
+            mModuleQueueThread = mBatchRegistry.getModuleQueueThread(mNativeModuleHolder);
+            mModuleQueueThreadResolved = true;
+        }
+        return mModuleQueueThread;
+    }
+
+    /**
+     * Hands the calls queued for a {@link BatchedNativeModule} during the last batch over to it.
+     */
+    public void dispatchBatchedCalls() {
+        final List<BatchedNativeModule.Call> calls;
+        synchronized (mBatchedCalls) {
+            if (mBatchedCalls.isEmpty()) {
+                return;
+            }
+            calls = new ArrayList<>(mBatchedCalls);
+            mBatchedCalls.clear();
+        }
+        final BatchedNativeModule module = (BatchedNativeModule) mNativeModuleHolder.getModule();
+        MessageQueueThread moduleQueueThread = getModuleQueueThread();
+        if (moduleQueueThread != null && mBatchRegistry != null) {
+            mBatchRegistry.runOnModuleQueue(
+                    moduleQueueThread,
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            module.onBatchedCalls(calls);
+                        }
+                    });
+        } else {
+            module.onBatchedCalls(calls);
+        }
+    }
+
+    private void invokeNow(int methodId, ReadableNativeArray parameters) {
+        InFlightPromiseCalls inFlightPromiseCalls = mInFlightPromiseCalls;
+        if (inFlightPromiseCalls == null || !mDescs.get(methodId).sharesInFlightCalls) {
+            invokeNow(methodId, parameters, mJSInstance);
+            return;
+        }
+        InFlightPromiseCalls.Call call =
+                inFlightPromiseCalls.start(mJSInstance, methodId, parameters);
+        if (call == null) {
+            // Settled along with the running call it joined
+            return;
+        }
+        try {
+            invokeNow(methodId, parameters, call);
+        } catch (RuntimeException e) {
+            call.fail(e);
+            throw e;
+        }
+    }
+
+    private void invokeNow(int methodId, ReadableNativeArray parameters, JSInstance jsInstance) {
+        if (mDispatcher != null && mDispatcherMethodIds != null) {
+            int dispatcherMethodId = mDispatcherMethodIds[methodId];
+            if (dispatcherMethodId >= 0) {
+                mDispatcher.invoke(getModule(), jsInstance, dispatcherMethodId, parameters);
+                return;
+            }
+        }
+        mMethods.get(methodId).invoke(jsInstance, parameters);
     }
 }
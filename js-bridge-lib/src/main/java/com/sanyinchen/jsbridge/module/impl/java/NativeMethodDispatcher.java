@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ * <p>
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.impl.java;
+
+import com.facebook.jni.annotations.DoNotStrip;
+import com.sanyinchen.jsbridge.base.JSInstance;
+import com.sanyinchen.jsbridge.data.ReadableArray;
+import com.sanyinchen.jsbridge.module.bridge.NativeModule;
+
+/**
+ * Calls the {@link com.sanyinchen.jsbridge.annotation.ReactMethod}s of a single module class
+ * directly instead of going through {@link java.lang.reflect.Method#invoke}. Implementations are
+ * generated at compile time by ReactModuleMethodProcessor and looked up through
+ * {@link NativeMethodDispatchers#find(Class)}.
+ *
+ * The processor only runs over the modules of the projects that declare it, js-bridge-lib does so
+ * for its own. A project defining modules needs
+ * {@code annotationProcessor project(':js-bridge-processor')} in its dependencies, or
+ * {@code kapt} for modules written in Kotlin. Without it, its modules silently fall back to
+ * reflection.
+ *
+ * The dispatcher is found by the name of the module class, so a module renamed by R8 or ProGuard
+ * falls back to reflection too. The consumer rules of js-bridge-lib keep the names of the modules
+ * that have a dispatcher, apps shrinking with other rules must keep them as well.
+ */
+@DoNotStrip
+public interface NativeMethodDispatcher {
+
+    /**
+     * @return the names of the methods this dispatcher can call. The position of a name in the
+     * array is the method id passed to {@link #invoke}.
+     */
+    String[] getMethodNames();
+
+    /**
+     * Extracts the arguments of method {@code methodId} from {@code parameters} and calls it on
+     * {@code module}.
+     */
+    void invoke(NativeModule module, JSInstance jsInstance, int methodId, ReadableArray parameters);
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ * <p>
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.impl.java;
+
+import com.sanyinchen.jsbridge.base.Callback;
+import com.sanyinchen.jsbridge.base.CallbackImpl;
+import com.sanyinchen.jsbridge.base.JSInstance;
+import com.sanyinchen.jsbridge.base.Promise;
+import com.sanyinchen.jsbridge.base.PromiseImpl;
+import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
+import com.sanyinchen.jsbridge.data.ReadableArray;
+import com.sanyinchen.jsbridge.exception.NativeArgumentsParseException;
+import com.sanyinchen.jsbridge.module.bridge.NativeModule;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Lookup and argument helpers shared by the generated {@link NativeMethodDispatcher}s and
+ * {@link NativeMethodIndex}es.
+ */
+public final class NativeMethodDispatchers {
+
+    /**
+     * Suffix appended to the binary name of a module class to get the name of its generated
+     * dispatcher. Keep this in sync with ReactModuleMethodProcessor.
+     */
+    public static final String DISPATCHER_SUFFIX = "$$MethodDispatcher";
+
+    /**
+     * Simple name of the {@link NativeMethodIndex} generated in every package declaring modules.
+     * Keep this in sync with ReactModuleMethodProcessor.
+     */
+    public static final String INDEX_CLASS_NAME = "GeneratedNativeMethodIndex";
+
+    private static final Map<Class<?>, NativeMethodDispatcher> sDispatchers = new HashMap<>();
+    private static final Map<String, NativeMethodIndex> sIndexes = new HashMap<>();
+    private static final NativeMethodIndex NO_INDEX = new NativeMethodIndex() {
+        @Override
+        public @Nullable
+        NativeMethodInfo[] getMethods(String className) {
+            return null;
+        }
+    };
+    private static final NativeMethodDispatcher NO_DISPATCHER = new NativeMethodDispatcher() {
+        @Override
+        public String[] getMethodNames() {
+            return new String[0];
+        }
+
+        @Override
+        public void invoke(
+                NativeModule module, JSInstance jsInstance, int methodId, ReadableArray parameters) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private NativeMethodDispatchers() {
+    }
+
+    /**
+     * @return the generated dispatcher for {@code moduleClass}, or {@code null} if none was generated
+     * (or generated dispatchers are disabled), in which case callers fall back to reflection.
+     */
+    public static @Nullable
+    NativeMethodDispatcher find(Class<?> moduleClass) {
+        if (!ReactFeatureFlags.useGeneratedMethodDispatchers) {
+            return null;
+        }
+        NativeMethodDispatcher dispatcher;
+        synchronized (sDispatchers) {
+            dispatcher = sDispatchers.get(moduleClass);
+            if (dispatcher == null) {
+                dispatcher = load(moduleClass);
+                sDispatchers.put(moduleClass, dispatcher);
+            }
+        }
+        return dispatcher == NO_DISPATCHER ? null : dispatcher;
+    }
+
+    private static NativeMethodDispatcher load(Class<?> moduleClass) {
+        try {
+            Class<?> dispatcherClass = Class.forName(
+                    moduleClass.getName() + DISPATCHER_SUFFIX, true, moduleClass.getClassLoader());
+            return (NativeMethodDispatcher) dispatcherClass.newInstance();
+        } catch (ClassNotFoundException e) {
+            return NO_DISPATCHER;
+        } catch (InstantiationException e) {
+            throw new RuntimeException("Could not create dispatcher for " + moduleClass.getName(), e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Could not create dispatcher for " + moduleClass.getName(), e);
+        }
+    }
+
+    /**
+     * @return the generated description of the methods of {@code moduleClass}, or {@code null} if
+     * it wasn't indexed (or the index is disabled), in which case callers fall back to reflection.
+     */
+    public static @Nullable
+    NativeMethodInfo[] findMethods(Class<?> moduleClass) {
+        if (!ReactFeatureFlags.useGeneratedMethodIndex) {
+            return null;
+        }
+        String className = moduleClass.getName();
+        int lastDot = className.lastIndexOf('.');
+        String packageName = lastDot < 0 ? "" : className.substring(0, lastDot);
+        NativeMethodIndex index;
+        synchronized (sIndexes) {
+            index = sIndexes.get(packageName);
+            if (index == null) {
+                index = loadIndex(packageName, moduleClass.getClassLoader());
+                sIndexes.put(packageName, index);
+            }
+        }
+        return index.getMethods(className);
+    }
+
+    private static NativeMethodIndex loadIndex(String packageName, ClassLoader classLoader) {
+        String indexClassName =
+                packageName.isEmpty() ? INDEX_CLASS_NAME : packageName + "." + INDEX_CLASS_NAME;
+        try {
+            return (NativeMethodIndex) Class.forName(indexClassName, true, classLoader).newInstance();
+        } catch (ClassNotFoundException e) {
+            return NO_INDEX;
+        } catch (InstantiationException e) {
+            throw new RuntimeException("Could not create " + indexClassName, e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Could not create " + indexClassName, e);
+        }
+    }
+
+    public static void assertArgumentCount(
+            NativeModule module, String methodName, ReadableArray parameters, int jsArgumentsNeeded) {
+        if (parameters.size() != jsArgumentsNeeded) {
+            throw new NativeArgumentsParseException(
+                    module.getName() + "." + methodName + " got " + parameters.size() +
+                            " arguments, expected " + jsArgumentsNeeded);
+        }
+    }
+
+    public static NativeArgumentsParseException argumentParseException(
+            NativeModule module, String methodName, int atIndex, RuntimeException e) {
+        return new NativeArgumentsParseException(
+                e.getMessage() + " (constructing arguments for " + module.getName() + "." + methodName +
+                        " at argument index " + atIndex + ")",
+                e);
+    }
+
+    public static @Nullable
+    Callback extractCallback(JSInstance jsInstance, ReadableArray parameters, int atIndex) {
+        if (parameters.isNull(atIndex)) {
+            return null;
+        }
+        return new CallbackImpl(jsInstance, (int) parameters.getDouble(atIndex));
+    }
+
+    public static Promise extractPromise(JSInstance jsInstance, ReadableArray parameters, int atIndex) {
+        return new PromiseImpl(
+                extractCallback(jsInstance, parameters, atIndex),
+                extractCallback(jsInstance, parameters, atIndex + 1));
+    }
+}
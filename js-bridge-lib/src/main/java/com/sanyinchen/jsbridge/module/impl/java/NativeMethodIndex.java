@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ * <p>
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.impl.java;
+
+import javax.annotation.Nullable;
+
+/**
+ * Per-package index of the {@link com.sanyinchen.jsbridge.annotation.ReactMethod}s declared by
+ * module classes, generated at compile time by ReactModuleMethodProcessor so that method
+ * descriptors can be built without scanning classes at startup.
+ */
+public interface NativeMethodIndex {
+
+    /**
+     * @param className the binary name of a class in this index's package
+     * @return the methods of {@code className} sorted by name, or {@code null} if the class isn't
+     * indexed
+     */
+    @Nullable
+    NativeMethodInfo[] getMethods(String className);
+}
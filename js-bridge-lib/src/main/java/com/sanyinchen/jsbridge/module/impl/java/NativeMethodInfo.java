@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ * <p>
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.impl.java;
+
+import com.sanyinchen.jsbridge.queue.MessageQueueThread;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compile-time description of a single {@link com.sanyinchen.jsbridge.annotation.ReactMethod},
+ * holding what {@link JavaModuleWrapper} would otherwise compute with reflection.
+ */
+public final class NativeMethodInfo {
+
+    private final String mName;
+    private final String mType;
+    private final String mSignature;
+    private final @Nullable
+    Class<?>[] mParameterTypes;
+    private final MessageQueueThread.Priority mPriority;
+    private final boolean mSharesInFlightCalls;
+
+    public NativeMethodInfo(
+            String name, String type, String signature, @Nullable Class<?>[] parameterTypes) {
+        this(name, type, signature, parameterTypes, MessageQueueThread.Priority.NORMAL);
+    }
+
+    /**
+     * @param parameterTypes only needed for sync methods, which are called through their
+     *                       {@link java.lang.reflect.Method} from C++
+     */
+    public NativeMethodInfo(
+            String name,
+            String type,
+            String signature,
+            @Nullable Class<?>[] parameterTypes,
+            MessageQueueThread.Priority priority) {
+        this(name, type, signature, parameterTypes, priority, false);
+    }
+
+    public NativeMethodInfo(
+            String name,
+            String type,
+            String signature,
+            @Nullable Class<?>[] parameterTypes,
+            MessageQueueThread.Priority priority,
+            boolean sharesInFlightCalls) {
+        mName = name;
+        mType = type;
+        mSignature = signature;
+        mParameterTypes = parameterTypes;
+        mPriority = priority;
+        mSharesInFlightCalls = sharesInFlightCalls;
+    }
+
+    public String name() {
+        return mName;
+    }
+
+    /**
+     * One of {@link BaseJavaModule#METHOD_TYPE_ASYNC}, {@link BaseJavaModule#METHOD_TYPE_PROMISE}
+     * or {@link BaseJavaModule#METHOD_TYPE_SYNC}
+     */
+    public String type() {
+        return mType;
+    }
+
+    public String signature() {
+        return mSignature;
+    }
+
+    public @Nullable
+    Class<?>[] parameterTypes() {
+        return mParameterTypes;
+    }
+
+    /**
+     * @see com.sanyinchen.jsbridge.annotation.ReactMethod#priority()
+     */
+    public MessageQueueThread.Priority priority() {
+        return mPriority;
+    }
+
+    /**
+     * @see com.sanyinchen.jsbridge.annotation.ReactMethod#shareInFlightCalls()
+     */
+    public boolean sharesInFlightCalls() {
+        return mSharesInFlightCalls;
+    }
+}
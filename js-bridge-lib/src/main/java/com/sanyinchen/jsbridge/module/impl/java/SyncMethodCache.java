@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.impl.java;
+
+import com.facebook.jni.HybridData;
+import com.facebook.jni.annotations.DoNotStrip;
+
+/**
+ * The results of the memoized synchronous methods of a module, see
+ * {@link com.sanyinchen.jsbridge.annotation.ReactMethod#memoize()}. They are kept in C++, which
+ * answers the calls from JS with the same arguments as an earlier call without calling into Java.
+ *
+ * Counts, for each memoized method, the calls answered from the cache and the ones that called
+ * the method.
+ */
+@DoNotStrip
+public class SyncMethodCache {
+
+    // See SyncMethodCache::kNotMemoized
+    static final long NOT_MEMOIZED = -1;
+
+    @DoNotStrip
+    private final HybridData mHybridData;
+    private final String[] mMethodNames;
+
+    /**
+     * @param methodNames the names of the methods of the module, indexed by method id
+     * @param memoizeTtlMs the {@link com.sanyinchen.jsbridge.annotation.ReactMethod#memoizeTtlMs()}
+     * of the methods, indexed by method id, {@link #NOT_MEMOIZED} for the others
+     */
+    SyncMethodCache(String[] methodNames, long[] memoizeTtlMs) {
+        mHybridData = initHybrid(memoizeTtlMs);
+        mMethodNames = methodNames;
+    }
+
+    private static native HybridData initHybrid(long[] memoizeTtlMs);
+
+    /**
+     * Drops the results of every method. Can be called from any thread.
+     */
+    public void invalidate() {
+        nativeInvalidate(-1);
+    }
+
+    /**
+     * Drops the results of a method. Can be called from any thread.
+     */
+    public void invalidate(String methodName) {
+        nativeInvalidate(getMethodId(methodName));
+    }
+
+    /**
+     * @return the calls to a method answered from the cache
+     */
+    public long getHitCount(String methodName) {
+        return nativeGetHitCount(getMethodId(methodName));
+    }
+
+    /**
+     * @return the calls to a memoized method that called it, because there was no result for
+     * their arguments or it had expired
+     */
+    public long getMissCount(String methodName) {
+        return nativeGetMissCount(getMethodId(methodName));
+    }
+
+    private int getMethodId(String methodName) {
+        for (int i = 0; i < mMethodNames.length; i++) {
+            if (mMethodNames[i].equals(methodName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No method named " + methodName);
+    }
+
+    private native void nativeInvalidate(int methodId);
+
+    private native long nativeGetHitCount(int methodId);
+
+    private native long nativeGetMissCount(int methodId);
+}
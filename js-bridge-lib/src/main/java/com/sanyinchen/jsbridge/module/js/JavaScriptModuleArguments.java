@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.js;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.infer.annotation.Assertions;
+import com.sanyinchen.jsbridge.data.NativeContainerPool;
+import com.sanyinchen.jsbridge.data.ReadableType;
+import com.sanyinchen.jsbridge.data.WritableArray;
+import com.sanyinchen.jsbridge.data.WritableMap;
+import com.sanyinchen.jsbridge.data.WritableNativeArray;
+import com.sanyinchen.jsbridge.data.WritableNativeMap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Arguments of a call made through a generated {@link JavaScriptModule} implementation. They are
+ * collected in plain Java arrays and handed to native code in a single JNI call, instead of one
+ * {@code push*} call per argument on a {@link WritableNativeArray}.
+ *
+ * Booleans and numbers are stored unboxed, strings, buffers and containers as objects. Type bytes
+ * are {@link ReadableType} ordinals, keep JsBridgeInstanceImpl::jniCallJSFunctionEncoded in sync.
+ */
+public final class JavaScriptModuleArguments {
+
+    private static final ReadableType[] TYPES = ReadableType.values();
+
+    private final byte[] mTypes;
+    private final double[] mNumbers;
+    private final Object[] mObjects;
+    private int mSize;
+
+    public JavaScriptModuleArguments(int capacity) {
+        mTypes = new byte[capacity];
+        mNumbers = new double[capacity];
+        mObjects = new Object[capacity];
+    }
+
+    public void pushNull() {
+        mTypes[mSize++] = (byte) ReadableType.Null.ordinal();
+    }
+
+    public void pushBoolean(boolean value) {
+        mTypes[mSize] = (byte) ReadableType.Boolean.ordinal();
+        mNumbers[mSize++] = value ? 1 : 0;
+    }
+
+    public void pushBoolean(@Nullable Boolean value) {
+        if (value == null) {
+            pushNull();
+        } else {
+            pushBoolean(value.booleanValue());
+        }
+    }
+
+    public void pushDouble(double value) {
+        mTypes[mSize] = (byte) ReadableType.Number.ordinal();
+        mNumbers[mSize++] = value;
+    }
+
+    public void pushDouble(@Nullable Number value) {
+        if (value == null) {
+            pushNull();
+        } else {
+            pushDouble(value.doubleValue());
+        }
+    }
+
+    public void pushString(@Nullable String value) {
+        pushObject(ReadableType.String, value);
+    }
+
+    /**
+     * The array is consumed by the call, like {@link WritableArray#pushArray}.
+     */
+    public void pushArray(@Nullable WritableArray value) {
+        Assertions.assertCondition(
+                value == null || value instanceof WritableNativeArray, "Illegal type provided");
+        pushObject(ReadableType.Array, value);
+    }
+
+    /**
+     * The map is consumed by the call, like {@link WritableArray#pushMap}.
+     */
+    public void pushMap(@Nullable WritableMap value) {
+        Assertions.assertCondition(
+                value == null || value instanceof WritableNativeMap, "Illegal type provided");
+        pushObject(ReadableType.Map, value);
+    }
+
+    /**
+     * Copies the bytes between the position and the limit of {@code value}, which must be direct.
+     */
+    public void pushByteBuffer(@Nullable ByteBuffer value) {
+        Assertions.assertCondition(
+                value == null || value.isDirect(), "Only direct ByteBuffers can be pushed");
+        // A slice starts at the current position, so native code can read it from the start
+        pushObject(ReadableType.Buffer, value == null ? null : value.slice());
+    }
+
+    private void pushObject(ReadableType type, @Nullable Object value) {
+        if (value == null) {
+            pushNull();
+            return;
+        }
+        mTypes[mSize] = (byte) type.ordinal();
+        mObjects[mSize++] = value;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public byte[] getTypes() {
+        return mTypes;
+    }
+
+    public double[] getNumbers() {
+        return mNumbers;
+    }
+
+    public Object[] getObjects() {
+        return mObjects;
+    }
+
+    /**
+     * Copies the arguments to a {@link WritableNativeArray}, for calls that can't be sent right away.
+     */
+    public WritableNativeArray toNativeArray() {
+        WritableNativeArray array = NativeContainerPool.obtainArray();
+        for (int i = 0; i < mSize; i++) {
+            switch (TYPES[mTypes[i]]) {
+                case Null:
+                    array.pushNull();
+                    break;
+                case Boolean:
+                    array.pushBoolean(mNumbers[i] != 0);
+                    break;
+                case Number:
+                    array.pushDouble(mNumbers[i]);
+                    break;
+                case String:
+                    array.pushString((String) mObjects[i]);
+                    break;
+                case Array:
+                    array.pushArray((WritableArray) mObjects[i]);
+                    break;
+                case Map:
+                    array.pushMap((WritableMap) mObjects[i]);
+                    break;
+                case Buffer:
+                    array.pushByteBuffer((ByteBuffer) mObjects[i]);
+                    break;
+            }
+        }
+        return array;
+    }
+}
@@ -12,23 +12,36 @@ import androidx.annotation.Nullable;
 
 import com.sanyinchen.jsbridge.base.JsBridgeInstance;
 import com.sanyinchen.jsbridge.config.ReactBuildConfig;
-import com.sanyinchen.jsbridge.data.Arguments;
+import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
 import com.sanyinchen.jsbridge.data.NativeArray;
-import com.sanyinchen.jsbridge.data.WritableNativeArray;
+import com.sanyinchen.jsbridge.data.NativeContainerPool;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Class responsible for holding all the {@link JavaScriptModule}s.  Uses Java proxy objects
  * to dispatch method calls on JavaScriptModules to the bridge using the corresponding
  * module and method ids so the proper function is executed in JavaScript.
+ *
+ * When the annotation processor generated an implementation for the interface, that
+ * implementation is used instead of a proxy. It skips reflection and encodes its arguments in a
+ * single native call, see {@link JavaScriptModuleArguments}.
  */
 public final class JavaScriptModuleRegistry {
+    // Keep in sync with JavaScriptModuleProcessor
+    public static final String IMPLEMENTATION_SUFFIX = "$$JSModule";
+
+    // Constructors of the generated implementations by interface, null if there is none
+    private static final Map<Class<?>, Constructor<?>> sImplementations = new HashMap<>();
+
     private final HashMap<Class<? extends JavaScriptModule>, JavaScriptModule> mModuleInstances;
 
     public JavaScriptModuleRegistry() {
@@ -43,6 +56,21 @@ public final class JavaScriptModuleRegistry {
             return (T) module;
         }
 
+        Constructor<?> implementation = findImplementation(moduleInterface);
+        if (implementation != null) {
+            try {
+                module = (JavaScriptModule) implementation.newInstance(instance);
+            } catch (InstantiationException e) {
+                throw new RuntimeException("Could not create " + implementation.getName(), e);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Could not create " + implementation.getName(), e);
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException("Could not create " + implementation.getName(), e);
+            }
+            mModuleInstances.put(moduleInterface, module);
+            return (T) module;
+        }
+
         JavaScriptModule interfaceProxy = (JavaScriptModule) Proxy.newProxyInstance(
                 moduleInterface.getClassLoader(),
                 new Class[]{moduleInterface},
@@ -51,6 +79,33 @@ public final class JavaScriptModuleRegistry {
         return (T) interfaceProxy;
     }
 
+    private static @Nullable
+    Constructor<?> findImplementation(Class<? extends JavaScriptModule> moduleInterface) {
+        if (!ReactFeatureFlags.useGeneratedJSModules) {
+            return null;
+        }
+        synchronized (sImplementations) {
+            if (sImplementations.containsKey(moduleInterface)) {
+                return sImplementations.get(moduleInterface);
+            }
+            Constructor<?> implementation;
+            try {
+                implementation = Class.forName(
+                        moduleInterface.getName() + IMPLEMENTATION_SUFFIX,
+                        true,
+                        moduleInterface.getClassLoader())
+                        .getConstructor(JsBridgeInstance.class);
+            } catch (ClassNotFoundException e) {
+                implementation = null;
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(
+                        "Could not find the constructor of the generated " + moduleInterface.getName(), e);
+            }
+            sImplementations.put(moduleInterface, implementation);
+            return implementation;
+        }
+    }
+
     private static class JavaScriptModuleInvocationHandler implements InvocationHandler {
         private final JsBridgeInstance mJsBridgeInstance;
         private final Class<? extends JavaScriptModule> mModuleInterface;
@@ -96,8 +151,8 @@ public final class JavaScriptModuleRegistry {
         public @Nullable
         Object invoke(Object proxy, Method method, @Nullable Object[] args) throws Throwable {
             NativeArray jsArgs = args != null
-                    ? Arguments.fromJavaArgs(args)
-                    : new WritableNativeArray();
+                    ? NativeContainerPool.obtainArrayFromJavaArgs(args)
+                    : NativeContainerPool.obtainArray();
             mJsBridgeInstance.callFunction(getJSModuleName(), method.getName(), jsArgs);
             return null;
         }
@@ -5,6 +5,8 @@
 
 package com.sanyinchen.jsbridge.module.model;
 
+import com.sanyinchen.jsbridge.annotation.ReactModule;
+
 /**
  * Data holder class holding native module specifications. {@link ReactModuleSpecProcessor} creates
  * these so Java modules don't have to be instantiated at React Native start up.
@@ -18,6 +20,10 @@ public class ReactModuleInfo {
   private final boolean mIsCxxModule;
   private String mClassName;
   private final boolean mIsTurboModule;
+  private final ReactModule.ExecutionPolicy mExecutionPolicy;
+  private final String[] mDependencies;
+  private final boolean mHasVolatileConstants;
+  private final boolean mHasDeferredConstants;
 
   public ReactModuleInfo(
     String name,
@@ -27,6 +33,98 @@ public class ReactModuleInfo {
     boolean hasConstants,
     boolean isCxxModule,
     boolean isTurboModule) {
+    this(
+      name,
+      className,
+      canOverrideExistingModule,
+      needsEagerInit,
+      hasConstants,
+      isCxxModule,
+      isTurboModule,
+      ReactModule.ExecutionPolicy.SHARED);
+  }
+
+  public ReactModuleInfo(
+    String name,
+    String className,
+    boolean canOverrideExistingModule,
+    boolean needsEagerInit,
+    boolean hasConstants,
+    boolean isCxxModule,
+    boolean isTurboModule,
+    ReactModule.ExecutionPolicy executionPolicy) {
+    this(
+      name,
+      className,
+      canOverrideExistingModule,
+      needsEagerInit,
+      hasConstants,
+      isCxxModule,
+      isTurboModule,
+      executionPolicy,
+      new String[0]);
+  }
+
+  public ReactModuleInfo(
+    String name,
+    String className,
+    boolean canOverrideExistingModule,
+    boolean needsEagerInit,
+    boolean hasConstants,
+    boolean isCxxModule,
+    boolean isTurboModule,
+    ReactModule.ExecutionPolicy executionPolicy,
+    String[] dependencies) {
+    this(
+      name,
+      className,
+      canOverrideExistingModule,
+      needsEagerInit,
+      hasConstants,
+      isCxxModule,
+      isTurboModule,
+      executionPolicy,
+      dependencies,
+      false);
+  }
+
+  public ReactModuleInfo(
+    String name,
+    String className,
+    boolean canOverrideExistingModule,
+    boolean needsEagerInit,
+    boolean hasConstants,
+    boolean isCxxModule,
+    boolean isTurboModule,
+    ReactModule.ExecutionPolicy executionPolicy,
+    String[] dependencies,
+    boolean hasVolatileConstants) {
+    this(
+      name,
+      className,
+      canOverrideExistingModule,
+      needsEagerInit,
+      hasConstants,
+      isCxxModule,
+      isTurboModule,
+      executionPolicy,
+      dependencies,
+      hasVolatileConstants,
+      false);
+  }
+
+  public ReactModuleInfo(
+    String name,
+    String className,
+    boolean canOverrideExistingModule,
+    boolean needsEagerInit,
+    boolean hasConstants,
+    boolean isCxxModule,
+    boolean isTurboModule,
+    ReactModule.ExecutionPolicy executionPolicy,
+    String[] dependencies,
+    boolean hasVolatileConstants,
+    boolean hasDeferredConstants) {
     mName = name;
     mClassName = className;
     mCanOverrideExistingModule = canOverrideExistingModule;
@@ -34,6 +132,10 @@ public class ReactModuleInfo {
     mHasConstants = hasConstants;
     mIsCxxModule = isCxxModule;
     mIsTurboModule = isTurboModule;
+    mExecutionPolicy = executionPolicy;
+    mDependencies = dependencies;
+    mHasVolatileConstants = hasVolatileConstants;
+    mHasDeferredConstants = hasDeferredConstants;
   }
 
   public String name() {
@@ -54,8 +156,36 @@ public class ReactModuleInfo {
     return mHasConstants;
   }
 
+  /**
+   * @return whether the constants can change between launches, see
+   * {@link ReactModule#hasVolatileConstants()}
+   */
+  public boolean hasVolatileConstants() {
+    return mHasVolatileConstants;
+  }
+
+  /**
+   * @return whether the constants are computed ahead of JS on a worker thread, see
+   * {@link ReactModule#hasDeferredConstants()}
+   */
+  public boolean hasDeferredConstants() {
+    return mHasDeferredConstants;
+  }
+
   public boolean isCxxModule() {return mIsCxxModule; }
 
   public boolean isTurboModule() {return mIsTurboModule; }
 
+  public ReactModule.ExecutionPolicy executionPolicy() {
+    return mExecutionPolicy;
+  }
+
+  /**
+   * @return the names of the modules to initialize before this one, see
+   * {@link ReactModule#dependencies()}
+   */
+  public String[] dependencies() {
+    return mDependencies;
+  }
+
 }
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import android.os.Process;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adjusts the priority of the thread of a {@link MessageQueueThread} to its load, see
+ * {@link com.sanyinchen.jsbridge.config.ReactFeatureFlags#useAdaptiveQueueThreadPriority}.
+ *
+ * The thread is boosted when its backlog reaches {@link #BACKLOG_THRESHOLD} Runnables or a
+ * Runnable waited more than {@link #WAIT_THRESHOLD_MS} to start, and goes back to the default
+ * priority once the queue drains. While the host is paused both levels drop, to the default when
+ * boosted and to the background otherwise. The thread starts boosted, it has the whole startup to
+ * run.
+ *
+ * The queue calls {@link #onStarted} and {@link #onFinished} around every Runnable on its own
+ * thread, which is the only thread changing the priority. Changes are counted in the queue's
+ * {@link MessageQueueThreadPerfStats}.
+ */
+public class AdaptiveThreadPriority {
+
+    static final int BACKLOG_THRESHOLD = 16;
+    // About two frames
+    static final long WAIT_THRESHOLD_MS = 32;
+
+    private static final long WAIT_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(WAIT_THRESHOLD_MS);
+
+    private final MessageQueueThread mQueueThread;
+    private final MessageQueueThreadPerfStats mPerfStats;
+    private volatile boolean mIsHostPaused;
+    // Queue thread only
+    private boolean mIsBoosted = true;
+    private int mAppliedPriority = MessageQueueThreadPerfStats.PRIORITY_NOT_ADJUSTED;
+
+    public AdaptiveThreadPriority(MessageQueueThread queueThread) {
+        mQueueThread = queueThread;
+        mPerfStats = queueThread.getPerfStats();
+    }
+
+    /**
+     * Called by the queue, on its thread, when a Runnable that waited {@code waitNanos} starts.
+     */
+    void onStarted(long waitNanos) {
+        if (!mIsBoosted &&
+                (waitNanos > WAIT_THRESHOLD_NANOS || mPerfStats.getDepth() >= BACKLOG_THRESHOLD)) {
+            mIsBoosted = true;
+        }
+        apply();
+    }
+
+    /**
+     * Called by the queue, on its thread, when a Runnable returns or throws.
+     */
+    void onFinished() {
+        if (mIsBoosted && mPerfStats.getDepth() == 0) {
+            mIsBoosted = false;
+        }
+        apply();
+    }
+
+    /**
+     * Lowers the priority while the host is paused. Takes effect on the queue thread, a no-op
+     * Runnable is posted so that an idle queue applies it too.
+     */
+    public void setHostPaused(boolean isHostPaused) {
+        if (mIsHostPaused == isHostPaused) {
+            return;
+        }
+        mIsHostPaused = isHostPaused;
+        mQueueThread.runOnQueue(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        // The priority is applied around every Runnable
+                    }
+                });
+    }
+
+    private void apply() {
+        int priority;
+        if (mIsHostPaused) {
+            priority = mIsBoosted ? Process.THREAD_PRIORITY_DEFAULT : Process.THREAD_PRIORITY_BACKGROUND;
+        } else {
+            priority = mIsBoosted ? Process.THREAD_PRIORITY_DISPLAY : Process.THREAD_PRIORITY_DEFAULT;
+        }
+        if (priority == mAppliedPriority) {
+            return;
+        }
+        Process.setThreadPriority(priority);
+        mAppliedPriority = priority;
+        mPerfStats.onPriorityChanged(priority);
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations with power of two buckets in microseconds: bucket 0 counts
+ * durations under 1us and bucket {@code i} the ones in [2^(i-1), 2^i) us. Percentiles are reported
+ * as the upper bound of their bucket, so they're at most twice the real value.
+ *
+ * Recording is a few uncontended atomic increments. A {@link Snapshot} is read without stopping
+ * the writers, so it may miss the durations being recorded while it's taken.
+ */
+public class LatencyHistogram {
+
+  private static final int BUCKET_COUNT = 32;
+
+  private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong mCount = new AtomicLong();
+  private final AtomicLong mTotalNanos = new AtomicLong();
+  private final AtomicLong mMaxNanos = new AtomicLong();
+
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    long micros = nanos / 1000;
+    int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+    mBuckets.incrementAndGet(bucket);
+    mCount.incrementAndGet();
+    mTotalNanos.addAndGet(nanos);
+    long max = mMaxNanos.get();
+    while (nanos > max && !mMaxNanos.compareAndSet(max, nanos)) {
+      max = mMaxNanos.get();
+    }
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      mBuckets.set(i, 0);
+    }
+    mCount.set(0);
+    mTotalNanos.set(0);
+    mMaxNanos.set(0);
+  }
+
+  public Snapshot snapshot() {
+    long[] buckets = new long[BUCKET_COUNT];
+    long count = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] = mBuckets.get(i);
+      count += buckets[i];
+    }
+    long maxMicros = mMaxNanos.get() / 1000;
+    return new Snapshot(
+        count,
+        count == 0 ? 0 : mTotalNanos.get() / 1000 / count,
+        percentile(buckets, count, 0.5, maxMicros),
+        percentile(buckets, count, 0.99, maxMicros),
+        maxMicros);
+  }
+
+  private static long percentile(long[] buckets, long count, double fraction, long maxMicros) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(count * fraction);
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += buckets[i];
+      if (seen >= rank) {
+        long upperBound = i == 0 ? 1 : 1L << i;
+        return Math.min(upperBound, maxMicros);
+      }
+    }
+    return maxMicros;
+  }
+
+  /**
+   * Durations recorded by a {@link LatencyHistogram}, in microseconds.
+   */
+  public static class Snapshot {
+    public final long count;
+    public final long meanMicros;
+    public final long p50Micros;
+    public final long p99Micros;
+    public final long maxMicros;
+
+    Snapshot(long count, long meanMicros, long p50Micros, long p99Micros, long maxMicros) {
+      this.count = count;
+      this.meanMicros = meanMicros;
+      this.p50Micros = p50Micros;
+      this.p99Micros = p99Micros;
+      this.maxMicros = maxMicros;
+    }
+
+    @Override
+    public String toString() {
+      return "count=" + count + " mean=" + meanMicros + "us p50=" + p50Micros + "us p99=" +
+          p99Micros + "us max=" + maxMicros + "us";
+    }
+  }
+}
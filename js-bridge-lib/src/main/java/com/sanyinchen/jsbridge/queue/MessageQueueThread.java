@@ -9,15 +9,53 @@ package com.sanyinchen.jsbridge.queue;
 
 
 import com.facebook.jni.annotations.DoNotStrip;
+import com.sanyinchen.jsbridge.common.futures.SimpleSettableFuture;
 
 import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
 
 /**
  * Encapsulates a Thread that can accept Runnables.
  */
 @DoNotStrip
 public interface MessageQueueThread {
+
+  /**
+   * The lanes a Runnable can be posted to with {@link #runOnQueue(Runnable, Priority)}. Each lane
+   * is a FIFO and higher lanes run first, but lower lanes can't be starved: a NORMAL Runnable
+   * waiting behind a long run of IMMEDIATE ones gets a turn every few Runnables, and an IDLE
+   * Runnable that has waited too long runs even if the other lanes aren't empty.
+   */
+  @DoNotStrip
+  enum Priority {
+    /**
+     * Latency critical work, like handling input or resolving a promise JS waits on.
+     */
+    IMMEDIATE,
+    /**
+     * The lane {@link #runOnQueue(Runnable)} posts to.
+     */
+    NORMAL,
+    /**
+     * Work nothing waits on, like logging or analytics. Only runs when the other lanes are empty.
+     */
+    IDLE,
+  }
+
+  /**
+   * Handle to a Runnable posted with {@link #runOnQueueDelayed} or {@link #runAtDeadline}.
+   */
+  interface Cancellable {
+    /**
+     * @return whether the Runnable won't run, false if it has already been posted to its queue
+     */
+    boolean cancel();
+  }
+
+  /**
+   * The slack of {@link #runOnQueueDelayed}, see {@link #runAtDeadline}.
+   */
+  long DEFAULT_TIMER_SLACK_MS = 10;
+
   /**
    * Runs the given Runnable on this Thread. It will be submitted to the end of the event queue even
    * if it is being submitted from the same queue Thread.
@@ -25,12 +63,36 @@ public interface MessageQueueThread {
   @DoNotStrip
   void runOnQueue(Runnable runnable);
 
+  /**
+   * Runs the given Runnable on this Thread, after the Runnables already posted to the lane of
+   * {@code priority}. See {@link Priority} for how lanes are ordered.
+   */
+  @DoNotStrip
+  void runOnQueue(Runnable runnable, Priority priority);
+
+  /**
+   * Runs the given Runnable on this Thread, in the NORMAL lane, once {@code delayMs} have passed.
+   * Same as {@link #runAtDeadline} with {@link #DEFAULT_TIMER_SLACK_MS}.
+   */
+  Cancellable runOnQueueDelayed(Runnable runnable, long delayMs);
+
+  /**
+   * Runs the given Runnable on this Thread, in the NORMAL lane, no earlier than
+   * {@code deadlineUptimeMillis}, in the {@link android.os.SystemClock#uptimeMillis} clock, and
+   * up to {@code slackMs} later. The queue thread wakes up once for every Runnable due within the
+   * same slack, so a generous slack saves wakeups when many timers are pending. Can be called from
+   * any thread.
+   */
+  Cancellable runAtDeadline(Runnable runnable, long deadlineUptimeMillis, long slackMs);
+
   /**
    * Runs the given Callable on this Thread. It will be submitted to the end of the event queue even
-   * if it is being submitted from the same queue Thread.
+   * if it is being submitted from the same queue Thread. Chain on the returned future with
+   * {@link SimpleSettableFuture#thenRun} or {@link SimpleSettableFuture#thenApply} rather than
+   * blocking on it.
    */
   @DoNotStrip
-  <T> Future<T> callOnQueue(final Callable<T> callable);
+  <T> SimpleSettableFuture<T> callOnQueue(final Callable<T> callable);
 
   /**
    * @return whether the current Thread is also the Thread associated with this MessageQueueThread.
@@ -14,8 +14,9 @@ import android.util.Pair;
 
 import com.facebook.jni.annotations.DoNotStrip;
 
+import javax.annotation.Nullable;
+
 import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
 
 import com.sanyinchen.jsbridge.common.futures.SimpleSettableFuture;
 import com.sanyinchen.jsbridge.utils.SoftAssertions;
@@ -31,8 +32,55 @@ public class MessageQueueThreadImpl implements MessageQueueThread {
     private final Looper mLooper;
     private final MessageQueueThreadHandler mHandler;
     private final String mAssertionErrorMessage;
-    private MessageQueueThreadPerfStats mPerfStats;
+    // Each post adds a Runnable to a lane and a mRunNext message to the Looper, so the Looper
+    // holds one message per Runnable but the lanes decide which one runs. Locked on the main
+    // thread, which must never spin on a background thread.
+    private final PriorityRunnableQueue mLanes;
+    private final Runnable mRunNext = new Runnable() {
+        @Override
+        public void run() {
+            Runnable runnable = mLanes.poll();
+            if (runnable == null) {
+                return;
+            }
+            long startNanos = System.nanoTime();
+            long postedAtNanos = mLanes.getPolledOfferedAtNanos();
+            mPerfStats.onStarted(startNanos, postedAtNanos);
+            AdaptiveThreadPriority adaptiveThreadPriority = mAdaptiveThreadPriority;
+            if (adaptiveThreadPriority != null) {
+                adaptiveThreadPriority.onStarted(startNanos - postedAtNanos);
+            }
+            try {
+                runnable.run();
+            } finally {
+                mPerfStats.onFinished(System.nanoTime() - startNanos);
+                if (adaptiveThreadPriority != null) {
+                    adaptiveThreadPriority.onFinished();
+                }
+            }
+        }
+    };
+    private final MessageQueueThreadPerfStats mPerfStats;
     private volatile boolean mIsFinished = false;
+    private volatile @Nullable AdaptiveThreadPriority mAdaptiveThreadPriority;
+    // The alarm of the timers is a message of the Looper
+    private final Runnable mOnAlarm = new Runnable() {
+        @Override
+        public void run() {
+            mTimers.onAlarm();
+        }
+    };
+    private final QueueTimers mTimers = new QueueTimers(
+            this,
+            new QueueTimers.Alarm() {
+                @Override
+                public void set(long uptimeMillis) {
+                    mHandler.removeCallbacks(mOnAlarm);
+                    if (uptimeMillis != QueueTimers.NO_ALARM) {
+                        mHandler.postAtTime(mOnAlarm, uptimeMillis);
+                    }
+                }
+            });
 
     private MessageQueueThreadImpl(
             String name,
@@ -45,11 +93,12 @@ public class MessageQueueThreadImpl implements MessageQueueThread {
             String name,
             Looper looper,
             QueueThreadExceptionHandler exceptionHandler,
-            MessageQueueThreadPerfStats stats) {
+            @Nullable MessageQueueThreadPerfStats stats) {
         mName = name;
         mLooper = looper;
         mHandler = new MessageQueueThreadHandler(looper, exceptionHandler);
-        mPerfStats = stats;
+        mLanes = new PriorityRunnableQueue(looper == Looper.getMainLooper());
+        mPerfStats = stats != null ? stats : new MessageQueueThreadPerfStats();
         mAssertionErrorMessage = "Expected to be called from the '" + getName() + "' thread!";
     }
 
@@ -60,12 +109,38 @@ public class MessageQueueThreadImpl implements MessageQueueThread {
     @DoNotStrip
     @Override
     public void runOnQueue(Runnable runnable) {
-        mHandler.post(runnable);
+        runOnQueue(runnable, Priority.NORMAL);
+    }
+
+    /**
+     * Runs the given Runnable on this Thread. IMMEDIATE Runnables also go ahead of the messages
+     * already in the Looper, like the ones posted to the main Looper by other code.
+     */
+    @DoNotStrip
+    @Override
+    public void runOnQueue(Runnable runnable, Priority priority) {
+        mPerfStats.onPosted();
+        mLanes.offer(runnable, priority);
+        if (priority == Priority.IMMEDIATE) {
+            mHandler.postAtFrontOfQueue(mRunNext);
+        } else {
+            mHandler.post(mRunNext);
+        }
+    }
+
+    @Override
+    public Cancellable runOnQueueDelayed(Runnable runnable, long delayMs) {
+        return runAtDeadline(runnable, QueueTimers.uptimeMillis() + delayMs, DEFAULT_TIMER_SLACK_MS);
+    }
+
+    @Override
+    public Cancellable runAtDeadline(Runnable runnable, long deadlineUptimeMillis, long slackMs) {
+        return mTimers.schedule(runnable, deadlineUptimeMillis, slackMs);
     }
 
     @DoNotStrip
     @Override
-    public <T> Future<T> callOnQueue(final Callable<T> callable) {
+    public <T> SimpleSettableFuture<T> callOnQueue(final Callable<T> callable) {
         final SimpleSettableFuture<T> future = new SimpleSettableFuture<>();
         runOnQueue(
                 new Runnable() {
@@ -140,6 +215,7 @@ public class MessageQueueThreadImpl implements MessageQueueThread {
     @Override
     public void resetPerfStats() {
         assignToPerfStats(mPerfStats, -1, -1);
+        mPerfStats.resetCounters();
         runOnQueue(new Runnable() {
             @Override
             public void run() {
@@ -155,6 +231,14 @@ public class MessageQueueThreadImpl implements MessageQueueThread {
         stats.cpuTime = cpu;
     }
 
+    /**
+     * Adjusts the priority of the thread to the load of the queue from the next Runnable on, see
+     * {@link AdaptiveThreadPriority}. Null keeps the priority as it is.
+     */
+    public void setAdaptiveThreadPriority(@Nullable AdaptiveThreadPriority adaptiveThreadPriority) {
+        mAdaptiveThreadPriority = adaptiveThreadPriority;
+    }
+
     public Looper getLooper() {
         return mLooper;
     }
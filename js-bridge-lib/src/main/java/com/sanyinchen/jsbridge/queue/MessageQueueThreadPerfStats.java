@@ -7,10 +7,204 @@
 
 package com.sanyinchen.jsbridge.queue;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
 /**
- * This class holds perf counters' values at the beginning of an RN startup.
+ * This class holds perf counters' values at the beginning of an RN startup, and the counters of
+ * the Runnables run by its queue since then: how many are waiting, how long they waited to start
+ * and how long they ran. Counters are updated without locking and read through {@link #snapshot}.
+ *
+ * It also exposes the Runnable being run, for {@link QueueStallWatchdog}, and the priority set by
+ * {@link AdaptiveThreadPriority}.
  */
 public class MessageQueueThreadPerfStats {
+  /**
+   * The thread priority of queues whose priority isn't adjusted to their load.
+   */
+  public static final int PRIORITY_NOT_ADJUSTED = Integer.MIN_VALUE;
+
   public long wallTime;
   public long cpuTime;
+
+  private final AtomicInteger mDepth = new AtomicInteger();
+  private final AtomicInteger mHighWaterMark = new AtomicInteger();
+  private final AtomicLong mPostedCount = new AtomicLong();
+  private final LatencyHistogram mWaitTime = new LatencyHistogram();
+  private final LatencyHistogram mRunTime = new LatencyHistogram();
+
+  // The Runnable being run. The start time is written last when a Runnable starts, and is 0 when
+  // none is running. Only the queue writes these.
+  private volatile long mCurrentTaskSequence;
+  private volatile long mCurrentTaskStartNanos;
+  private volatile @Nullable Thread mCurrentTaskThread;
+  private volatile @Nullable String mCurrentTaskModuleName;
+  private volatile @Nullable String mCurrentTaskMethodName;
+  // Only the queue thread writes these
+  private volatile int mThreadPriority = PRIORITY_NOT_ADJUSTED;
+  private volatile long mPriorityChangeCount;
+
+  /**
+   * Called by the queue when a Runnable is posted.
+   */
+  void onPosted() {
+    mPostedCount.incrementAndGet();
+    int depth = mDepth.incrementAndGet();
+    int highWaterMark = mHighWaterMark.get();
+    while (depth > highWaterMark && !mHighWaterMark.compareAndSet(highWaterMark, depth)) {
+      highWaterMark = mHighWaterMark.get();
+    }
+  }
+
+  /**
+   * Called by the queue, on the thread about to run it, when a Runnable posted at
+   * {@code postedAtNanos} starts at {@code startNanos}.
+   */
+  void onStarted(long startNanos, long postedAtNanos) {
+    mDepth.decrementAndGet();
+    mWaitTime.record(startNanos - postedAtNanos);
+    mCurrentTaskThread = Thread.currentThread();
+    mCurrentTaskSequence = mCurrentTaskSequence + 1;
+    // Never 0 while a Runnable runs
+    mCurrentTaskStartNanos = startNanos == 0 ? 1 : startNanos;
+  }
+
+  /**
+   * Called by the queue when a Runnable that ran for {@code runNanos} returns or throws.
+   */
+  void onFinished(long runNanos) {
+    mCurrentTaskStartNanos = 0;
+    mCurrentTaskModuleName = null;
+    mCurrentTaskMethodName = null;
+    mRunTime.record(runNanos);
+  }
+
+  /**
+   * Names the native module method the running Runnable calls, so stalls can be attributed to it.
+   * Must be called from the Runnable.
+   */
+  public void describeCurrentTask(String moduleName, String methodName) {
+    mCurrentTaskModuleName = moduleName;
+    mCurrentTaskMethodName = methodName;
+  }
+
+  /**
+   * @return a number that changes every time a Runnable starts
+   */
+  long getCurrentTaskSequence() {
+    return mCurrentTaskSequence;
+  }
+
+  /**
+   * @return when the running Runnable started, in {@link System#nanoTime}, or 0 if none is running
+   */
+  long getCurrentTaskStartNanos() {
+    return mCurrentTaskStartNanos;
+  }
+
+  @Nullable
+  Thread getCurrentTaskThread() {
+    return mCurrentTaskThread;
+  }
+
+  @Nullable
+  String getCurrentTaskModuleName() {
+    return mCurrentTaskModuleName;
+  }
+
+  @Nullable
+  String getCurrentTaskMethodName() {
+    return mCurrentTaskMethodName;
+  }
+
+  /**
+   * Called on the queue thread when its priority is set to {@code priority}.
+   */
+  void onPriorityChanged(int priority) {
+    mThreadPriority = priority;
+    mPriorityChangeCount = mPriorityChangeCount + 1;
+  }
+
+  /**
+   * @return how many Runnables are posted and not started yet
+   */
+  int getDepth() {
+    return Math.max(0, mDepth.get());
+  }
+
+  /**
+   * Called by the queue for the Runnables dropped without running, when it quits.
+   */
+  void onDropped(int count) {
+    mDepth.addAndGet(-count);
+  }
+
+  /**
+   * Resets the counters. The depth isn't a counter and is kept, the high-water mark starts over
+   * from it.
+   */
+  void resetCounters() {
+    mPostedCount.set(0);
+    mHighWaterMark.set(mDepth.get());
+    mWaitTime.reset();
+    mRunTime.reset();
+    mPriorityChangeCount = 0;
+  }
+
+  public Snapshot snapshot() {
+    return new Snapshot(
+        getDepth(),
+        mHighWaterMark.get(),
+        mPostedCount.get(),
+        mWaitTime.snapshot(),
+        mRunTime.snapshot(),
+        mThreadPriority,
+        mPriorityChangeCount);
+  }
+
+  /**
+   * The counters of a queue at some point in time.
+   */
+  public static class Snapshot {
+    // Runnables posted and not started yet
+    public final int depth;
+    // Highest depth since the counters were reset
+    public final int highWaterMark;
+    public final long postedCount;
+    // From being posted to starting to run. Its count is the number of Runnables started.
+    public final LatencyHistogram.Snapshot waitTime;
+    public final LatencyHistogram.Snapshot runTime;
+    // An android.os.Process priority, or PRIORITY_NOT_ADJUSTED
+    public final int threadPriority;
+    public final long priorityChanges;
+
+    Snapshot(
+        int depth,
+        int highWaterMark,
+        long postedCount,
+        LatencyHistogram.Snapshot waitTime,
+        LatencyHistogram.Snapshot runTime,
+        int threadPriority,
+        long priorityChanges) {
+      this.depth = depth;
+      this.highWaterMark = highWaterMark;
+      this.postedCount = postedCount;
+      this.waitTime = waitTime;
+      this.runTime = runTime;
+      this.threadPriority = threadPriority;
+      this.priorityChanges = priorityChanges;
+    }
+
+    @Override
+    public String toString() {
+      String description = "depth=" + depth + " highWaterMark=" + highWaterMark +
+          " posted=" + postedCount + " wait={" + waitTime + "} run={" + runTime + "}";
+      if (threadPriority != PRIORITY_NOT_ADJUSTED) {
+        description += " priority=" + threadPriority + " priorityChanges=" + priorityChanges;
+      }
+      return description;
+    }
+  }
 }
@@ -0,0 +1,385 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.facebook.infer.annotation.Assertions;
+import com.sanyinchen.jsbridge.common.futures.SimpleSettableFuture;
+import com.sanyinchen.jsbridge.utils.SoftAssertions;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * A bounded pool of background threads that {@link MessageQueueThread}s can be multiplexed on.
+ * Every queue created with {@link #createSerialQueue} runs its Runnables one at a time and in
+ * order, but different queues run in parallel on up to {@link MessageQueueThreadSpec#getPoolSize()}
+ * threads.
+ *
+ * The queues have no thread to sleep on until the deadline of their timers, see
+ * {@link MessageQueueThread#runAtDeadline}: their alarms share one more thread, started when the
+ * first alarm is set.
+ */
+public class MessageQueueThreadPool {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    // How many Runnables a queue runs before giving its pool thread to the other queues
+    private static final int MAX_RUNNABLES_PER_TURN = 16;
+
+    private final String mName;
+    private final ThreadPoolExecutor mExecutor;
+    private final QueueThreadExceptionHandler mExceptionHandler;
+    @GuardedBy("this")
+    private @Nullable ScheduledThreadPoolExecutor mAlarmExecutor;
+    @GuardedBy("this")
+    private boolean mIsShutdown;
+
+    private MessageQueueThreadPool(
+            final String name,
+            final long stackSize,
+            int poolSize,
+            QueueThreadExceptionHandler exceptionHandler) {
+        mName = name;
+        mExceptionHandler = exceptionHandler;
+        mExecutor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger mThreadCount = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        return new Thread(
+                                null,
+                                new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
+                                        runnable.run();
+                                    }
+                                },
+                                "mqt_" + name + "_" + mThreadCount.incrementAndGet(),
+                                stackSize);
+                    }
+                });
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public static MessageQueueThreadPool create(
+            MessageQueueThreadSpec spec,
+            QueueThreadExceptionHandler exceptionHandler) {
+        Assertions.assertCondition(
+                spec.getThreadType() == MessageQueueThreadSpec.ThreadType.NEW_BACKGROUND_POOL,
+                "Not a thread pool spec: " + spec.getName());
+        return new MessageQueueThreadPool(
+                spec.getName(), spec.getStackSize(), spec.getPoolSize(), exceptionHandler);
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * @return a new serial queue running on this pool
+     */
+    public MessageQueueThread createSerialQueue(String name) {
+        return new SerialQueue(name, mExceptionHandler);
+    }
+
+    /**
+     * @return a new serial queue running on this pool, whose exceptions go to
+     * {@code exceptionHandler} instead of the pool's. For pools shared by several instances.
+     */
+    public MessageQueueThread createSerialQueue(
+            String name,
+            QueueThreadExceptionHandler exceptionHandler) {
+        return new SerialQueue(name, exceptionHandler);
+    }
+
+    /**
+     * Stops accepting new work and waits for the Runnables already running to finish.
+     */
+    public void shutdownSynchronous() {
+        synchronized (this) {
+            mIsShutdown = true;
+            if (mAlarmExecutor != null) {
+                mAlarmExecutor.shutdownNow();
+            }
+        }
+        mExecutor.shutdownNow();
+        try {
+            mExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Got interrupted waiting for thread pool " + mName);
+        }
+    }
+
+    /**
+     * @return the thread the alarms of the queues go off on, or null if the pool is shut down
+     */
+    private synchronized @Nullable
+    ScheduledThreadPoolExecutor getAlarmExecutor() {
+        if (mAlarmExecutor == null && !mIsShutdown) {
+            mAlarmExecutor = new ScheduledThreadPoolExecutor(
+                    1,
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "mqt_" + mName + "_alarm");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            mAlarmExecutor.setRemoveOnCancelPolicy(true);
+        }
+        return mAlarmExecutor;
+    }
+
+    private class SerialQueue implements MessageQueueThread, Runnable {
+
+        private final String mQueueName;
+        private final String mAssertionErrorMessage;
+        private final QueueThreadExceptionHandler mQueueExceptionHandler;
+        private final MessageQueueThreadPerfStats mPerfStats = new MessageQueueThreadPerfStats();
+        @GuardedBy("this")
+        private final PriorityRunnableQueue mRunnables = new PriorityRunnableQueue();
+        @GuardedBy("this")
+        private boolean mIsScheduled;
+        private volatile @Nullable
+        Thread mRunningThread;
+        private volatile boolean mIsFinished;
+        private final Runnable mOnAlarm = new Runnable() {
+            @Override
+            public void run() {
+                mTimers.onAlarm();
+            }
+        };
+        private final Runnable mPostOnAlarm = new Runnable() {
+            @Override
+            public void run() {
+                runOnQueue(mOnAlarm, Priority.IMMEDIATE);
+            }
+        };
+        // Set during the turns of the queue only, which don't overlap
+        private volatile @Nullable
+        ScheduledFuture<?> mAlarm;
+        private final QueueTimers mTimers = new QueueTimers(
+                this,
+                new QueueTimers.Alarm() {
+                    @Override
+                    public void set(long uptimeMillis) {
+                        cancelAlarm();
+                        ScheduledThreadPoolExecutor alarmExecutor = getAlarmExecutor();
+                        if (uptimeMillis == QueueTimers.NO_ALARM || alarmExecutor == null) {
+                            return;
+                        }
+                        try {
+                            mAlarm = alarmExecutor.schedule(
+                                    mPostOnAlarm,
+                                    uptimeMillis - QueueTimers.uptimeMillis(),
+                                    TimeUnit.MILLISECONDS);
+                        } catch (RejectedExecutionException e) {
+                            // The pool has been shut down, nothing will run on this queue anymore
+                        }
+                    }
+                });
+
+        SerialQueue(String name, QueueThreadExceptionHandler exceptionHandler) {
+            mQueueName = name;
+            mQueueExceptionHandler = exceptionHandler;
+            mAssertionErrorMessage = "Expected to be called from the '" + name + "' queue!";
+            mPerfStats.wallTime = SystemClock.uptimeMillis();
+            mPerfStats.cpuTime = -1;
+        }
+
+        @Override
+        public void runOnQueue(Runnable runnable) {
+            runOnQueue(runnable, Priority.NORMAL);
+        }
+
+        @Override
+        public void runOnQueue(Runnable runnable, Priority priority) {
+            synchronized (this) {
+                if (mIsFinished) {
+                    return;
+                }
+                mPerfStats.onPosted();
+                mRunnables.offer(runnable, priority);
+                if (mIsScheduled) {
+                    return;
+                }
+                mIsScheduled = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            try {
+                mExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // The pool has been shut down, nothing will run on this queue anymore
+                synchronized (this) {
+                    mIsFinished = true;
+                    mIsScheduled = false;
+                    mPerfStats.onDropped(mRunnables.clear());
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Runs the next Runnables of this queue on a pool thread.
+         */
+        @Override
+        public void run() {
+            mRunningThread = Thread.currentThread();
+            try {
+                for (int i = 0; i < MAX_RUNNABLES_PER_TURN && !mIsFinished; i++) {
+                    Runnable runnable;
+                    long offeredAtNanos;
+                    synchronized (this) {
+                        runnable = mRunnables.poll();
+                        offeredAtNanos = mRunnables.getPolledOfferedAtNanos();
+                    }
+                    if (runnable == null) {
+                        break;
+                    }
+                    long startNanos = System.nanoTime();
+                    mPerfStats.onStarted(startNanos, offeredAtNanos);
+                    try {
+                        runnable.run();
+                    } catch (Exception e) {
+                        mQueueExceptionHandler.handleException(e);
+                    } finally {
+                        mPerfStats.onFinished(System.nanoTime() - startNanos);
+                    }
+                }
+            } finally {
+                mRunningThread = null;
+            }
+
+            boolean hasMore;
+            synchronized (this) {
+                hasMore = !mRunnables.isEmpty() && !mIsFinished;
+                mIsScheduled = hasMore;
+                if (!hasMore) {
+                    notifyAll();
+                }
+            }
+            if (hasMore) {
+                schedule();
+            }
+        }
+
+        @Override
+        public Cancellable runOnQueueDelayed(Runnable runnable, long delayMs) {
+            return runAtDeadline(
+                    runnable, QueueTimers.uptimeMillis() + delayMs, DEFAULT_TIMER_SLACK_MS);
+        }
+
+        @Override
+        public Cancellable runAtDeadline(
+                Runnable runnable,
+                long deadlineUptimeMillis,
+                long slackMs) {
+            return mTimers.schedule(runnable, deadlineUptimeMillis, slackMs);
+        }
+
+        private void cancelAlarm() {
+            ScheduledFuture<?> alarm = mAlarm;
+            if (alarm != null) {
+                alarm.cancel(false);
+                mAlarm = null;
+            }
+        }
+
+        @Override
+        public <T> SimpleSettableFuture<T> callOnQueue(final Callable<T> callable) {
+            final SimpleSettableFuture<T> future = new SimpleSettableFuture<>();
+            runOnQueue(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                future.set(callable.call());
+                            } catch (Exception e) {
+                                future.setException(e);
+                            }
+                        }
+                    });
+            return future;
+        }
+
+        @Override
+        public boolean isOnThread() {
+            return mRunningThread == Thread.currentThread();
+        }
+
+        @Override
+        public void assertIsOnThread() {
+            SoftAssertions.assertCondition(isOnThread(), mAssertionErrorMessage);
+        }
+
+        @Override
+        public void assertIsOnThread(String message) {
+            SoftAssertions.assertCondition(
+                    isOnThread(),
+                    new StringBuilder().append(mAssertionErrorMessage).append(" ").append(message).toString());
+        }
+
+        /**
+         * Drops the Runnables that haven't started yet. If called from a different thread than the
+         * one running this queue, also waits for the Runnable being run to finish.
+         */
+        @Override
+        public void quitSynchronous() {
+            cancelAlarm();
+            synchronized (this) {
+                mIsFinished = true;
+                mPerfStats.onDropped(mRunnables.clear());
+                if (isOnThread()) {
+                    return;
+                }
+                while (mIsScheduled) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException("Got interrupted waiting to quit queue " + mQueueName);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public MessageQueueThreadPerfStats getPerfStats() {
+            return mPerfStats;
+        }
+
+        @Override
+        public void resetPerfStats() {
+            mPerfStats.wallTime = SystemClock.uptimeMillis();
+            mPerfStats.cpuTime = -1;
+            mPerfStats.resetCounters();
+        }
+    }
+}
@@ -21,6 +21,8 @@ public class MessageQueueThreadSpec {
   protected static enum ThreadType {
     MAIN_UI,
     NEW_BACKGROUND,
+    NEW_BACKGROUND_POOL,
+    NEW_BACKGROUND_RING_BUFFER,
   }
 
   public static MessageQueueThreadSpec newUIBackgroundTreadSpec(String name) {
@@ -35,6 +37,33 @@ public class MessageQueueThreadSpec {
     return new MessageQueueThreadSpec(ThreadType.NEW_BACKGROUND, name, stackSize);
   }
 
+  /**
+   * Spec for a {@link MessageQueueThreadPool} of at most {@code poolSize} background threads.
+   */
+  public static MessageQueueThreadSpec newBackgroundPoolSpec(String name, int poolSize) {
+    return new MessageQueueThreadSpec(
+        ThreadType.NEW_BACKGROUND_POOL, name, DEFAULT_STACK_SIZE_BYTES, poolSize);
+  }
+
+  public static MessageQueueThreadSpec newBackgroundPoolSpec(
+      String name,
+      int poolSize,
+      long stackSize) {
+    return new MessageQueueThreadSpec(ThreadType.NEW_BACKGROUND_POOL, name, stackSize, poolSize);
+  }
+
+  /**
+   * Spec for a {@link RingBufferMessageQueueThread}, a background thread fed by a lock-free queue
+   * instead of a Looper.
+   */
+  public static MessageQueueThreadSpec newRingBufferThreadSpec(String name) {
+    return new MessageQueueThreadSpec(ThreadType.NEW_BACKGROUND_RING_BUFFER, name);
+  }
+
+  public static MessageQueueThreadSpec newRingBufferThreadSpec(String name, long stackSize) {
+    return new MessageQueueThreadSpec(ThreadType.NEW_BACKGROUND_RING_BUFFER, name, stackSize);
+  }
+
   public static MessageQueueThreadSpec mainThreadSpec() {
     return MAIN_UI_SPEC;
   }
@@ -42,15 +71,21 @@ public class MessageQueueThreadSpec {
   private final ThreadType mThreadType;
   private final String mName;
   private final long mStackSize;
+  private final int mPoolSize;
 
   private MessageQueueThreadSpec(ThreadType threadType, String name) {
     this(threadType, name, DEFAULT_STACK_SIZE_BYTES);
   }
 
   private MessageQueueThreadSpec(ThreadType threadType, String name, long stackSize) {
+    this(threadType, name, stackSize, 1);
+  }
+
+  private MessageQueueThreadSpec(ThreadType threadType, String name, long stackSize, int poolSize) {
     mThreadType = threadType;
     mName = name;
     mStackSize = stackSize;
+    mPoolSize = poolSize;
   }
 
   public ThreadType getThreadType() {
@@ -64,4 +99,11 @@ public class MessageQueueThreadSpec {
   public long getStackSize() {
     return mStackSize;
   }
+
+  /**
+   * @return the maximum number of threads, 1 unless this is the spec of a pool
+   */
+  public int getPoolSize() {
+    return mPoolSize;
+  }
 }
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import javax.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Unbounded, lock-free, multi-producer single-consumer queue of Runnables. It's a chain of fixed
+ * size ring segments: producers claim a slot with a single atomic increment and publish into it,
+ * so {@link #offer} doesn't allocate except once per segment. The consumer walks the segments in
+ * order and drops them once consumed. Each slot also records when it was offered, for the perf
+ * stats of the queues built on this one.
+ *
+ * A producer interrupted between claiming and publishing its slot makes the consumer spin on that
+ * slot until it's published, like any queue built on an atomic increment. The main thread must
+ * not spin on a background producer, its queue offers and polls under a lock instead, see
+ * {@link PriorityRunnableQueue#PriorityRunnableQueue(boolean)}.
+ */
+class MpscRunnableQueue {
+
+    private static final int DEFAULT_SEGMENT_SIZE = 1024;
+
+    private static final class Segment {
+        final long mFirstIndex;
+        final AtomicReferenceArray<Runnable> mSlots;
+        // Written before the slot is published and read after, so it needs no barrier of its own
+        final long[] mOfferedAtNanos;
+        final AtomicReference<Segment> mNext = new AtomicReference<>();
+
+        Segment(long firstIndex, int size) {
+            mFirstIndex = firstIndex;
+            mSlots = new AtomicReferenceArray<>(size);
+            mOfferedAtNanos = new long[size];
+        }
+    }
+
+    private final int mSegmentSize;
+
+    private final AtomicLong mProducerIndex = new AtomicLong();
+    // Where producers start looking for their segment, may lag behind
+    private volatile Segment mProducerSegment;
+    // Consumer only, but read by producers: no slot they claimed can be before this segment
+    private volatile Segment mConsumerSegment;
+    private long mConsumerIndex;
+    private long mPolledOfferedAtNanos;
+
+    MpscRunnableQueue() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize how many Runnables each segment holds, smaller for rarely used queues
+     */
+    MpscRunnableQueue(int segmentSize) {
+        mSegmentSize = segmentSize;
+        Segment first = new Segment(0, segmentSize);
+        mProducerSegment = first;
+        mConsumerSegment = first;
+    }
+
+    /**
+     * Adds {@code runnable} at the end of the queue. Safe to call from any thread.
+     */
+    void offer(Runnable runnable) {
+        long index = mProducerIndex.getAndIncrement();
+        Segment segment = mProducerSegment;
+        if (segment.mFirstIndex > index) {
+            segment = mConsumerSegment;
+        }
+        while (index >= segment.mFirstIndex + mSegmentSize) {
+            Segment next = segment.mNext.get();
+            if (next == null) {
+                next = new Segment(segment.mFirstIndex + mSegmentSize, mSegmentSize);
+                if (!segment.mNext.compareAndSet(null, next)) {
+                    next = segment.mNext.get();
+                }
+            }
+            segment = next;
+        }
+        if (segment.mFirstIndex > mProducerSegment.mFirstIndex) {
+            mProducerSegment = segment;
+        }
+        int offset = (int) (index - segment.mFirstIndex);
+        segment.mOfferedAtNanos[offset] = System.nanoTime();
+        segment.mSlots.set(offset, runnable);
+    }
+
+    /**
+     * @return the next Runnable without removing it, or null if the queue is empty. Consumer
+     * thread only.
+     */
+    @Nullable
+    Runnable peek() {
+        if (mConsumerIndex >= mProducerIndex.get()) {
+            return null;
+        }
+        Segment segment = mConsumerSegment;
+        int offset = (int) (mConsumerIndex - segment.mFirstIndex);
+        if (offset == mSegmentSize) {
+            Segment next;
+            // The producer of the first slot of the next segment may still be linking it
+            while ((next = segment.mNext.get()) == null) {
+                Thread.yield();
+            }
+            segment = next;
+            mConsumerSegment = next;
+            offset = 0;
+        }
+        Runnable runnable;
+        while ((runnable = segment.mSlots.get(offset)) == null) {
+            Thread.yield();
+        }
+        return runnable;
+    }
+
+    /**
+     * @return the next Runnable, or null if the queue is empty. Consumer thread only.
+     */
+    @Nullable
+    Runnable poll() {
+        Runnable runnable = peek();
+        if (runnable != null) {
+            // peek() moved to the segment holding the Runnable
+            Segment segment = mConsumerSegment;
+            int offset = (int) (mConsumerIndex - segment.mFirstIndex);
+            mPolledOfferedAtNanos = segment.mOfferedAtNanos[offset];
+            segment.mSlots.lazySet(offset, null);
+            mConsumerIndex++;
+        }
+        return runnable;
+    }
+
+    /**
+     * @return the {@link System#nanoTime} at which the Runnable returned by the last successful
+     * {@link #peek} was offered. Consumer thread only.
+     */
+    long getPeekedOfferedAtNanos() {
+        Segment segment = mConsumerSegment;
+        return segment.mOfferedAtNanos[(int) (mConsumerIndex - segment.mFirstIndex)];
+    }
+
+    /**
+     * @return the {@link System#nanoTime} at which the Runnable returned by the last successful
+     * {@link #poll} was offered. Consumer thread only.
+     */
+    long getPolledOfferedAtNanos() {
+        return mPolledOfferedAtNanos;
+    }
+
+    /**
+     * @return whether nothing was offered that hasn't been polled yet
+     */
+    boolean isEmpty() {
+        return mConsumerIndex >= mProducerIndex.get();
+    }
+
+    /**
+     * Drops everything in the queue. Consumer thread only, or once the consumer is gone.
+     *
+     * @return how many Runnables were dropped
+     */
+    int clear() {
+        int count = 0;
+        while (poll() != null) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import javax.annotation.Nullable;
+
+import com.sanyinchen.jsbridge.queue.MessageQueueThread.Priority;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The lanes of a {@link MessageQueueThread}, one lock-free FIFO per {@link Priority}. Any thread
+ * can offer, but only one thread at a time may poll.
+ *
+ * {@link #poll} takes the highest non-empty lane, with two exceptions that keep the lower lanes
+ * from starving:
+ * <ul>
+ * <li>After {@link #MAX_IMMEDIATE_IN_A_ROW} IMMEDIATE Runnables in a row, a waiting NORMAL one
+ * runs.
+ * <li>An IDLE Runnable that has waited more than {@link #IDLE_MAX_WAIT_MS} runs next.
+ * </ul>
+ *
+ * A locked queue guards its lanes with its monitor instead, for a poller that must not spin on
+ * the slot of a producer preempted before publishing its Runnable, see {@link MpscRunnableQueue}.
+ * The poller then only waits for a producer holding the monitor, as it does on every
+ * {@link android.os.Handler#post} for the lock of the Looper's message queue.
+ */
+class PriorityRunnableQueue {
+
+    static final int MAX_IMMEDIATE_IN_A_ROW = 8;
+    static final long IDLE_MAX_WAIT_MS = 500;
+
+    private static final long IDLE_MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(IDLE_MAX_WAIT_MS);
+    // The IMMEDIATE and IDLE lanes are rarely used, keep their segments small
+    private static final int SMALL_LANE_SEGMENT_SIZE = 64;
+
+    private final MpscRunnableQueue mImmediateLane = new MpscRunnableQueue(SMALL_LANE_SEGMENT_SIZE);
+    private final MpscRunnableQueue mNormalLane = new MpscRunnableQueue();
+    private final MpscRunnableQueue mIdleLane = new MpscRunnableQueue(SMALL_LANE_SEGMENT_SIZE);
+    private final boolean mIsLocked;
+    // Poller only
+    private int mImmediateInARow;
+    private long mPolledOfferedAtNanos;
+
+    PriorityRunnableQueue() {
+        this(false);
+    }
+
+    /**
+     * @param isLocked whether offering and polling take the monitor of the queue, so that a poll
+     * never sees a Runnable that is being offered
+     */
+    PriorityRunnableQueue(boolean isLocked) {
+        mIsLocked = isLocked;
+    }
+
+    void offer(Runnable runnable, Priority priority) {
+        if (mIsLocked) {
+            synchronized (this) {
+                offerToLane(runnable, priority);
+            }
+        } else {
+            offerToLane(runnable, priority);
+        }
+    }
+
+    private void offerToLane(Runnable runnable, Priority priority) {
+        switch (priority) {
+            case IMMEDIATE:
+                mImmediateLane.offer(runnable);
+                break;
+            case IDLE:
+                mIdleLane.offer(runnable);
+                break;
+            default:
+                mNormalLane.offer(runnable);
+                break;
+        }
+    }
+
+    /**
+     * @return the Runnable to run next, or null if every lane is empty
+     */
+    @Nullable
+    Runnable poll() {
+        if (mIsLocked) {
+            synchronized (this) {
+                return pollLanes();
+            }
+        }
+        return pollLanes();
+    }
+
+    private @Nullable
+    Runnable pollLanes() {
+        if (mIdleLane.peek() != null &&
+                System.nanoTime() - mIdleLane.getPeekedOfferedAtNanos() > IDLE_MAX_WAIT_NANOS) {
+            return poll(mIdleLane);
+        }
+        if (mImmediateInARow < MAX_IMMEDIATE_IN_A_ROW || mNormalLane.isEmpty()) {
+            Runnable runnable = poll(mImmediateLane);
+            if (runnable != null) {
+                mImmediateInARow++;
+                return runnable;
+            }
+        }
+        mImmediateInARow = 0;
+        Runnable runnable = poll(mNormalLane);
+        if (runnable != null) {
+            return runnable;
+        }
+        return poll(mIdleLane);
+    }
+
+    private @Nullable
+    Runnable poll(MpscRunnableQueue lane) {
+        Runnable runnable = lane.poll();
+        if (runnable != null) {
+            mPolledOfferedAtNanos = lane.getPolledOfferedAtNanos();
+        }
+        return runnable;
+    }
+
+    /**
+     * @return the {@link System#nanoTime} at which the Runnable returned by the last successful
+     * {@link #poll} was offered
+     */
+    long getPolledOfferedAtNanos() {
+        return mPolledOfferedAtNanos;
+    }
+
+    /**
+     * @return whether every lane is empty. Same threading rules as {@link #poll}.
+     */
+    boolean isEmpty() {
+        return mImmediateLane.isEmpty() && mNormalLane.isEmpty() && mIdleLane.isEmpty();
+    }
+
+    /**
+     * Drops everything in the lanes. Same threading rules as {@link #poll}.
+     *
+     * @return how many Runnables were dropped
+     */
+    int clear() {
+        if (mIsLocked) {
+            synchronized (this) {
+                return clearLanes();
+            }
+        }
+        return clearLanes();
+    }
+
+    private int clearLanes() {
+        mImmediateInARow = 0;
+        return mImmediateLane.clear() + mNormalLane.clear() + mIdleLane.clear();
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Reports the Runnables that run for longer than a threshold on the {@link MessageQueueThread}s it
+ * watches, with the stack of the thread running them and, for native module method calls, the
+ * module and method names.
+ *
+ * A daemon thread wakes up every half threshold and reads a few volatile fields of each queue's
+ * {@link MessageQueueThreadPerfStats}. The watched queues pay nothing more than keeping these
+ * fields up to date, and the stack is only captured once per stalled Runnable. The thread is
+ * started by the first {@link #watch} and stops once nothing is watched.
+ */
+public class QueueStallWatchdog {
+
+  private static final long MIN_SAMPLING_INTERVAL_MS = 5;
+
+  /**
+   * Called on the watchdog thread, keep it short: other stalls aren't detected meanwhile.
+   */
+  public interface StallListener {
+    void onStall(Stall stall);
+  }
+
+  /**
+   * A Runnable that has been running for longer than the threshold.
+   */
+  public static class Stall {
+    public final String queueName;
+    public final String threadName;
+    // How long the Runnable had been running when its stack was captured
+    public final long durationMs;
+    public final StackTraceElement[] stackTrace;
+    // Set when the Runnable is a native module method call
+    public final @Nullable String moduleName;
+    public final @Nullable String methodName;
+
+    Stall(
+        String queueName,
+        String threadName,
+        long durationMs,
+        StackTraceElement[] stackTrace,
+        @Nullable String moduleName,
+        @Nullable String methodName) {
+      this.queueName = queueName;
+      this.threadName = threadName;
+      this.durationMs = durationMs;
+      this.stackTrace = stackTrace;
+      this.moduleName = moduleName;
+      this.methodName = methodName;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder()
+          .append("Queue '").append(queueName).append("' stalled for ").append(durationMs)
+          .append("ms on thread '").append(threadName).append("'");
+      if (moduleName != null) {
+        builder.append(" in ").append(moduleName).append('.').append(methodName);
+      }
+      for (StackTraceElement element : stackTrace) {
+        builder.append("\n\tat ").append(element);
+      }
+      return builder.toString();
+    }
+  }
+
+  private static final class WatchedQueue {
+    final String mName;
+    final MessageQueueThread mQueueThread;
+    final MessageQueueThreadPerfStats mPerfStats;
+    // Watchdog thread only
+    long mReportedTaskSequence;
+
+    WatchedQueue(String name, MessageQueueThread queueThread) {
+      mName = name;
+      mQueueThread = queueThread;
+      mPerfStats = queueThread.getPerfStats();
+    }
+  }
+
+  private final long mThresholdNanos;
+  private final long mSamplingIntervalMs;
+  private final StallListener mListener;
+  private final CopyOnWriteArrayList<WatchedQueue> mWatchedQueues = new CopyOnWriteArrayList<>();
+  @GuardedBy("this")
+  private @Nullable Thread mThread;
+
+  /**
+   * @param thresholdMs how long a Runnable may run before it's reported
+   */
+  public QueueStallWatchdog(long thresholdMs, StallListener listener) {
+    if (thresholdMs <= 0) {
+      throw new IllegalArgumentException("Stall threshold must be positive: " + thresholdMs);
+    }
+    mThresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+    mSamplingIntervalMs = Math.max(MIN_SAMPLING_INTERVAL_MS, thresholdMs / 2);
+    mListener = listener;
+  }
+
+  /**
+   * Starts watching {@code queueThread}, reported as {@code name}.
+   */
+  public void watch(String name, MessageQueueThread queueThread) {
+    mWatchedQueues.add(new WatchedQueue(name, queueThread));
+    synchronized (this) {
+      if (mThread == null) {
+        mThread = new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                loop();
+              }
+            },
+            "queue_stall_watchdog");
+        mThread.setDaemon(true);
+        mThread.start();
+      }
+    }
+  }
+
+  public void unwatch(MessageQueueThread queueThread) {
+    for (WatchedQueue watchedQueue : mWatchedQueues) {
+      if (watchedQueue.mQueueThread == queueThread) {
+        mWatchedQueues.remove(watchedQueue);
+      }
+    }
+  }
+
+  private void loop() {
+    while (true) {
+      try {
+        Thread.sleep(mSamplingIntervalMs);
+      } catch (InterruptedException e) {
+        // Check now
+      }
+      synchronized (this) {
+        if (mWatchedQueues.isEmpty()) {
+          mThread = null;
+          return;
+        }
+      }
+      for (WatchedQueue watchedQueue : mWatchedQueues) {
+        check(watchedQueue);
+      }
+    }
+  }
+
+  private void check(WatchedQueue watchedQueue) {
+    MessageQueueThreadPerfStats perfStats = watchedQueue.mPerfStats;
+    long sequence = perfStats.getCurrentTaskSequence();
+    long startNanos = perfStats.getCurrentTaskStartNanos();
+    if (startNanos == 0 || sequence == watchedQueue.mReportedTaskSequence) {
+      return;
+    }
+    long durationNanos = System.nanoTime() - startNanos;
+    if (durationNanos < mThresholdNanos) {
+      return;
+    }
+    Thread thread = perfStats.getCurrentTaskThread();
+    String moduleName = perfStats.getCurrentTaskModuleName();
+    String methodName = perfStats.getCurrentTaskMethodName();
+    if (thread == null) {
+      return;
+    }
+    StackTraceElement[] stackTrace = thread.getStackTrace();
+    // The Runnable may have returned while its stack was captured, the stack would be wrong then
+    if (perfStats.getCurrentTaskSequence() != sequence ||
+        perfStats.getCurrentTaskStartNanos() != startNanos) {
+      return;
+    }
+    watchedQueue.mReportedTaskSequence = sequence;
+    mListener.onStall(
+        new Stall(
+            watchedQueue.mName,
+            thread.getName(),
+            TimeUnit.NANOSECONDS.toMillis(durationNanos),
+            stackTrace,
+            moduleName,
+            methodName));
+  }
+}
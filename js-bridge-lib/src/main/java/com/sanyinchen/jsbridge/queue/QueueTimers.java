@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The Runnables posted to a {@link MessageQueueThread} with
+ * {@link MessageQueueThread#runAtDeadline}, kept in a {@link TimingWheel} of 1ms ticks owned by
+ * the queue thread. The queue wakes up once for the earliest of them, through the {@link Alarm} it
+ * provides, and posts every Runnable that is due to its NORMAL lane.
+ *
+ * A Runnable may run up to its slack after its deadline. Its tick is rounded up to a multiple of
+ * the largest power of two not above its slack plus one, so the Runnables with close deadlines
+ * share a tick and a wakeup.
+ *
+ * Other threads hand their Runnables over through a lock-free queue, and only wake the queue thread
+ * up when their deadline is before the alarm.
+ */
+class QueueTimers {
+
+    static final long NO_ALARM = TimingWheel.NO_EXPIRY;
+
+    /**
+     * Provided by the queue to be woken up at a deadline.
+     */
+    interface Alarm {
+        /**
+         * Called on the queue thread. Makes the queue call {@link #onAlarm} on its thread at
+         * {@code uptimeMillis}, replacing the previous alarm, or cancels it if {@link #NO_ALARM}.
+         */
+        void set(long uptimeMillis);
+    }
+
+    private static final int SCHEDULED = 0;
+    private static final int POSTED = 1;
+    private static final int CANCELLED = 2;
+
+    private class Timer extends TimingWheel.Entry implements MessageQueueThread.Cancellable {
+        final Runnable mRunnable;
+        final AtomicInteger mState = new AtomicInteger(SCHEDULED);
+
+        Timer(Runnable runnable, long tick) {
+            super(tick);
+            mRunnable = runnable;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!mState.compareAndSet(SCHEDULED, CANCELLED)) {
+                return false;
+            }
+            // Taken out of the wheel with the next update, there's no need to wake the queue up
+            mPending.add(this);
+            return true;
+        }
+    }
+
+    private final MessageQueueThread mQueueThread;
+    private final Alarm mAlarm;
+    // New and cancelled timers, for the queue thread to add to or remove from the wheel
+    private final ConcurrentLinkedQueue<Timer> mPending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean mIsUpdatePosted = new AtomicBoolean();
+    private final Runnable mUpdate = new Runnable() {
+        @Override
+        public void run() {
+            update();
+        }
+    };
+    // Queue thread only
+    private final TimingWheel mWheel = new TimingWheel(uptimeMillis());
+    private final List<TimingWheel.Entry> mExpired = new ArrayList<>();
+    // Written by the queue thread only
+    private volatile long mAlarmUptimeMillis = NO_ALARM;
+
+    QueueTimers(MessageQueueThread queueThread, Alarm alarm) {
+        mQueueThread = queueThread;
+        mAlarm = alarm;
+    }
+
+    /**
+     * @return the time in the clock of {@link android.os.SystemClock#uptimeMillis}. On Android
+     * {@link System#nanoTime} reads the same monotonic clock, and it also works on a host JVM.
+     */
+    static long uptimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * Posts {@code runnable} to the queue between {@code deadlineUptimeMillis} and
+     * {@code slackMs} later. Can be called from any thread.
+     */
+    MessageQueueThread.Cancellable schedule(
+            Runnable runnable,
+            long deadlineUptimeMillis,
+            long slackMs) {
+        if (slackMs < 0) {
+            throw new IllegalArgumentException("Slack must not be negative: " + slackMs);
+        }
+        long granularity = Long.highestOneBit(slackMs + 1);
+        long tick = (deadlineUptimeMillis + granularity - 1) / granularity * granularity;
+        Timer timer = new Timer(runnable, tick);
+        mPending.add(timer);
+        if (mQueueThread.isOnThread()) {
+            update();
+        } else if (tick < mAlarmUptimeMillis && mIsUpdatePosted.compareAndSet(false, true)) {
+            mQueueThread.runOnQueue(mUpdate, MessageQueueThread.Priority.IMMEDIATE);
+        }
+        return timer;
+    }
+
+    /**
+     * Called by the queue, on its thread, when the alarm goes off.
+     */
+    void onAlarm() {
+        update();
+    }
+
+    private void update() {
+        mIsUpdatePosted.set(false);
+        do {
+            Timer timer;
+            while ((timer = mPending.poll()) != null) {
+                if (timer.mState.get() == CANCELLED) {
+                    mWheel.remove(timer);
+                } else if (!timer.isInWheel()) {
+                    mWheel.add(timer);
+                }
+            }
+            mWheel.advance(uptimeMillis(), mExpired);
+            for (int i = 0; i < mExpired.size(); i++) {
+                Timer expired = (Timer) mExpired.get(i);
+                if (expired.mState.compareAndSet(SCHEDULED, POSTED)) {
+                    mQueueThread.runOnQueue(expired.mRunnable);
+                }
+            }
+            mExpired.clear();
+            long alarmUptimeMillis = mWheel.nextExpiryTick();
+            if (alarmUptimeMillis != mAlarmUptimeMillis) {
+                mAlarmUptimeMillis = alarmUptimeMillis;
+                mAlarm.set(alarmUptimeMillis);
+            }
+            // Other threads check the alarm after adding their timer, either they saw the new alarm
+            // or their timer is seen here
+        } while (!mPending.isEmpty());
+    }
+}
@@ -7,6 +7,9 @@
 
 package com.sanyinchen.jsbridge.queue;
 
+import com.sanyinchen.jsbridge.annotation.ReactModule;
+
+import java.util.Map;
 
 /**
  * Specifies which {@link MessageQueueThread}s must be used to run the various contexts of
@@ -16,10 +19,39 @@ package com.sanyinchen.jsbridge.queue;
  * UI Queue Thread: The standard Android main UI thread and Looper. Not configurable.
  * Native Modules Queue Thread: The thread and Looper that native modules are invoked on.
  * JS Queue Thread: The thread and Looper that JS is executed on.
+ * Native Module Queue Threads: The queues modules that don't use the native modules queue thread
+ * are invoked on, see {@link ReactModule.ExecutionPolicy}.
  */
 public interface ReactQueueConfiguration {
   MessageQueueThread getUIQueueThread();
   MessageQueueThread getNativeModulesQueueThread();
   MessageQueueThread getJSQueueThread();
+
+  /**
+   * @return the queue calls to the native module {@code moduleName} are run on, given its
+   * execution policy. The same module name always gets the same queue.
+   */
+  MessageQueueThread getNativeModuleQueueThread(
+      String moduleName,
+      ReactModule.ExecutionPolicy executionPolicy);
+
+  /**
+   * @return the queues created so far for native modules that don't use the native modules queue
+   * thread, keyed by module name
+   */
+  Map<String, MessageQueueThread> getNativeModuleQueueThreads();
+
+  /**
+   * @return the bounded pool {@link ReactModule.ExecutionPolicy#POOLED} modules run on, created on
+   * first use. Shut down with the other queues.
+   */
+  MessageQueueThreadPool getNativeModulesPool();
+
+  /**
+   * Lowers the priority of the queue threads adjusted to their load while the host is paused, see
+   * {@link AdaptiveThreadPriority}. Queues that aren't adjusted are left as they are.
+   */
+  void setHostPaused(boolean isHostPaused);
+
   void destroy();
 }
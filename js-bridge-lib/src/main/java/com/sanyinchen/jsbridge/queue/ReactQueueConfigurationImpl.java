@@ -8,24 +8,61 @@
 package com.sanyinchen.jsbridge.queue;
 
 import android.os.Looper;
+import android.os.Process;
 
+import com.sanyinchen.jsbridge.annotation.ReactModule;
+import com.sanyinchen.jsbridge.config.ReactFeatureFlags;
 import com.sanyinchen.jsbridge.data.MapBuilder;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
 public class ReactQueueConfigurationImpl implements ReactQueueConfiguration {
 
   private final MessageQueueThreadImpl mUIQueueThread;
-  private final MessageQueueThreadImpl mNativeModulesQueueThread;
-  private final MessageQueueThreadImpl mJSQueueThread;
+  private final MessageQueueThread mNativeModulesQueueThread;
+  private final MessageQueueThread mJSQueueThread;
+  private final long mNativeModulesStackSize;
+  private final MessageQueueThreadSpec mNativeModulesPoolSpec;
+  private final QueueThreadExceptionHandler mExceptionHandler;
+  private final @Nullable QueueStallWatchdog mStallWatchdog;
+  private final @Nullable SharedQueueThreadPools mSharedQueueThreadPools;
+  // Tells the queues of this instance apart from the other instances' on the shared pools
+  private final String mQueueNameSuffix;
+  private final List<AdaptiveThreadPriority> mAdaptiveThreadPriorities;
+  // Created on demand, most apps only have modules using the native modules queue thread
+  @GuardedBy("this")
+  private final Map<String, MessageQueueThread> mNativeModuleQueueThreads = MapBuilder.newHashMap();
+  @GuardedBy("this")
+  private @Nullable MessageQueueThreadPool mNativeModulesPool;
+  @GuardedBy("this")
+  private boolean mIsDestroyed;
 
   private ReactQueueConfigurationImpl(
       MessageQueueThreadImpl uiQueueThread,
-      MessageQueueThreadImpl nativeModulesQueueThread,
-      MessageQueueThreadImpl jsQueueThread) {
+      MessageQueueThread nativeModulesQueueThread,
+      MessageQueueThread jsQueueThread,
+      long nativeModulesStackSize,
+      MessageQueueThreadSpec nativeModulesPoolSpec,
+      QueueThreadExceptionHandler exceptionHandler,
+      @Nullable QueueStallWatchdog stallWatchdog,
+      @Nullable SharedQueueThreadPools sharedQueueThreadPools,
+      String queueNameSuffix,
+      List<AdaptiveThreadPriority> adaptiveThreadPriorities) {
     mUIQueueThread = uiQueueThread;
     mNativeModulesQueueThread = nativeModulesQueueThread;
     mJSQueueThread = jsQueueThread;
+    mNativeModulesStackSize = nativeModulesStackSize;
+    mNativeModulesPoolSpec = nativeModulesPoolSpec;
+    mExceptionHandler = exceptionHandler;
+    mStallWatchdog = stallWatchdog;
+    mSharedQueueThreadPools = sharedQueueThreadPools;
+    mQueueNameSuffix = queueNameSuffix;
+    mAdaptiveThreadPriorities = adaptiveThreadPriorities;
   }
 
   @Override
@@ -43,15 +80,98 @@ public class ReactQueueConfigurationImpl implements ReactQueueConfiguration {
     return mJSQueueThread;
   }
 
+  @Override
+  public synchronized MessageQueueThread getNativeModuleQueueThread(
+      String moduleName,
+      ReactModule.ExecutionPolicy executionPolicy) {
+    if (executionPolicy == ReactModule.ExecutionPolicy.SHARED || mIsDestroyed) {
+      return mNativeModulesQueueThread;
+    }
+    MessageQueueThread queueThread = mNativeModuleQueueThreads.get(moduleName);
+    if (queueThread != null) {
+      return queueThread;
+    }
+    switch (executionPolicy) {
+      case DEDICATED:
+        queueThread = MessageQueueThreadImpl.create(
+            MessageQueueThreadSpec.newBackgroundThreadSpec(
+                "native_module_" + moduleName,
+                mNativeModulesStackSize),
+            mExceptionHandler);
+        break;
+      case POOLED:
+        queueThread = getNativeModulesPool().createSerialQueue(
+            "native_module_" + moduleName + mQueueNameSuffix,
+            mExceptionHandler);
+        break;
+      default:
+        throw new RuntimeException("Unknown execution policy: " + executionPolicy);
+    }
+    mNativeModuleQueueThreads.put(moduleName, queueThread);
+    if (mStallWatchdog != null) {
+      mStallWatchdog.watch("native_module_" + moduleName + mQueueNameSuffix, queueThread);
+    }
+    return queueThread;
+  }
+
+  @Override
+  public synchronized MessageQueueThreadPool getNativeModulesPool() {
+    if (mSharedQueueThreadPools != null) {
+      return mSharedQueueThreadPools.getNativeModulesPool();
+    }
+    if (mNativeModulesPool == null) {
+      mNativeModulesPool = MessageQueueThreadPool.create(mNativeModulesPoolSpec, mExceptionHandler);
+    }
+    return mNativeModulesPool;
+  }
+
+  @Override
+  public synchronized Map<String, MessageQueueThread> getNativeModuleQueueThreads() {
+    Map<String, MessageQueueThread> queueThreads = MapBuilder.newHashMap();
+    queueThreads.putAll(mNativeModuleQueueThreads);
+    return queueThreads;
+  }
+
+  @Override
+  public void setHostPaused(boolean isHostPaused) {
+    for (AdaptiveThreadPriority adaptiveThreadPriority : mAdaptiveThreadPriorities) {
+      adaptiveThreadPriority.setHostPaused(isHostPaused);
+    }
+  }
+
   /**
    * Should be called when the corresponding {@link com.facebook.react.bridge.CatalystInstance}
-   * is destroyed so that we shut down the proper queue threads.
+   * is destroyed so that we shut down the proper queue threads. The shared pools, if any, keep
+   * running for the other instances.
    */
   public void destroy() {
-    if (mNativeModulesQueueThread.getLooper() != Looper.getMainLooper()) {
+    List<MessageQueueThread> nativeModuleQueueThreads;
+    MessageQueueThreadPool nativeModulesPool;
+    synchronized (this) {
+      mIsDestroyed = true;
+      nativeModuleQueueThreads = new ArrayList<>(mNativeModuleQueueThreads.values());
+      mNativeModuleQueueThreads.clear();
+      nativeModulesPool = mNativeModulesPool;
+      mNativeModulesPool = null;
+    }
+    if (mStallWatchdog != null) {
+      mStallWatchdog.unwatch(mUIQueueThread);
+      mStallWatchdog.unwatch(mNativeModulesQueueThread);
+      mStallWatchdog.unwatch(mJSQueueThread);
+      for (MessageQueueThread queueThread : nativeModuleQueueThreads) {
+        mStallWatchdog.unwatch(queueThread);
+      }
+    }
+    for (MessageQueueThread queueThread : nativeModuleQueueThreads) {
+      queueThread.quitSynchronous();
+    }
+    if (nativeModulesPool != null) {
+      nativeModulesPool.shutdownSynchronous();
+    }
+    if (mNativeModulesQueueThread != mUIQueueThread) {
       mNativeModulesQueueThread.quitSynchronous();
     }
-    if (mJSQueueThread.getLooper() != Looper.getMainLooper()) {
+    if (mJSQueueThread != mUIQueueThread) {
       mJSQueueThread.quitSynchronous();
     }
   }
@@ -59,28 +179,104 @@ public class ReactQueueConfigurationImpl implements ReactQueueConfiguration {
   public static ReactQueueConfigurationImpl create(
       ReactQueueConfigurationSpec spec,
       QueueThreadExceptionHandler exceptionHandler) {
-    Map<MessageQueueThreadSpec, MessageQueueThreadImpl> specsToThreads = MapBuilder.newHashMap();
+    Map<MessageQueueThreadSpec, MessageQueueThread> specsToThreads = MapBuilder.newHashMap();
 
     MessageQueueThreadSpec uiThreadSpec = MessageQueueThreadSpec.mainThreadSpec();
     MessageQueueThreadImpl uiThread =
       MessageQueueThreadImpl.create(uiThreadSpec, exceptionHandler);
     specsToThreads.put(uiThreadSpec, uiThread);
 
-    MessageQueueThreadImpl jsThread = specsToThreads.get(spec.getJSQueueThreadSpec());
+    SharedQueueThreadPools sharedPools = spec.getSharedQueueThreadPools();
+    String queueNameSuffix = sharedPools != null ? sharedPools.nextInstanceSuffix() : "";
+
+    MessageQueueThread jsThread = specsToThreads.get(spec.getJSQueueThreadSpec());
     if (jsThread == null) {
-      jsThread = MessageQueueThreadImpl.create(spec.getJSQueueThreadSpec(), exceptionHandler);
+      if (sharedPools != null && sharedPools.getJSPool() != null) {
+        jsThread = sharedPools.getJSPool().createSerialQueue(
+            spec.getJSQueueThreadSpec().getName() + queueNameSuffix,
+            exceptionHandler);
+      } else {
+        jsThread = createQueueThread(spec.getJSQueueThreadSpec(), exceptionHandler);
+      }
     }
 
-    MessageQueueThreadImpl nativeModulesThread =
+    MessageQueueThread nativeModulesThread =
         specsToThreads.get(spec.getNativeModulesQueueThreadSpec());
     if (nativeModulesThread == null) {
-      nativeModulesThread =
-          MessageQueueThreadImpl.create(spec.getNativeModulesQueueThreadSpec(), exceptionHandler);
+      if (sharedPools != null) {
+        nativeModulesThread = sharedPools.getNativeModulesPool().createSerialQueue(
+            spec.getNativeModulesQueueThreadSpec().getName() + queueNameSuffix,
+            exceptionHandler);
+      } else {
+        nativeModulesThread =
+            createQueueThread(spec.getNativeModulesQueueThreadSpec(), exceptionHandler);
+      }
+    }
+
+    List<AdaptiveThreadPriority> adaptiveThreadPriorities = new ArrayList<>();
+    if (ReactFeatureFlags.useAdaptiveQueueThreadPriority) {
+      addAdaptiveThreadPriority(jsThread, adaptiveThreadPriorities);
+      if (nativeModulesThread != jsThread) {
+        addAdaptiveThreadPriority(nativeModulesThread, adaptiveThreadPriorities);
+      }
+    }
+
+    QueueStallWatchdog stallWatchdog = spec.getStallWatchdog();
+    if (stallWatchdog != null) {
+      stallWatchdog.watch(uiThreadSpec.getName(), uiThread);
+      stallWatchdog.watch(
+          spec.getNativeModulesQueueThreadSpec().getName() + queueNameSuffix,
+          nativeModulesThread);
+      stallWatchdog.watch(spec.getJSQueueThreadSpec().getName() + queueNameSuffix, jsThread);
     }
 
     return new ReactQueueConfigurationImpl(
       uiThread,
       nativeModulesThread,
-      jsThread);
+      jsThread,
+      spec.getNativeModulesQueueThreadSpec().getStackSize(),
+      spec.getNativeModulesPoolSpec(),
+      exceptionHandler,
+      stallWatchdog,
+      sharedPools,
+      queueNameSuffix,
+      adaptiveThreadPriorities);
+  }
+
+  /**
+   * Only queues with a thread of their own are adjusted: the UI thread isn't ours to change, and
+   * the threads of a pool run the Runnables of several queues.
+   */
+  private static void addAdaptiveThreadPriority(
+      MessageQueueThread queueThread,
+      List<AdaptiveThreadPriority> adaptiveThreadPriorities) {
+    AdaptiveThreadPriority adaptiveThreadPriority = new AdaptiveThreadPriority(queueThread);
+    if (queueThread instanceof MessageQueueThreadImpl &&
+        ((MessageQueueThreadImpl) queueThread).getLooper() != Looper.getMainLooper()) {
+      ((MessageQueueThreadImpl) queueThread).setAdaptiveThreadPriority(adaptiveThreadPriority);
+    } else if (queueThread instanceof RingBufferMessageQueueThread) {
+      ((RingBufferMessageQueueThread) queueThread).setAdaptiveThreadPriority(adaptiveThreadPriority);
+    } else {
+      return;
+    }
+    adaptiveThreadPriorities.add(adaptiveThreadPriority);
+  }
+
+  private static MessageQueueThread createQueueThread(
+      MessageQueueThreadSpec spec,
+      QueueThreadExceptionHandler exceptionHandler) {
+    if (spec.getThreadType() != MessageQueueThreadSpec.ThreadType.NEW_BACKGROUND_RING_BUFFER) {
+      return MessageQueueThreadImpl.create(spec, exceptionHandler);
+    }
+    return RingBufferMessageQueueThread.start(
+        spec.getName(),
+        spec.getStackSize(),
+        exceptionHandler,
+        new Runnable() {
+          @Override
+          public void run() {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
+          }
+        });
   }
 }
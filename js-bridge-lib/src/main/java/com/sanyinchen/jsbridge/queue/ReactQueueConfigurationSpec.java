@@ -24,14 +24,25 @@ public class ReactQueueConfigurationSpec {
 
   private static final long LEGACY_STACK_SIZE_BYTES = 2000000;
 
+  private static final int MAX_NATIVE_MODULES_POOL_SIZE = 4;
+
   private final MessageQueueThreadSpec mNativeModulesQueueThreadSpec;
   private final MessageQueueThreadSpec mJSQueueThreadSpec;
+  private final MessageQueueThreadSpec mNativeModulesPoolSpec;
+  private final @Nullable QueueStallWatchdog mStallWatchdog;
+  private final @Nullable SharedQueueThreadPools mSharedQueueThreadPools;
 
   private ReactQueueConfigurationSpec(
     MessageQueueThreadSpec nativeModulesQueueThreadSpec,
-    MessageQueueThreadSpec jsQueueThreadSpec) {
+    MessageQueueThreadSpec jsQueueThreadSpec,
+    MessageQueueThreadSpec nativeModulesPoolSpec,
+    @Nullable QueueStallWatchdog stallWatchdog,
+    @Nullable SharedQueueThreadPools sharedQueueThreadPools) {
     mNativeModulesQueueThreadSpec = nativeModulesQueueThreadSpec;
     mJSQueueThreadSpec = jsQueueThreadSpec;
+    mNativeModulesPoolSpec = nativeModulesPoolSpec;
+    mStallWatchdog = stallWatchdog;
+    mSharedQueueThreadPools = sharedQueueThreadPools;
   }
 
   public MessageQueueThreadSpec getNativeModulesQueueThreadSpec() {
@@ -42,26 +53,81 @@ public class ReactQueueConfigurationSpec {
     return mJSQueueThreadSpec;
   }
 
+  /**
+   * @return the spec of the pool {@link com.sanyinchen.jsbridge.annotation.ReactModule.ExecutionPolicy#POOLED}
+   * modules run on. Modules with a {@code DEDICATED} policy get threads with the same stack size
+   * as the native modules queue thread.
+   */
+  public MessageQueueThreadSpec getNativeModulesPoolSpec() {
+    return mNativeModulesPoolSpec;
+  }
+
+  /**
+   * @return the watchdog every queue of the configuration is watched by, or null if stalls aren't
+   * watched
+   */
+  public @Nullable QueueStallWatchdog getStallWatchdog() {
+    return mStallWatchdog;
+  }
+
+  /**
+   * @return the pools the native modules and JS queues are multiplexed on, or null if the
+   * configuration starts threads of its own
+   */
+  public @Nullable SharedQueueThreadPools getSharedQueueThreadPools() {
+    return mSharedQueueThreadPools;
+  }
+
   public static Builder builder() {
     return new Builder();
   }
 
   public static ReactQueueConfigurationSpec createDefault() {
+    return createDefault(null);
+  }
+
+  public static ReactQueueConfigurationSpec createDefault(
+      @Nullable QueueStallWatchdog stallWatchdog) {
+    return createDefault(stallWatchdog, null);
+  }
+
+  public static ReactQueueConfigurationSpec createDefault(
+      @Nullable QueueStallWatchdog stallWatchdog,
+      @Nullable SharedQueueThreadPools sharedQueueThreadPools) {
     MessageQueueThreadSpec spec = Build.VERSION.SDK_INT < 21 ?
         MessageQueueThreadSpec.newBackgroundThreadSpec("native_modules", LEGACY_STACK_SIZE_BYTES) :
         MessageQueueThreadSpec.newBackgroundThreadSpec("native_modules");
     return builder()
         .setJSQueueThreadSpec(MessageQueueThreadSpec.newBackgroundThreadSpec("js"))
         .setNativeModulesQueueThreadSpec(spec)
+        .setNativeModulesPoolSpec(createDefaultNativeModulesPoolSpec())
+        .setStallWatchdog(stallWatchdog)
+        .setSharedQueueThreadPools(sharedQueueThreadPools)
         .build();
   }
 
+  private static MessageQueueThreadSpec createDefaultNativeModulesPoolSpec() {
+    int poolSize = Math.max(
+        1,
+        Math.min(MAX_NATIVE_MODULES_POOL_SIZE, Runtime.getRuntime().availableProcessors() - 1));
+    return Build.VERSION.SDK_INT < 21 ?
+        MessageQueueThreadSpec.newBackgroundPoolSpec(
+            "native_modules_pool", poolSize, LEGACY_STACK_SIZE_BYTES) :
+        MessageQueueThreadSpec.newBackgroundPoolSpec("native_modules_pool", poolSize);
+  }
+
   public static class Builder {
 
     private @Nullable
     MessageQueueThreadSpec mNativeModulesQueueSpec;
     private @Nullable
     MessageQueueThreadSpec mJSQueueSpec;
+    private @Nullable
+    MessageQueueThreadSpec mNativeModulesPoolSpec;
+    private @Nullable
+    QueueStallWatchdog mStallWatchdog;
+    private @Nullable
+    SharedQueueThreadPools mSharedQueueThreadPools;
 
     public Builder setNativeModulesQueueThreadSpec(MessageQueueThreadSpec spec) {
       Assertions.assertCondition(
@@ -77,10 +143,52 @@ public class ReactQueueConfigurationSpec {
       return this;
     }
 
+    /**
+     * Optional, a default pool sized after the number of CPUs is used if not set.
+     */
+    public Builder setNativeModulesPoolSpec(MessageQueueThreadSpec spec) {
+      Assertions.assertCondition(
+        mNativeModulesPoolSpec == null,
+        "Setting native modules pool spec multiple times!");
+      Assertions.assertCondition(
+        spec.getThreadType() == MessageQueueThreadSpec.ThreadType.NEW_BACKGROUND_POOL,
+        "Native modules pool spec must be a pool spec");
+      mNativeModulesPoolSpec = spec;
+      return this;
+    }
+
+    /**
+     * Optional, stalls aren't watched if not set.
+     */
+    public Builder setStallWatchdog(@Nullable QueueStallWatchdog stallWatchdog) {
+      Assertions.assertCondition(mStallWatchdog == null, "Setting stall watchdog multiple times!");
+      mStallWatchdog = stallWatchdog;
+      return this;
+    }
+
+    /**
+     * Optional, the native modules and JS queues get threads of their own if not set. If set, the
+     * native modules queue and the pooled modules run on the shared native modules pool instead
+     * of {@link #setNativeModulesPoolSpec}, and the JS queue runs on the shared JS pool if there
+     * is one. The other specs only give the names of the queues then.
+     */
+    public Builder setSharedQueueThreadPools(
+        @Nullable SharedQueueThreadPools sharedQueueThreadPools) {
+      Assertions.assertCondition(
+        mSharedQueueThreadPools == null,
+        "Setting shared queue thread pools multiple times!");
+      mSharedQueueThreadPools = sharedQueueThreadPools;
+      return this;
+    }
+
     public ReactQueueConfigurationSpec build() {
       return new ReactQueueConfigurationSpec(
         Assertions.assertNotNull(mNativeModulesQueueSpec),
-        Assertions.assertNotNull(mJSQueueSpec));
+        Assertions.assertNotNull(mJSQueueSpec),
+        mNativeModulesPoolSpec != null ?
+          mNativeModulesPoolSpec : createDefaultNativeModulesPoolSpec(),
+        mStallWatchdog,
+        mSharedQueueThreadPools);
     }
   }
 }
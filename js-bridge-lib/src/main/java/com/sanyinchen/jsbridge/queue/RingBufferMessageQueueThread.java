@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import javax.annotation.Nullable;
+
+import com.facebook.jni.annotations.DoNotStrip;
+import com.sanyinchen.jsbridge.common.futures.SimpleSettableFuture;
+import com.sanyinchen.jsbridge.utils.SoftAssertions;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link MessageQueueThread} running on a dedicated Thread that takes its Runnables from
+ * lock-free {@link MpscRunnableQueue}s instead of a {@link android.os.Looper}. Posting doesn't
+ * allocate a {@link android.os.Message} or take a lock, and the thread parks when the queue is
+ * empty and is unparked by the next post.
+ *
+ * Only plain Java APIs are used, so it also runs on a host JVM. Platform specific setup, like the
+ * thread priority, is done by the {@code onThreadStart} Runnable given to {@link #start}.
+ */
+@DoNotStrip
+public class RingBufferMessageQueueThread implements MessageQueueThread {
+
+    private final String mName;
+    private final String mAssertionErrorMessage;
+    private final QueueThreadExceptionHandler mExceptionHandler;
+    private final PriorityRunnableQueue mQueue = new PriorityRunnableQueue();
+    private final MessageQueueThreadPerfStats mPerfStats = new MessageQueueThreadPerfStats();
+    private final Thread mThread;
+    private volatile boolean mIsParked;
+    private volatile boolean mIsFinished;
+    private volatile @Nullable AdaptiveThreadPriority mAdaptiveThreadPriority;
+    // Queue thread only, the thread parks until then when it has nothing to run
+    private long mAlarmUptimeMillis = QueueTimers.NO_ALARM;
+    private final QueueTimers mTimers = new QueueTimers(
+            this,
+            new QueueTimers.Alarm() {
+                @Override
+                public void set(long uptimeMillis) {
+                    mAlarmUptimeMillis = uptimeMillis;
+                }
+            });
+
+    private RingBufferMessageQueueThread(
+            String name,
+            long stackSize,
+            QueueThreadExceptionHandler exceptionHandler,
+            final @Nullable Runnable onThreadStart) {
+        mName = name;
+        mAssertionErrorMessage = "Expected to be called from the '" + name + "' thread!";
+        mExceptionHandler = exceptionHandler;
+        mThread = new Thread(
+                null,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        if (onThreadStart != null) {
+                            onThreadStart.run();
+                        }
+                        loop();
+                    }
+                },
+                "mqt_" + name,
+                stackSize);
+    }
+
+    /**
+     * Creates and starts the thread. It's ready to receive Runnables when this method returns.
+     *
+     * @param onThreadStart run on the new thread before anything else, may be null
+     */
+    public static RingBufferMessageQueueThread start(
+            String name,
+            long stackSize,
+            QueueThreadExceptionHandler exceptionHandler,
+            @Nullable Runnable onThreadStart) {
+        RingBufferMessageQueueThread queueThread =
+                new RingBufferMessageQueueThread(name, stackSize, exceptionHandler, onThreadStart);
+        queueThread.resetPerfStats();
+        queueThread.mThread.start();
+        return queueThread;
+    }
+
+    private void loop() {
+        while (!mIsFinished) {
+            if (mAlarmUptimeMillis != QueueTimers.NO_ALARM &&
+                    QueueTimers.uptimeMillis() >= mAlarmUptimeMillis) {
+                mAlarmUptimeMillis = QueueTimers.NO_ALARM;
+                mTimers.onAlarm();
+            }
+            Runnable runnable = mQueue.poll();
+            if (runnable == null) {
+                park();
+                continue;
+            }
+            long startNanos = System.nanoTime();
+            long postedAtNanos = mQueue.getPolledOfferedAtNanos();
+            mPerfStats.onStarted(startNanos, postedAtNanos);
+            AdaptiveThreadPriority adaptiveThreadPriority = mAdaptiveThreadPriority;
+            if (adaptiveThreadPriority != null) {
+                adaptiveThreadPriority.onStarted(startNanos - postedAtNanos);
+            }
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                // An Error would otherwise end the thread without a word, leaving every later
+                // Runnable waiting. The handler takes Exceptions, so it gets the Error wrapped.
+                mExceptionHandler.handleException(
+                        t instanceof Exception ? (Exception) t : new RuntimeException(t));
+            } finally {
+                mPerfStats.onFinished(System.nanoTime() - startNanos);
+                if (adaptiveThreadPriority != null) {
+                    adaptiveThreadPriority.onFinished();
+                }
+            }
+        }
+        // Like a quit Looper, drop whatever is left
+        mPerfStats.onDropped(mQueue.clear());
+    }
+
+    private void park() {
+        mIsParked = true;
+        // Producers check mIsParked after publishing, so re-check the queue before sleeping
+        if (mQueue.isEmpty() && !mIsFinished) {
+            if (mAlarmUptimeMillis == QueueTimers.NO_ALARM) {
+                LockSupport.park(this);
+            } else {
+                long delayMillis = mAlarmUptimeMillis - QueueTimers.uptimeMillis();
+                if (delayMillis > 0) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(delayMillis));
+                }
+            }
+        }
+        mIsParked = false;
+    }
+
+    /**
+     * Runs the given Runnable on this Thread. It will be submitted to the end of the event queue even
+     * if it is being submitted from the same queue Thread.
+     */
+    @DoNotStrip
+    @Override
+    public void runOnQueue(Runnable runnable) {
+        runOnQueue(runnable, Priority.NORMAL);
+    }
+
+    @DoNotStrip
+    @Override
+    public void runOnQueue(Runnable runnable, Priority priority) {
+        if (mIsFinished) {
+            return;
+        }
+        mPerfStats.onPosted();
+        mQueue.offer(runnable, priority);
+        if (mIsParked) {
+            LockSupport.unpark(mThread);
+        }
+    }
+
+    @Override
+    public Cancellable runOnQueueDelayed(Runnable runnable, long delayMs) {
+        return runAtDeadline(runnable, QueueTimers.uptimeMillis() + delayMs, DEFAULT_TIMER_SLACK_MS);
+    }
+
+    @Override
+    public Cancellable runAtDeadline(Runnable runnable, long deadlineUptimeMillis, long slackMs) {
+        return mTimers.schedule(runnable, deadlineUptimeMillis, slackMs);
+    }
+
+    @DoNotStrip
+    @Override
+    public <T> SimpleSettableFuture<T> callOnQueue(final Callable<T> callable) {
+        final SimpleSettableFuture<T> future = new SimpleSettableFuture<>();
+        runOnQueue(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            future.set(callable.call());
+                        } catch (Exception e) {
+                            future.setException(e);
+                        }
+                    }
+                });
+        return future;
+    }
+
+    @DoNotStrip
+    @Override
+    public boolean isOnThread() {
+        return mThread == Thread.currentThread();
+    }
+
+    @DoNotStrip
+    @Override
+    public void assertIsOnThread() {
+        SoftAssertions.assertCondition(isOnThread(), mAssertionErrorMessage);
+    }
+
+    @DoNotStrip
+    @Override
+    public void assertIsOnThread(String message) {
+        SoftAssertions.assertCondition(
+                isOnThread(),
+                new StringBuilder().append(mAssertionErrorMessage).append(" ").append(message).toString());
+    }
+
+    /**
+     * Stops the thread after the Runnable being run, dropping the ones that haven't started yet. If
+     * called from a different Thread, also waits for the thread to die.
+     */
+    @DoNotStrip
+    @Override
+    public void quitSynchronous() {
+        mIsFinished = true;
+        LockSupport.unpark(mThread);
+        if (!isOnThread()) {
+            try {
+                mThread.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException("Got interrupted waiting to join thread " + mName);
+            }
+        }
+    }
+
+    @DoNotStrip
+    @Override
+    public MessageQueueThreadPerfStats getPerfStats() {
+        return mPerfStats;
+    }
+
+    /**
+     * The wall time uses the same monotonic clock as {@link android.os.SystemClock#uptimeMillis}
+     * on Android. The thread CPU time isn't available from plain Java and is left at -1.
+     */
+    @DoNotStrip
+    @Override
+    public void resetPerfStats() {
+        mPerfStats.wallTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        mPerfStats.cpuTime = -1;
+        mPerfStats.resetCounters();
+    }
+
+    /**
+     * Adjusts the priority of the thread to the load of the queue from the next Runnable on, see
+     * {@link AdaptiveThreadPriority}. Null keeps the priority as it is.
+     */
+    public void setAdaptiveThreadPriority(@Nullable AdaptiveThreadPriority adaptiveThreadPriority) {
+        mAdaptiveThreadPriority = adaptiveThreadPriority;
+    }
+
+    public String getName() {
+        return mName;
+    }
+}
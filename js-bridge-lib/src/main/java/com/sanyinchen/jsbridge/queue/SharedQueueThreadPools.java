@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Thread pools several bridge instances run their queues on instead of starting threads of their
+ * own, see {@link ReactQueueConfigurationSpec.Builder#setSharedQueueThreadPools}. Each instance
+ * gets its own serial queues on the pools, so its calls still run one at a time and in order, and
+ * its exceptions still go to its own handler.
+ *
+ * The native modules queue and the pooled modules of every instance share the native modules
+ * pool. The JS queues share the JS pool if there is one, otherwise each instance keeps its JS
+ * thread. The JS thread runs deeply recursive code, give the JS pool spec a large enough stack.
+ *
+ * The pools belong to whoever created them: destroying an instance only quits its queues, call
+ * {@link #shutdownSynchronous} once no instance uses them anymore.
+ */
+public class SharedQueueThreadPools {
+
+  private final MessageQueueThreadPool mNativeModulesPool;
+  private final @Nullable MessageQueueThreadPool mJSPool;
+  private final AtomicInteger mInstanceCount = new AtomicInteger();
+
+  private SharedQueueThreadPools(
+      MessageQueueThreadPool nativeModulesPool,
+      @Nullable MessageQueueThreadPool jsPool) {
+    mNativeModulesPool = nativeModulesPool;
+    mJSPool = jsPool;
+  }
+
+  /**
+   * @param nativeModulesPoolSpec a {@link MessageQueueThreadSpec#newBackgroundPoolSpec} spec
+   * @param jsPoolSpec a {@link MessageQueueThreadSpec#newBackgroundPoolSpec} spec, or null to keep
+   * a JS thread per instance
+   */
+  public static SharedQueueThreadPools create(
+      MessageQueueThreadSpec nativeModulesPoolSpec,
+      @Nullable MessageQueueThreadSpec jsPoolSpec) {
+    // Every queue is created with the handler of its instance, this one is never called
+    QueueThreadExceptionHandler exceptionHandler = new QueueThreadExceptionHandler() {
+      @Override
+      public void handleException(Exception e) {
+        throw new RuntimeException(e);
+      }
+    };
+    return new SharedQueueThreadPools(
+        MessageQueueThreadPool.create(nativeModulesPoolSpec, exceptionHandler),
+        jsPoolSpec != null ? MessageQueueThreadPool.create(jsPoolSpec, exceptionHandler) : null);
+  }
+
+  public MessageQueueThreadPool getNativeModulesPool() {
+    return mNativeModulesPool;
+  }
+
+  public @Nullable MessageQueueThreadPool getJSPool() {
+    return mJSPool;
+  }
+
+  /**
+   * @return a suffix that keeps the queue names of an instance apart from the other instances'
+   */
+  String nextInstanceSuffix() {
+    return "_" + mInstanceCount.incrementAndGet();
+  }
+
+  /**
+   * Stops the pools, dropping the Runnables that haven't started yet, and waits for the running
+   * ones to return. The instances using the pools must be destroyed first.
+   */
+  public void shutdownSynchronous() {
+    mNativeModulesPool.shutdownSynchronous();
+    if (mJSPool != null) {
+      mJSPool.shutdownSynchronous();
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel: {@link #LEVELS} wheels of {@link #SLOTS} slots, each slot of a
+ * level covering as many ticks as the whole level below. Entries are added to the lowest level
+ * whose range covers them and move down a level when the wheel reaches their slot, so adding,
+ * removing and expiring an entry take constant time whatever the number of entries. Entries
+ * further than the range of the top level are kept in its last slot until they are in range.
+ *
+ * Not thread safe, {@link QueueTimers} only uses it on its queue thread.
+ */
+class TimingWheel {
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 4;
+    static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long RANGE = 1L << (SLOT_BITS * LEVELS);
+
+    /**
+     * An entry of the wheel, expiring at {@link #mExpiryTick}. Linked in at most one slot.
+     */
+    static class Entry {
+        final long mExpiryTick;
+        // The tick the entry is filed at, before mExpiryTick if it was out of range when added
+        long mWheelTick;
+        @Nullable Entry mPrevious;
+        @Nullable Entry mNext;
+        // -1 when not in the wheel
+        int mLevel = -1;
+        int mSlot;
+
+        Entry(long expiryTick) {
+            mExpiryTick = expiryTick;
+        }
+
+        boolean isInWheel() {
+            return mLevel >= 0;
+        }
+    }
+
+    private final Entry[][] mSlots = new Entry[LEVELS][SLOTS];
+    private final int[] mLevelSizes = new int[LEVELS];
+    private int mSize;
+    // The next tick to expire, every tick before it has been expired
+    private long mCurrentTick;
+
+    TimingWheel(long currentTick) {
+        mCurrentTick = currentTick;
+    }
+
+    /**
+     * Adds an entry that isn't in the wheel. An entry whose tick has already been expired expires
+     * with the next tick.
+     */
+    void add(Entry entry) {
+        long expiryTick = Math.max(entry.mExpiryTick, mCurrentTick);
+        long delta = expiryTick - mCurrentTick;
+        if (delta >= RANGE) {
+            // Moved down once the wheel gets there, its real tick is kept in the entry
+            expiryTick = mCurrentTick + RANGE - 1;
+            delta = RANGE - 1;
+        }
+        entry.mWheelTick = expiryTick;
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        link(entry, level, (int) ((expiryTick >> (SLOT_BITS * level)) & SLOT_MASK));
+    }
+
+    /**
+     * Removes an entry, if it's in the wheel.
+     */
+    void remove(Entry entry) {
+        if (!entry.isInWheel()) {
+            return;
+        }
+        if (entry.mPrevious != null) {
+            entry.mPrevious.mNext = entry.mNext;
+        } else {
+            mSlots[entry.mLevel][entry.mSlot] = entry.mNext;
+        }
+        if (entry.mNext != null) {
+            entry.mNext.mPrevious = entry.mPrevious;
+        }
+        mLevelSizes[entry.mLevel]--;
+        mSize--;
+        entry.mPrevious = null;
+        entry.mNext = null;
+        entry.mLevel = -1;
+    }
+
+    /**
+     * Expires every tick up to {@code nowTick} included, removing their entries and adding them to
+     * {@code expired} in tick order. Runs of empty ticks are skipped, up to the next slot of the
+     * lowest level that isn't empty.
+     */
+    void advance(long nowTick, List<Entry> expired) {
+        while (mCurrentTick <= nowTick) {
+            if (mSize == 0) {
+                mCurrentTick = nowTick + 1;
+                return;
+            }
+            Entry entry = unlinkSlot(0, (int) (mCurrentTick & SLOT_MASK));
+            while (entry != null) {
+                Entry next = entry.mNext;
+                entry.mNext = null;
+                expired.add(entry);
+                entry = next;
+            }
+            long nextTick = mCurrentTick + 1;
+            if (mLevelSizes[0] == 0) {
+                int level = 1;
+                while (level < LEVELS - 1 && mLevelSizes[level] == 0) {
+                    level++;
+                }
+                long slotTicks = 1L << (SLOT_BITS * level);
+                long nextSlotTick = (nextTick + slotTicks - 1) & ~(slotTicks - 1);
+                nextTick = Math.min(nextSlotTick, nowTick + 1);
+            }
+            mCurrentTick = nextTick;
+            cascade();
+        }
+    }
+
+    /**
+     * @return the earliest tick an entry expires at, or {@link #NO_EXPIRY} if the wheel is empty.
+     * For an entry out of range when it was added, that's the tick it's filed at, before its own:
+     * filed at the range of the wheel back then, its slot can come before the ones of nearer
+     * entries added since. Advancing to it moves the entry down, or files it further again.
+     */
+    long nextExpiryTick() {
+        if (mSize == 0) {
+            return NO_EXPIRY;
+        }
+        long nextExpiryTick = NO_EXPIRY;
+        for (int level = 0; level < LEVELS; level++) {
+            if (mLevelSizes[level] == 0) {
+                continue;
+            }
+            int currentSlot = (int) ((mCurrentTick >> (SLOT_BITS * level)) & SLOT_MASK);
+            // The slots hold the entries of a level in the order of their filed ticks, the first
+            // one that isn't empty has the earliest. Above level 0, the current slot has already
+            // been moved down and only holds entries a whole turn of the level away, it comes last.
+            int first = level == 0 ? 0 : 1;
+            for (int i = first; i < first + SLOTS; i++) {
+                Entry entry = mSlots[level][(currentSlot + i) & SLOT_MASK];
+                if (entry == null) {
+                    continue;
+                }
+                for (; entry != null; entry = entry.mNext) {
+                    nextExpiryTick =
+                            Math.min(nextExpiryTick, Math.max(entry.mWheelTick, mCurrentTick));
+                }
+                break;
+            }
+        }
+        return nextExpiryTick;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * Moves down the entries of the slots the current tick starts, highest level first so that
+     * entries moved down more than one level are moved with the level below.
+     */
+    private void cascade() {
+        int top = 0;
+        while (top < LEVELS - 1 &&
+                (mCurrentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            Entry entry =
+                    unlinkSlot(level, (int) ((mCurrentTick >> (SLOT_BITS * level)) & SLOT_MASK));
+            while (entry != null) {
+                Entry next = entry.mNext;
+                entry.mNext = null;
+                add(entry);
+                entry = next;
+            }
+        }
+    }
+
+    private void link(Entry entry, int level, int slot) {
+        Entry head = mSlots[level][slot];
+        entry.mPrevious = null;
+        entry.mNext = head;
+        if (head != null) {
+            head.mPrevious = entry;
+        }
+        mSlots[level][slot] = entry;
+        entry.mLevel = level;
+        entry.mSlot = slot;
+        mLevelSizes[level]++;
+        mSize++;
+    }
+
+    /**
+     * Empties a slot.
+     *
+     * @return its first entry, the others follow through {@link Entry#mNext}. The entries are no
+     * longer in the wheel.
+     */
+    private @Nullable
+    Entry unlinkSlot(int level, int slot) {
+        Entry head = mSlots[level][slot];
+        mSlots[level][slot] = null;
+        for (Entry entry = head; entry != null; entry = entry.mNext) {
+            entry.mPrevious = null;
+            entry.mLevel = -1;
+            mLevelSizes[level]--;
+            mSize--;
+        }
+        return head;
+    }
+}
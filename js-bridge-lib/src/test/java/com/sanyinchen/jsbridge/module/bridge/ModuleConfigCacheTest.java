@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.bridge;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class ModuleConfigCacheTest {
+
+    private static final String CONFIGS =
+            "{\"Log\":[\"Log\",[\"log\"]],\n\"Strings\":[\"Strings\",{\"greeting\":\"h\u00e9llo \u2713\"}]}";
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private File configFile() {
+        return new File(new File(mFolder.getRoot(), "jsbridge_module_config"), "modules.json");
+    }
+
+    private ModuleConfigCache createCache(String key) {
+        return new ModuleConfigCache(configFile(), key, new String[]{"Log", "Strings"});
+    }
+
+    @Test
+    public void loadsNothingBeforeTheFirstSave() {
+        assertNull(createCache("1").load());
+    }
+
+    @Test
+    public void loadsWhatWasSaved() {
+        ModuleConfigCache cache = createCache("1");
+        cache.save(CONFIGS);
+        assertEquals(CONFIGS, cache.load());
+        // As a later launch of the same version would
+        assertEquals(CONFIGS, createCache("1").load());
+        assertArrayEquals(new String[]{"Log", "Strings"}, cache.getCacheableModuleNames());
+    }
+
+    @Test
+    public void ignoresConfigsSavedWithAnotherKey() {
+        createCache("1").save(CONFIGS);
+        ModuleConfigCache cache = createCache("2");
+        assertNull(cache.load());
+
+        cache.save("{}");
+        assertEquals("{}", cache.load());
+        assertNull(createCache("1").load());
+    }
+
+    @Test
+    public void saveReplacesTheWholeFile() {
+        ModuleConfigCache cache = createCache("1");
+        cache.save(CONFIGS);
+        cache.save("{}");
+        assertEquals("{}", cache.load());
+        assertFalse(new File(configFile().getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void partialWriteLeftByACrashIsNotLoaded() throws IOException {
+        ModuleConfigCache cache = createCache("1");
+        cache.save(CONFIGS);
+        // A crash while writing leaves the new configs in the temporary file only
+        File tmpFile = new File(configFile().getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(tmpFile);
+        out.write("1\n{\"Log\":[".getBytes("UTF-8"));
+        out.close();
+        assertEquals(CONFIGS, cache.load());
+
+        cache.save("{}");
+        assertEquals("{}", cache.load());
+        assertFalse(tmpFile.exists());
+    }
+}
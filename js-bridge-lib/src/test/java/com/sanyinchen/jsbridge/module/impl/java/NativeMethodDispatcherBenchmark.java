@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.module.impl.java;
+
+import com.sanyinchen.jsbridge.annotation.ReactMethod;
+import com.sanyinchen.jsbridge.base.Callback;
+import com.sanyinchen.jsbridge.base.JSInstance;
+import com.sanyinchen.jsbridge.data.Dynamic;
+import com.sanyinchen.jsbridge.data.NativeArrayInterface;
+import com.sanyinchen.jsbridge.data.ReadableArray;
+import com.sanyinchen.jsbridge.data.ReadableMap;
+import com.sanyinchen.jsbridge.data.ReadableType;
+import com.sanyinchen.jsbridge.module.bridge.NativeModuleHolder;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares calling a {@link ReactMethod} through its generated {@link NativeMethodDispatcher} with
+ * calling it through {@link JavaMethodWrapper} reflection. Run it with {@link #main} on a host JVM
+ * after the unit tests were compiled, which runs ReactModuleMethodProcessor over
+ * {@link BenchmarkModule}:
+ *
+ * <pre>
+ *   java -cp ... com.sanyinchen.jsbridge.module.impl.java.NativeMethodDispatcherBenchmark
+ * </pre>
+ *
+ * Both paths extract the arguments from the same {@link ReadableArray} and call the same module,
+ * so the difference is the cost of the dispatch itself. Numbers from a host JVM only compare the
+ * two paths, ART's reflection and JIT differ.
+ */
+public class NativeMethodDispatcherBenchmark {
+
+    private static final int CALLS_PER_RUN = 1 << 20;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 15;
+
+    static class BenchmarkModule extends BaseJavaModule {
+
+        long mChecksum;
+
+        @Override
+        public String getName() {
+            return "BenchmarkModule";
+        }
+
+        @ReactMethod
+        public void update(int id, double value, String tag, boolean isFinal) {
+            mChecksum += id + (long) value + tag.length() + (isFinal ? 1 : 0);
+        }
+
+        @ReactMethod
+        public void fetch(String key, Callback callback) {
+            mChecksum += key.length();
+        }
+    }
+
+    private static class Call {
+        final String mName;
+        final ReadableArray mParameters;
+
+        Call(String name, Object... parameters) {
+            mName = name;
+            mParameters = new ListReadableArray(Arrays.asList(parameters));
+        }
+    }
+
+    private interface Invoker {
+        void invoke(Call call);
+    }
+
+    private static final Call[] CALLS = {
+            new Call("update", 7.0, 0.5, "tag", true),
+            new Call("fetch", "key", 1.0),
+    };
+
+    private static final JSInstance JS_INSTANCE = new JSInstance() {
+        @Override
+        public void invokeCallback(int callbackID, NativeArrayInterface arguments) {
+        }
+    };
+
+    public static void main(String[] args) {
+        final BenchmarkModule module = new BenchmarkModule();
+        JavaModuleWrapper moduleWrapper =
+                new JavaModuleWrapper(JS_INSTANCE, new NativeModuleHolder(module));
+
+        final NativeMethodDispatcher dispatcher = NativeMethodDispatchers.find(module.getClass());
+        if (dispatcher == null) {
+            throw new IllegalStateException(
+                    "No dispatcher generated for " + module.getClass().getName() +
+                            ", the annotation processor didn't run over the tests");
+        }
+        final List<String> dispatcherMethodNames = Arrays.asList(dispatcher.getMethodNames());
+
+        final List<String> reflectionMethodNames = new ArrayList<>();
+        final List<JavaMethodWrapper> methodWrappers = new ArrayList<>();
+        for (Method method : BenchmarkModule.class.getDeclaredMethods()) {
+            if (method.getAnnotation(ReactMethod.class) != null) {
+                reflectionMethodNames.add(method.getName());
+                methodWrappers.add(new JavaMethodWrapper(moduleWrapper, method, false));
+            }
+        }
+
+        double reflection = measure(module, new Invoker() {
+            @Override
+            public void invoke(Call call) {
+                methodWrappers.get(reflectionMethodNames.indexOf(call.mName))
+                        .invoke(JS_INSTANCE, call.mParameters);
+            }
+        });
+        double dispatch = measure(module, new Invoker() {
+            @Override
+            public void invoke(Call call) {
+                dispatcher.invoke(
+                        module, JS_INSTANCE, dispatcherMethodNames.indexOf(call.mName), call.mParameters);
+            }
+        });
+        System.out.println(String.format("reflection  %.1f ns/call", reflection));
+        System.out.println(String.format("dispatcher  %.1f ns/call", dispatch));
+    }
+
+    /**
+     * @return the median time of a call, in ns
+     */
+    private static double measure(BenchmarkModule module, Invoker invoker) {
+        long expectedChecksum = 0;
+        double[] nanosPerCall = new double[MEASURED_RUNS];
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            module.mChecksum = 0;
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < CALLS_PER_RUN; i++) {
+                invoker.invoke(CALLS[i & 1]);
+            }
+            long nanos = System.nanoTime() - startNanos;
+            // Checks both paths made the same calls, and keeps them from being optimized away
+            if (run > 0 && module.mChecksum != expectedChecksum) {
+                throw new IllegalStateException("Calls differ between runs");
+            }
+            expectedChecksum = module.mChecksum;
+            if (run >= WARMUP_RUNS) {
+                nanosPerCall[run - WARMUP_RUNS] = (double) nanos / CALLS_PER_RUN;
+            }
+        }
+        Arrays.sort(nanosPerCall);
+        return nanosPerCall[MEASURED_RUNS / 2];
+    }
+
+    /**
+     * The arguments of a call as the bridge hands them over: numbers are doubles.
+     */
+    private static class ListReadableArray implements ReadableArray {
+
+        private final List<Object> mValues;
+
+        ListReadableArray(List<Object> values) {
+            mValues = values;
+        }
+
+        @Override
+        public int size() {
+            return mValues.size();
+        }
+
+        @Override
+        public boolean isNull(int index) {
+            return mValues.get(index) == null;
+        }
+
+        @Override
+        public boolean getBoolean(int index) {
+            return (Boolean) mValues.get(index);
+        }
+
+        @Override
+        public double getDouble(int index) {
+            return (Double) mValues.get(index);
+        }
+
+        @Override
+        public int getInt(int index) {
+            return ((Double) mValues.get(index)).intValue();
+        }
+
+        @Override
+        public String getString(int index) {
+            return (String) mValues.get(index);
+        }
+
+        @Override
+        public ReadableArray getArray(int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadableMap getMap(int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ByteBuffer getByteBuffer(int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Dynamic getDynamic(int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadableType getType(int index) {
+            Object value = mValues.get(index);
+            if (value == null) {
+                return ReadableType.Null;
+            }
+            if (value instanceof Boolean) {
+                return ReadableType.Boolean;
+            }
+            return value instanceof Double ? ReadableType.Number : ReadableType.String;
+        }
+
+        @Override
+        public ArrayList<Object> toArrayList() {
+            return new ArrayList<>(mValues);
+        }
+    }
+}
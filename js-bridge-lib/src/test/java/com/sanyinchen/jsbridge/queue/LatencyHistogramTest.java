@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+    private static final long US = 1000;
+
+    @Test
+    public void emptySnapshotIsZero() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.count);
+        assertEquals(0, snapshot.meanMicros);
+        assertEquals(0, snapshot.p50Micros);
+        assertEquals(0, snapshot.p99Micros);
+        assertEquals(0, snapshot.maxMicros);
+    }
+
+    @Test
+    public void percentilesAreTheUpperBoundOfTheirBucket() {
+        // Bucket i holds [2^(i-1), 2^i) us, so 1us goes to bucket 1 and 5us to bucket 3
+        assertPercentile(1, 0);
+        assertPercentile(1, 999);
+        assertPercentile(2, 1 * US);
+        assertPercentile(2, 1 * US + 999);
+        assertPercentile(4, 2 * US);
+        assertPercentile(8, 5 * US);
+        assertPercentile(8, 7 * US);
+        assertPercentile(16, 8 * US);
+    }
+
+    private static void assertPercentile(long expectedMicros, long nanos) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(nanos);
+        // The second recording only raises the max, so that it doesn't cap the percentile
+        histogram.record(1000 * US);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals("p50 of " + nanos + "ns", expectedMicros, snapshot.p50Micros);
+    }
+
+    @Test
+    public void percentilesAreCappedByTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // In the [512, 1024) us bucket
+        histogram.record(600 * US);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(600, snapshot.p50Micros);
+        assertEquals(600, snapshot.p99Micros);
+        assertEquals(600, snapshot.maxMicros);
+    }
+
+    @Test
+    public void percentilesRankTheRecordings() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(3 * US);
+        }
+        histogram.record(100 * US);
+        histogram.record(5000 * US);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count);
+        assertEquals(4, snapshot.p50Micros);
+        // The 99th recording of 100 is the 100us one, in the [64, 128) us bucket
+        assertEquals(128, snapshot.p99Micros);
+        assertEquals(5000, snapshot.maxMicros);
+        assertEquals((98 * 3 + 100 + 5000) / 100, snapshot.meanMicros);
+    }
+
+    @Test
+    public void clampsOutOfRangeDurations() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.count);
+        assertEquals(0, snapshot.p50Micros);
+        assertEquals(0, snapshot.maxMicros);
+
+        // Longer than the last bucket, it's counted in it
+        histogram.record(Long.MAX_VALUE / 2);
+        snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.count);
+        assertEquals(1L << 31, snapshot.p99Micros);
+    }
+
+    @Test
+    public void resetForgetsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10 * US);
+        histogram.reset();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.count);
+        assertEquals(0, snapshot.maxMicros);
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MessageQueueThreadPerfStatsTest {
+
+    private static final long US = 1000;
+
+    @Test
+    public void tracksDepthAndHighWaterMark() {
+        MessageQueueThreadPerfStats stats = new MessageQueueThreadPerfStats();
+        stats.onPosted();
+        stats.onPosted();
+        stats.onPosted();
+        stats.onStarted(10 * US, 0);
+        stats.onFinished(1 * US);
+
+        MessageQueueThreadPerfStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(2, snapshot.depth);
+        assertEquals(3, snapshot.highWaterMark);
+        assertEquals(3, snapshot.postedCount);
+
+        stats.onDropped(2);
+        assertEquals(0, stats.snapshot().depth);
+    }
+
+    @Test
+    public void recordsWaitAndRunTimes() {
+        MessageQueueThreadPerfStats stats = new MessageQueueThreadPerfStats();
+        stats.onPosted();
+        stats.onStarted(1000 * US, 400 * US);
+        stats.onFinished(50 * US);
+
+        MessageQueueThreadPerfStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(1, snapshot.waitTime.count);
+        assertEquals(600, snapshot.waitTime.maxMicros);
+        assertEquals(1, snapshot.runTime.count);
+        assertEquals(50, snapshot.runTime.maxMicros);
+    }
+
+    @Test
+    public void exposesTheRunningTask() {
+        MessageQueueThreadPerfStats stats = new MessageQueueThreadPerfStats();
+        assertEquals(0, stats.getCurrentTaskStartNanos());
+
+        stats.onPosted();
+        long sequence = stats.getCurrentTaskSequence();
+        // A start time of 0 would read as nothing running
+        stats.onStarted(0, 0);
+        stats.describeCurrentTask("Module", "method");
+        assertTrue(stats.getCurrentTaskStartNanos() != 0);
+        assertEquals(sequence + 1, stats.getCurrentTaskSequence());
+        assertSame(Thread.currentThread(), stats.getCurrentTaskThread());
+        assertEquals("Module", stats.getCurrentTaskModuleName());
+        assertEquals("method", stats.getCurrentTaskMethodName());
+
+        stats.onFinished(0);
+        assertEquals(0, stats.getCurrentTaskStartNanos());
+        assertNull(stats.getCurrentTaskModuleName());
+        assertNull(stats.getCurrentTaskMethodName());
+    }
+
+    @Test
+    public void resetKeepsTheDepth() {
+        MessageQueueThreadPerfStats stats = new MessageQueueThreadPerfStats();
+        for (int i = 0; i < 4; i++) {
+            stats.onPosted();
+        }
+        stats.onStarted(2 * US, US);
+        stats.onFinished(US);
+        stats.onPriorityChanged(-4);
+
+        stats.resetCounters();
+        MessageQueueThreadPerfStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(3, snapshot.depth);
+        assertEquals(3, snapshot.highWaterMark);
+        assertEquals(0, snapshot.postedCount);
+        assertEquals(0, snapshot.waitTime.count);
+        assertEquals(0, snapshot.runTime.count);
+        assertEquals(0, snapshot.priorityChanges);
+        // The priority is the current one, not a counter
+        assertEquals(-4, snapshot.threadPriority);
+    }
+
+    @Test
+    public void queueCountsWhatItRuns() throws InterruptedException {
+        RingBufferMessageQueueThread queueThread = RingBufferMessageQueueThread.start(
+                "test",
+                0,
+                new QueueThreadExceptionHandler() {
+                    @Override
+                    public void handleException(Exception e) {
+                    }
+                },
+                null);
+        final CountDownLatch ran = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            queueThread.runOnQueue(new Runnable() {
+                @Override
+                public void run() {
+                    ran.countDown();
+                }
+            });
+        }
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        // Waits for the last Runnable to be counted as finished
+        queueThread.quitSynchronous();
+
+        MessageQueueThreadPerfStats.Snapshot snapshot = queueThread.getPerfStats().snapshot();
+        assertEquals(10, snapshot.postedCount);
+        assertEquals(10, snapshot.waitTime.count);
+        assertEquals(10, snapshot.runTime.count);
+        assertEquals(0, snapshot.depth);
+    }
+}
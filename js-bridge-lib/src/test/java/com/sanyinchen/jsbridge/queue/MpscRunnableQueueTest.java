@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MpscRunnableQueueTest {
+
+    private static class Tagged implements Runnable {
+        final int mProducer;
+        final int mSequence;
+
+        Tagged(int producer, int sequence) {
+            mProducer = producer;
+            mSequence = sequence;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Test
+    public void pollsInOfferOrderAcrossSegments() {
+        MpscRunnableQueue queue = new MpscRunnableQueue(4);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        Tagged[] runnables = new Tagged[10];
+        for (int i = 0; i < runnables.length; i++) {
+            runnables[i] = new Tagged(0, i);
+            queue.offer(runnables[i]);
+        }
+        assertFalse(queue.isEmpty());
+        assertSame(runnables[0], queue.peek());
+        for (Tagged runnable : runnables) {
+            assertSame(runnable, queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void clearDropsEverything() {
+        MpscRunnableQueue queue = new MpscRunnableQueue(4);
+        for (int i = 0; i < 7; i++) {
+            queue.offer(new Tagged(0, i));
+        }
+        assertEquals(7, queue.clear());
+        assertTrue(queue.isEmpty());
+
+        Tagged runnable = new Tagged(0, 7);
+        queue.offer(runnable);
+        assertSame(runnable, queue.poll());
+    }
+
+    @Test
+    public void keepsTheOrderOfEachProducer() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 20000;
+        // Small segments so that producers often race to link the next one
+        final MpscRunnableQueue queue = new MpscRunnableQueue(16);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.offer(new Tagged(producer, i));
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        start.countDown();
+
+        int[] nextSequences = new int[producers];
+        int polled = 0;
+        while (polled < producers * perProducer) {
+            Tagged runnable = (Tagged) queue.poll();
+            if (runnable == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(nextSequences[runnable.mProducer], runnable.mSequence);
+            nextSequences[runnable.mProducer]++;
+            polled++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void recordsWhenRunnablesWereOffered() {
+        MpscRunnableQueue queue = new MpscRunnableQueue(4);
+        long before = System.nanoTime();
+        queue.offer(new Tagged(0, 0));
+        long after = System.nanoTime();
+
+        assertTrue(queue.peek() != null);
+        long peekedAt = queue.getPeekedOfferedAtNanos();
+        assertTrue(peekedAt >= before && peekedAt <= after);
+        queue.poll();
+        assertEquals(peekedAt, queue.getPolledOfferedAtNanos());
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import com.sanyinchen.jsbridge.queue.MessageQueueThread.Priority;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PriorityRunnableQueueTest {
+
+    private static class Named implements Runnable {
+        final String mName;
+
+        Named(String name) {
+            mName = name;
+        }
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        public String toString() {
+            return mName;
+        }
+    }
+
+    @Test
+    public void pollsHigherLanesFirst() {
+        checkPollsHigherLanesFirst(new PriorityRunnableQueue());
+        checkPollsHigherLanesFirst(new PriorityRunnableQueue(true));
+    }
+
+    private static void checkPollsHigherLanesFirst(PriorityRunnableQueue queue) {
+        Named idle = new Named("idle");
+        Named normal1 = new Named("normal1");
+        Named normal2 = new Named("normal2");
+        Named immediate = new Named("immediate");
+        queue.offer(idle, Priority.IDLE);
+        queue.offer(normal1, Priority.NORMAL);
+        queue.offer(immediate, Priority.IMMEDIATE);
+        queue.offer(normal2, Priority.NORMAL);
+
+        assertSame(immediate, queue.poll());
+        assertSame(normal1, queue.poll());
+        assertSame(normal2, queue.poll());
+        assertSame(idle, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void normalRunsAfterTooManyImmediatesInARow() {
+        PriorityRunnableQueue queue = new PriorityRunnableQueue();
+        Named normal = new Named("normal");
+        queue.offer(normal, Priority.NORMAL);
+        for (int i = 0; i < PriorityRunnableQueue.MAX_IMMEDIATE_IN_A_ROW * 2; i++) {
+            queue.offer(new Named("immediate" + i), Priority.IMMEDIATE);
+        }
+
+        for (int i = 0; i < PriorityRunnableQueue.MAX_IMMEDIATE_IN_A_ROW; i++) {
+            assertEquals("immediate" + i, queue.poll().toString());
+        }
+        assertSame(normal, queue.poll());
+        // The count starts over once the NORMAL lane had its turn
+        for (int i = 0; i < PriorityRunnableQueue.MAX_IMMEDIATE_IN_A_ROW; i++) {
+            assertEquals(
+                    "immediate" + (PriorityRunnableQueue.MAX_IMMEDIATE_IN_A_ROW + i),
+                    queue.poll().toString());
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void immediatesDontCountWithoutNormalWaiting() {
+        PriorityRunnableQueue queue = new PriorityRunnableQueue();
+        for (int i = 0; i < PriorityRunnableQueue.MAX_IMMEDIATE_IN_A_ROW + 2; i++) {
+            queue.offer(new Named("immediate" + i), Priority.IMMEDIATE);
+        }
+        Named idle = new Named("idle");
+        queue.offer(idle, Priority.IDLE);
+
+        for (int i = 0; i < PriorityRunnableQueue.MAX_IMMEDIATE_IN_A_ROW + 2; i++) {
+            assertEquals("immediate" + i, queue.poll().toString());
+        }
+        assertSame(idle, queue.poll());
+    }
+
+    @Test
+    public void idleRunsNextOnceItWaitedTooLong() throws InterruptedException {
+        PriorityRunnableQueue queue = new PriorityRunnableQueue();
+        Named idle = new Named("idle");
+        Named fresh = new Named("fresh");
+        queue.offer(idle, Priority.IDLE);
+        Thread.sleep(PriorityRunnableQueue.IDLE_MAX_WAIT_MS + 50);
+        Named normal = new Named("normal");
+        Named immediate = new Named("immediate");
+        queue.offer(normal, Priority.NORMAL);
+        queue.offer(immediate, Priority.IMMEDIATE);
+        queue.offer(fresh, Priority.IDLE);
+
+        assertSame(idle, queue.poll());
+        // Only the IDLE Runnables that waited too long go ahead
+        assertSame(immediate, queue.poll());
+        assertSame(normal, queue.poll());
+        assertSame(fresh, queue.poll());
+    }
+
+    @Test
+    public void clearDropsEveryLane() {
+        PriorityRunnableQueue queue = new PriorityRunnableQueue();
+        queue.offer(new Named("idle"), Priority.IDLE);
+        queue.offer(new Named("normal"), Priority.NORMAL);
+        queue.offer(new Named("immediate"), Priority.IMMEDIATE);
+
+        assertEquals(3, queue.clear());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+}
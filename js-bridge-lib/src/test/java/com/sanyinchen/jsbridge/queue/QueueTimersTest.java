@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import com.sanyinchen.jsbridge.common.futures.SimpleSettableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class QueueTimersTest {
+
+    /**
+     * Keeps what is posted to it, run by the test on its own thread.
+     */
+    private static class FakeQueueThread implements MessageQueueThread {
+        final List<Runnable> mPosted = new ArrayList<>();
+        final List<Priority> mPriorities = new ArrayList<>();
+        boolean mIsOnThread = true;
+
+        @Override
+        public void runOnQueue(Runnable runnable) {
+            runOnQueue(runnable, Priority.NORMAL);
+        }
+
+        @Override
+        public void runOnQueue(Runnable runnable, Priority priority) {
+            mPosted.add(runnable);
+            mPriorities.add(priority);
+        }
+
+        @Override
+        public Cancellable runOnQueueDelayed(Runnable runnable, long delayMs) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Cancellable runAtDeadline(Runnable runnable, long deadlineUptimeMillis, long slackMs) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> SimpleSettableFuture<T> callOnQueue(Callable<T> callable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOnThread() {
+            return mIsOnThread;
+        }
+
+        @Override
+        public void assertIsOnThread() {
+        }
+
+        @Override
+        public void assertIsOnThread(String message) {
+        }
+
+        @Override
+        public void quitSynchronous() {
+        }
+
+        @Override
+        public MessageQueueThreadPerfStats getPerfStats() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void resetPerfStats() {
+        }
+    }
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private final List<Long> mAlarms = new ArrayList<>();
+    private FakeQueueThread mQueueThread;
+    private QueueTimers mTimers;
+
+    @Before
+    public void setUp() {
+        mQueueThread = new FakeQueueThread();
+        mTimers = new QueueTimers(
+                mQueueThread,
+                new QueueTimers.Alarm() {
+                    @Override
+                    public void set(long uptimeMillis) {
+                        mAlarms.add(uptimeMillis);
+                    }
+                });
+    }
+
+    @Test
+    public void alarmGoesOffAtTheEarliestDeadline() {
+        long now = QueueTimers.uptimeMillis();
+        mTimers.schedule(NOOP, now + 60000, 0);
+        assertEquals(now + 60000, lastAlarm());
+        mTimers.schedule(NOOP, now + 30000, 0);
+        assertEquals(now + 30000, lastAlarm());
+        // A later timer leaves the alarm as it is
+        int alarmCount = mAlarms.size();
+        mTimers.schedule(NOOP, now + 45000, 0);
+        assertEquals(alarmCount, mAlarms.size());
+        assertTrue(mQueueThread.mPosted.isEmpty());
+    }
+
+    @Test
+    public void slackRoundsTheDeadlineUp() {
+        long now = QueueTimers.uptimeMillis();
+        // A slack of 20ms rounds up to a multiple of 16ms
+        long deadline = now + 60001;
+        mTimers.schedule(NOOP, deadline, 20);
+        long alarm = lastAlarm();
+        assertEquals(0, alarm % 16);
+        assertTrue(alarm >= deadline && alarm < deadline + 16);
+    }
+
+    @Test
+    public void farDeadlineDoesNotDelayNearerOnes() {
+        long now = QueueTimers.uptimeMillis();
+        mTimers.schedule(NOOP, now + (1L << 26), 0);
+        mTimers.schedule(NOOP, now + 60000, 0);
+        assertTrue(lastAlarm() <= now + 60000);
+    }
+
+    @Test
+    public void postsDueRunnablesToTheNormalLane() throws InterruptedException {
+        long now = QueueTimers.uptimeMillis();
+        Runnable first = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        Runnable second = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        Runnable later = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        mTimers.schedule(second, now + 20, 0);
+        mTimers.schedule(first, now + 10, 0);
+        mTimers.schedule(later, now + 60000, 0);
+        Thread.sleep(30);
+
+        mTimers.onAlarm();
+        assertEquals(2, mQueueThread.mPosted.size());
+        assertSame(first, mQueueThread.mPosted.get(0));
+        assertSame(second, mQueueThread.mPosted.get(1));
+        assertEquals(MessageQueueThread.Priority.NORMAL, mQueueThread.mPriorities.get(0));
+        assertEquals(now + 60000, lastAlarm());
+    }
+
+    @Test
+    public void pastDeadlinesArePostedRightAway() {
+        mTimers.schedule(NOOP, QueueTimers.uptimeMillis() - 100, 0);
+        assertEquals(1, mQueueThread.mPosted.size());
+        // Nothing left to wake up for
+        assertTrue(mAlarms.isEmpty());
+    }
+
+    @Test
+    public void cancelledTimersAreNotPosted() throws InterruptedException {
+        long now = QueueTimers.uptimeMillis();
+        MessageQueueThread.Cancellable timer = mTimers.schedule(NOOP, now + 10, 0);
+        assertTrue(timer.cancel());
+        assertFalse(timer.cancel());
+        Thread.sleep(20);
+
+        mTimers.onAlarm();
+        assertTrue(mQueueThread.mPosted.isEmpty());
+        assertEquals(QueueTimers.NO_ALARM, lastAlarm());
+    }
+
+    @Test
+    public void postedTimersCantBeCancelled() {
+        MessageQueueThread.Cancellable timer =
+                mTimers.schedule(NOOP, QueueTimers.uptimeMillis() - 1, 0);
+        assertEquals(1, mQueueThread.mPosted.size());
+        assertFalse(timer.cancel());
+    }
+
+    @Test
+    public void otherThreadsOnlyWakeTheQueueForEarlierDeadlines() {
+        long now = QueueTimers.uptimeMillis();
+        mTimers.schedule(NOOP, now + 30000, 0);
+        mQueueThread.mIsOnThread = false;
+
+        // Later than the alarm, picked up when it goes off
+        mTimers.schedule(NOOP, now + 60000, 0);
+        assertTrue(mQueueThread.mPosted.isEmpty());
+
+        // Earlier than the alarm, the queue updates it first thing
+        mTimers.schedule(NOOP, now + 10000, 0);
+        assertEquals(1, mQueueThread.mPosted.size());
+        assertEquals(MessageQueueThread.Priority.IMMEDIATE, mQueueThread.mPriorities.get(0));
+        // Only once until the update ran
+        mTimers.schedule(NOOP, now + 5000, 0);
+        assertEquals(1, mQueueThread.mPosted.size());
+
+        mQueueThread.mIsOnThread = true;
+        mQueueThread.mPosted.remove(0).run();
+        assertEquals(now + 5000, lastAlarm());
+    }
+
+    private long lastAlarm() {
+        return mAlarms.get(mAlarms.size() - 1);
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posting to a {@link RingBufferMessageQueueThread} with posting to a Looper backed
+ * queue, from 1 to 8 producer threads. Run it with {@link #main} on a host JVM:
+ *
+ * <pre>
+ *   java -cp ... com.sanyinchen.jsbridge.queue.RingBufferMessageQueueThreadBenchmark
+ * </pre>
+ *
+ * A real {@link android.os.Looper} needs a device, so the baseline is {@link LooperQueue}: it
+ * does what {@link MessageQueueThreadImpl} does for each Runnable, with the same lanes and perf
+ * stats, on {@link Looper}, which queues messages the way {@code android.os.MessageQueue} does.
+ * Both queues then only differ in how Runnables reach their thread. Numbers from a host JVM only
+ * compare the two queues, they don't predict the times on a device.
+ */
+public class RingBufferMessageQueueThreadBenchmark {
+
+    private static final int POSTS_PER_RUN = 1 << 20;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 10;
+    private static final int[] PRODUCER_COUNTS = {1, 2, 4, 8};
+
+    private interface Queue {
+        void post(Runnable runnable);
+
+        void quit();
+    }
+
+    /**
+     * A Message allocated per post, linked into a list under the queue's lock, and a thread waiting
+     * on it when it's empty.
+     */
+    private static class Looper {
+
+        private static class Message {
+            final Runnable mCallback;
+            Message mNext;
+
+            Message(Runnable callback) {
+                mCallback = callback;
+            }
+        }
+
+        private final Thread mThread;
+        private Message mHead;
+        private Message mTail;
+        private boolean mIsQuitting;
+
+        Looper() {
+            mThread = new Thread(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            loop();
+                        }
+                    },
+                    "mqt_looper_baseline");
+            mThread.start();
+        }
+
+        synchronized void post(Runnable runnable) {
+            Message message = new Message(runnable);
+            if (mTail == null) {
+                mHead = message;
+                // Like MessageQueue, only wakes the thread up when it may be waiting
+                notify();
+            } else {
+                mTail.mNext = message;
+            }
+            mTail = message;
+        }
+
+        private void loop() {
+            while (true) {
+                Message message;
+                synchronized (this) {
+                    while (mHead == null && !mIsQuitting) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    if (mIsQuitting) {
+                        return;
+                    }
+                    message = mHead;
+                    mHead = message.mNext;
+                    if (mHead == null) {
+                        mTail = null;
+                    }
+                }
+                message.mCallback.run();
+            }
+        }
+
+        void quit() {
+            synchronized (this) {
+                mIsQuitting = true;
+                notify();
+            }
+            try {
+                mThread.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * The baseline, see the class doc.
+     */
+    private static class LooperQueue implements Queue {
+
+        private final Looper mLooper = new Looper();
+        private final PriorityRunnableQueue mLanes = new PriorityRunnableQueue();
+        private final MessageQueueThreadPerfStats mPerfStats = new MessageQueueThreadPerfStats();
+        private final Runnable mRunNext = new Runnable() {
+            @Override
+            public void run() {
+                Runnable runnable = mLanes.poll();
+                if (runnable == null) {
+                    return;
+                }
+                long startNanos = System.nanoTime();
+                mPerfStats.onStarted(startNanos, mLanes.getPolledOfferedAtNanos());
+                try {
+                    runnable.run();
+                } finally {
+                    mPerfStats.onFinished(System.nanoTime() - startNanos);
+                }
+            }
+        };
+
+        @Override
+        public void post(Runnable runnable) {
+            mPerfStats.onPosted();
+            mLanes.offer(runnable, MessageQueueThread.Priority.NORMAL);
+            mLooper.post(mRunNext);
+        }
+
+        @Override
+        public void quit() {
+            mLooper.quit();
+        }
+    }
+
+    private static class RingBufferQueue implements Queue {
+
+        private final RingBufferMessageQueueThread mQueueThread =
+                RingBufferMessageQueueThread.start(
+                        "ring_buffer",
+                        0,
+                        new QueueThreadExceptionHandler() {
+                            @Override
+                            public void handleException(Exception e) {
+                                throw new RuntimeException(e);
+                            }
+                        },
+                        null);
+
+        @Override
+        public void post(Runnable runnable) {
+            mQueueThread.runOnQueue(runnable);
+        }
+
+        @Override
+        public void quit() {
+            mQueueThread.quitSynchronous();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("producers  looper ns/post  ring buffer ns/post");
+        for (int producers : PRODUCER_COUNTS) {
+            System.out.println(String.format(
+                    "%9d  %14.1f  %19.1f",
+                    producers,
+                    measure(new LooperQueue(), producers),
+                    measure(new RingBufferQueue(), producers)));
+        }
+    }
+
+    /**
+     * @return the median time from the first post of a run to the last Runnable run, per post
+     */
+    private static double measure(Queue queue, int producers) throws InterruptedException {
+        double[] nanosPerPost = new double[MEASURED_RUNS];
+        for (int i = 0; i < WARMUP_RUNS + MEASURED_RUNS; i++) {
+            long nanos = run(queue, producers);
+            if (i >= WARMUP_RUNS) {
+                nanosPerPost[i - WARMUP_RUNS] = (double) nanos / POSTS_PER_RUN;
+            }
+        }
+        queue.quit();
+        Arrays.sort(nanosPerPost);
+        return nanosPerPost[MEASURED_RUNS / 2];
+    }
+
+    private static long run(final Queue queue, int producers) throws InterruptedException {
+        final int postsPerProducer = POSTS_PER_RUN / producers;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(postsPerProducer * producers);
+        final Runnable countDown = new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        };
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < postsPerProducer; j++) {
+                        queue.post(countDown);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        if (!done.await(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Runnables still pending: " + done.getCount());
+        }
+        long nanos = System.nanoTime() - startNanos;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return nanos;
+    }
+}
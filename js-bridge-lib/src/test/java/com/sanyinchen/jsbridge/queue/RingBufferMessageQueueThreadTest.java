@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferMessageQueueThreadTest {
+
+    private final List<Exception> mExceptions =
+            Collections.synchronizedList(new ArrayList<Exception>());
+    private RingBufferMessageQueueThread mQueueThread;
+
+    @Before
+    public void setUp() {
+        mQueueThread = RingBufferMessageQueueThread.start(
+                "test",
+                0,
+                new QueueThreadExceptionHandler() {
+                    @Override
+                    public void handleException(Exception e) {
+                        mExceptions.add(e);
+                    }
+                },
+                null);
+    }
+
+    @After
+    public void tearDown() {
+        mQueueThread.quitSynchronous();
+    }
+
+    @Test
+    public void keepsRunningAfterAnException() throws InterruptedException {
+        final IllegalStateException exception = new IllegalStateException();
+        mQueueThread.runOnQueue(new Runnable() {
+            @Override
+            public void run() {
+                throw exception;
+            }
+        });
+        awaitQueue();
+        assertEquals(1, mExceptions.size());
+        assertSame(exception, mExceptions.get(0));
+    }
+
+    @Test
+    public void keepsRunningAfterAnError() throws InterruptedException {
+        final AssertionError error = new AssertionError();
+        mQueueThread.runOnQueue(new Runnable() {
+            @Override
+            public void run() {
+                throw error;
+            }
+        });
+        awaitQueue();
+        assertEquals(1, mExceptions.size());
+        assertSame(error, mExceptions.get(0).getCause());
+    }
+
+    @Test
+    public void runsTheRunnablesOfAProducerInOrder() throws InterruptedException {
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            final int value = i;
+            mQueueThread.runOnQueue(new Runnable() {
+                @Override
+                public void run() {
+                    order.add(value);
+                }
+            });
+        }
+        awaitQueue();
+        assertEquals(5000, order.size());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    private void awaitQueue() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        mQueueThread.runOnQueue(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+}
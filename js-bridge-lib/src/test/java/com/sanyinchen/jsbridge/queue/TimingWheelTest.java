@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.queue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+    private static final long RANGE = 1L << (TimingWheel.SLOT_BITS * TimingWheel.LEVELS);
+
+    @Test
+    public void expiresEntriesInTickOrder() {
+        TimingWheel wheel = new TimingWheel(0);
+        TimingWheel.Entry late = new TimingWheel.Entry(5000);
+        TimingWheel.Entry early = new TimingWheel.Entry(70);
+        TimingWheel.Entry now = new TimingWheel.Entry(0);
+        wheel.add(late);
+        wheel.add(early);
+        wheel.add(now);
+        assertEquals(0, wheel.nextExpiryTick());
+
+        List<TimingWheel.Entry> expired = new ArrayList<>();
+        wheel.advance(69, expired);
+        assertEquals(1, expired.size());
+        assertSame(now, expired.get(0));
+        assertEquals(70, wheel.nextExpiryTick());
+
+        wheel.advance(5000, expired);
+        assertEquals(3, expired.size());
+        assertSame(early, expired.get(1));
+        assertSame(late, expired.get(2));
+        assertEquals(TimingWheel.NO_EXPIRY, wheel.nextExpiryTick());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void expiresPastEntriesWithTheNextTick() {
+        TimingWheel wheel = new TimingWheel(0);
+        List<TimingWheel.Entry> expired = new ArrayList<>();
+        wheel.advance(100, expired);
+        TimingWheel.Entry entry = new TimingWheel.Entry(10);
+        wheel.add(entry);
+        assertEquals(101, wheel.nextExpiryTick());
+        wheel.advance(101, expired);
+        assertEquals(1, expired.size());
+        assertSame(entry, expired.get(0));
+    }
+
+    @Test
+    public void removedEntriesDontExpire() {
+        TimingWheel wheel = new TimingWheel(0);
+        TimingWheel.Entry removed = new TimingWheel.Entry(300);
+        TimingWheel.Entry kept = new TimingWheel.Entry(400);
+        wheel.add(removed);
+        wheel.add(kept);
+        wheel.remove(removed);
+        assertFalse(removed.isInWheel());
+        assertEquals(400, wheel.nextExpiryTick());
+
+        List<TimingWheel.Entry> expired = new ArrayList<>();
+        wheel.advance(1000, expired);
+        assertEquals(1, expired.size());
+        assertSame(kept, expired.get(0));
+    }
+
+    @Test
+    public void entryOutOfRangeDoesNotDelayNearerEntries() {
+        TimingWheel wheel = new TimingWheel(0);
+        TimingWheel.Entry far = new TimingWheel.Entry(2 * RANGE);
+        wheel.add(far);
+
+        List<TimingWheel.Entry> expired = new ArrayList<>();
+        wheel.advance(RANGE / 2, expired);
+        assertTrue(expired.isEmpty());
+        // In range, filed in a slot of the top level after the one the far entry was filed in
+        TimingWheel.Entry near = new TimingWheel.Entry(RANGE + RANGE / 4);
+        wheel.add(near);
+        assertTrue(wheel.nextExpiryTick() <= near.mExpiryTick);
+
+        advanceByAlarms(wheel, near.mExpiryTick, expired);
+        assertEquals(1, expired.size());
+        assertSame(near, expired.get(0));
+
+        advanceByAlarms(wheel, far.mExpiryTick, expired);
+        assertEquals(2, expired.size());
+        assertSame(far, expired.get(1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void nextExpiryIsNeverLate() {
+        Random random = new Random(42);
+        for (int run = 0; run < 20; run++) {
+            long now = random.nextInt(1 << 20);
+            TimingWheel wheel = new TimingWheel(now);
+            List<TimingWheel.Entry> pending = new ArrayList<>();
+            List<TimingWheel.Entry> expired = new ArrayList<>();
+            for (int step = 0; step < 2000; step++) {
+                int action = random.nextInt(10);
+                if (action < 5) {
+                    // Up to twice the range of the wheel
+                    long delta = (long) (random.nextDouble() * random.nextDouble() * 2 * RANGE);
+                    TimingWheel.Entry entry = new TimingWheel.Entry(now + delta);
+                    wheel.add(entry);
+                    pending.add(entry);
+                } else if (action < 6 && !pending.isEmpty()) {
+                    wheel.remove(pending.remove(random.nextInt(pending.size())));
+                } else {
+                    long next = wheel.nextExpiryTick();
+                    assertTrue(next <= earliestExpiry(pending, now));
+                    // Wake up at the alarm, or earlier as another Runnable would
+                    long target = next == TimingWheel.NO_EXPIRY || random.nextBoolean()
+                            ? now + random.nextInt(1 << 22)
+                            : next;
+                    if (target > next) {
+                        target = next;
+                    }
+                    now = Math.max(now, target);
+                    wheel.advance(now, expired);
+                    checkExpired(pending, expired, now);
+                }
+                assertEquals(pending.size(), wheel.size());
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel as {@link QueueTimers} does, waking up at each alarm only, up to
+     * {@code untilTick}.
+     */
+    private static void advanceByAlarms(
+            TimingWheel wheel,
+            long untilTick,
+            List<TimingWheel.Entry> expired) {
+        long next;
+        while ((next = wheel.nextExpiryTick()) <= untilTick) {
+            wheel.advance(next, expired);
+        }
+    }
+
+    private static long earliestExpiry(List<TimingWheel.Entry> pending, long now) {
+        long earliest = TimingWheel.NO_EXPIRY;
+        for (TimingWheel.Entry entry : pending) {
+            earliest = Math.min(earliest, Math.max(entry.mExpiryTick, now));
+        }
+        return earliest;
+    }
+
+    private static void checkExpired(
+            List<TimingWheel.Entry> pending,
+            List<TimingWheel.Entry> expired,
+            long now) {
+        long previousTick = Long.MIN_VALUE;
+        for (TimingWheel.Entry entry : expired) {
+            assertTrue(entry.mExpiryTick <= now);
+            assertTrue(entry.mExpiryTick >= previousTick);
+            assertFalse(entry.isInWheel());
+            assertTrue(pending.remove(entry));
+            previousTick = entry.mExpiryTick;
+        }
+        expired.clear();
+        for (TimingWheel.Entry entry : pending) {
+            assertTrue(entry.mExpiryTick > now);
+        }
+    }
+}
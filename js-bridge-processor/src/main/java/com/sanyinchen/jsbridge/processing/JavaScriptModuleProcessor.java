@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ * <p>
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.processing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates an implementation of every {@code JavaScriptModule} interface, so calls into JS skip
+ * {@code java.lang.reflect.Proxy} and encode their arguments in a single native call instead of
+ * one JNI call per argument.
+ *
+ * <p>Interfaces aren't annotated, so this processor looks at every type being compiled. Interfaces
+ * that can't be implemented directly (unsupported argument types, overloads, generics) are skipped
+ * and keep using a proxy at runtime.
+ */
+public class JavaScriptModuleProcessor extends AbstractProcessor {
+
+    static final String JAVA_SCRIPT_MODULE = "com.sanyinchen.jsbridge.module.js.JavaScriptModule";
+
+    // Keep these in sync with JavaScriptModuleRegistry
+    static final String IMPLEMENTATION_SUFFIX = "$$JSModule";
+    private static final String INSTANCE = "com.sanyinchen.jsbridge.base.JsBridgeInstance";
+    private static final String ARGUMENTS = "com.sanyinchen.jsbridge.module.js.JavaScriptModuleArguments";
+
+    // JavaScriptModuleArguments method used to encode each supported argument type
+    private static final Map<String, String> PUSH_METHODS = new HashMap<>();
+
+    static {
+        PUSH_METHODS.put("boolean", "pushBoolean");
+        PUSH_METHODS.put("java.lang.Boolean", "pushBoolean");
+        PUSH_METHODS.put("int", "pushDouble");
+        PUSH_METHODS.put("java.lang.Integer", "pushDouble");
+        PUSH_METHODS.put("double", "pushDouble");
+        PUSH_METHODS.put("java.lang.Double", "pushDouble");
+        PUSH_METHODS.put("float", "pushDouble");
+        PUSH_METHODS.put("java.lang.Float", "pushDouble");
+        PUSH_METHODS.put("java.lang.String", "pushString");
+        PUSH_METHODS.put("com.sanyinchen.jsbridge.data.WritableArray", "pushArray");
+        PUSH_METHODS.put("com.sanyinchen.jsbridge.data.WritableNativeArray", "pushArray");
+        PUSH_METHODS.put("com.sanyinchen.jsbridge.data.WritableMap", "pushMap");
+        PUSH_METHODS.put("com.sanyinchen.jsbridge.data.WritableNativeMap", "pushMap");
+        PUSH_METHODS.put("java.nio.ByteBuffer", "pushByteBuffer");
+    }
+
+    private Filer mFiler;
+    private Elements mElements;
+    private Messager mMessager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        mFiler = processingEnv.getFiler();
+        mElements = processingEnv.getElementUtils();
+        mMessager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (mElements.getTypeElement(JAVA_SCRIPT_MODULE) == null) {
+            return false;
+        }
+        List<TypeElement> moduleInterfaces = new ArrayList<>();
+        for (Element element : roundEnv.getRootElements()) {
+            collectModuleInterfaces(element, moduleInterfaces);
+        }
+        for (TypeElement moduleInterface : moduleInterfaces) {
+            List<ExecutableElement> methods = new ArrayList<>();
+            String unsupportedReason = getUnsupportedReason(moduleInterface, methods);
+            if (unsupportedReason != null) {
+                mMessager.printMessage(
+                        Diagnostic.Kind.NOTE,
+                        "Not generating an implementation of " + moduleInterface.getQualifiedName() +
+                                ", " + unsupportedReason + ". It will be called through a proxy.",
+                        moduleInterface);
+                continue;
+            }
+            try {
+                writeImplementation(moduleInterface, methods);
+            } catch (IOException e) {
+                mMessager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), moduleInterface);
+            }
+        }
+        // Never claim anything, every annotation is still processed by the other processors
+        return false;
+    }
+
+    private static void collectModuleInterfaces(Element element, List<TypeElement> moduleInterfaces) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        if (type.getKind() == ElementKind.INTERFACE && extendsJavaScriptModule(type)) {
+            moduleInterfaces.add(type);
+        }
+        for (Element enclosed : type.getEnclosedElements()) {
+            collectModuleInterfaces(enclosed, moduleInterfaces);
+        }
+    }
+
+    private static boolean extendsJavaScriptModule(TypeElement type) {
+        for (TypeMirror superInterface : type.getInterfaces()) {
+            if (getTypeName(superInterface).equals(JAVA_SCRIPT_MODULE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills {@code methods} with the methods to implement.
+     *
+     * @return why no implementation can be generated for {@code moduleInterface}, or {@code null}
+     */
+    private static String getUnsupportedReason(
+            TypeElement moduleInterface, List<ExecutableElement> methods) {
+        if (!moduleInterface.getTypeParameters().isEmpty()) {
+            return "interface is generic";
+        }
+        if (moduleInterface.getInterfaces().size() != 1) {
+            return "interface extends other interfaces than JavaScriptModule";
+        }
+        for (Element enclosing = moduleInterface; enclosing instanceof TypeElement;
+             enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                return "interface is private";
+            }
+        }
+        Set<String> names = new HashSet<>();
+        for (Element element : moduleInterface.getEnclosedElements()) {
+            if (element.getKind() != ElementKind.METHOD ||
+                    !element.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) element;
+            String name = method.getSimpleName().toString();
+            if (!names.add(name)) {
+                return "method " + name + " is overloaded";
+            }
+            if (method.getReturnType().getKind() != TypeKind.VOID) {
+                return "method " + name + " doesn't return void";
+            }
+            if (!method.getTypeParameters().isEmpty()) {
+                return "method " + name + " is generic";
+            }
+            if (method.isVarArgs()) {
+                return "method " + name + " takes varargs";
+            }
+            for (VariableElement parameter : method.getParameters()) {
+                String type = getTypeName(parameter.asType());
+                if (!PUSH_METHODS.containsKey(type)) {
+                    return "method " + name + " takes unsupported argument type " + type;
+                }
+            }
+            methods.add(method);
+        }
+        return null;
+    }
+
+    // Type annotations would show up in TypeMirror#toString, so build the name from the element
+    private static String getTypeName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase();
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declaredType = (DeclaredType) type;
+            if (declaredType.getTypeArguments().isEmpty()) {
+                return ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+            }
+        }
+        return type.toString();
+    }
+
+    private void writeImplementation(TypeElement moduleInterface, List<ExecutableElement> methods)
+            throws IOException {
+        String packageName = ReactModuleMethodProcessor.getPackageName(mElements, moduleInterface);
+        String className = ReactModuleMethodProcessor.getBinarySimpleName(moduleInterface) +
+                IMPLEMENTATION_SUFFIX;
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ").append(getClass().getSimpleName()).append(". Do not edit.\n\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("public final class ").append(className)
+                .append(" implements ").append(moduleInterface.getQualifiedName()).append(" {\n\n");
+        out.append("    private final ").append(INSTANCE).append(" mInstance;\n");
+        out.append("    private final int mModuleId;\n");
+        out.append("    private final int[] mMethodIds;\n\n");
+
+        out.append("    public ").append(className).append("(").append(INSTANCE).append(" instance) {\n");
+        out.append("        mInstance = instance;\n");
+        out.append("        mModuleId = instance.internJSName(\"")
+                .append(moduleInterface.getSimpleName()).append("\");\n");
+        out.append("        mMethodIds = new int[] {");
+        for (int i = 0; i < methods.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append("instance.internJSName(\"")
+                    .append(methods.get(i).getSimpleName()).append("\")");
+        }
+        out.append("};\n");
+        out.append("    }\n");
+
+        for (int i = 0; i < methods.size(); i++) {
+            writeMethod(out, i, methods.get(i));
+        }
+        out.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try (Writer writer = mFiler.createSourceFile(qualifiedName, moduleInterface).openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    private static void writeMethod(StringBuilder out, int methodId, ExecutableElement method) {
+        List<? extends VariableElement> parameters = method.getParameters();
+        out.append("\n    @Override\n");
+        out.append("    public void ").append(method.getSimpleName()).append("(");
+        for (int i = 0; i < parameters.size(); i++) {
+            out.append(i == 0 ? "" : ", ")
+                    .append(getTypeName(parameters.get(i).asType())).append(" arg").append(i);
+        }
+        out.append(") {\n");
+        out.append("        ").append(ARGUMENTS).append(" arguments = new ").append(ARGUMENTS)
+                .append("(").append(parameters.size()).append(");\n");
+        for (int i = 0; i < parameters.size(); i++) {
+            out.append("        arguments.").append(PUSH_METHODS.get(getTypeName(parameters.get(i).asType())))
+                    .append("(arg").append(i).append(");\n");
+        }
+        out.append("        mInstance.callFunction(mModuleId, mMethodIds[").append(methodId)
+                .append("], arguments);\n");
+        out.append("    }\n");
+    }
+}
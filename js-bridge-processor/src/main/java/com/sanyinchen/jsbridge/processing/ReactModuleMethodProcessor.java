@@ -0,0 +1,593 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ * <p>
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.sanyinchen.jsbridge.processing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@code NativeMethodDispatcher} for every class declaring
+ * {@code @ReactMethod}s, so JS->Java calls can skip {@code Method.invoke}.
+ *
+ * <p>The annotations are referenced by name so that this processor doesn't depend on the Android
+ * library that declares them. Classes that can't be dispatched directly (private methods,
+ * unsupported argument types) are skipped and keep using reflection at runtime.
+ */
+public class ReactModuleMethodProcessor extends AbstractProcessor {
+
+    static final String REACT_METHOD = "com.sanyinchen.jsbridge.annotation.ReactMethod";
+    static final String REACT_MODULE = "com.sanyinchen.jsbridge.annotation.ReactModule";
+
+    // Keep these in sync with NativeMethodDispatchers and BaseJavaModule
+    static final String DISPATCHER_SUFFIX = "$$MethodDispatcher";
+    private static final String DISPATCHER_INTERFACE =
+            "com.sanyinchen.jsbridge.module.impl.java.NativeMethodDispatcher";
+    private static final String DISPATCHERS = "com.sanyinchen.jsbridge.module.impl.java.NativeMethodDispatchers";
+    static final String INDEX_CLASS_NAME = "GeneratedNativeMethodIndex";
+    private static final String INDEX_INTERFACE = "com.sanyinchen.jsbridge.module.impl.java.NativeMethodIndex";
+    private static final String METHOD_INFO = "com.sanyinchen.jsbridge.module.impl.java.NativeMethodInfo";
+    private static final String PRIORITY = "com.sanyinchen.jsbridge.queue.MessageQueueThread.Priority";
+    private static final String DEFAULT_PRIORITY = "NORMAL";
+
+    private Filer mFiler;
+    private Elements mElements;
+    private Messager mMessager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        mFiler = processingEnv.getFiler();
+        mElements = processingEnv.getElementUtils();
+        mMessager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new HashSet<>();
+        types.add(REACT_METHOD);
+        types.add(REACT_MODULE);
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement reactMethod = mElements.getTypeElement(REACT_METHOD);
+        if (reactMethod == null) {
+            return false;
+        }
+
+        Map<TypeElement, List<ExecutableElement>> methodsByClass = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(reactMethod)) {
+            if (element.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+            TypeElement enclosingClass = (TypeElement) element.getEnclosingElement();
+            List<ExecutableElement> methods = methodsByClass.get(enclosingClass);
+            if (methods == null) {
+                methods = new ArrayList<>();
+                methodsByClass.put(enclosingClass, methods);
+            }
+            methods.add((ExecutableElement) element);
+        }
+
+        Map<String, Map<String, List<ReactMethodModel>>> indexedClassesByPackage = new LinkedHashMap<>();
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : methodsByClass.entrySet()) {
+            TypeElement moduleClass = entry.getKey();
+            List<ReactMethodModel> methods = new ArrayList<>();
+            Set<String> names = new HashSet<>();
+            String unsupportedReason = null;
+            for (ExecutableElement method : entry.getValue()) {
+                if (!names.add(method.getSimpleName().toString())) {
+                    unsupportedReason = "method " + method.getSimpleName() + " is overloaded";
+                    break;
+                }
+                ReactMethodModel model = ReactMethodModel.create(
+                        method,
+                        isBlockingSynchronousMethod(method),
+                        getPriority(method),
+                        sharesInFlightCalls(method));
+                if (model.getUnsupportedReason() != null) {
+                    unsupportedReason = model.getUnsupportedReason();
+                    break;
+                }
+                methods.add(model);
+            }
+            if (unsupportedReason == null && moduleClass.getModifiers().contains(Modifier.PRIVATE)) {
+                unsupportedReason = "class is private";
+            }
+            if (unsupportedReason != null) {
+                mMessager.printMessage(
+                        Diagnostic.Kind.NOTE,
+                        "Not generating a method dispatcher for " + moduleClass.getQualifiedName() +
+                                ", " + unsupportedReason + ". Its methods will be called through reflection.",
+                        moduleClass);
+                continue;
+            }
+            Collections.sort(methods);
+            try {
+                writeDispatcher(moduleClass, methods);
+            } catch (IOException e) {
+                mMessager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), moduleClass);
+                continue;
+            }
+
+            String packageName = getPackageName(mElements, moduleClass);
+            Map<String, List<ReactMethodModel>> indexedClasses = indexedClassesByPackage.get(packageName);
+            if (indexedClasses == null) {
+                indexedClasses = new LinkedHashMap<>();
+                indexedClassesByPackage.put(packageName, indexedClasses);
+            }
+            String binaryName = packageName.isEmpty() ?
+                    getBinarySimpleName(moduleClass) : packageName + "." + getBinarySimpleName(moduleClass);
+            indexedClasses.put(binaryName, methods);
+        }
+
+        for (Map.Entry<String, Map<String, List<ReactMethodModel>>> entry :
+                indexedClassesByPackage.entrySet()) {
+            try {
+                writeIndex(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                mMessager.printMessage(Diagnostic.Kind.ERROR, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBlockingSynchronousMethod(ExecutableElement method) {
+        return Boolean.TRUE.equals(getReactMethodValue(method, "isBlockingSynchronousMethod"));
+    }
+
+    private static boolean sharesInFlightCalls(ExecutableElement method) {
+        return Boolean.TRUE.equals(getReactMethodValue(method, "shareInFlightCalls"));
+    }
+
+    /**
+     * @return the name of the {@code MessageQueueThread.Priority} constant the method asked for
+     */
+    private static String getPriority(ExecutableElement method) {
+        Object priority = getReactMethodValue(method, "priority");
+        // Enum constants are represented by their VariableElement
+        return priority instanceof VariableElement ?
+                ((VariableElement) priority).getSimpleName().toString() : DEFAULT_PRIORITY;
+    }
+
+    /**
+     * @return the value explicitly given to the {@code @ReactMethod} element {@code name}, or null
+     */
+    private static Object getReactMethodValue(ExecutableElement method, String name) {
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            if (!annotation.getAnnotationType().toString().equals(REACT_METHOD)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value :
+                    annotation.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals(name)) {
+                    return value.getValue().getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    static String getBinarySimpleName(TypeElement type) {
+        Element enclosing = type.getEnclosingElement();
+        if (enclosing instanceof TypeElement) {
+            return getBinarySimpleName((TypeElement) enclosing) + "$" + type.getSimpleName();
+        }
+        return type.getSimpleName().toString();
+    }
+
+    static String getPackageName(Elements elements, TypeElement type) {
+        PackageElement packageElement = elements.getPackageOf(type);
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    private void writeDispatcher(TypeElement moduleClass, List<ReactMethodModel> methods)
+            throws IOException {
+        String packageName = getPackageName(mElements, moduleClass);
+        String dispatcherName = getBinarySimpleName(moduleClass) + DISPATCHER_SUFFIX;
+        String moduleType = moduleClass.getQualifiedName().toString();
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ").append(getClass().getSimpleName()).append(". Do not edit.\n\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("public final class ").append(dispatcherName)
+                .append(" implements ").append(DISPATCHER_INTERFACE).append(" {\n\n");
+
+        // Sync methods are called from C++ through MethodInvoker, never through invoke()
+        List<ReactMethodModel> asyncMethods = new ArrayList<>();
+        for (ReactMethodModel method : methods) {
+            if (!method.isSync()) {
+                asyncMethods.add(method);
+            }
+        }
+
+        out.append("    private static final String[] METHOD_NAMES = {");
+        for (int i = 0; i < asyncMethods.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append('"').append(asyncMethods.get(i).getName()).append('"');
+        }
+        out.append("};\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public String[] getMethodNames() {\n");
+        out.append("        return METHOD_NAMES;\n");
+        out.append("    }\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public void invoke(\n");
+        out.append("            com.sanyinchen.jsbridge.module.bridge.NativeModule module,\n");
+        out.append("            com.sanyinchen.jsbridge.base.JSInstance jsInstance,\n");
+        out.append("            int methodId,\n");
+        out.append("            com.sanyinchen.jsbridge.data.ReadableArray parameters) {\n");
+        out.append("        ").append(moduleType).append(" target = (").append(moduleType).append(") module;\n");
+        out.append("        switch (methodId) {\n");
+        for (int i = 0; i < asyncMethods.size(); i++) {
+            writeCase(out, i, asyncMethods.get(i));
+        }
+        out.append("            default:\n");
+        out.append("                throw new IllegalArgumentException(\"Unknown method id \" + methodId + \" for \" + module.getName());\n");
+        out.append("        }\n");
+        out.append("    }\n");
+        out.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? dispatcherName : packageName + "." + dispatcherName;
+        try (Writer writer = mFiler.createSourceFile(qualifiedName, moduleClass).openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    private void writeIndex(String packageName, Map<String, List<ReactMethodModel>> indexedClasses)
+            throws IOException {
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ").append(getClass().getSimpleName()).append(". Do not edit.\n\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("public final class ").append(INDEX_CLASS_NAME)
+                .append(" implements ").append(INDEX_INTERFACE).append(" {\n\n");
+        out.append("    @Override\n");
+        out.append("    public ").append(METHOD_INFO).append("[] getMethods(String className) {\n");
+        out.append("        switch (className) {\n");
+        for (Map.Entry<String, List<ReactMethodModel>> entry : indexedClasses.entrySet()) {
+            out.append("            case \"").append(entry.getKey()).append("\":\n");
+            out.append("                return new ").append(METHOD_INFO).append("[] {\n");
+            for (ReactMethodModel method : entry.getValue()) {
+                out.append("                        new ").append(METHOD_INFO).append("(\"")
+                        .append(method.getName()).append("\", \"")
+                        .append(method.getType()).append("\", \"")
+                        .append(method.getSignature()).append("\", ");
+                if (method.isSync()) {
+                    out.append("new Class<?>[] {");
+                    List<ReactMethodModel.Argument> arguments = method.getArguments();
+                    for (int i = 0; i < arguments.size(); i++) {
+                        out.append(i == 0 ? "" : ", ").append(arguments.get(i).getType()).append(".class");
+                    }
+                    out.append("}");
+                } else {
+                    out.append("null");
+                }
+                if (!DEFAULT_PRIORITY.equals(method.getPriority()) || method.sharesInFlightCalls()) {
+                    out.append(", ").append(PRIORITY).append(".").append(method.getPriority());
+                }
+                if (method.sharesInFlightCalls()) {
+                    out.append(", true");
+                }
+                out.append("),\n");
+            }
+            out.append("                };\n");
+        }
+        out.append("            default:\n");
+        out.append("                return null;\n");
+        out.append("        }\n");
+        out.append("    }\n");
+        out.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? INDEX_CLASS_NAME : packageName + "." + INDEX_CLASS_NAME;
+        try (Writer writer = mFiler.createSourceFile(qualifiedName).openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    private static void writeCase(StringBuilder out, int methodId, ReactMethodModel method) {
+        List<ReactMethodModel.Argument> arguments = method.getArguments();
+        String name = method.getName();
+        out.append("            case ").append(methodId).append(": {\n");
+        out.append("                ").append(DISPATCHERS).append(".assertArgumentCount(module, \"")
+                .append(name).append("\", parameters, ").append(method.getJSArgumentsNeeded()).append(");\n");
+        for (int i = 0; i < arguments.size(); i++) {
+            out.append("                ").append(arguments.get(i).getType()).append(" arg").append(i).append(";\n");
+        }
+        if (!arguments.isEmpty()) {
+            out.append("                int index = 0;\n");
+            out.append("                try {\n");
+            int jsIndex = 0;
+            for (int i = 0; i < arguments.size(); i++) {
+                ReactMethodModel.Argument argument = arguments.get(i);
+                out.append("                    index = ").append(jsIndex).append(";\n");
+                out.append("                    arg").append(i).append(" = ")
+                        .append(argument.getExtractExpression(jsIndex)).append(";\n");
+                jsIndex += argument.getJSArgumentsNeeded();
+            }
+            out.append("                } catch (com.sanyinchen.jsbridge.exception.UnexpectedNativeTypeException e) {\n");
+            out.append("                    throw ").append(DISPATCHERS).append(".argumentParseException(module, \"")
+                    .append(name).append("\", index, e);\n");
+            out.append("                }\n");
+        }
+        out.append("                target.").append(name).append("(");
+        for (int i = 0; i < arguments.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append("arg").append(i);
+        }
+        out.append(");\n");
+        out.append("                return;\n");
+        out.append("            }\n");
+    }
+
+    /**
+     * The parts of a {@code @ReactMethod} the generated code needs.
+     */
+    static class ReactMethodModel implements Comparable<ReactMethodModel> {
+
+        static final String METHOD_TYPE_ASYNC = "async";
+        static final String METHOD_TYPE_PROMISE = "promise";
+        static final String METHOD_TYPE_SYNC = "sync";
+
+        static class Argument {
+            private final String mType;
+            private final char mSignatureChar;
+            private final String mExtractFormat;
+            private final int mJSArgumentsNeeded;
+
+            Argument(String type, char signatureChar, String extractFormat, int jsArgumentsNeeded) {
+                mType = type;
+                mSignatureChar = signatureChar;
+                mExtractFormat = extractFormat;
+                mJSArgumentsNeeded = jsArgumentsNeeded;
+            }
+
+            String getType() {
+                return mType;
+            }
+
+            char getSignatureChar() {
+                return mSignatureChar;
+            }
+
+            String getExtractExpression(int atIndex) {
+                return String.format(mExtractFormat, atIndex);
+            }
+
+            int getJSArgumentsNeeded() {
+                return mJSArgumentsNeeded;
+            }
+        }
+
+        private final String mName;
+        private final String mType;
+        private final String mSignature;
+        private final List<Argument> mArguments;
+        private final String mPriority;
+        private final boolean mSharesInFlightCalls;
+        private final String mUnsupportedReason;
+
+        private ReactMethodModel(
+                String name,
+                String type,
+                String signature,
+                List<Argument> arguments,
+                String priority,
+                boolean sharesInFlightCalls,
+                String unsupportedReason) {
+            mName = name;
+            mType = type;
+            mSignature = signature;
+            mArguments = arguments;
+            mPriority = priority;
+            mSharesInFlightCalls = sharesInFlightCalls;
+            mUnsupportedReason = unsupportedReason;
+        }
+
+        private static ReactMethodModel unsupported(String name, String reason) {
+            return new ReactMethodModel(name, null, null, null, null, false, reason);
+        }
+
+        static ReactMethodModel create(
+                ExecutableElement method,
+                boolean isSync,
+                String priority,
+                boolean sharesInFlightCalls) {
+            String name = method.getSimpleName().toString();
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                return unsupported(name, "method " + name + " is private");
+            }
+
+            // Keep this in sync with JavaMethodWrapper#buildSignature
+            StringBuilder signature = new StringBuilder();
+            if (isSync) {
+                String returnType = method.getReturnType().toString();
+                char returnChar = returnTypeToChar(returnType);
+                if (returnChar == '\0') {
+                    return unsupported(name, "method " + name + " returns unsupported type " + returnType);
+                }
+                signature.append(returnChar).append('.');
+            } else {
+                signature.append("v.");
+            }
+
+            List<Argument> arguments = new ArrayList<>();
+            List<? extends VariableElement> parameters = method.getParameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                String type = parameters.get(i).asType().toString();
+                Argument argument = argumentFor(type);
+                if (argument == null) {
+                    return unsupported(name, "method " + name + " takes unsupported type " + type);
+                }
+                if (argument.getSignatureChar() == 'P' && i != parameters.size() - 1) {
+                    return unsupported(name, "method " + name + " doesn't take its Promise last");
+                }
+                signature.append(argument.getSignatureChar());
+                arguments.add(argument);
+            }
+
+            String type;
+            if (isSync) {
+                type = METHOD_TYPE_SYNC;
+            } else if (!arguments.isEmpty() && arguments.get(arguments.size() - 1).getSignatureChar() == 'P') {
+                type = METHOD_TYPE_PROMISE;
+            } else {
+                type = METHOD_TYPE_ASYNC;
+            }
+            // Only promise methods have a result to share
+            return new ReactMethodModel(
+                    name,
+                    type,
+                    signature.toString(),
+                    arguments,
+                    priority,
+                    sharesInFlightCalls && METHOD_TYPE_PROMISE.equals(type),
+                    null);
+        }
+
+        // Keep this in sync with JavaMethodWrapper#buildArgumentExtractors and #paramTypeToChar
+        private static Argument argumentFor(String type) {
+            switch (type) {
+                case "boolean":
+                    return new Argument(type, 'z', "parameters.getBoolean(%d)", 1);
+                case "java.lang.Boolean":
+                    return new Argument(type, 'Z', "parameters.getBoolean(%d)", 1);
+                case "int":
+                    return new Argument(type, 'i', "(int) parameters.getDouble(%d)", 1);
+                case "java.lang.Integer":
+                    return new Argument(type, 'I', "(int) parameters.getDouble(%d)", 1);
+                case "double":
+                    return new Argument(type, 'd', "parameters.getDouble(%d)", 1);
+                case "java.lang.Double":
+                    return new Argument(type, 'D', "parameters.getDouble(%d)", 1);
+                case "float":
+                    return new Argument(type, 'f', "(float) parameters.getDouble(%d)", 1);
+                case "java.lang.Float":
+                    return new Argument(type, 'F', "(float) parameters.getDouble(%d)", 1);
+                case "java.lang.String":
+                    return new Argument(type, 'S', "parameters.getString(%d)", 1);
+                case "com.sanyinchen.jsbridge.data.ReadableMap":
+                    return new Argument(type, 'M', "parameters.getMap(%d)", 1);
+                case "com.sanyinchen.jsbridge.data.ReadableArray":
+                    return new Argument(type, 'A', "parameters.getArray(%d)", 1);
+                case "com.sanyinchen.jsbridge.data.Dynamic":
+                    return new Argument(
+                            type, 'Y', "com.sanyinchen.jsbridge.data.DynamicFromArray.create(parameters, %d)", 1);
+                case "java.nio.ByteBuffer":
+                    return new Argument(type, 'B', "parameters.getByteBuffer(%d)", 1);
+                case "com.sanyinchen.jsbridge.base.Callback":
+                    return new Argument(type, 'X', DISPATCHERS + ".extractCallback(jsInstance, parameters, %d)", 1);
+                case "com.sanyinchen.jsbridge.base.Promise":
+                    return new Argument(type, 'P', DISPATCHERS + ".extractPromise(jsInstance, parameters, %d)", 2);
+                default:
+                    return null;
+            }
+        }
+
+        // Keep this in sync with JavaMethodWrapper#returnTypeToChar
+        private static char returnTypeToChar(String type) {
+            switch (type) {
+                case "void":
+                    return 'v';
+                case "com.sanyinchen.jsbridge.data.WritableMap":
+                    return 'M';
+                case "com.sanyinchen.jsbridge.data.WritableArray":
+                    return 'A';
+                case "com.sanyinchen.jsbridge.base.Callback":
+                case "com.sanyinchen.jsbridge.base.Promise":
+                case "com.sanyinchen.jsbridge.data.ReadableMap":
+                case "com.sanyinchen.jsbridge.data.ReadableArray":
+                case "com.sanyinchen.jsbridge.data.Dynamic":
+                case "java.nio.ByteBuffer":
+                    return '\0';
+                default:
+                    Argument common = argumentFor(type);
+                    return common == null ? '\0' : common.getSignatureChar();
+            }
+        }
+
+        String getName() {
+            return mName;
+        }
+
+        String getType() {
+            return mType;
+        }
+
+        boolean isSync() {
+            return METHOD_TYPE_SYNC.equals(mType);
+        }
+
+        String getSignature() {
+            return mSignature;
+        }
+
+        String getPriority() {
+            return mPriority;
+        }
+
+        boolean sharesInFlightCalls() {
+            return mSharesInFlightCalls;
+        }
+
+        List<Argument> getArguments() {
+            return mArguments;
+        }
+
+        int getJSArgumentsNeeded() {
+            int n = 0;
+            for (Argument argument : mArguments) {
+                n += argument.getJSArgumentsNeeded();
+            }
+            return n;
+        }
+
+        String getUnsupportedReason() {
+            return mUnsupportedReason;
+        }
+
+        @Override
+        public int compareTo(ReactMethodModel other) {
+            return mName.compareTo(other.mName);
+        }
+    }
+}
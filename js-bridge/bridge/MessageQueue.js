@@ -75,6 +75,9 @@ class MessageQueue {
         (this: any).callFunctionReturnResultAndFlushedQueue = this.callFunctionReturnResultAndFlushedQueue.bind(
             this,
         );
+        (this: any).callFunctionsReturnFlushedQueue = this.callFunctionsReturnFlushedQueue.bind(
+            this,
+        );
         (this: any).flushedQueue = this.flushedQueue.bind(this);
         (this: any).invokeCallbackAndReturnFlushedQueue = this.invokeCallbackAndReturnFlushedQueue.bind(
             this,
@@ -109,6 +112,19 @@ class MessageQueue {
         return this.flushedQueue();
     }
 
+    // Calls coalesced by native code, in order. Each call is guarded on its own
+    // so a failing call doesn't drop the ones after it.
+    callFunctionsReturnFlushedQueue(calls: Array<[string, string, any[]]>) {
+        for (let i = 0; i < calls.length; i++) {
+            const call = calls[i];
+            this.__guard(() => {
+                this.__callFunction(call[0], call[1], call[2]);
+            });
+        }
+
+        return this.flushedQueue();
+    }
+
     callFunctionReturnResultAndFlushedQueue(
         module: string,
         method: string,